@@ -0,0 +1,40 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
+import ch.uzh.ifi.hase.soprafs24.service.AiPassingService;
+
+/**
+ * The choice of three cards to pass per strategy, on a freshly dealt hand.
+ */
+@State(Scope.Thread)
+public class AiPassingBenchmark {
+
+    @Param({ "LEFTMOST", "RANDOM", "DUMPHIGHESTFACEFIRST", "GETRIDOFCLUBSTHENHEARTS", "PREFERBLACK",
+            "VOIDSUIT", "HYPATIA", "GARY", "ADA" })
+    public Strategy strategy;
+
+    private AiPassingService aiPassingService;
+    private MatchPlayer matchPlayer;
+
+    @Setup
+    public void setup() {
+        aiPassingService = new AiPassingService(Mockito.mock(PassedCardRepository.class));
+        matchPlayer = BenchmarkFixtures.freshlyDealtPlayer(42);
+    }
+
+    @Benchmark
+    public List<String> selectCardsToPass() {
+        return aiPassingService.selectCardsToPass(matchPlayer, strategy);
+    }
+}
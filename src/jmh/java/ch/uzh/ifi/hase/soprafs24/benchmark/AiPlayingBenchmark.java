@@ -0,0 +1,54 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.service.AiPlayingService;
+import ch.uzh.ifi.hase.soprafs24.service.CardKnowledgeService;
+import ch.uzh.ifi.hase.soprafs24.service.CardRulesService;
+import ch.uzh.ifi.hase.soprafs24.service.GameMetricsService;
+
+/**
+ * One AI card choice per strategy, in the middle of a trick.
+ */
+@State(Scope.Thread)
+public class AiPlayingBenchmark {
+
+    @Param({ "LEFTMOST", "RANDOM", "DUMPHIGHESTFACEFIRST", "GETRIDOFCLUBSTHENHEARTS", "PREFERBLACK",
+            "VOIDSUIT", "HYPATIA", "GARY", "ADA" })
+    public Strategy strategy;
+
+    private AiPlayingService aiPlayingService;
+    private Game game;
+    private MatchPlayer currentPlayer;
+
+    @Setup
+    public void setup() {
+        Match match = BenchmarkFixtures.midTrickMatch(42);
+        game = BenchmarkFixtures.activeGame(match);
+
+        // A warm knowledge cache: the AI does not touch the ledger.
+        CardKnowledgeService cardKnowledgeService = Mockito.mock(CardKnowledgeService.class);
+        Mockito.when(cardKnowledgeService.getKnowledge(game))
+                .thenReturn(CardKnowledge.fromLedger(new GameCardLedger(match, game)));
+        // ISMCTS has a benchmark of its own.
+        aiPlayingService = new AiPlayingService(new CardRulesService(null), cardKnowledgeService,
+                Mockito.mock(GameMetricsService.class));
+        currentPlayer = BenchmarkFixtures.playerInSlot(match, BenchmarkFixtures.CURRENT_SLOT);
+    }
+
+    @Benchmark
+    public String selectCardToPlay() {
+        return aiPlayingService.selectCardToPlay(game, currentPlayer, strategy);
+    }
+}
@@ -0,0 +1,127 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.TrickPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchSummary;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+/**
+ * In-memory match fixtures for the benchmarks. Nothing here touches a
+ * database; the states are consistent enough for the rules, AI and polling
+ * code to take their usual paths.
+ */
+final class BenchmarkFixtures {
+
+    static final int CURRENT_SLOT = 3;
+
+    private BenchmarkFixtures() {
+    } // Prevent instantiation
+
+    /**
+     * A match in its fifth trick: 2C is gone, every player holds nine cards,
+     * slots 1 and 2 have played into the current trick and slot 3 is to play.
+     */
+    static Match midTrickMatch(long seed) {
+        List<String> deck = CardUtils.getFullDeckList();
+        deck.remove(GameConstants.TWO_OF_CLUBS);
+        Collections.shuffle(deck, new Random(seed));
+
+        Match match = new Match();
+        match.setMatchId(1L);
+        match.setMatchGoal(100);
+        match.setHostId(1L);
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        match.setMatchSummary(new MatchSummary());
+
+        List<MatchPlayer> matchPlayers = new ArrayList<>();
+        for (int slot = 1; slot <= 4; slot++) {
+            User user = new User();
+            user.setId((long) slot);
+            user.setUsername("player" + slot);
+            user.setAvatar(slot);
+
+            MatchPlayer matchPlayer = new MatchPlayer();
+            matchPlayer.setMatchPlayerId((long) slot);
+            matchPlayer.setMatch(match);
+            matchPlayer.setUser(user);
+            matchPlayer.setMatchPlayerSlot(slot);
+            matchPlayer.setHand(String.join(",", deck.subList((slot - 1) * 9, slot * 9)));
+            matchPlayer.setTakenCards("");
+            matchPlayer.setMatchScore(10 * slot);
+            matchPlayers.add(matchPlayer);
+        }
+        match.setMatchPlayers(matchPlayers);
+        match.setPlayer1(matchPlayers.get(0).getUser());
+        match.setPlayer2(matchPlayers.get(1).getUser());
+        match.setPlayer3(matchPlayers.get(2).getUser());
+        match.setPlayer4(matchPlayers.get(3).getUser());
+
+        Game game = new Game();
+        game.setGameId(1L);
+        game.setGameNumber(1);
+        game.setMatch(match);
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setHeartsBroken(true);
+        game.setCurrentTrickNumber(5);
+        game.setCurrentPlayOrder(18);
+        game.setTrickLeaderMatchPlayerSlot(1);
+        game.setCurrentMatchPlayerSlot(CURRENT_SLOT);
+        game.setCurrentTrick(List.of(deck.get(36), deck.get(37)));
+        game.setPreviousTrick(List.of(deck.get(38), deck.get(39), deck.get(40), deck.get(41)));
+        game.setPreviousTrickLeaderMatchPlayerSlot(4);
+        game.setPreviousTrickWinnerMatchPlayerSlot(1);
+
+        List<Game> games = new ArrayList<>();
+        games.add(game);
+        match.setGames(games);
+        return match;
+    }
+
+    /**
+     * A game whose current trick is complete, led by slot 2.
+     */
+    static Game completedTrickGame(long seed) {
+        List<String> deck = CardUtils.getFullDeckList();
+        Collections.shuffle(deck, new Random(seed));
+
+        Game game = new Game();
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setTrickLeaderMatchPlayerSlot(2);
+        game.setCurrentTrick(deck.subList(0, GameConstants.MAX_TRICK_SIZE));
+        return game;
+    }
+
+    /**
+     * A player holding a freshly dealt hand of 13 cards.
+     */
+    static MatchPlayer freshlyDealtPlayer(long seed) {
+        List<String> deck = CardUtils.getFullDeckList();
+        Collections.shuffle(deck, new Random(seed));
+
+        MatchPlayer matchPlayer = new MatchPlayer();
+        matchPlayer.setMatchPlayerSlot(1);
+        matchPlayer.setHand(String.join(",", deck.subList(0, 13)));
+        return matchPlayer;
+    }
+
+    static Game activeGame(Match match) {
+        return match.getGames().get(0);
+    }
+
+    static MatchPlayer playerInSlot(Match match, int slot) {
+        return match.getMatchPlayers().get(slot - 1);
+    }
+}
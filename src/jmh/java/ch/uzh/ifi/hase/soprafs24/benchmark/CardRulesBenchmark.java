@@ -0,0 +1,58 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.LegalMoves;
+import ch.uzh.ifi.hase.soprafs24.service.CardRulesService;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * The playable-cards check (every poll of the current player, every AI move,
+ * every play validation) and the trick winner evaluation.
+ */
+@State(Scope.Thread)
+public class CardRulesBenchmark {
+
+    private CardRulesService cardRulesService;
+    private Game game;
+    private MatchPlayer currentPlayer;
+    private Game completedTrickGame;
+
+    private long hand;
+    private int leadSuit;
+
+    @Setup
+    public void setup() {
+        // GameStatsService is not used by the benchmarked methods.
+        cardRulesService = new CardRulesService(null);
+
+        Match match = BenchmarkFixtures.midTrickMatch(42);
+        game = BenchmarkFixtures.activeGame(match);
+        currentPlayer = BenchmarkFixtures.playerInSlot(match, BenchmarkFixtures.CURRENT_SLOT);
+        completedTrickGame = BenchmarkFixtures.completedTrickGame(42);
+
+        hand = CardSet.fromCardCodeString(currentPlayer.getHand());
+        leadSuit = CardSet.suitIndex(game.getSuitOfFirstCardInCurrentTrick().charAt(0));
+    }
+
+    @Benchmark
+    public String getPlayableCardsForMatchPlayer() {
+        return cardRulesService.getPlayableCardsForMatchPlayer(game, currentPlayer, false);
+    }
+
+    @Benchmark
+    public long legalMoves() {
+        return LegalMoves.playableCards(hand, 2, leadSuit, true, false);
+    }
+
+    @Benchmark
+    public int determineTrickWinner() {
+        return cardRulesService.determineTrickWinner(completedTrickGame);
+    }
+}
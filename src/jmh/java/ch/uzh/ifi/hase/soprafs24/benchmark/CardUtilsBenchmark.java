@@ -0,0 +1,63 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+/**
+ * Parsing and normalization of comma separated card code strings, as done for
+ * every hand on every poll.
+ */
+@State(Scope.Thread)
+public class CardUtilsBenchmark {
+
+    private String sortedHand;
+    private String unsortedHand;
+
+    @Setup
+    public void setup() {
+        List<String> deck = CardUtils.getFullDeckList();
+        Collections.shuffle(deck, new Random(42));
+        List<String> hand = deck.subList(0, 13);
+        unsortedHand = String.join(", ", hand);
+        sortedHand = CardUtils.normalizeCardCodeString(unsortedHand);
+    }
+
+    @Benchmark
+    public String normalizeSortedHand() {
+        return CardUtils.normalizeCardCodeString(sortedHand);
+    }
+
+    @Benchmark
+    public String normalizeUnsortedHand() {
+        return CardUtils.normalizeCardCodeString(unsortedHand);
+    }
+
+    @Benchmark
+    public int sizeOfHand() {
+        return CardUtils.sizeOfCardCodeString(sortedHand);
+    }
+
+    @Benchmark
+    public int countValidUniqueCards() {
+        return CardUtils.countValidUniqueCardsInString(sortedHand);
+    }
+
+    @Benchmark
+    public List<String> splitHand() {
+        return CardUtils.requireSplitCardCodesAsListOfStrings(sortedHand);
+    }
+
+    @Benchmark
+    public long parseCardSet() {
+        return CardSet.fromCardCodeString(sortedHand);
+    }
+}
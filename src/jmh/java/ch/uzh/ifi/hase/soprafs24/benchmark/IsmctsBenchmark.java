@@ -0,0 +1,94 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.logic.DealSampler;
+import ch.uzh.ifi.hase.soprafs24.logic.HeartsSimulator;
+import ch.uzh.ifi.hase.soprafs24.logic.IsmctsSearch;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * The building blocks of the ISMCTS strategy, from the first lead of a game:
+ * one deal plus random play-out, and a search of a fixed number of iterations
+ * on a single worker.
+ */
+@State(Scope.Thread)
+public class IsmctsBenchmark {
+
+    private static final int SEARCH_ITERATIONS = 1000;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private HeartsSimulator root;
+    private HeartsSimulator simulator;
+    private DealSampler sampler;
+    private IsmctsSearch search;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        // Deal, and let the holder of 2C lead it; the second player is to move.
+        long[] hands = new long[HeartsSimulator.PLAYERS];
+        long deck = CardSet.FULL_DECK;
+        for (int slot = 0; slot < HeartsSimulator.PLAYERS; slot++) {
+            for (int i = 0; i < 13; i++) {
+                int card = HeartsSimulator.randomCard(deck, random);
+                hands[slot] |= 1L << card;
+                deck &= ~(1L << card);
+            }
+        }
+        int leader = 1;
+        while ((hands[leader - 1] & CardSet.TWO_OF_CLUBS) == 0) {
+            leader++;
+        }
+        int mySlot = leader % HeartsSimulator.PLAYERS + 1;
+        hands[leader - 1] &= ~CardSet.TWO_OF_CLUBS;
+
+        Game game = new Game();
+        game.setGameId(1L);
+        GameCardLedger ledger = new GameCardLedger(new Match(), game);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("2C"), 1);
+        ledger.setPlayedBy(GameCardLedger.cardIndex("2C"), leader);
+
+        long[] known = new long[HeartsSimulator.PLAYERS];
+        known[mySlot - 1] = hands[mySlot - 1];
+        int[] trick = { Long.numberOfTrailingZeros(CardSet.TWO_OF_CLUBS), 0, 0, 0 };
+        root = new HeartsSimulator();
+        root.reset(known, new int[HeartsSimulator.PLAYERS], trick, 1, leader, 1, false);
+
+        int[] handSizes = { 13, 13, 13, 13 };
+        handSizes[leader - 1] = 12;
+        sampler = new DealSampler(CardKnowledge.fromLedger(ledger), mySlot, hands[mySlot - 1], handSizes);
+        simulator = new HeartsSimulator();
+        search = new IsmctsSearch(root, sampler, mySlot);
+        pool = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int dealAndPlayOut() {
+        simulator.copyFrom(root);
+        sampler.deal(simulator, random);
+        simulator.playOut(random);
+        return simulator.getScore(1);
+    }
+
+    @Benchmark
+    public int search() {
+        return search.search(pool, 1, Long.MAX_VALUE, SEARCH_ITERATIONS, random.nextLong()).getCard();
+    }
+}
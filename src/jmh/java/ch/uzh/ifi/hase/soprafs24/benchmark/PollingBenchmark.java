@@ -0,0 +1,74 @@
+package ch.uzh.ifi.hase.soprafs24.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchMessageRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import ch.uzh.ifi.hase.soprafs24.service.CardRulesService;
+import ch.uzh.ifi.hase.soprafs24.service.GameTrickService;
+import ch.uzh.ifi.hase.soprafs24.service.MatchMessageService;
+import ch.uzh.ifi.hase.soprafs24.service.PollingService;
+import ch.uzh.ifi.hase.soprafs24.service.StageTimingService;
+import ch.uzh.ifi.hase.soprafs24.service.TableSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Building the PollingDTO of one player against an in-memory match. The
+ * repositories are stubs that hand out the fixture, so the numbers cover the
+ * assembly of the DTO, not the database.
+ */
+@State(Scope.Thread)
+public class PollingBenchmark {
+
+    /** Slot 3 is to play (playable cards are computed), slot 1 is waiting. */
+    @Param({ "3", "1" })
+    public int pollingSlot;
+
+    private PollingService pollingService;
+    private Match match;
+    private User user;
+    private GameRepository gameRepository;
+    private MatchPlayerRepository matchPlayerRepository;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        CardRulesService cardRulesService = new CardRulesService(null);
+
+        MatchMessageRepository matchMessageRepository = Mockito.mock(MatchMessageRepository.class);
+        Mockito.when(matchMessageRepository.findByMatch(Mockito.any())).thenReturn(List.of());
+        MatchMessageService matchMessageService = new MatchMessageService();
+        Field repositoryField = MatchMessageService.class.getDeclaredField("matchMessageRepository");
+        repositoryField.setAccessible(true);
+        repositoryField.set(matchMessageService, matchMessageRepository);
+
+        matchPlayerRepository = Mockito.mock(MatchPlayerRepository.class);
+        gameRepository = Mockito.mock(GameRepository.class);
+        GameTrickService gameTrickService = new GameTrickService(matchPlayerRepository, cardRulesService);
+        // Stage timing on, as in production.
+        pollingService = new PollingService(cardRulesService, matchMessageService, gameTrickService,
+                new StageTimingService(true, new SimpleMeterRegistry(), 60), new TableSnapshotService());
+
+        match = BenchmarkFixtures.midTrickMatch(42);
+        MatchPlayer matchPlayer = BenchmarkFixtures.playerInSlot(match, pollingSlot);
+        user = matchPlayer.getUser();
+        Mockito.when(matchPlayerRepository.findByUserAndMatch(user, match)).thenReturn(matchPlayer);
+    }
+
+    @Benchmark
+    public PollingDTO getPlayerPolling() {
+        return pollingService.getPlayerPolling(user, match, gameRepository, matchPlayerRepository);
+    }
+}
@@ -0,0 +1,70 @@
+package ch.uzh.ifi.hase.soprafs24.configuration;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ch.uzh.ifi.hase.soprafs24.service.DeckProvider;
+import ch.uzh.ifi.hase.soprafs24.service.ExternalApiClientService;
+import ch.uzh.ifi.hase.soprafs24.service.ExternalApiDeckProvider;
+import ch.uzh.ifi.hase.soprafs24.service.GameMetricsService;
+import ch.uzh.ifi.hase.soprafs24.service.LocalDeckProvider;
+import ch.uzh.ifi.hase.soprafs24.service.PooledDeckProvider;
+import ch.uzh.ifi.hase.soprafs24.service.ResilientDeckProvider;
+import ch.uzh.ifi.hase.soprafs24.util.CircuitBreaker;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class DeckProviderConfig {
+    @Bean("deckProvider")
+    public DeckProvider deckProvider(
+            @Value("${deck.provider:local}") String provider,
+            @Value("${deck.api.attempt-timeout-ms:3000}") long attemptTimeoutMs,
+            @Value("${deck.api.max-retries:2}") int maxRetries,
+            @Value("${deck.api.retry-backoff-ms:100}") long retryBackoffMs,
+            @Value("${deck.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${deck.api.circuit-breaker.open-ms:30000}") long openMs,
+            @Value("${deck.pool.size:0}") int poolSize,
+            @Value("${deck.pool.low-watermark:0}") int poolLowWatermark,
+            @Qualifier("externalApiClientService") ExternalApiClientService externalApiClientService,
+            @Qualifier("gameMetricsService") GameMetricsService gameMetricsService) {
+        DeckProvider deckProvider = createDeckProvider(provider, attemptTimeoutMs, maxRetries, retryBackoffMs,
+                failureThreshold, openMs, externalApiClientService);
+        if (deckProvider instanceof ResilientDeckProvider resilientDeckProvider) {
+            gameMetricsService.monitorDeckApi(resilientDeckProvider);
+        }
+        if (poolSize <= 0) {
+            return deckProvider;
+        }
+        PooledDeckProvider pool = new PooledDeckProvider(deckProvider, poolSize, poolLowWatermark,
+                Schedulers.boundedElastic());
+        gameMetricsService.monitorDeckPool(pool);
+        pool.refill();
+        return pool;
+    }
+
+    private DeckProvider createDeckProvider(String provider, long attemptTimeoutMs, int maxRetries,
+            long retryBackoffMs, int failureThreshold, long openMs,
+            ExternalApiClientService externalApiClientService) {
+        LocalDeckProvider localDeckProvider = new LocalDeckProvider(new SecureRandom());
+        switch (provider) {
+            case "local":
+                return localDeckProvider;
+            case "external-api":
+                // Falls back to shuffling locally while the API is slow or down.
+                return new ResilientDeckProvider(
+                        new ExternalApiDeckProvider(externalApiClientService),
+                        localDeckProvider,
+                        new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs)),
+                        Duration.ofMillis(attemptTimeoutMs),
+                        maxRetries,
+                        Duration.ofMillis(retryBackoffMs));
+            default:
+                throw new IllegalStateException("Unknown deck.provider: " + provider);
+        }
+    }
+}
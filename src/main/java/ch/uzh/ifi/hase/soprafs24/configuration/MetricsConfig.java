@@ -0,0 +1,47 @@
+package ch.uzh.ifi.hase.soprafs24.configuration;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import ch.uzh.ifi.hase.soprafs24.service.GameMetricsService;
+import ch.uzh.ifi.hase.soprafs24.util.StatementCountingInspector;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    // Not there in @WebMvcTest slices, which then simply record nothing.
+    private final ObjectProvider<GameMetricsService> gameMetricsService;
+
+    public MetricsConfig(ObjectProvider<GameMetricsService> gameMetricsService) {
+        this.gameMetricsService = gameMetricsService;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                    @NonNull Object handler) {
+                StatementCountingInspector.reset();
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                    @NonNull Object handler, Exception ex) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                gameMetricsService.ifAvailable(metrics -> metrics.recordRequestStatements(
+                        request.getMethod(),
+                        pattern != null ? pattern.toString() : "UNKNOWN",
+                        StatementCountingInspector.getCount()));
+            }
+        }).excludePathPatterns("/actuator/**");
+    }
+}
@@ -1,9 +1,17 @@
 package ch.uzh.ifi.hase.soprafs24.configuration;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
 @Configuration
 public class WebClientConfig {
     @Bean
@@ -12,8 +20,22 @@ public class WebClientConfig {
     }
 
     @Bean("externalApiClient")
-    public WebClient externalApiClient(WebClient.Builder webClientBuilder) {
-        return webClientBuilder.baseUrl("https://deckofcardsapi.com/api/deck")
+    public WebClient externalApiClient(WebClient.Builder webClientBuilder,
+            @Value("${deck.api.base-url:https://deckofcardsapi.com/api/deck}") String baseUrl,
+            @Value("${deck.api.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${deck.api.read-timeout-ms:2000}") int readTimeoutMs,
+            @Value("${deck.api.max-connections:20}") int maxConnections) {
+        // A slow or unreachable API must not hold a game (or a connection) for long.
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("deck-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+
+        return webClientBuilder.baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader("Content-Type", "application/json")
                 .build();
     }
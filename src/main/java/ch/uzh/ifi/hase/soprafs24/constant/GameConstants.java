@@ -32,6 +32,9 @@ public final class GameConstants {
 
     public static final int TRICK_DELAY_MS = 1500;
 
+    // Time between the cards of AI Players that are played ahead in one go.
+    public static final int AI_RUN_AHEAD_CARD_INTERVAL_MS = 800;
+
     // This is not final, because it may change.
     public static boolean HOSTS_ARE_ALLOWED_TO_LEAVE_THE_MATCH = true;
 
@@ -26,7 +26,10 @@ public enum Strategy {
     GARY(8),
 
     // Think like Ada
-    ADA(9);
+    ADA(9),
+
+    // Search: Monte Carlo tree search over deals consistent with what is known
+    ISMCTS(10);
 
     private final int code;
 
@@ -37,4 +40,31 @@ public enum Strategy {
     public int getCode() {
         return code;
     }
+
+    /**
+     * The strategy of each of the predefined AI users (see
+     * insert_ai_users.sql): ids 1-3 are easy, 4-6 medium and 7-9 difficult.
+     * Spelled out, so that adding a strategy does not move anyone. ISMCTS is
+     * not among them; see IsmctsService#strategyForAiUserId.
+     *
+     * @param userId id of the AI user
+     * @return its strategy, LEFTMOST for unknown ids
+     */
+    public static Strategy forAiUserId(Long userId) {
+        if (userId == null) {
+            return LEFTMOST;
+        }
+        return switch (userId.intValue()) {
+            case 1 -> LEFTMOST;
+            case 2 -> RANDOM;
+            case 3 -> DUMPHIGHESTFACEFIRST;
+            case 4 -> GETRIDOFCLUBSTHENHEARTS;
+            case 5 -> PREFERBLACK;
+            case 6 -> VOIDSUIT;
+            case 7 -> HYPATIA;
+            case 8 -> GARY;
+            case 9 -> ADA;
+            default -> LEFTMOST;
+        };
+    }
 }
@@ -2,13 +2,17 @@ package ch.uzh.ifi.hase.soprafs24.controller;
 
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardRankDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import ch.uzh.ifi.hase.soprafs24.service.LeaderboardService;
 import ch.uzh.ifi.hase.soprafs24.service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -21,11 +25,14 @@ import org.slf4j.LoggerFactory;
 public class LeaderboardController {
 
     private final Logger log = LoggerFactory.getLogger(LeaderboardController.class);
+    private static final int MAX_RANK_RADIUS = 50;
     private final UserService userService;
+    private final LeaderboardService leaderboardService;
 
     @Autowired
-    public LeaderboardController(UserService userService) {
+    public LeaderboardController(UserService userService, LeaderboardService leaderboardService) {
         this.userService = userService;
+        this.leaderboardService = leaderboardService;
     }
 
     @GetMapping
@@ -39,6 +46,11 @@ public class LeaderboardController {
         Sort.Direction direction = Sort.Direction.fromString(order);
         Pageable pageable = PageRequest.of(page, pageSize, Sort.by(direction, sortBy));
 
+        // The usual sort keys are served from the in-memory leaderboard.
+        if (LeaderboardService.isIndexedSortKey(sortBy)) {
+            return leaderboardService.getLeaderboard(filter, pageable);
+        }
+
         Page<User> users = userService.findUsersForLeaderboard(filter, pageable);
         List<LeaderboardDTO> dtos = users.getContent().stream()
                 .map(DTOMapper.INSTANCE::convertToLeaderboardDTO)
@@ -47,6 +59,33 @@ public class LeaderboardController {
         return new PageImpl<>(dtos, pageable, users.getTotalElements());
     }
 
+    /**
+     * The rank of a user for one sort key, with the users ranked up to radius
+     * places above and below them.
+     */
+    @GetMapping("/users/{userId}")
+    public LeaderboardRankDTO getUserRank(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "scoreTotal") String sortBy,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(defaultValue = "5") int radius) {
+        log.info("GET /leaderboard/users/{} called.", userId);
+        if (!LeaderboardService.isIndexedSortKey(sortBy)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot rank by " + sortBy);
+        }
+        if (radius < 0 || radius > MAX_RANK_RADIUS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "radius must be between 0 and " + MAX_RANK_RADIUS);
+        }
+        boolean ascending = Sort.Direction.fromOptionalString(order)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "order must be asc or desc"))
+                .isAscending();
+        return leaderboardService.getRank(userId, sortBy, ascending, radius)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "User is not on the leaderboard"));
+    }
+
     @PostMapping("/populate")
     public ResponseEntity<Void> populateLeaderboardIfEmpty() {
         long count = userService.getUserCount();
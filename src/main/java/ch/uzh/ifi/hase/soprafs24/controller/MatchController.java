@@ -1,14 +1,22 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
 
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import ch.uzh.ifi.hase.soprafs24.service.MatchEventService;
 import ch.uzh.ifi.hase.soprafs24.service.MatchService;
 import ch.uzh.ifi.hase.soprafs24.service.MatchSetupService;
 
+import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,10 +33,13 @@ import java.util.Map;
 public class MatchController {
     private final MatchService matchService;
     private final MatchSetupService matchSetupService;
+    private final MatchEventService matchEventService;
 
-    MatchController(MatchService matchService, MatchSetupService matchSetupService) {
+    MatchController(MatchService matchService, MatchSetupService matchSetupService,
+            MatchEventService matchEventService) {
         this.matchService = matchService;
         this.matchSetupService = matchSetupService;
+        this.matchEventService = matchEventService;
     }
 
     /**
@@ -83,6 +94,24 @@ public class MatchController {
         return matchDTOs;
     }
 
+    /**
+     * Gets one page of the lobby, newest matches first.
+     * 
+     * @param phase    The phases to list (repeatable); by default all phases in
+     *                 which a match is not over yet.
+     * @param page     Zero-based page number.
+     * @param pageSize Matches per page.
+     * @return The page of lobby entries.
+     */
+    @GetMapping("/matches/lobby")
+    @ResponseStatus(HttpStatus.OK)
+    public Page<LobbyMatchDTO> getLobbyMatches(
+            @RequestParam(required = false) List<MatchPhase> phase,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        return matchService.getLobbyMatches(phase, page, pageSize);
+    }
+
     /**
      * Gets the information for one specific match in the database.
      * 
@@ -290,6 +319,54 @@ public class MatchController {
         return matchService.getPlayerPolling(token, matchId);
     }
 
+    /**
+     * Like the polling endpoint, but for clients that send the stateVersion of
+     * the last state they received. Answers 304 if nothing changed since, and
+     * otherwise only the fields that changed.
+     * 
+     * @return The changed fields of the PollingDTO, or 304 Not Modified.
+     */
+    @PostMapping("/matches/{matchId}/logic/delta")
+    public ResponseEntity<PollingDeltaDTO> getPlayerPollingDelta(@PathVariable Long matchId,
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(value = "since", required = false) Long since) {
+        String token = authHeader.replace("Bearer ", "");
+        PollingDeltaDTO delta = matchService.getPlayerPollingDelta(token, matchId, since);
+        if (delta == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(delta);
+    }
+
+    /**
+     * Streams the same information as the polling endpoint as server-sent
+     * events. A new PollingDTO is pushed whenever the match changes, instead
+     * of the client asking for it every POLLING_INTERVAL_MS. Since EventSource
+     * cannot send headers, the token may also be given as the cookie "token";
+     * unlike a query parameter, it does not end up in access logs.
+     * 
+     * @return A stream of PollingDTOs that ends with the match.
+     */
+    @GetMapping(value = "/matches/{matchId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PollingDTO>> streamPlayerPolling(@PathVariable Long matchId,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @CookieValue(value = "token", required = false) String tokenCookie) {
+        String token = authHeader != null ? authHeader.replace("Bearer ", "") : tokenCookie;
+        if (token == null || token.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+        }
+
+        // Resolve the first state right away, so that an invalid token or match
+        // is answered with a proper status code instead of a broken stream.
+        PollingDTO initial = matchService.getPlayerPolling(token, matchId);
+
+        return matchEventService
+                .stream(matchId, initial,
+                        lastSentMessageId -> matchService.getPlayerPollingSnapshot(token, matchId, lastSentMessageId),
+                        () -> matchService.recordPulse(token, matchId))
+                .map(dto -> ServerSentEvent.builder(dto).event("polling").build());
+    }
+
     /**
      * When the host starts the match, this function initializes the necessary
      * relations in the database and opens
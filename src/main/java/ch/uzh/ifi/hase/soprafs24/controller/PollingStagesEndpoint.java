@@ -0,0 +1,33 @@
+package ch.uzh.ifi.hase.soprafs24.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StageTimingDTO;
+import ch.uzh.ifi.hase.soprafs24.service.StageTimingService;
+
+/**
+ * Polling Stages Endpoint
+ * Reports p50/p99 per stage of building the PollingDTO, per endpoint, at
+ * /actuator/pollingstages. Like the other actuator endpoints it is for
+ * operators only and is exposed through management.endpoints.web.exposure.
+ */
+@Component
+@Endpoint(id = "pollingstages")
+public class PollingStagesEndpoint {
+
+    private final StageTimingService stageTimingService;
+
+    PollingStagesEndpoint(@Qualifier("stageTimingService") StageTimingService stageTimingService) {
+        this.stageTimingService = stageTimingService;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, StageTimingDTO>> pollingStages() {
+        return stageTimingService.snapshot();
+    }
+}
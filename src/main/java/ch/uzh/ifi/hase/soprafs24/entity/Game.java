@@ -58,6 +58,15 @@ public class Game {
     @Column(name = "previous_trick", length = 32)
     private String previousTrick = ""; // e.g., "2C,3D,QH,AS"
 
+    // When each card of the trick is shown, in epoch millis. AI cards played
+    // ahead in one go are spread out, so clients can still reveal them one by
+    // one.
+    @Column(name = "current_trick_played_at", length = 64)
+    private String currentTrickPlayedAt = ""; // e.g., "1718000000000,1718000000800"
+
+    @Column(name = "previous_trick_played_at", length = 64)
+    private String previousTrickPlayedAt = "";
+
     @Column(nullable = false)
     private int currentTrickNumber = 0;
 
@@ -73,9 +82,6 @@ public class Game {
     @Column(name = "previous_trick_points")
     private int previousTrickPoints;
 
-    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<GameStats> gameStats = new ArrayList<>();
-
     @Column(name = "trick_just_completed_time")
     private Instant trickJustCompletedTime = Instant.now();
 
@@ -239,14 +245,6 @@ public class Game {
         this.previousTrickPoints = previousTrickPoints;
     }
 
-    public List<GameStats> getGameStats() {
-        return gameStats;
-    }
-
-    public void setGameStats(List<GameStats> gameStats) {
-        this.gameStats = gameStats;
-    }
-
     /******************* CURRENT TRICK *******************************/
 
     public List<String> getCurrentTrick() {
@@ -262,9 +260,14 @@ public class Game {
 
     public void setCurrentTrick(List<String> cards) {
         this.currentTrick = String.join(",", cards);
+        this.currentTrickPlayedAt = "";
     }
 
     public void addCardCodeToCurrentTrick(String cardCode) {
+        addCardCodeToCurrentTrick(cardCode, Instant.now());
+    }
+
+    public void addCardCodeToCurrentTrick(String cardCode, Instant playedAt) {
         if (cardCode == null || !cardCode.matches(GameConstants.CARD_CODE_REGEX)) {
             throw new IllegalArgumentException("Invalid card code format: " + cardCode);
         }
@@ -274,12 +277,37 @@ public class Game {
             throw new IllegalStateException("Current trick already has 4 cards.");
         }
 
+        List<Instant> playedAts = getCurrentTrickPlayedAt();
         cards.add(cardCode);
-        setCurrentTrick(cards);
+        playedAts.add(playedAt);
+        this.currentTrick = String.join(",", cards);
+        // Play times are only kept while every card of the trick has one.
+        this.currentTrickPlayedAt = playedAts.size() == cards.size() ? joinInstants(playedAts) : "";
     }
 
     public void clearCurrentTrick() {
         this.currentTrick = "";
+        this.currentTrickPlayedAt = "";
+    }
+
+    /**
+     * @return When the cards of the current trick are shown, in the order of
+     *         getCurrentTrick(); empty if the cards were set directly.
+     */
+    public List<Instant> getCurrentTrickPlayedAt() {
+        return splitInstants(currentTrickPlayedAt);
+    }
+
+    /**
+     * @return When the last card of the current trick is shown, or null if
+     *         that is not known.
+     */
+    public Instant getCurrentTrickLastPlayedAt() {
+        List<Instant> playedAts = getCurrentTrickPlayedAt();
+        if (playedAts.isEmpty()) {
+            return null;
+        }
+        return playedAts.get(playedAts.size() - 1);
     }
 
     public int getCurrentTrickSize() {
@@ -330,6 +358,32 @@ public class Game {
 
     public void setPreviousTrick(List<String> cards) {
         this.previousTrick = String.join(",", cards);
+        this.previousTrickPlayedAt = "";
+    }
+
+    public List<Instant> getPreviousTrickPlayedAt() {
+        return splitInstants(previousTrickPlayedAt);
+    }
+
+    public void setPreviousTrickPlayedAt(List<Instant> playedAts) {
+        this.previousTrickPlayedAt = joinInstants(playedAts);
+    }
+
+    private static List<Instant> splitInstants(String csv) {
+        List<Instant> instants = new ArrayList<>();
+        if (csv == null || csv.isBlank()) {
+            return instants;
+        }
+        for (String millis : csv.split(",")) {
+            instants.add(Instant.ofEpochMilli(Long.parseLong(millis)));
+        }
+        return instants;
+    }
+
+    private static String joinInstants(List<Instant> instants) {
+        return instants.stream()
+                .map(instant -> String.valueOf(instant.toEpochMilli()))
+                .collect(Collectors.joining(","));
     }
 
     @Transient
@@ -369,6 +423,8 @@ public class Game {
         this.trickLeaderMatchPlayerSlot = source.trickLeaderMatchPlayerSlot;
         this.currentTrick = source.currentTrick;
         this.previousTrick = source.previousTrick;
+        this.currentTrickPlayedAt = source.currentTrickPlayedAt;
+        this.previousTrickPlayedAt = source.previousTrickPlayedAt;
         this.currentTrickNumber = source.currentTrickNumber;
         this.currentPlayOrder = source.currentPlayOrder;
         this.previousTrickLeaderMatchPlayerSlot = source.previousTrickLeaderMatchPlayerSlot;
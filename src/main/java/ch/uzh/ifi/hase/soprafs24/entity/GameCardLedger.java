@@ -0,0 +1,266 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+
+import java.util.Arrays;
+
+import ch.uzh.ifi.hase.soprafs24.constant.Rank;
+import ch.uzh.ifi.hase.soprafs24.constant.Suit;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+/**
+ * What is known about the 52 cards of one game, packed into a single row.
+ *
+ * Every column is a fixed-width array with one byte per card, indexed like
+ * {@link CardSet} (suit * 13 + rank offset, suits in the order C, D, S, H).
+ * Slots are stored as 1–4, with 0 for "none"; possibleHolders keeps the bitmask
+ * that used to live in GAME_STATS.possible_holders. Recording a card play
+ * therefore changes a few bytes of one managed entity instead of querying and
+ * updating one GameStats row per card.
+ */
+@Entity
+@Table(name = "GAME_CARD_LEDGER")
+public class GameCardLedger {
+
+    public static final int CARDS = 52;
+
+    public static final byte ALL_POSSIBLE_HOLDERS = 0b1111;
+
+    @Id
+    private Long gameId;
+
+    @OneToOne(optional = false)
+    @MapsId
+    @JoinColumn(name = "game_id")
+    private Game game;
+
+    @ManyToOne
+    @JoinColumn(name = "match_id", nullable = false)
+    private Match match;
+
+    @Column(name = "play_order", length = CARDS, nullable = false)
+    private byte[] playOrder = new byte[CARDS]; // 0 = not yet played; 1–52 otherwise
+
+    @Column(name = "played_by", length = CARDS, nullable = false)
+    private byte[] playedBy = new byte[CARDS];
+
+    @Column(name = "card_holder", length = CARDS, nullable = false)
+    private byte[] cardHolder = new byte[CARDS];
+
+    @Column(name = "possible_holders", length = CARDS, nullable = false)
+    private byte[] possibleHolders = new byte[CARDS];
+
+    @Column(name = "points_billed_to", length = CARDS, nullable = false)
+    private byte[] pointsBilledTo = new byte[CARDS];
+
+    @Column(name = "passed_by", length = CARDS, nullable = false)
+    private byte[] passedBy = new byte[CARDS];
+
+    @Column(name = "passed_to", length = CARDS, nullable = false)
+    private byte[] passedTo = new byte[CARDS];
+
+    @Column(name = "trick_number", length = CARDS, nullable = false)
+    private byte[] trickNumber = new byte[CARDS];
+
+    @Column(name = "trick_lead_by_slot", length = CARDS, nullable = false)
+    private byte[] trickLeadBySlot = new byte[CARDS];
+
+    // Required by JPA
+    public GameCardLedger() {
+    }
+
+    public GameCardLedger(Match match, Game game) {
+        this.match = match;
+        this.game = game;
+        Arrays.fill(possibleHolders, ALL_POSSIBLE_HOLDERS);
+    }
+
+    // Making a Copy (for another game of the same match)
+
+    public GameCardLedger(GameCardLedger source, Game game) {
+        this.match = source.match;
+        this.game = game;
+        this.playOrder = source.playOrder.clone();
+        this.playedBy = source.playedBy.clone();
+        this.cardHolder = source.cardHolder.clone();
+        this.possibleHolders = source.possibleHolders.clone();
+        this.pointsBilledTo = source.pointsBilledTo.clone();
+        this.passedBy = source.passedBy.clone();
+        this.passedTo = source.passedTo.clone();
+        this.trickNumber = source.trickNumber.clone();
+        this.trickLeadBySlot = source.trickLeadBySlot.clone();
+    }
+
+    /**
+     * @param cardCode e.g. "QS"
+     * @return the index of the card in the ledger (0..51).
+     * @throws IllegalArgumentException if the card code is invalid.
+     */
+    public static int cardIndex(String cardCode) {
+        int index = CardSet.index(cardCode);
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid card code: " + cardCode);
+        }
+        return index;
+    }
+
+    public static int pointsWorth(int card) {
+        if (card / 13 == CardSet.HEARTS) {
+            return 1;
+        }
+        return (1L << card) == CardSet.QUEEN_OF_SPADES ? 13 : 0;
+    }
+
+    // === Getters and Setters ===
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    public Match getMatch() {
+        return match;
+    }
+
+    public void setMatch(Match match) {
+        this.match = match;
+    }
+
+    public int getPlayOrder(int card) {
+        return playOrder[card];
+    }
+
+    public void setPlayOrder(int card, int order) {
+        playOrder[card] = (byte) order;
+    }
+
+    public boolean isPlayed(int card) {
+        return playOrder[card] > 0;
+    }
+
+    public int getPlayedBy(int card) {
+        return playedBy[card];
+    }
+
+    public void setPlayedBy(int card, int matchPlayerSlot) {
+        playedBy[card] = (byte) matchPlayerSlot;
+    }
+
+    public int getCardHolder(int card) {
+        return cardHolder[card];
+    }
+
+    public void setCardHolder(int card, int matchPlayerSlot) {
+        cardHolder[card] = (byte) matchPlayerSlot;
+    }
+
+    public int getPossibleHolders(int card) {
+        return possibleHolders[card];
+    }
+
+    public void setPossibleHolders(int card, int mask) {
+        possibleHolders[card] = (byte) mask;
+    }
+
+    public int getPointsBilledTo(int card) {
+        return pointsBilledTo[card];
+    }
+
+    public void setPointsBilledTo(int card, int matchPlayerSlot) {
+        pointsBilledTo[card] = (byte) matchPlayerSlot;
+    }
+
+    public int getPassedBy(int card) {
+        return passedBy[card];
+    }
+
+    public void setPassedBy(int card, int matchPlayerSlot) {
+        passedBy[card] = (byte) matchPlayerSlot;
+    }
+
+    public int getPassedTo(int card) {
+        return passedTo[card];
+    }
+
+    public void setPassedTo(int card, int matchPlayerSlot) {
+        passedTo[card] = (byte) matchPlayerSlot;
+    }
+
+    public int getTrickNumber(int card) {
+        return trickNumber[card];
+    }
+
+    public void setTrickNumber(int card, int number) {
+        trickNumber[card] = (byte) number;
+    }
+
+    public int getTrickLeadBySlot(int card) {
+        return trickLeadBySlot[card];
+    }
+
+    public void setTrickLeadBySlot(int card, int matchPlayerSlot) {
+        trickLeadBySlot[card] = (byte) matchPlayerSlot;
+    }
+
+    /**
+     * @return the cards that have not been played yet.
+     */
+    public long getUnplayedCards() {
+        long cards = CardSet.EMPTY;
+        for (int card = 0; card < CARDS; card++) {
+            if (playOrder[card] == 0) {
+                cards |= 1L << card;
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * @return the unplayed cards that the given possibleHolders bit may still
+     *         hold.
+     */
+    public long getUnplayedCardsWithPossibleHolderBit(int bit) {
+        long cards = CardSet.EMPTY;
+        for (int card = 0; card < CARDS; card++) {
+            if (playOrder[card] == 0 && (possibleHolders[card] & bit) != 0) {
+                cards |= 1L << card;
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Builds a detached, per-card view of the ledger in the shape of the former
+     * GAME_STATS rows. Changes to the view are not written back.
+     *
+     * @param card the index of the card (0..51).
+     * @return a GameStats view of the card.
+     */
+    public GameStats toGameStats(int card) {
+        GameStats gameStats = new GameStats();
+        gameStats.setMatch(match);
+        gameStats.setGame(game);
+        gameStats.setSuit(Suit.values()[card / 13]);
+        gameStats.setRank(Rank.values()[card % 13]);
+        gameStats.setPlayOrder(playOrder[card]);
+        gameStats.setPlayedBy(playedBy[card]);
+        gameStats.setPossibleHolders(possibleHolders[card]);
+        gameStats.setPointsBilledTo(pointsBilledTo[card]);
+        gameStats.setPointsWorth(pointsWorth(card));
+        gameStats.setPassedBy(passedBy[card]);
+        gameStats.setPassedTo(passedTo[card]);
+        gameStats.setCardHolder(cardHolder[card]);
+        gameStats.setTrickNumber(trickNumber[card]);
+        gameStats.setTrickLeadBySlot(trickLeadBySlot[card]);
+        gameStats.setCardOrder(CardUtils.calculateCardOrder(CardSet.cardCode(card)));
+        return gameStats;
+    }
+}
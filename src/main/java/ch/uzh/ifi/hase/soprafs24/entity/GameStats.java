@@ -6,71 +6,45 @@ import ch.uzh.ifi.hase.soprafs24.constant.Rank;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.persistence.*;
-
-@Entity
-@Table(name = "GAME_STATS", uniqueConstraints = @UniqueConstraint(columnNames = { "game_id", "rank_suit" }))
+/**
+ * A view of one card of a {@link GameCardLedger}, in the shape of the former
+ * GAME_STATS rows. It is not persisted: the ledger is the single source of
+ * truth, see {@link GameCardLedger#toGameStats(int)}.
+ */
 public class GameStats {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(length = 2, name = "rank_suit", nullable = false)
     private String rankSuit;
 
-    @ManyToOne
-    @JoinColumn(name = "match_id", nullable = false)
     private Match match;
 
-    @ManyToOne
-    @JoinColumn(name = "game_id")
     private Game game;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
     private Suit suit;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
     private Rank rank;
 
-    @Column(nullable = false)
     private int playOrder;
 
-    @Column(nullable = false)
     private int playedBy; // 0 = not yet played; 1–4 = matchPlayerSlot number
 
-    @Column(nullable = false)
     private int possibleHolders;
 
-    @Column(nullable = false)
     private int pointsBilledTo;
 
-    @Column(nullable = false)
     private int pointsWorth;
 
-    @Column(nullable = false)
     private int passedBy;
 
-    @Column(nullable = false)
     private int passedTo;
 
-    @Column(nullable = false)
     private int cardHolder = 0; // 1–4 for slots, or 0 for unassigned
 
-    @Column(name = "trick_number", nullable = false)
     private int trickNumber;
 
-    @Column(name = "trick_lead_by_slot", nullable = false)
     private int trickLeadBySlot;
 
-    @Column(name = "card_order", nullable = false)
     private int cardOrder;
 
-    // Automatically set rankSuit on persist/update
-    @PrePersist
-    @PreUpdate
     private void updateRankSuit() {
         if (this.rank != null && this.suit != null) {
             this.rankSuit = this.rank.toString() + this.suit.name();
@@ -79,14 +53,6 @@ public class GameStats {
 
     // Getters and Setters
 
-    public Long getId() {
-        return id;
-    }
-
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public Game getGame() {
         return game;
     }
@@ -11,18 +11,47 @@ import java.util.stream.Collectors;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
 
+// Only changed columns are written, so that saving a Match never overwrites
+// a stateVersion that was bumped concurrently (see MatchRepository).
+//
+// All associations are loaded lazily. Endpoints that need more than the
+// match row load it through one of the entity graphs below, each of which
+// fetches what that endpoint renders in a single query (see MatchRepository).
+// A graph never fetches more than one List, as Hibernate would duplicate its
+// elements.
 @Entity
+@DynamicUpdate
 @Table(name = "MATCH")
+@NamedEntityGraph(name = Match.GRAPH_PLAYERS, attributeNodes = {
+        @NamedAttributeNode(value = "matchPlayers", subgraph = "matchPlayerUser") }, subgraphs = {
+                @NamedSubgraph(name = "matchPlayerUser", attributeNodes = @NamedAttributeNode("user")) })
+@NamedEntityGraph(name = Match.GRAPH_POLLING, attributeNodes = {
+        @NamedAttributeNode(value = "matchPlayers", subgraph = "matchPlayerUser"),
+        @NamedAttributeNode("matchSummary") }, subgraphs = {
+                @NamedSubgraph(name = "matchPlayerUser", attributeNodes = @NamedAttributeNode("user")) })
+@NamedEntityGraph(name = Match.GRAPH_SETUP, attributeNodes = {
+        @NamedAttributeNode("invites"),
+        @NamedAttributeNode("aiPlayers"),
+        @NamedAttributeNode("joinRequests") })
 public class Match implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /** The match players and their users: the clock and dealing. */
+    public static final String GRAPH_PLAYERS = "Match.players";
+    /** The match players, their users and the match summary: polling. */
+    public static final String GRAPH_POLLING = "Match.polling";
+    /** Invites, AI players and join requests: the match setup screen. */
+    public static final String GRAPH_SETUP = "Match.setup";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long matchId;
 
-    @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MatchPlayer> matchPlayers = new ArrayList<>();
 
     @Column(name = "host_id")
@@ -41,7 +70,8 @@ public class Match implements Serializable {
     private boolean started;
 
     @ElementCollection
-    @CollectionTable(name = "match_invites", joinColumns = @JoinColumn(name = "match_id"))
+    @CollectionTable(name = "match_invites", joinColumns = @JoinColumn(name = "match_id"),
+            indexes = @Index(name = "idx_match_invites_user_id", columnList = "user_id"))
     @MapKeyColumn(name = "MATCH_PLAYER_SLOT_INDEX")
     @Column(name = "user_id")
     private Map<Integer, Long> invites = new HashMap<>();
@@ -60,19 +90,19 @@ public class Match implements Serializable {
     @Column(nullable = false)
     private MatchPhase phase = MatchPhase.SETUP;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "player_1")
     private User player1;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "player_2")
     private User player2;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "player_3")
     private User player3;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "player_4")
     private User player4;
 
@@ -85,7 +115,7 @@ public class Match implements Serializable {
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<MatchMessage> messages = new ArrayList<>();
 
-    @OneToOne(cascade = CascadeType.PERSIST) // Automatically persist MatchSummary when saving Match
+    @OneToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY) // Automatically persist MatchSummary when saving Match
     @JoinColumn(name = "match_summary_id")
     private MatchSummary matchSummary;
 
@@ -101,6 +131,19 @@ public class Match implements Serializable {
     @Column(name = "slot_did_confirm_last_game")
     private String slotDidConfirmLastGameCsv = "";
 
+    // Increases with every change a client can see. Only ever bumped by
+    // MatchRepository.bumpStateVersion.
+    @Column(name = "state_version", nullable = false)
+    private long stateVersion = 0;
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public void setStateVersion(long stateVersion) {
+        this.stateVersion = stateVersion;
+    }
+
     public void setFastForwardMode(boolean fastForwardMode) {
         this.fastForwardMode = fastForwardMode;
     }
@@ -6,6 +6,7 @@ import javax.persistence.*;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchMessageType;
 
 @Entity
+@Table(indexes = @Index(name = "idx_match_message_match_id_id", columnList = "match_id, id"))
 public class MatchMessage {
 
     @Id
@@ -22,9 +23,6 @@ public class MatchMessage {
     @Column(nullable = false)
     private String content;
 
-    @Column(nullable = false)
-    private int seenByBitmask = 0;
-
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -62,14 +60,6 @@ public class MatchMessage {
         this.content = content;
     }
 
-    public int getSeenByBitmask() {
-        return seenByBitmask;
-    }
-
-    public void setSeenByBitmask(int seenByBitmask) {
-        this.seenByBitmask = seenByBitmask;
-    }
-
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -77,14 +67,4 @@ public class MatchMessage {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
-
-    // --- Convenience methods for bitmask operations ---
-
-    public void markSeen(int playerSlot) {
-        this.seenByBitmask |= (1 << playerSlot);
-    }
-
-    public boolean hasSeen(int playerSlot) {
-        return (this.seenByBitmask & (1 << playerSlot)) != 0;
-    }
 }
@@ -68,6 +68,10 @@ public class MatchPlayer {
     @Column(nullable = false)
     private int pollCounter = 0;
 
+    // Id of the last match message delivered to this player by polling.
+    @Column(name = "last_delivered_message_id")
+    private Long lastDeliveredMessageId = 0L;
+
     @Column
     @Enumerated(EnumType.STRING)
     AiMatchPlayerState aiMatchPlayerState = AiMatchPlayerState.READY;
@@ -214,6 +218,14 @@ public class MatchPlayer {
         this.pollCounter++;
     }
 
+    public long getLastDeliveredMessageId() {
+        return lastDeliveredMessageId == null ? 0L : lastDeliveredMessageId;
+    }
+
+    public void setLastDeliveredMessageId(Long lastDeliveredMessageId) {
+        this.lastDeliveredMessageId = lastDeliveredMessageId;
+    }
+
     public AiMatchPlayerState getAiMatchPlayerState() {
         return aiMatchPlayerState;
     }
@@ -0,0 +1,214 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * What the table knows about the cards of one game after a given number of
+ * plays: which cards have been seen, which suits a player has shown to be void
+ * in, who passed which card to whom, and who may still hold a card.
+ *
+ * Instances are immutable; each play yields a new instance, so the AI can read
+ * one from any thread while the next play is being recorded. The possible
+ * holder masks follow {@link GameCardLedger} bit for bit, so decisions based on
+ * this model are the same as decisions based on the ledger.
+ */
+public final class CardKnowledge {
+
+    private final Long gameId;
+    private final Long matchId;
+    private final int playOrder;
+    private final long playedCards;
+    private final int voidSuits; // bit (slot - 1) * 4 + suit index
+    private final byte[] possibleHolders;
+    private final byte[] playedBy;
+    private final byte[] passedBy;
+    private final byte[] passedTo;
+
+    private CardKnowledge(Long gameId, Long matchId, int playOrder, long playedCards, int voidSuits,
+            byte[] possibleHolders, byte[] playedBy, byte[] passedBy, byte[] passedTo) {
+        this.gameId = gameId;
+        this.matchId = matchId;
+        this.playOrder = playOrder;
+        this.playedCards = playedCards;
+        this.voidSuits = voidSuits;
+        this.possibleHolders = possibleHolders;
+        this.playedBy = playedBy;
+        this.passedBy = passedBy;
+        this.passedTo = passedTo;
+    }
+
+    /**
+     * Builds the knowledge from the card ledger of a game. Void suits are
+     * derived from the recorded plays: whoever did not follow the suit of the
+     * first card of a trick is void in that suit.
+     *
+     * @param ledger the card ledger of the game.
+     * @return the knowledge after all plays recorded in the ledger.
+     */
+    public static CardKnowledge fromLedger(GameCardLedger ledger) {
+        byte[] possibleHolders = new byte[GameCardLedger.CARDS];
+        byte[] playedBy = new byte[GameCardLedger.CARDS];
+        byte[] passedBy = new byte[GameCardLedger.CARDS];
+        byte[] passedTo = new byte[GameCardLedger.CARDS];
+        int[] cardByPlayOrder = new int[GameCardLedger.CARDS + 1];
+        long playedCards = CardSet.EMPTY;
+        int lastPlayOrder = 0;
+
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            possibleHolders[card] = (byte) ledger.getPossibleHolders(card);
+            playedBy[card] = (byte) ledger.getPlayedBy(card);
+            passedBy[card] = (byte) ledger.getPassedBy(card);
+            passedTo[card] = (byte) ledger.getPassedTo(card);
+            if (ledger.isPlayed(card)) {
+                int order = ledger.getPlayOrder(card);
+                cardByPlayOrder[order] = card;
+                playedCards |= 1L << card;
+                lastPlayOrder = Math.max(lastPlayOrder, order);
+            }
+        }
+
+        int voidSuits = 0;
+        for (int order = 1; order <= lastPlayOrder; order++) {
+            int leadOrder = order - (order - 1) % 4;
+            int suit = cardByPlayOrder[order] / 13;
+            int leadSuit = cardByPlayOrder[leadOrder] / 13;
+            int slot = playedBy[cardByPlayOrder[order]];
+            if (order != leadOrder && suit != leadSuit && slot >= 1 && slot <= 4) {
+                voidSuits |= voidBit(slot, leadSuit);
+            }
+        }
+
+        // A ledger that has not been saved yet has no id of its own.
+        Long gameId = ledger.getGameId();
+        if (gameId == null && ledger.getGame() != null) {
+            gameId = ledger.getGame().getGameId();
+        }
+        Long matchId = ledger.getMatch() == null ? null : ledger.getMatch().getMatchId();
+        return new CardKnowledge(gameId, matchId, lastPlayOrder, playedCards, voidSuits,
+                possibleHolders, playedBy, passedBy, passedTo);
+    }
+
+    /**
+     * Records that a player did not follow the leading suit. Like
+     * GameStatsService#updateGameStatsAfterTrickChange, this clears the
+     * player's bit on every unplayed card of that suit.
+     *
+     * @param matchPlayerSlot the player who did not follow suit (1..4).
+     * @param leadSuit        the suit index of the leading suit.
+     * @return the updated knowledge; the play order is unchanged.
+     */
+    public CardKnowledge withVoidSuit(int matchPlayerSlot, int leadSuit) {
+        byte[] holders = possibleHolders.clone();
+        int maskToClear = ~(1 << matchPlayerSlot);
+        long unplayedInSuit = ~playedCards & (CardSet.CLUBS_MASK << (13 * leadSuit));
+        while (unplayedInSuit != 0) {
+            int card = Long.numberOfTrailingZeros(unplayedInSuit);
+            holders[card] = (byte) (holders[card] & maskToClear);
+            unplayedInSuit &= unplayedInSuit - 1;
+        }
+        return new CardKnowledge(gameId, matchId, playOrder, playedCards,
+                voidSuits | voidBit(matchPlayerSlot, leadSuit), holders, playedBy, passedBy, passedTo);
+    }
+
+    /**
+     * Records a card play, like GameStatsService#recordCardPlay.
+     *
+     * @param card            the index of the card (0..51).
+     * @param matchPlayerSlot the player who played it (1..4).
+     * @param newPlayOrder    the play order of the card in this game.
+     * @return the knowledge after the play.
+     */
+    public CardKnowledge withCardPlayed(int card, int matchPlayerSlot, int newPlayOrder) {
+        byte[] holders = possibleHolders.clone();
+        holders[card] = (byte) (1 << (matchPlayerSlot - 1));
+        byte[] players = playedBy.clone();
+        players[card] = (byte) matchPlayerSlot;
+        return new CardKnowledge(gameId, matchId, newPlayOrder, playedCards | (1L << card), voidSuits,
+                holders, players, passedBy, passedTo);
+    }
+
+    private static int voidBit(int matchPlayerSlot, int suit) {
+        return 1 << ((matchPlayerSlot - 1) * 4 + suit);
+    }
+
+    // === Getters ===
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * @return the play order of the last card this knowledge includes (0 before
+     *         the first play).
+     */
+    public int getPlayOrder() {
+        return playOrder;
+    }
+
+    /**
+     * @return the cards that have been played (seen by everyone).
+     */
+    public long getPlayedCards() {
+        return playedCards;
+    }
+
+    public boolean isPlayed(int card) {
+        return (playedCards & (1L << card)) != 0;
+    }
+
+    public int getPlayedBy(int card) {
+        return playedBy[card];
+    }
+
+    public boolean isVoid(int matchPlayerSlot, int suit) {
+        return (voidSuits & voidBit(matchPlayerSlot, suit)) != 0;
+    }
+
+    public int getPassedBy(int card) {
+        return passedBy[card];
+    }
+
+    public int getPassedTo(int card) {
+        return passedTo[card];
+    }
+
+    /**
+     * @return the cards the given player passed at the start of the game.
+     */
+    public long getCardsPassedBy(int matchPlayerSlot) {
+        long cards = CardSet.EMPTY;
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            if (passedBy[card] == matchPlayerSlot) {
+                cards |= 1L << card;
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * @return the possible holders bitmask of a card, as stored in the ledger.
+     */
+    public int getPossibleHolders(int card) {
+        return possibleHolders[card];
+    }
+
+    /**
+     * Returns the possible holders of a card from the point of view of one
+     * player: a player who passed the card knows who received it.
+     *
+     * @param card           the index of the card (0..51).
+     * @param requestingSlot the player asking (1..4).
+     * @return a bitmask with bit 0 standing for slot 1, etc.
+     */
+    public int getPossibleHolders(int card, int requestingSlot) {
+        if (passedBy[card] == requestingSlot) {
+            return 1 << (passedTo[card] - 1);
+        }
+        return possibleHolders[card];
+    }
+}
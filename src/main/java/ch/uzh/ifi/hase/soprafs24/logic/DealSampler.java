@@ -0,0 +1,154 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import java.util.SplittableRandom;
+
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * Deals the cards one player cannot see to the other players, consistently
+ * with what that player knows: how many cards each of them holds, which suits
+ * they have shown to be void in and where the cards passed by the player went.
+ *
+ * Used once per search iteration, so sampling does not allocate. Instances are
+ * not thread-safe; every search worker deals with its own {@link #copy()}.
+ */
+public final class DealSampler {
+
+    private static final int MAX_ATTEMPTS = 16;
+
+    private final int mySlot;
+    private final int[] handSizes;
+    private final int[] cards; // unseen cards, most constrained first
+    private final int[] allowedSlots; // bit slot - 1, by card
+    private final int[] remaining = new int[HeartsSimulator.PLAYERS];
+
+    /**
+     * @param knowledge the card knowledge of the game
+     * @param mySlot    the player doing the sampling
+     * @param myHand    the hand of that player
+     * @param handSizes the number of cards each player holds, by slot - 1
+     * @throws IllegalStateException if the hand sizes do not add up to the
+     *                               number of unseen cards
+     */
+    public DealSampler(CardKnowledge knowledge, int mySlot, long myHand, int[] handSizes) {
+        this.mySlot = mySlot;
+        this.handSizes = new int[HeartsSimulator.PLAYERS];
+        this.allowedSlots = new int[HeartsSimulator.CARDS];
+        long unseen = CardSet.FULL_DECK & ~myHand & ~knowledge.getPlayedCards();
+        int othersCards = 0;
+        for (int slot = 1; slot <= HeartsSimulator.PLAYERS; slot++) {
+            if (slot != mySlot) {
+                this.handSizes[slot - 1] = handSizes[slot - 1];
+                othersCards += handSizes[slot - 1];
+            }
+        }
+        if (othersCards != Long.bitCount(unseen)) {
+            throw new IllegalStateException(String.format(
+                    "Players hold %d hidden cards, but %d cards are unseen.", othersCards, Long.bitCount(unseen)));
+        }
+
+        cards = new int[Long.bitCount(unseen)];
+        int count = 0;
+        for (long rest = unseen; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            allowedSlots[card] = allowedSlots(knowledge, card);
+            cards[count++] = card;
+        }
+        // Place the cards with the fewest possible holders first.
+        for (int i = 1; i < cards.length; i++) {
+            int card = cards[i];
+            int j = i - 1;
+            while (j >= 0 && Integer.bitCount(allowedSlots[cards[j]]) > Integer.bitCount(allowedSlots[card])) {
+                cards[j + 1] = cards[j];
+                j--;
+            }
+            cards[j + 1] = card;
+        }
+    }
+
+    private DealSampler(DealSampler source) {
+        this.mySlot = source.mySlot;
+        this.handSizes = source.handSizes;
+        this.cards = source.cards;
+        this.allowedSlots = source.allowedSlots;
+    }
+
+    /**
+     * @return a sampler for another worker, sharing the read-only tables.
+     */
+    public DealSampler copy() {
+        return new DealSampler(this);
+    }
+
+    private int allowedSlots(CardKnowledge knowledge, int card) {
+        if (knowledge.getPassedBy(card) == mySlot && knowledge.getPassedTo(card) != 0) {
+            return 1 << (knowledge.getPassedTo(card) - 1);
+        }
+        int allowed = 0;
+        for (int slot = 1; slot <= HeartsSimulator.PLAYERS; slot++) {
+            if (slot != mySlot && !knowledge.isVoid(slot, card / 13)) {
+                allowed |= 1 << (slot - 1);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Deals the unseen cards into the hands of the other players of the
+     * simulator; the hand of the sampling player is left as it is.
+     *
+     * If no consistent deal is found within a few attempts, e.g. because the
+     * voids leave too little room, the voids are ignored for this deal.
+     *
+     * @param simulator the simulator to deal into
+     * @param random    the random source of the calling worker
+     * @return whether the deal respects all known constraints
+     */
+    public boolean deal(HeartsSimulator simulator, SplittableRandom random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (tryDeal(simulator, random, true)) {
+                return true;
+            }
+        }
+        tryDeal(simulator, random, false);
+        return false;
+    }
+
+    private boolean tryDeal(HeartsSimulator simulator, SplittableRandom random, boolean respectKnowledge) {
+        System.arraycopy(handSizes, 0, remaining, 0, HeartsSimulator.PLAYERS);
+        for (int slot = 1; slot <= HeartsSimulator.PLAYERS; slot++) {
+            if (slot != mySlot) {
+                simulator.setHand(slot, CardSet.EMPTY);
+            }
+        }
+
+        for (int card : cards) {
+            int candidates = 0;
+            int weight = 0;
+            for (int slot = 1; slot <= HeartsSimulator.PLAYERS; slot++) {
+                int bit = 1 << (slot - 1);
+                if (remaining[slot - 1] > 0 && (!respectKnowledge || (allowedSlots[card] & bit) != 0)) {
+                    candidates |= bit;
+                    weight += remaining[slot - 1];
+                }
+            }
+            if (candidates == 0) {
+                return false;
+            }
+            // Pick a player with a probability proportional to their free room.
+            int pick = random.nextInt(weight);
+            int slot = 1;
+            for (; slot <= HeartsSimulator.PLAYERS; slot++) {
+                if ((candidates & (1 << (slot - 1))) != 0) {
+                    pick -= remaining[slot - 1];
+                    if (pick < 0) {
+                        break;
+                    }
+                }
+            }
+            remaining[slot - 1]--;
+            simulator.setHand(slot, simulator.getHand(slot) | (1L << card));
+        }
+        return true;
+    }
+}
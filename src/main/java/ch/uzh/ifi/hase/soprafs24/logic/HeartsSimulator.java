@@ -0,0 +1,165 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import java.util.SplittableRandom;
+
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * A game of Hearts reduced to primitives, for playing out thousands of games
+ * per AI move.
+ *
+ * Hands are {@link CardSet} bitmasks and the rules are those of
+ * {@link LegalMoves}; playing a card or a whole game out does not allocate.
+ * Slots are 1-based, as everywhere else. Instances are not thread-safe; every
+ * search worker uses its own.
+ */
+public final class HeartsSimulator {
+
+    public static final int PLAYERS = 4;
+    public static final int CARDS = 52;
+    public static final int ALL_POINTS = 26;
+
+    private final long[] hands = new long[PLAYERS];
+    private final int[] points = new int[PLAYERS];
+    private final int[] trickCards = new int[PLAYERS];
+    private int trickSize;
+    private int trickLeaderSlot;
+    private int cardsPlayed;
+    private boolean heartsBroken;
+
+    /**
+     * Sets up a position.
+     *
+     * @param hands           the hands by slot - 1; hands unknown to the caller
+     *                        may be left empty and filled in with
+     *                        {@link #setHand(int, long)}
+     * @param points          the points taken so far in this game, by slot - 1
+     * @param trickCards      the cards in the current trick, in playing order
+     * @param trickSize       the number of cards in the current trick (0..3)
+     * @param trickLeaderSlot the slot that led the current trick
+     * @param cardsPlayed     the number of cards played in this game, including
+     *                        the current trick
+     * @param heartsBroken    whether Hearts have been played in this game
+     */
+    public void reset(long[] hands, int[] points, int[] trickCards, int trickSize, int trickLeaderSlot,
+            int cardsPlayed, boolean heartsBroken) {
+        System.arraycopy(hands, 0, this.hands, 0, PLAYERS);
+        System.arraycopy(points, 0, this.points, 0, PLAYERS);
+        System.arraycopy(trickCards, 0, this.trickCards, 0, trickSize);
+        this.trickSize = trickSize;
+        this.trickLeaderSlot = trickLeaderSlot;
+        this.cardsPlayed = cardsPlayed;
+        this.heartsBroken = heartsBroken;
+    }
+
+    public void copyFrom(HeartsSimulator other) {
+        System.arraycopy(other.hands, 0, hands, 0, PLAYERS);
+        System.arraycopy(other.points, 0, points, 0, PLAYERS);
+        System.arraycopy(other.trickCards, 0, trickCards, 0, PLAYERS);
+        trickSize = other.trickSize;
+        trickLeaderSlot = other.trickLeaderSlot;
+        cardsPlayed = other.cardsPlayed;
+        heartsBroken = other.heartsBroken;
+    }
+
+    public void setHand(int matchPlayerSlot, long hand) {
+        hands[matchPlayerSlot - 1] = hand;
+    }
+
+    public long getHand(int matchPlayerSlot) {
+        return hands[matchPlayerSlot - 1];
+    }
+
+    public int getCurrentSlot() {
+        return (trickLeaderSlot - 1 + trickSize) % PLAYERS + 1;
+    }
+
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    public boolean isFinished() {
+        return cardsPlayed >= CARDS;
+    }
+
+    /**
+     * @return the cards the current player may play.
+     */
+    public long legalMoves() {
+        int leadSuit = trickSize == 0 ? LegalMoves.NO_LEAD_SUIT : trickCards[0] / 13;
+        long playable = LegalMoves.playableCards(hands[getCurrentSlot() - 1], trickSize, leadSuit, heartsBroken,
+                cardsPlayed < PLAYERS);
+        // A sampled deal may break the first-trick assumptions of LegalMoves;
+        // then any card of the hand will do.
+        return playable != CardSet.EMPTY ? playable : hands[getCurrentSlot() - 1];
+    }
+
+    /**
+     * Plays a card for the current player and, after the fourth card, scores
+     * the trick and lets the winner lead the next one.
+     *
+     * @param card the index of the card, which must be a legal move.
+     */
+    public void play(int card) {
+        hands[getCurrentSlot() - 1] &= ~(1L << card);
+        trickCards[trickSize++] = card;
+        cardsPlayed++;
+        if (card / 13 == CardSet.HEARTS) {
+            heartsBroken = true;
+        }
+        if (trickSize == PLAYERS) {
+            completeTrick();
+        }
+    }
+
+    private void completeTrick() {
+        int leadSuit = trickCards[0] / 13;
+        int winningPosition = 0;
+        int trickPoints = 0;
+        for (int position = 0; position < PLAYERS; position++) {
+            int card = trickCards[position];
+            if (card / 13 == leadSuit && card > trickCards[winningPosition]) {
+                winningPosition = position;
+            }
+            trickPoints += GameCardLedger.pointsWorth(card);
+        }
+        int winnerSlot = (trickLeaderSlot - 1 + winningPosition) % PLAYERS + 1;
+        points[winnerSlot - 1] += trickPoints;
+        trickLeaderSlot = winnerSlot;
+        trickSize = 0;
+    }
+
+    /**
+     * Plays the game out with uniformly random legal moves.
+     */
+    public void playOut(SplittableRandom random) {
+        while (!isFinished()) {
+            play(randomCard(legalMoves(), random));
+        }
+    }
+
+    /**
+     * @return the final score of a player, with a moon shot counted as 26
+     *         points for each other player.
+     */
+    public int getScore(int matchPlayerSlot) {
+        for (int slot = 1; slot <= PLAYERS; slot++) {
+            if (points[slot - 1] == ALL_POINTS) {
+                return slot == matchPlayerSlot ? 0 : ALL_POINTS;
+            }
+        }
+        return points[matchPlayerSlot - 1];
+    }
+
+    /**
+     * @return a uniformly chosen card of a non-empty set.
+     */
+    public static int randomCard(long cards, SplittableRandom random) {
+        int skip = random.nextInt(Long.bitCount(cards));
+        for (int i = 0; i < skip; i++) {
+            cards &= cards - 1;
+        }
+        return Long.numberOfTrailingZeros(cards);
+    }
+}
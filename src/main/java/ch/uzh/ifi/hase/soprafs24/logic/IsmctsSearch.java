@@ -0,0 +1,237 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Information set Monte Carlo tree search (single observer) for choosing the
+ * next card.
+ *
+ * Every iteration deals the hidden cards anew with a {@link DealSampler}, walks
+ * down the tree along moves that are legal in that deal, adds one node and
+ * plays the rest of the game out at random. Workers search independent trees
+ * in parallel on a fork/join pool; their visit counts at the root are added up
+ * and the most visited card is played.
+ *
+ * The budget is both a deadline and a number of iterations, whichever is
+ * reached first, so a move never takes much longer than the deadline.
+ */
+public final class IsmctsSearch {
+
+    private static final double EXPLORATION = 0.7;
+
+    private final HeartsSimulator root;
+    private final DealSampler sampler;
+    private final int mySlot;
+
+    /**
+     * @param root    the position to search from; hands of the other players
+     *                are dealt by the sampler
+     * @param sampler the sampler for the hidden cards
+     * @param mySlot  the player to move
+     */
+    public IsmctsSearch(HeartsSimulator root, DealSampler sampler, int mySlot) {
+        this.root = root;
+        this.sampler = sampler;
+        this.mySlot = mySlot;
+    }
+
+    /**
+     * Searches for the best card.
+     *
+     * @param pool          the pool to run the workers on
+     * @param workers       the number of independent searches
+     * @param deadlineNanos the {@link System#nanoTime()} at which to stop
+     * @param maxIterations the total number of iterations across all workers
+     * @param seed          the seed of the random deals and play-outs
+     * @return the result, with the visit count of every root move
+     */
+    public Result search(ForkJoinPool pool, int workers, long deadlineNanos, int maxIterations, long seed) {
+        long legalMoves = root.legalMoves();
+        if (Long.bitCount(legalMoves) == 1) {
+            return new Result(Long.numberOfTrailingZeros(legalMoves), new int[HeartsSimulator.CARDS], 0);
+        }
+        int iterationsPerWorker = Math.max(1, maxIterations / Math.max(1, workers));
+        int[] visits = pool.invoke(new Worker(Math.max(1, workers), deadlineNanos, iterationsPerWorker,
+                new SplittableRandom(seed)));
+
+        int bestCard = Long.numberOfTrailingZeros(legalMoves);
+        int iterations = 0;
+        for (long rest = legalMoves; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            iterations += visits[card];
+            if (visits[card] > visits[bestCard]) {
+                bestCard = card;
+            }
+        }
+        return new Result(bestCard, visits, iterations);
+    }
+
+    /**
+     * Splits the workers in halves until a single one is left, which searches
+     * a tree of its own.
+     */
+    private final class Worker extends RecursiveTask<int[]> {
+
+        private final int workers;
+        private final long deadlineNanos;
+        private final int iterations;
+        private final SplittableRandom random;
+
+        private Worker(int workers, long deadlineNanos, int iterations, SplittableRandom random) {
+            this.workers = workers;
+            this.deadlineNanos = deadlineNanos;
+            this.iterations = iterations;
+            this.random = random;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (workers == 1) {
+                return searchTree(deadlineNanos, iterations, random);
+            }
+            Worker left = new Worker(workers / 2, deadlineNanos, iterations, random.split());
+            Worker right = new Worker(workers - workers / 2, deadlineNanos, iterations, random.split());
+            left.fork();
+            int[] visits = right.compute();
+            int[] leftVisits = left.join();
+            for (int card = 0; card < visits.length; card++) {
+                visits[card] += leftVisits[card];
+            }
+            return visits;
+        }
+    }
+
+    private int[] searchTree(long deadlineNanos, int iterations, SplittableRandom random) {
+        DealSampler dealer = sampler.copy();
+        HeartsSimulator simulator = new HeartsSimulator();
+        Node tree = new Node(-1, 0, null);
+
+        for (int i = 0; i < iterations && System.nanoTime() < deadlineNanos; i++) {
+            simulator.copyFrom(root);
+            dealer.deal(simulator, random);
+
+            // Selection and expansion
+            Node node = tree;
+            while (!simulator.isFinished()) {
+                long legalMoves = simulator.legalMoves();
+                long untried = legalMoves & ~node.childCards;
+                int slot = simulator.getCurrentSlot();
+                if (untried != 0) {
+                    int card = HeartsSimulator.randomCard(untried, random);
+                    node = node.addChild(card, slot);
+                    simulator.play(card);
+                    break;
+                }
+                node = node.select(legalMoves);
+                simulator.play(node.card);
+            }
+
+            // Play-out
+            simulator.playOut(random);
+
+            // Back-propagation: every node is scored for the player who moved into it.
+            for (Node n = node; n.parent != null; n = n.parent) {
+                n.visits++;
+                n.reward += 1.0 - (double) simulator.getScore(n.slot) / HeartsSimulator.ALL_POINTS;
+            }
+        }
+
+        int[] visits = new int[HeartsSimulator.CARDS];
+        for (Node child = tree.firstChild; child != null; child = child.nextSibling) {
+            visits[child.card] = child.visits;
+        }
+        return visits;
+    }
+
+    /**
+     * A node of the tree; children are kept as a linked list together with the
+     * set of their cards.
+     */
+    private static final class Node {
+        private final int card;
+        private final int slot;
+        private final Node parent;
+        private Node firstChild;
+        private Node nextSibling;
+        private long childCards;
+        private int visits;
+        private int availability;
+        private double reward;
+
+        private Node(int card, int slot, Node parent) {
+            this.card = card;
+            this.slot = slot;
+            this.parent = parent;
+        }
+
+        private Node addChild(int card, int slot) {
+            Node child = new Node(card, slot, this);
+            child.nextSibling = firstChild;
+            firstChild = child;
+            childCards |= 1L << card;
+            // Counted as available once it exists, like its siblings were.
+            child.availability = 1;
+            return child;
+        }
+
+        /**
+         * Picks the child with the best upper confidence bound among those that
+         * are legal in this deal; each of them counts as having been available.
+         */
+        private Node select(long legalMoves) {
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child = firstChild; child != null; child = child.nextSibling) {
+                if ((legalMoves & (1L << child.card)) == 0) {
+                    continue;
+                }
+                child.availability++;
+                double value = child.reward / child.visits
+                        + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * The outcome of a search.
+     */
+    public static final class Result {
+        private final int card;
+        private final int[] visits;
+        private final int iterations;
+
+        private Result(int card, int[] visits, int iterations) {
+            this.card = card;
+            this.visits = visits;
+            this.iterations = iterations;
+        }
+
+        /**
+         * @return the index of the chosen card.
+         */
+        public int getCard() {
+            return card;
+        }
+
+        /**
+         * @return how often each card was tried first, by card index.
+         */
+        public int getVisits(int card) {
+            return visits[card];
+        }
+
+        /**
+         * @return the number of iterations run across all workers.
+         */
+        public int getIterations() {
+            return iterations;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * The rules for which cards may be played next, on {@link CardSet} bitmasks.
+ *
+ * Works on primitives only and never allocates, so it can be called for every
+ * poll, every play validation and every node of an AI search. The case labels
+ * refer to the cases in CardRulesService#getPlayableCardsForMatchPlayer.
+ */
+public final class LegalMoves {
+
+    /** Lead suit of an empty trick. */
+    public static final int NO_LEAD_SUIT = -1;
+
+    private LegalMoves() {
+    } // Prevent instantiation
+
+    /**
+     * Returns the cards of the hand that may be played next.
+     *
+     * The caller is expected to have rejected inconsistent states beforehand:
+     * an empty hand, holding 2C after the first card of the game and Hearts
+     * leading the first trick.
+     *
+     * @param hand         the cards of the player about to play
+     * @param trickSize    the number of cards already in the trick (0..3)
+     * @param leadSuit     the suit index of the first card in the trick
+     *                     ({@link CardSet#CLUBS} .. {@link CardSet#HEARTS}), or
+     *                     {@link #NO_LEAD_SUIT}
+     * @param heartsBroken whether Hearts have been played in this game
+     * @param firstTrick   whether this is the first trick of the game
+     * @return the playable cards, a subset of the hand
+     */
+    public static long playableCards(long hand, int trickSize, int leadSuit, boolean heartsBroken,
+            boolean firstTrick) {
+        long leadSuitCards = leadSuit == NO_LEAD_SUIT ? CardSet.EMPTY
+                : hand & (CardSet.CLUBS_MASK << (13 * leadSuit));
+
+        if (firstTrick) {
+            // Case 1a. The first card of the game is 2C.
+            if ((hand & CardSet.TWO_OF_CLUBS) != 0) {
+                return CardSet.TWO_OF_CLUBS;
+            }
+            if (trickSize > 1) {
+                // Cases 2b-2d. No points in the first trick, unless there is no other way.
+                if (leadSuitCards != 0) {
+                    return leadSuitCards & ~CardSet.QUEEN_OF_SPADES;
+                }
+                long nonHeartsNonQS = hand & ~CardSet.HEARTS_MASK & ~CardSet.QUEEN_OF_SPADES;
+                return nonHeartsNonQS != 0 ? nonHeartsNonQS : hand & CardSet.HEARTS_MASK;
+            }
+        }
+
+        if (trickSize == 0) {
+            // Cases 3a-3c. Hearts may only lead once broken, or if nothing else is left.
+            long nonHearts = hand & ~CardSet.HEARTS_MASK;
+            return heartsBroken || nonHearts == 0 ? hand : nonHearts;
+        }
+
+        // Cases 4a-4b. Follow suit if possible.
+        return leadSuitCards != 0 ? leadSuitCards : hand;
+    }
+}
@@ -0,0 +1,25 @@
+package ch.uzh.ifi.hase.soprafs24.model;
+
+import java.util.List;
+
+/**
+ * A full deck in dealing order, as produced by a DeckProvider, together with
+ * the id under which the deck is recorded on the game.
+ */
+public class ShuffledDeck {
+    private final String deckId;
+    private final List<CardResponse> cards;
+
+    public ShuffledDeck(String deckId, List<CardResponse> cards) {
+        this.deckId = deckId;
+        this.cards = cards;
+    }
+
+    public String getDeckId() {
+        return deckId;
+    }
+
+    public List<CardResponse> getCards() {
+        return cards;
+    }
+}
@@ -0,0 +1,81 @@
+package ch.uzh.ifi.hase.soprafs24.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+
+/**
+ * What polling shows of the four seats of a match: usernames, avatars and AI
+ * difficulties, in MatchPlayerSlot order. It only changes when a seat changes
+ * hands, so it is built once and shared by all polls. Immutable.
+ */
+public final class TableSnapshot {
+    private static final String DEFAULT_AVATAR_URL = "/avatars_118x118/a0.png";
+
+    private final List<Long> seatUserIds;
+    private final List<String> usernames;
+    private final List<String> avatarUrls;
+    private final Map<Integer, Integer> aiPlayers;
+
+    private TableSnapshot(List<Long> seatUserIds, List<String> usernames, List<String> avatarUrls,
+            Map<Integer, Integer> aiPlayers) {
+        this.seatUserIds = Collections.unmodifiableList(seatUserIds);
+        this.usernames = Collections.unmodifiableList(usernames);
+        this.avatarUrls = Collections.unmodifiableList(avatarUrls);
+        this.aiPlayers = Collections.unmodifiableMap(aiPlayers);
+    }
+
+    public static TableSnapshot of(Match match) {
+        List<Long> seatUserIds = new ArrayList<>(4);
+        List<String> usernames = new ArrayList<>(4);
+        List<String> avatarUrls = new ArrayList<>(4);
+        for (User player : seats(match)) {
+            seatUserIds.add(player != null ? player.getId() : null);
+            usernames.add(player != null ? player.getUsername() : null);
+            avatarUrls.add(player != null && player.getAvatar() != null
+                    ? "/avatars_118x118/a" + player.getAvatar() + ".png"
+                    : DEFAULT_AVATAR_URL);
+        }
+        Map<Integer, Integer> aiPlayers = match.getAiPlayers() != null
+                ? new HashMap<>(match.getAiPlayers())
+                : new HashMap<>();
+        return new TableSnapshot(seatUserIds, usernames, avatarUrls, aiPlayers);
+    }
+
+    /**
+     * @return true if the seats of the match are still taken by the users this
+     *         snapshot was built from.
+     */
+    public boolean isCurrentFor(Match match) {
+        User[] seats = seats(match);
+        for (int i = 0; i < seats.length; i++) {
+            Long userId = seats[i] != null ? seats[i].getId() : null;
+            if (!Objects.equals(userId, seatUserIds.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static User[] seats(Match match) {
+        return new User[] { match.getPlayer1(), match.getPlayer2(), match.getPlayer3(), match.getPlayer4() };
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public List<String> getAvatarUrls() {
+        return avatarUrls;
+    }
+
+    public Map<Integer, Integer> getAiPlayers() {
+        return aiPlayers;
+    }
+}
@@ -0,0 +1,21 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The ledger shares its id with its game, so findById(gameId) is served from
+ * the persistence context once the ledger has been loaded in a transaction.
+ */
+@Repository("gameCardLedgerRepository")
+public interface GameCardLedgerRepository extends JpaRepository<GameCardLedger, Long> {
+
+    List<GameCardLedger> findByMatch(Match match);
+
+    void deleteByMatch(Match match);
+
+}
@@ -9,4 +9,6 @@ import ch.uzh.ifi.hase.soprafs24.entity.MatchMessage;
 
 public interface MatchMessageRepository extends JpaRepository<MatchMessage, Long> {
     List<MatchMessage> findByMatch(Match match);
+
+    List<MatchMessage> findByMatchAndIdGreaterThanOrderByIdAsc(Match match, Long id);
 }
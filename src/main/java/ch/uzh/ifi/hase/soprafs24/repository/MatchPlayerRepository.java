@@ -4,10 +4,14 @@ import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository("matchPlayerRepository")
@@ -19,4 +23,8 @@ public interface MatchPlayerRepository extends JpaRepository<MatchPlayer, Long>,
     MatchPlayer findByMatchAndMatchPlayerSlot(Match match, int matchPlayerSlot);
 
     List<MatchPlayer> findByMatch(Match match);
+
+    @Modifying
+    @Query("UPDATE MatchPlayer mp SET mp.lastPollTime = :now WHERE mp.match.matchId = :matchId AND mp.user.id = :userId")
+    int updateLastPollTime(@Param("matchId") Long matchId, @Param("userId") Long userId, @Param("now") Instant now);
 }
@@ -1,14 +1,21 @@
 package ch.uzh.ifi.hase.soprafs24.repository;
 
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyMatchDTO;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.LockModeType;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +24,29 @@ import org.springframework.stereotype.Repository;
 public interface MatchRepository extends JpaRepository<Match, Long>, JpaSpecificationExecutor<Match> {
   Match findMatchByMatchId(Long matchId);
 
+  // The match together with what a particular endpoint renders; see the
+  // entity graphs declared on Match.
+
+  @EntityGraph(Match.GRAPH_PLAYERS)
+  Match findWithPlayersByMatchId(Long matchId);
+
+  @EntityGraph(Match.GRAPH_POLLING)
+  Match findForPollingByMatchId(Long matchId);
+
+  @EntityGraph(Match.GRAPH_SETUP)
+  Match findForSetupByMatchId(Long matchId);
+
+  // All matches as GET /matches renders them: their players in one query,
+  // then their invites, AI players and join requests in a second one.
+
+  @EntityGraph(Match.GRAPH_PLAYERS)
+  @Query("SELECT DISTINCT m FROM Match m")
+  List<Match> findAllWithPlayers();
+
+  @EntityGraph(Match.GRAPH_SETUP)
+  @Query("SELECT DISTINCT m FROM Match m WHERE m IN :matches")
+  List<Match> findForSetupByMatchIn(@Param("matches") Collection<Match> matches);
+
   Match findByMatchPlayersUserId(Long userId);
 
   @Query(value = "SELECT * FROM match WHERE host_id = :hostId AND phase NOT IN ('FINISHED', 'ABORTED') ORDER BY match_id ASC", nativeQuery = true)
@@ -43,6 +73,41 @@ public interface MatchRepository extends JpaRepository<Match, Long>, JpaSpecific
       """)
   List<Long> findActiveMatchIdsWithUserId(@Param("userId") Long userId);
 
+  @Query("""
+          SELECT m.matchId FROM Match m
+          WHERE m.phase IN ('BEFORE_GAMES', 'IN_PROGRESS', 'BETWEEN_GAMES')
+      """)
+  List<Long> findMatchIdsInGame();
+
+  @Query(value = """
+          SELECT new ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyMatchDTO(
+              m.matchId, m.hostId, m.hostUsername, m.matchGoal, m.phase,
+              p1.username, p2.username, p3.username, p4.username)
+          FROM Match m
+          LEFT JOIN m.player1 p1 LEFT JOIN m.player2 p2 LEFT JOIN m.player3 p3 LEFT JOIN m.player4 p4
+          WHERE m.phase IN :phases
+      """, countQuery = "SELECT COUNT(m) FROM Match m WHERE m.phase IN :phases")
+  Page<LobbyMatchDTO> findLobbyMatches(@Param("phases") Collection<MatchPhase> phases, Pageable pageable);
+
+  /**
+   * The number of matches in a MatchPhase.
+   */
+  interface PhaseCount {
+    MatchPhase getPhase();
+
+    long getCount();
+  }
+
+  @Query("SELECT m.phase AS phase, COUNT(m) AS count FROM Match m GROUP BY m.phase")
+  List<PhaseCount> countMatchesByPhase();
+
+  @Query("SELECT m.stateVersion FROM Match m WHERE m.matchId = :matchId")
+  Long findStateVersionByMatchId(@Param("matchId") Long matchId);
+
+  @Modifying
+  @Query("UPDATE Match m SET m.stateVersion = m.stateVersion + 1 WHERE m.matchId = :matchId")
+  int bumpStateVersion(@Param("matchId") Long matchId);
+
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT m FROM Match m LEFT JOIN FETCH m.games WHERE m.id = :id")
   Match findMatchForUpdate(@Param("id") Long id);
@@ -56,4 +121,41 @@ public interface MatchRepository extends JpaRepository<Match, Long>, JpaSpecific
           WHERE i = :userId
       """)
   boolean existsUserInAnyMatchInvite(@Param("userId") Long userId);
+
+  /**
+   * An invite of a user to a match slot, together with the current username
+   * of the match's host.
+   */
+  interface PendingInvite {
+    Long getMatchId();
+
+    Integer getMatchPlayerSlot();
+
+    Long getHostId();
+
+    String getHostUsername();
+  }
+
+  @Query("""
+          SELECT m.matchId AS matchId, KEY(i) AS matchPlayerSlot, m.hostId AS hostId, u.username AS hostUsername
+          FROM Match m JOIN m.invites i LEFT JOIN User u ON u.id = m.hostId
+          WHERE i = :userId
+          ORDER BY m.matchId ASC
+      """)
+  List<PendingInvite> findPendingInvitesByUserId(@Param("userId") Long userId);
+
+  @Query("""
+          SELECT CASE WHEN COUNT(mp) > 0 THEN true ELSE false END
+          FROM MatchPlayer mp
+          WHERE mp.user.id = :userId
+            AND mp.match.phase IN ('SETUP', 'READY', 'BEFORE_GAMES', 'IN_PROGRESS', 'BETWEEN_GAMES')
+      """)
+  boolean existsUserInOpenMatch(@Param("userId") Long userId);
+
+  @Query("""
+          SELECT DISTINCT mp.user.id FROM MatchPlayer mp
+          WHERE mp.user.id IN :userIds
+            AND mp.match.phase IN ('SETUP', 'READY', 'BEFORE_GAMES', 'IN_PROGRESS', 'BETWEEN_GAMES')
+      """)
+  List<Long> findUserIdsInOpenMatches(@Param("userIds") Collection<Long> userIds);
 }
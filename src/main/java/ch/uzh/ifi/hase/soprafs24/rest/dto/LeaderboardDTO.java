@@ -18,6 +18,32 @@ public class LeaderboardDTO {
     private int currentGameStreak;
     private int longestGameStreak;
 
+    public LeaderboardDTO() {
+    }
+
+    /**
+     * A copy of the given entry, e.g. to hand out an entry of the in-memory
+     * leaderboard without exposing it to changes.
+     */
+    public LeaderboardDTO(LeaderboardDTO other) {
+        this.id = other.id;
+        this.username = other.username;
+        this.isGuest = other.isGuest;
+        this.isAiPlayer = other.isAiPlayer;
+        this.avgGameRanking = other.avgGameRanking;
+        this.avgMatchRanking = other.avgMatchRanking;
+        this.scoreTotal = other.scoreTotal;
+        this.gamesPlayed = other.gamesPlayed;
+        this.matchesPlayed = other.matchesPlayed;
+        this.moonShots = other.moonShots;
+        this.perfectGames = other.perfectGames;
+        this.perfectMatches = other.perfectMatches;
+        this.currentMatchStreak = other.currentMatchStreak;
+        this.longestMatchStreak = other.longestMatchStreak;
+        this.currentGameStreak = other.currentGameStreak;
+        this.longestGameStreak = other.longestGameStreak;
+    }
+
     // Getters & Setters
     public Long getId() {
         return id;
@@ -0,0 +1,75 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.List;
+
+/**
+ * The position of one user on the leaderboard for a sort key, together with
+ * the users ranked directly around them.
+ */
+public class LeaderboardRankDTO {
+    private Long userId;
+    private String sortBy;
+    private String order;
+    /** 1-based; users with equal values are ordered by id. */
+    private int rank;
+    private int total;
+    /** The rank of the first entry in neighbors. */
+    private int firstRank;
+    private List<LeaderboardDTO> neighbors;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public void setOrder(String order) {
+        this.order = order;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getFirstRank() {
+        return firstRank;
+    }
+
+    public void setFirstRank(int firstRank) {
+        this.firstRank = firstRank;
+    }
+
+    public List<LeaderboardDTO> getNeighbors() {
+        return neighbors;
+    }
+
+    public void setNeighbors(List<LeaderboardDTO> neighbors) {
+        this.neighbors = neighbors;
+    }
+}
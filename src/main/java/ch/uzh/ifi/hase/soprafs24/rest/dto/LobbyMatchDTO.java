@@ -0,0 +1,96 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+
+/**
+ * One row of the lobby listing. It is filled directly by a projection query
+ * (see MatchRepository#findLobbyMatches), so only the columns shown in the
+ * lobby are read and no Match is hydrated.
+ */
+public class LobbyMatchDTO {
+    private Long matchId;
+    private Long hostId;
+    private String hostUsername;
+    private int matchGoal;
+    private MatchPhase phase;
+    private List<String> playerNames;
+    private boolean slotAvailable;
+
+    public LobbyMatchDTO() {
+    }
+
+    public LobbyMatchDTO(Long matchId, Long hostId, String hostUsername, int matchGoal, MatchPhase phase,
+            String player1Username, String player2Username, String player3Username, String player4Username) {
+        this.matchId = matchId;
+        this.hostId = hostId;
+        this.hostUsername = hostUsername;
+        this.matchGoal = matchGoal;
+        this.phase = phase;
+        this.playerNames = new ArrayList<>();
+        this.slotAvailable = false;
+        for (String username : new String[] { player1Username, player2Username, player3Username,
+                player4Username }) {
+            this.playerNames.add(username == null ? "" : username);
+            this.slotAvailable |= username == null;
+        }
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Long getHostId() {
+        return hostId;
+    }
+
+    public void setHostId(Long hostId) {
+        this.hostId = hostId;
+    }
+
+    public String getHostUsername() {
+        return hostUsername;
+    }
+
+    public void setHostUsername(String hostUsername) {
+        this.hostUsername = hostUsername;
+    }
+
+    public int getMatchGoal() {
+        return matchGoal;
+    }
+
+    public void setMatchGoal(int matchGoal) {
+        this.matchGoal = matchGoal;
+    }
+
+    public MatchPhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(MatchPhase phase) {
+        this.phase = phase;
+    }
+
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    public void setPlayerNames(List<String> playerNames) {
+        this.playerNames = playerNames;
+    }
+
+    public boolean isSlotAvailable() {
+        return slotAvailable;
+    }
+
+    public void setSlotAvailable(boolean slotAvailable) {
+        this.slotAvailable = slotAvailable;
+    }
+}
@@ -14,6 +14,7 @@ public class PollingDTO {
     private int matchGoal; // [2]
     private Long hostId; // [3]
     private MatchPhase matchPhase; // [4]
+    private long stateVersion; // [5]
 
     // Info about the game state
     private GamePhase gamePhase; // [11]
@@ -274,4 +275,12 @@ public class PollingDTO {
     public void setPassingInfo(String passingInfo) {
         this.passingInfo = passingInfo;
     }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public void setStateVersion(long stateVersion) {
+        this.stateVersion = stateVersion;
+    }
 }
@@ -0,0 +1,40 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Answer of the delta polling endpoint. If {@code full} is true, changes holds
+ * every field of the PollingDTO; otherwise only the fields that differ from
+ * the state the client reported as its last seen stateVersion.
+ */
+public class PollingDeltaDTO {
+    private long stateVersion;
+    private boolean full;
+    private Map<String, JsonNode> changes;
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    public void setStateVersion(long stateVersion) {
+        this.stateVersion = stateVersion;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public Map<String, JsonNode> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Map<String, JsonNode> changes) {
+        this.changes = changes;
+    }
+}
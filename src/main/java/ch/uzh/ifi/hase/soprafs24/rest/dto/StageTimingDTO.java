@@ -0,0 +1,44 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+/**
+ * How long one stage of building a response took over the rolling window.
+ */
+public class StageTimingDTO {
+    /** Since startup, not just within the window. */
+    private long count;
+    private double p50Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public void setP50Millis(double p50Millis) {
+        this.p50Millis = p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public void setP99Millis(double p99Millis) {
+        this.p99Millis = p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(double maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+}
@@ -8,6 +8,7 @@ public class TrickDTO {
         private String code;
         private int position; // 0 = me, 1 = left, 2 = across, 3 = right
         private int order; // 0 to 3
+        private Long playedAt; // epoch millis (server clock) to show the card at, or null
 
         public TrickCard() {
         }
@@ -18,6 +19,11 @@ public class TrickDTO {
             this.order = order;
         }
 
+        public TrickCard(String code, int position, int order, Long playedAt) {
+            this(code, position, order);
+            this.playedAt = playedAt;
+        }
+
         public String getCode() {
             return code;
         }
@@ -41,6 +47,14 @@ public class TrickDTO {
         public void setOrder(int order) {
             this.order = order;
         }
+
+        public Long getPlayedAt() {
+            return playedAt;
+        }
+
+        public void setPlayedAt(Long playedAt) {
+            this.playedAt = playedAt;
+        }
     }
 
     private List<TrickCard> cards;
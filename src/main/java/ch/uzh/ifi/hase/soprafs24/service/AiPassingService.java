@@ -82,6 +82,7 @@ public class AiPassingService {
                 break;
 
             case DUMPHIGHESTFACEFIRST:
+            case ISMCTS: // The search only covers playing, not passing.
                 selectedCards = dumpHighestScoringFaceFirst(cards);
                 break;
 
@@ -274,18 +275,7 @@ public class AiPassingService {
     }
 
     public Strategy getStrategyForUserId(Long userId) {
-        return switch (userId.intValue()) {
-            case 1 -> Strategy.LEFTMOST;
-            case 2 -> Strategy.RANDOM;
-            case 3 -> Strategy.DUMPHIGHESTFACEFIRST;
-            case 4 -> Strategy.GETRIDOFCLUBSTHENHEARTS;
-            case 5 -> Strategy.PREFERBLACK;
-            case 6 -> Strategy.VOIDSUIT;
-            case 7 -> Strategy.HYPATIA;
-            case 8 -> Strategy.GARY;
-            case 9 -> Strategy.ADA;
-            default -> Strategy.LEFTMOST; // Fallback
-        };
+        return Strategy.forAiUserId(userId);
     }
 
     /**
@@ -12,10 +12,10 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 
@@ -29,13 +29,57 @@ public class AiPlayingService {
     private static final Logger log = LoggerFactory.getLogger(AiPlayingService.class);
 
     private final CardRulesService cardRulesService;
-    private final GameStatsRepository gameStatsRepository;
+    private final CardKnowledgeService cardKnowledgeService;
+    private final GameMetricsService gameMetricsService;
 
     public AiPlayingService(
             CardRulesService cardRulesService,
-            GameStatsRepository gameStatsRepository) {
+            CardKnowledgeService cardKnowledgeService,
+            GameMetricsService gameMetricsService) {
         this.cardRulesService = cardRulesService;
-        this.gameStatsRepository = gameStatsRepository;
+        this.cardKnowledgeService = cardKnowledgeService;
+        this.gameMetricsService = gameMetricsService;
+    }
+
+    /**
+     * Plays the card the ISMCTS search chose for this turn (see
+     * IsmctsService#search), which runs before the turn is played. The search
+     * plays by the same rules; should its card not be legal, or the turn not
+     * have been searched, the lowest legal card is played.
+     *
+     * @param game        the current game state
+     * @param matchPlayer the AI player making the move
+     * @param move        the searched move of this turn
+     * @return the selected card code to be played
+     */
+    public String selectSearchedCard(Game game, MatchPlayer matchPlayer, IsmctsService.Move move) {
+        long start = System.nanoTime();
+        String playableCardsString = cardRulesService.getPlayableCardsForMatchPlayerPolling(game, matchPlayer);
+        if (playableCardsString == null || playableCardsString.isBlank()) {
+            throw new GameplayException("No playable cards available for the player.");
+        }
+        String[] legalCards = playableCardsString.split(",");
+
+        String cardCode;
+        if (move.getCardCode() != null && Arrays.asList(legalCards).contains(move.getCardCode())) {
+            cardCode = move.getCardCode();
+        } else {
+            if (move.getCardCode() != null) {
+                log.warn("ISMCTS chose {}, which is not playable. Playing lowest card.", move.getCardCode());
+            }
+            cardCode = lowestCard(legalCards);
+        }
+
+        log.info("AI Player chooses: {}.", cardCode);
+        gameMetricsService.recordAiDecision(Strategy.ISMCTS, System.nanoTime() - start);
+        return cardCode;
+    }
+
+    private static String lowestCard(String[] legalCards) {
+        return Arrays.stream(legalCards)
+                .sorted(CardUtils::compareCards)
+                .findFirst()
+                .orElse(legalCards[0]);
     }
 
     /**
@@ -60,6 +104,7 @@ public class AiPlayingService {
      * @throws IllegalStateException if the player has no legal cards to play
      */
     public String selectCardToPlay(Game game, MatchPlayer matchPlayer, Strategy strategy) {
+        long start = System.nanoTime();
         String playableCardsString = cardRulesService.getPlayableCardsForMatchPlayerPolling(game, matchPlayer);
 
         // log.info ("I am MatchPlayer with hand: {}.", matchPlayer.getHand());
@@ -210,6 +255,7 @@ public class AiPlayingService {
             }
             case HYPATIA -> {
                 int mySlot = matchPlayer.getMatchPlayerSlot();
+                CardKnowledge knowledge = cardKnowledgeService.getKnowledge(game);
                 List<String> currentTrick = game.getCurrentTrick();
                 String leadSuit = game.getSuitOfFirstCardInCurrentTrick();
                 List<Integer> trickOrder = game.getTrickMatchPlayerSlotOrder();
@@ -236,7 +282,7 @@ public class AiPlayingService {
                     if (!wouldWin)
                         continue;
 
-                    BitSet possibleHolders = getPossibleHolders(cardCodeHypatia, game, mySlot, gameStatsRepository);
+                    BitSet possibleHolders = getPossibleHolders(cardCodeHypatia, knowledge, mySlot);
                     boolean canBeBeaten = playersAfterMe.stream().anyMatch(slot -> possibleHolders.get(slot - 1));
 
                     if (!canBeBeaten) {
@@ -260,6 +306,7 @@ public class AiPlayingService {
             }
             case GARY -> {
                 int mySlot = matchPlayer.getMatchPlayerSlot();
+                CardKnowledge knowledge = cardKnowledgeService.getKnowledge(game);
                 List<String> currentTrick = game.getCurrentTrick();
                 String leadSuit = game.getSuitOfFirstCardInCurrentTrick();
                 List<Integer> trickOrder = game.getTrickMatchPlayerSlotOrder();
@@ -298,7 +345,7 @@ public class AiPlayingService {
                     }
 
                     // Card would currently win — can it be beaten later?
-                    BitSet holders = getPossibleHolders(card, game, mySlot, gameStatsRepository);
+                    BitSet holders = getPossibleHolders(card, knowledge, mySlot);
                     boolean canBeBeaten = playersAfterMe.stream().anyMatch(slot -> holders.get(slot - 1));
 
                     if (canBeBeaten) {
@@ -328,6 +375,7 @@ public class AiPlayingService {
 
             case ADA -> {
                 int mySlot = matchPlayer.getMatchPlayerSlot();
+                CardKnowledge knowledge = cardKnowledgeService.getKnowledge(game);
                 List<String> currentTrick = game.getCurrentTrick();
                 String leadSuit = game.getSuitOfFirstCardInCurrentTrick();
                 List<Integer> trickOrder = game.getTrickMatchPlayerSlotOrder();
@@ -355,7 +403,7 @@ public class AiPlayingService {
                             .allMatch(played -> CardUtils.compareCards(card, played) > 0);
 
                     // Check if others could beat this card
-                    BitSet holders = getPossibleHolders(card, game, mySlot, gameStatsRepository);
+                    BitSet holders = getPossibleHolders(card, knowledge, mySlot);
                     boolean canBeBeaten = playersAfterMe.stream().anyMatch(slot -> holders.get(slot - 1));
 
                     if (wouldCurrentlyWin && !canBeBeaten && (!trickHasPoints || attemptingMoonShot)) {
@@ -381,6 +429,12 @@ public class AiPlayingService {
                     cardCode = fallbackCard;
                 }
             }
+            case ISMCTS -> {
+                // The search runs before the turn (see selectSearchedCard); there is
+                // nothing to search with here.
+                log.warn("ISMCTS turn without a search. Playing lowest card.");
+                cardCode = lowestCard(legalCards);
+            }
             default -> {
                 log.warn("Unknown strategy: {}. Falling back to RANDOM.", strategy);
                 cardCode = legalCards[random.nextInt(legalCards.length)];
@@ -389,39 +443,32 @@ public class AiPlayingService {
         }
 
         log.info("AI Player chooses: {}.", cardCode);
+        gameMetricsService.recordAiDecision(strategy, System.nanoTime() - start);
         return cardCode;
     }
 
     /**
      * Retrieves the set of possible player slots that may still hold the specified
      * card,
-     * based on historical game stats and knowledge inferred from card passing.
+     * based on the card knowledge of the game, including what is known from card
+     * passing.
      * If the requesting player originally passed this card, the knowledge is
      * refined
      * to indicate only the recipient as a possible holder.
      *
      * @param cardCode       the card to check (e.g., "QS", "7H")
-     * @param game           the game instance the card belongs to
+     * @param knowledge      the card knowledge of the game the card belongs to
      * @param requestingSlot the match player slot requesting the information
      *                       (1-based)
-     * @param repo           the repository used to fetch card statistics
      * @return a BitSet representing possible holders (0-based index for player
      *         slots)
      */
-    public BitSet getPossibleHolders(String cardCode, Game game, int requestingSlot, GameStatsRepository repo) {
-        // Retrieve the GameStats record for the card
-        GameStats card = repo.findByRankSuitAndGame(cardCode, game);
-
-        // Convert int bitmask to BitSet
-        BitSet holders = intToBitSet(card.getPossibleHolders());
-
-        // Apply asymmetric knowledge if this player passed the card
-        if (card.getPassedBy() == requestingSlot) {
-            holders.clear();
-            holders.set(card.getPassedTo() - 1); // BitSet uses 0-based indexing
-        }
+    public BitSet getPossibleHolders(String cardCode, CardKnowledge knowledge, int requestingSlot) {
+        int card = GameCardLedger.cardIndex(cardCode);
 
-        return holders;
+        // Convert int bitmask to BitSet; if this player passed the card, only the
+        // recipient is left
+        return intToBitSet(knowledge.getPossibleHolders(card, requestingSlot));
     }
 
     /**
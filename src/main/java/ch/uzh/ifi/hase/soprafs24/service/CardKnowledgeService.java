@@ -0,0 +1,128 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the card knowledge of running games in memory, so the AI can look up
+ * possible holders, void suits and passed cards without querying the database.
+ *
+ * The knowledge of a game is built once from its card ledger and then updated
+ * by GameStatsService as cards are played. Each entry carries the play order
+ * it reflects; if it does not match the game (e.g. after a rolled back play or
+ * on another instance), it is rebuilt from the ledger.
+ */
+@Service
+@Qualifier("cardKnowledgeService")
+public class CardKnowledgeService {
+
+    private final Logger log = LoggerFactory.getLogger(CardKnowledgeService.class);
+
+    private final GameCardLedgerRepository gameCardLedgerRepository;
+
+    private final Map<Long, CardKnowledge> knowledgeByGameId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CardKnowledgeService(
+            @Qualifier("gameCardLedgerRepository") GameCardLedgerRepository gameCardLedgerRepository) {
+        this.gameCardLedgerRepository = gameCardLedgerRepository;
+    }
+
+    /**
+     * Returns the card knowledge of a game as of its current play order.
+     *
+     * @param game The given game.
+     * @return The card knowledge of the game.
+     */
+    public CardKnowledge getKnowledge(Game game) {
+        Long gameId = game.getGameId();
+        int playOrder = game.getCurrentPlayOrder();
+        CardKnowledge knowledge = gameId == null ? null : knowledgeByGameId.get(gameId);
+        if (knowledge != null && knowledge.getPlayOrder() == playOrder) {
+            return knowledge;
+        }
+
+        GameCardLedger ledger = gameCardLedgerRepository.findById(gameId)
+                .orElseThrow(() -> new IllegalStateException("No card ledger found for game " + gameId));
+        knowledge = CardKnowledge.fromLedger(ledger);
+        // Before the first play, cards may still be passed; those are only in
+        // the ledger, so nothing is cached yet.
+        if (playOrder > 0 && knowledge.getPlayOrder() == playOrder) {
+            knowledgeByGameId.put(gameId, knowledge);
+        }
+        return knowledge;
+    }
+
+    /**
+     * Records that the current player of a game did not follow the leading
+     * suit. Called while a card is played, before the play is recorded.
+     *
+     * @param game            The given game.
+     * @param matchPlayerSlot The player who did not follow suit.
+     * @param leadSuit        The suit index of the leading suit.
+     */
+    public void recordVoidSuit(Game game, int matchPlayerSlot, int leadSuit) {
+        int knownPlayOrder = game.getCurrentPlayOrder() - 1;
+        update(game, knowledge -> knowledge.getPlayOrder() == knownPlayOrder
+                ? knowledge.withVoidSuit(matchPlayerSlot, leadSuit)
+                : null);
+    }
+
+    /**
+     * Records a card play. The play order of the card is the current play order
+     * of the game.
+     *
+     * @param game            The given game.
+     * @param card            The index of the card.
+     * @param matchPlayerSlot The player who played the card.
+     */
+    public void recordCardPlay(Game game, int card, int matchPlayerSlot) {
+        int playOrder = game.getCurrentPlayOrder();
+        update(game, knowledge -> knowledge.getPlayOrder() == playOrder - 1 && playOrder < GameCardLedger.CARDS
+                ? knowledge.withCardPlayed(card, matchPlayerSlot, playOrder)
+                : null);
+    }
+
+    /**
+     * Drops the card knowledge of all games of a match.
+     *
+     * @param match The given match.
+     */
+    public void evictMatch(Match match) {
+        Long matchId = match.getMatchId();
+        knowledgeByGameId.values().removeIf(knowledge -> Objects.equals(knowledge.getMatchId(), matchId));
+        log.debug("Evicted card knowledge for Match ID: {}", matchId);
+    }
+
+    /**
+     * Drops the card knowledge of a game.
+     *
+     * @param game The given game.
+     */
+    public void evictGame(Game game) {
+        if (game.getGameId() != null) {
+            knowledgeByGameId.remove(game.getGameId());
+        }
+    }
+
+    private void update(Game game, UnaryOperator<CardKnowledge> change) {
+        if (game.getGameId() == null) {
+            return;
+        }
+        // An entry that is out of step is dropped and rebuilt on the next read.
+        knowledgeByGameId.computeIfPresent(game.getGameId(), (gameId, knowledge) -> change.apply(knowledge));
+    }
+}
@@ -20,16 +20,16 @@ import org.springframework.web.server.ResponseStatusException;
 import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
 import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.PassedCard;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 
 import org.slf4j.Logger;
@@ -42,7 +42,7 @@ public class CardPassingService {
     private final AiPassingService aiPassingService;
     private final CardRulesService cardRulesService;
     private final GameRepository gameRepository;
-    private final GameStatsRepository gameStatsRepository;
+    private final GameStatsService gameStatsService;
     private final MatchPlayerRepository matchPlayerRepository;
     private final PassedCardRepository passedCardRepository;
 
@@ -51,13 +51,13 @@ public class CardPassingService {
             AiPassingService aiPassingService,
             CardRulesService cardRulesService,
             GameRepository gameRepository,
-            GameStatsRepository gameStatsRepository,
+            GameStatsService gameStatsService,
             MatchPlayerRepository matchPlayerRepository,
             PassedCardRepository passedCardRepository) {
         this.aiPassingService = aiPassingService;
         this.cardRulesService = cardRulesService;
         this.gameRepository = gameRepository;
-        this.gameStatsRepository = gameStatsRepository;
+        this.gameStatsService = gameStatsService;
         this.matchPlayerRepository = matchPlayerRepository;
         this.passedCardRepository = passedCardRepository;
     }
@@ -162,7 +162,6 @@ public class CardPassingService {
     public void reassignPassedCards(Game game, Map<Integer, List<PassedCard>> cardsByMatchPlayerSlot,
             Map<Integer, Integer> passTo) {
 
-        List<GameStats> updatedGameStats = new ArrayList<>();
         Set<MatchPlayer> modifiedPlayers = new HashSet<>();
 
         // Validate input
@@ -173,6 +172,8 @@ public class CardPassingService {
             }
         }
 
+        GameCardLedger ledger = gameStatsService.getCardLedger(game);
+
         for (Map.Entry<Integer, List<PassedCard>> entry : cardsByMatchPlayerSlot.entrySet()) {
             int fromMatchPlayerSlot = entry.getKey();
             Integer toMatchPlayerSlot = passTo.get(fromMatchPlayerSlot);
@@ -200,13 +201,11 @@ public class CardPassingService {
                 // Add to receiver
                 receiverHandList.add(cardCode);
 
-                // Update GameStats
-                GameStats gameStat = gameStatsRepository.findByRankSuitAndGameAndCardHolder(cardCode, game,
-                        fromMatchPlayerSlot);
-                if (gameStat != null) {
-                    gameStat.setPassedBy(fromMatchPlayerSlot);
-                    gameStat.setPassedTo(toMatchPlayerSlot);
-                    updatedGameStats.add(gameStat);
+                // Update the card ledger
+                int ledgerCard = CardSet.index(cardCode);
+                if (ledgerCard >= 0 && ledger.getCardHolder(ledgerCard) == fromMatchPlayerSlot) {
+                    ledger.setPassedBy(ledgerCard, fromMatchPlayerSlot);
+                    ledger.setPassedTo(ledgerCard, toMatchPlayerSlot);
                 } else {
                     throw new GameplayException("Card passing failed: no tracking data for " + cardCode);
                 }
@@ -229,9 +228,6 @@ public class CardPassingService {
         matchPlayerRepository.saveAll(modifiedPlayers);
         matchPlayerRepository.flush();
 
-        gameStatsRepository.saveAll(updatedGameStats);
-        gameStatsRepository.flush();
-
         gameRepository.flush();
         cardRulesService.checkHandsConsistency(game.getMatch());
     }
@@ -18,7 +18,9 @@ import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
+import ch.uzh.ifi.hase.soprafs24.logic.LegalMoves;
 import ch.uzh.ifi.hase.soprafs24.model.Card;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 
 import org.slf4j.Logger;
@@ -66,32 +68,34 @@ public class CardRulesService {
      * @return list of playable cards
      **/
     public String getPlayableCardsForMatchPlayer(Game game, MatchPlayer matchPlayer, boolean isPlaying) {
+        if (!isAboutToPlay(game, matchPlayer)) {
+            return "";
+        }
+        long hand = CardSet.fromCardCodeString(matchPlayer.getHand());
+        return CardSet.toCardCodeString(getPlayableCardsForMatchPlayer(game, matchPlayer, hand));
+    }
+
+    /**
+     * Like getPlayableCardsForMatchPlayer(Game, MatchPlayer, boolean), on the
+     * player's hand as a {@link CardSet} bitmask, for callers that already
+     * parsed it.
+     *
+     * @param game        the current game
+     * @param matchPlayer the player about to play
+     * @param hand        the player's hand
+     * @return the playable cards, EMPTY if it is not the player's turn
+     */
+    public long getPlayableCardsForMatchPlayer(Game game, MatchPlayer matchPlayer, long hand) {
         // Game state is assumed to be perfectly consistent!
         // log.info(" ¦¦¦ REACHED getPlayableCardsForMatchPlayer ¦¦¦");
 
         // Only players who are actually about to play get info on playability of cards.
-        if (!game.getPhase().inTrick()
-                || game.getCurrentMatchPlayerSlot() != matchPlayer.getMatchPlayerSlot()) {
-            // Only during actual ongoing games does it makes sense to investigate
-            // playability of cards (passing must be over).
-
+        if (!isAboutToPlay(game, matchPlayer)) {
             // log.info(" ¦ VERDICT: Out of turn.");
-            return "";
+            return CardSet.EMPTY;
         }
         // A. Player's Hand
-        String hand = CardUtils.normalizeCardCodeString(matchPlayer.getHand());
-        // log.info(" ¦ hand: {}.", hand);
-        int handSize = CardUtils.sizeOfCardCodeString(hand);
-        // log.info(" ¦ handSize: {}.", handSize);
-
-        boolean handHas2C = CardUtils.isCardCodeInHandAsString(GameConstants.TWO_OF_CLUBS, hand);
-        // log.info(" ¦ handHas2C: {}.", handHas2C);
-        String handHearts = CardUtils.cardCodesInSuit(hand, "H");
-        // log.info(" ¦ heartsCards: {}.", handHearts);
-        String handNonHearts = CardUtils.cardCodesNotInSuit(hand, "H");
-        // log.info(" ¦ handNonHearts: {}.", handNonHearts);
-        int handNonHeartsSize = CardUtils.sizeOfCardCodeString(handNonHearts);
-        // log.info(" ¦ handNonHeartsSize: {}.", handNonHeartsSize);
+        boolean handHas2C = (hand & CardSet.TWO_OF_CLUBS) != 0;
 
         // B. The Trick so far
         String trick = game.getCurrentTrickAsString();
@@ -100,22 +104,7 @@ public class CardRulesService {
         // log.info(" ¦ trickSize: {}.", trickSize);
         String leadingSuit = CardUtils.getSuitOfFirstCardInCardCodeString(trick);
         // log.info(" ¦ leadingSuit: {}.", leadingSuit);
-
-        boolean handHasLeadingSuit = CardUtils.isSuitInHand(hand, leadingSuit);
-        // log.info(" ¦ handHasLeadingSuit: {}.", handHasLeadingSuit);
-        String handLeadingSuit = CardUtils.cardCodesInSuit(hand, leadingSuit);
-        // log.info(" ¦ handLeadingSuit: {}.", handLeadingSuit);
-        int handLeadingSuitSize = CardUtils.sizeOfCardCodeString(handLeadingSuit);
-        // log.info(" ¦ handLeadingSuitSize: {}.", handLeadingSuitSize);
-
-        String handLeadingSuitNonQS = CardUtils.getHandWithCardCodeRemoved(handLeadingSuit,
-                GameConstants.QUEEN_OF_SPADES);
-        // log.info(" ¦ handLeadingSuitNonQS: {}.", handLeadingSuitNonQS);
-
-        String handNonHeartsNonQS = CardUtils.getHandWithCardCodeRemoved(handNonHearts,
-                GameConstants.QUEEN_OF_SPADES);
-        int handNonHeartsNonQSSize = CardUtils.sizeOfCardCodeString(handNonHeartsNonQS);
-        // log.info(" ¦ handNonHeartsNonQSSize: {}.", handNonHeartsNonQSSize);
+        int leadSuit = leadingSuit.isEmpty() ? LegalMoves.NO_LEAD_SUIT : CardSet.suitIndex(leadingSuit.charAt(0));
 
         // C. The Game state
         boolean heartsBroken = game.getHeartsBroken();
@@ -124,121 +113,57 @@ public class CardRulesService {
         // log.info(" ¦ playOrder: {}.", playOrder);
         int trickNumber = game.getCurrentTrickNumber();
         // log.info(" ¦ trickNumber: {}.", trickNumber);
-        GamePhase gamePhase = game.getPhase();
+        boolean firstTrick = game.getPhase() == GamePhase.FIRSTTRICK;
 
         // ### FACTS ESTABLISHED
 
-        String playableCards = "";
-        // Here goes...
         // Case 0. There are no cards in the player's hand
-        if (handSize == 0) {
-            // log.info(" ¦ Case 0.");
+        if (hand == CardSet.EMPTY) {
             log.warn("Player in MatchPlayerSlot={} (MatchPlayerId={}) has no cards in his hands: `{}`.",
                     matchPlayer.getMatchPlayerSlot(), matchPlayer.getMatchPlayerId(),
-                    hand);
+                    matchPlayer.getHand());
             throw new GameplayException(
                     String.format(
                             "Player has no cards in his hands: %s.",
-                            hand));
-        }
-        // ESTABLISHED: There are cards in the player's hands
-        // Case 1a. It is the first card of the firsttrick and handHas 2C.
-        else if (gamePhase == GamePhase.FIRSTTRICK && playOrder == 0 && handHas2C) {
-            // log.info(" ¦ Case 1a.");
-            playableCards = GameConstants.TWO_OF_CLUBS;
+                            matchPlayer.getHand()));
         }
         // Case 1b. It is NOT the first card of the firsttrick and handHas 2C => Illegal
         // state.
-        else if (playOrder != 0 && handHas2C) {
-            // log.info(" ¦ Case 1b.");
+        if (playOrder != 0 && handHas2C) {
             throw new IllegalStateException(
                     String.format(
                             "Player holds card 2C (hand=%s), even though currenPlayOrder is %d.",
-                            hand,
+                            CardSet.toCardCodeString(hand),
                             playOrder));
         }
-        // ESTABLISHED: It is NOT the first card of the first trick.
-        // ESTABLISHED: The player does NOT hold "2C".
         // Case 2a. It is the first trick, but the leading suit is Hearts => illegal
         // state.
-        else if (gamePhase == GamePhase.FIRSTTRICK && "H".equals(leadingSuit)) {
-            // log.info(" ¦ Case 2a.");
+        if (firstTrick && !handHas2C && leadSuit == CardSet.HEARTS) {
             throw new IllegalStateException(
                     String.format(
                             "In the first trick, the leading suit must not be Hearts."));
         }
-        // Case 2b. Player has the leading suit of the first round (no QS!)
-        else if (gamePhase == GamePhase.FIRSTTRICK && trickSize > 1 && handLeadingSuitSize > 0) {
-            // The Queen of Spades is illegal in the first trick
-            // log.info(" ¦ Case2 b.");
-            playableCards = handLeadingSuitNonQS;
-        }
-        // Case 2c. Player does not have the leading suit of the first trick,
-        // but some other non-heart suit (still no QS!)
-        else if (gamePhase == GamePhase.FIRSTTRICK
-                && trickSize > 1
-                && handLeadingSuitSize == 0
-                && handNonHeartsNonQSSize > 0) {
-            // The Queen of Spades is illegal in the first trick
-            // log.info(" ¦ Case 2c.");
-            playableCards = handNonHeartsNonQS;
-        }
-        // Case 2d. Player does not have the leading suit of the first trick,
-        // and neither any other non-heart suit (still no QS!)
-        // so hearts are actually allowed!
-        else if (gamePhase == GamePhase.FIRSTTRICK
-                && trickSize > 1
-                && handLeadingSuitSize == 0
-                && handNonHeartsNonQSSize == 0) {
-            // The Queen of Spades is illegal in the first trick
-            // log.info(" ¦ Case 2d.");
-            playableCards = handHearts;
-        }
-        // ESTABLISHED: It is NOT the first round.
-        // Case 3a. The trick is empty, but Hearts is not yet broken, but player only
-        // has Hearts cards.
-        else if (trickSize == 0 && !heartsBroken && handNonHeartsSize == 0) {
-            // log.info(" ¦ Case 3a.");
-            playableCards = handHearts;
-        }
-        // Case 3b. The trick is empty, but Hearts is not yet broken.
-        else if (trickSize == 0 && !heartsBroken) {
-            // log.info(" ¦ Case 3b.");
-            playableCards = handNonHearts;
-        }
-        // Case 3c. The trick is empty, but Hearts IS broken.
-        else if (trickSize == 0 && heartsBroken) {
-            // log.info(" ¦ Case 3c.");
-            playableCards = hand;
-        }
-        // ESTABLISHED: The Trick is NOT empty.
-        // Case 4a. The trick is NOT empty and player has cards in leading suit.
-        else if (trickSize > 0 && handHasLeadingSuit) {
-            // log.info(" ¦ Case 4a.");
-            playableCards = handLeadingSuit;
-        }
-        // Case 4b. The trick is NOT empty and player has no cards in leading suit.
-        else if (trickSize > 0 && !handHasLeadingSuit) {
-            // log.info(" ¦ Case 4b.");
-            playableCards = hand;
-        } else {
-            // log.info(" ¦ Case 9.");
-            throw new IllegalStateException(
-                    String.format(
-                            "Player's cards did not fit any category, really."));
+        // All other cases are plain rules, see LegalMoves.
+        long playableCards = LegalMoves.playableCards(hand, trickSize, leadSuit, heartsBroken, firstTrick);
 
-        }
         log.info(
                 "   ¦ Playable cards (hand: [{}]) card #{} in trick #{}; cards in trick: [{}] ({}) and hearts are {}broken; verdict: [{}].",
-                hand,
+                CardSet.toCardCodeString(hand),
                 trickSize + 1,
                 trickNumber,
                 trick,
                 leadingSuit.isEmpty() ? "no leading suit" : "leading suit:" + leadingSuit,
                 heartsBroken ? "" : "not ",
-                playableCards);
-        return CardUtils.normalizeCardCodeString(playableCards);
+                CardSet.toCardCodeString(playableCards));
+        return playableCards;
+
+    }
 
+    private static boolean isAboutToPlay(Game game, MatchPlayer matchPlayer) {
+        // Only during actual ongoing games does it makes sense to investigate
+        // playability of cards (passing must be over).
+        return game.getPhase().inTrick()
+                && game.getCurrentMatchPlayerSlot() == matchPlayer.getMatchPlayerSlot();
     }
 
     /**
@@ -269,22 +194,23 @@ public class CardRulesService {
         }
 
         // 2. Determine playability
-        String playableCards = getPlayableCardsForMatchPlayerPlaying(game, matchPlayer);
-        boolean cardIsPlayable = playableCards.contains(cardCode);
+        long handCards = CardSet.fromCardCodeString(hand);
+        long playableCards = getPlayableCardsForMatchPlayer(game, matchPlayer, handCards);
+        boolean cardIsPlayable = CardUtils.isCardCodeInHand(playableCards, cardCode);
 
         // 3. Check if card is playable
         if (!cardIsPlayable) {
             log.info("+ Only legal cards: {} | Hand: {} | Trick so far: {} | # of Trick: {} | Hearts {}broken",
-                    playableCards, hand, game.getCurrentTrick(), game.getCurrentTrickNumber(),
+                    CardSet.toCardCodeString(playableCards), hand, game.getCurrentTrick(), game.getCurrentTrickNumber(),
                     game.getHeartsBroken() ? "" : "not ");
 
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     String.format("Illegal card played: %s. Legal cards: %s. Current trick: %s",
-                            cardCode, playableCards, game.getCurrentTrick()));
+                            cardCode, CardSet.toCardCodeString(playableCards), game.getCurrentTrick()));
         }
 
         // 4. Confirm the card is in hand
-        if (!CardUtils.isCardCodeInHand(hand, cardCode)) {
+        if (!CardUtils.isCardCodeInHand(handCards, cardCode)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     String.format("MatchPlayer %s does not hold card %s in their hand.",
                             matchPlayer.getInfo(), cardCode));
@@ -0,0 +1,32 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.Optional;
+
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import reactor.core.publisher.Mono;
+
+/**
+ * Where the shuffled decks of new games come from. Which implementation is
+ * used is chosen by the deck.provider property (see DeckProviderConfig).
+ */
+public interface DeckProvider {
+
+    /**
+     * Shuffles a new deck of 52 cards. Providers that do not need to wait for
+     * anything complete the Mono right away, so the cards are dealt while
+     * the game is being started.
+     *
+     * @return The shuffled deck.
+     */
+    Mono<ShuffledDeck> shuffleDeck();
+
+    /**
+     * Hands out a deck that was shuffled ahead of time, if there is one, so
+     * that a game can be dealt without waiting for a deck at all.
+     *
+     * @return A ready deck, or empty if the provider has none at hand.
+     */
+    default Optional<ShuffledDeck> pollReadyDeck() {
+        return Optional.empty();
+    }
+}
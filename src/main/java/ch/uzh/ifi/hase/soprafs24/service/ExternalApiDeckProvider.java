@@ -0,0 +1,32 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gets decks from the deck of cards API: one call to shuffle a new deck, and
+ * one to draw all of its cards. The deck id is the one given by the API.
+ */
+public class ExternalApiDeckProvider implements DeckProvider {
+
+    private final ExternalApiClientService externalApiClientService;
+
+    public ExternalApiDeckProvider(ExternalApiClientService externalApiClientService) {
+        this.externalApiClientService = externalApiClientService;
+    }
+
+    @Override
+    public Mono<ShuffledDeck> shuffleDeck() {
+        return externalApiClientService.createNewDeck()
+                .flatMap(newDeck -> externalApiClientService
+                        .drawCard(newDeck.getDeck_id(), GameConstants.FULL_DECK_CARD_COUNT)
+                        .map(drawn -> {
+                            if (!CardUtils.validateDrawnCards(drawn.getCards())) {
+                                throw new IllegalStateException("Invalid cards in deck");
+                            }
+                            return new ShuffledDeck(newDeck.getDeck_id(), drawn.getCards());
+                        }));
+    }
+}
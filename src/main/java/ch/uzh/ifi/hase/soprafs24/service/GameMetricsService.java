@@ -0,0 +1,199 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.util.CircuitBreaker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Game Metrics Service
+ * Records how long polling, card plays and AI decisions take, how late tricks
+ * are cleared, how many SQL statements a request costs and how often a token
+ * is found in the cache of UserService, in the MeterRegistry that
+ * /actuator/prometheus exposes.
+ */
+@Service
+@Qualifier("gameMetricsService")
+public class GameMetricsService {
+    public static final String ROLE_HOST = "host";
+    public static final String ROLE_PLAYER = "player";
+    public static final String ROLE_SPECTATOR = "spectator";
+
+    // How long the per-phase match counts are reused, so that a scrape costs
+    // at most one query instead of one per MatchPhase.
+    static final long PHASE_COUNTS_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MatchRepository matchRepository;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private Map<MatchPhase, Long> phaseCounts;
+    private long phaseCountsTakenAt;
+
+    @Autowired
+    public GameMetricsService(
+            @Qualifier("matchRepository") MatchRepository matchRepository,
+            MeterRegistry meterRegistry,
+            @Qualifier("userService") UserService userService) {
+        this(matchRepository, meterRegistry, System::nanoTime);
+        monitorTokenCache(userService);
+    }
+
+    GameMetricsService(MatchRepository matchRepository, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.matchRepository = matchRepository;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        for (MatchPhase phase : MatchPhase.values()) {
+            Gauge.builder("hearts.matches", this, metrics -> metrics.countMatchesInPhase(phase))
+                    .description("Matches per MatchPhase")
+                    .tag("phase", phase.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param role  ROLE_HOST, ROLE_PLAYER or ROLE_SPECTATOR
+     * @param nanos time it took to answer one polling request
+     */
+    public void recordPolling(String role, long nanos) {
+        Timer.builder("hearts.polling")
+                .description("Time to answer a polling request")
+                .tag("role", role)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param nanos time it took to validate and apply a card played by a human
+     */
+    public void recordCardPlay(long nanos) {
+        Timer.builder("hearts.card.play")
+                .description("Time to validate and apply a card played by a human")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param strategy the Strategy of the AI player
+     * @param nanos    time it took the AI player to pick a card
+     */
+    public void recordAiDecision(Strategy strategy, long nanos) {
+        Timer.builder("hearts.ai.decision")
+                .description("Time for an AI player to pick a card")
+                .tag("strategy", strategy.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param lagMillis how much later than TRICK_DELAY_MS a completed trick was
+     *                  moved on to PROCESSINGTRICK
+     */
+    public void recordTrickTransitionLag(long lagMillis) {
+        Timer.builder("hearts.trick.transition.lag")
+                .description("Delay of a trick transition beyond TRICK_DELAY_MS")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Math.max(0, lagMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param method     HTTP method of the request
+     * @param uri        URI pattern of the handler, e.g. /matches/{matchId}/logic
+     * @param statements SQL statements prepared while handling the request
+     */
+    public void recordRequestStatements(String method, String uri, long statements) {
+        DistributionSummary.builder("hearts.db.statements")
+                .description("SQL statements prepared per HTTP request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+    }
+
+    /**
+     * Exposes the call statistics of the deck of cards API client.
+     *
+     * @param deckProvider the provider wrapping the external API
+     */
+    public void monitorDeckApi(ResilientDeckProvider deckProvider) {
+        FunctionTimer.builder("hearts.deck.api", deckProvider,
+                ResilientDeckProvider::getPrimaryCallCount,
+                provider -> provider.getAveragePrimaryLatencyMillis() * provider.getPrimaryCallCount(),
+                TimeUnit.MILLISECONDS)
+                .description("Calls to the deck of cards API, retries included")
+                .register(meterRegistry);
+        FunctionCounter.builder("hearts.deck.api.failures", deckProvider,
+                ResilientDeckProvider::getPrimaryFailureCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("hearts.deck.api.fallbacks", deckProvider,
+                ResilientDeckProvider::getFallbackCount)
+                .description("Decks shuffled locally instead")
+                .register(meterRegistry);
+        Gauge.builder("hearts.deck.api.circuit.open", deckProvider,
+                provider -> provider.getCircuitState() == CircuitBreaker.State.OPEN ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exposes the fill level of the pool of decks shuffled ahead of time.
+     *
+     * @param pool the pool
+     */
+    public void monitorDeckPool(PooledDeckProvider pool) {
+        Gauge.builder("hearts.deck.pool.ready", pool, PooledDeckProvider::getReadyDeckCount)
+                .register(meterRegistry);
+        FunctionCounter.builder("hearts.deck.pool.exhaustions", pool, PooledDeckProvider::getExhaustionCount)
+                .description("Games that found the pool empty")
+                .register(meterRegistry);
+        FunctionCounter.builder("hearts.deck.pool.refill.failures", pool,
+                PooledDeckProvider::getRefillFailureCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exposes how often a token was resolved from the cache of UserService
+     * instead of the database.
+     *
+     * @param userService the service holding the token cache
+     */
+    public void monitorTokenCache(UserService userService) {
+        FunctionCounter.builder("hearts.auth.token_cache.hits", userService, UserService::getTokenCacheHits)
+                .description("Tokens resolved from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("hearts.auth.token_cache.misses", userService, UserService::getTokenCacheMisses)
+                .description("Tokens looked up in the database")
+                .register(meterRegistry);
+    }
+
+    synchronized long countMatchesInPhase(MatchPhase phase) {
+        long now = nanoClock.getAsLong();
+        if (phaseCounts == null || now - phaseCountsTakenAt > PHASE_COUNTS_MAX_AGE_NANOS) {
+            Map<MatchPhase, Long> counts = new EnumMap<>(MatchPhase.class);
+            for (MatchRepository.PhaseCount count : matchRepository.countMatchesByPhase()) {
+                counts.put(count.getPhase(), count.getCount());
+            }
+            phaseCounts = counts;
+            phaseCountsTakenAt = now;
+        }
+        return phaseCounts.getOrDefault(phase, 0L);
+    }
+}
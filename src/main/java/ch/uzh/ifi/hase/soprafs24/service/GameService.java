@@ -32,6 +32,7 @@ import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 
 /**
@@ -53,6 +54,7 @@ public class GameService {
     private final GameRepository gameRepository;
     private final GameStatsService gameStatsService;
     private final GameTrickService gameTrickService;
+    private final LeaderboardService leaderboardService;
     private final MatchRepository matchRepository;
     private final MatchMessageService matchMessageService;
     private final MatchPlayerRepository matchPlayerRepository;
@@ -69,6 +71,7 @@ public class GameService {
             @Qualifier("gameRepository") GameRepository gameRepository,
             @Qualifier("gameStatsService") GameStatsService gameStatsService,
             @Qualifier("gameTrickService") GameTrickService gameTrickService,
+            @Qualifier("leaderboardService") LeaderboardService leaderboardService,
             @Qualifier("matchMessageService") MatchMessageService matchMessageService,
             @Qualifier("matchRepository") MatchRepository matchRepository,
             @Qualifier("matchPlayerRepository") MatchPlayerRepository matchPlayerRepository,
@@ -80,6 +83,7 @@ public class GameService {
         this.gameRepository = gameRepository;
         this.gameStatsService = gameStatsService;
         this.gameTrickService = gameTrickService;
+        this.leaderboardService = leaderboardService;
         this.matchMessageService = matchMessageService;
         this.matchRepository = matchRepository;
         this.matchPlayerRepository = matchPlayerRepository;
@@ -104,15 +108,17 @@ public class GameService {
      * @param match    the match in which the game is being played
      * @param game     the current game instance
      * @param aiPlayer the AI-controlled player attempting to take a turn
+     * @param searched the searched move of an ISMCTS player, or null
      * @return true if the AI successfully played a card, false if they are still
-     *         "thinking" or the game is over
+     *         "thinking" (or, playing ISMCTS, waiting for their search) or the
+     *         game is over
      * @throws ResponseStatusException if:
      *                                 - the given player is not a valid AI player
      *                                 for the match ({@code CONFLICT}),
      *                                 - it is not the AI player's turn to act
      *                                 ({@code CONFLICT})
      */
-    public boolean playSingleAiTurn(Match match, Game game, MatchPlayer aiPlayer) {
+    public boolean playSingleAiTurn(Match match, Game game, MatchPlayer aiPlayer, IsmctsService.Move searched) {
         // Is this aiPlayer an existing AI Player?
         if (aiPlayer == null || !Boolean.TRUE.equals(aiPlayer.getIsAiPlayer())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
@@ -134,20 +140,89 @@ public class GameService {
             log.info("  = The AI Player in Slot {} skips a turn to think.", aiPlayer.getMatchPlayerSlot());
             return false;
         }
+        // Select a card to play.
+        String cardCode = selectCardForAi(game, aiPlayer, searched);
+        if (cardCode == null) {
+            log.info("  = The AI Player in Slot {} waits for their search.", aiPlayer.getMatchPlayerSlot());
+            return false;
+        }
+
         // Do the actual "thinking".
         aiPlayer.setAiMatchPlayerState(AiMatchPlayerState.READY);
         log.info("  = The AI Player in Slot {} is done thinking and ready to perform their turn.",
                 aiPlayer.getMatchPlayerSlot());
 
-        // Select a card to play.
-        String cardCode = aiPlayingService.selectCardToPlay(game, aiPlayer, Strategy.LEFTMOST);
-
         // Play that card.
         playCardAsAi(game, aiPlayer, cardCode);
 
         return true;
     }
 
+    /**
+     * Plays the turns of all AI players that are up next, up to the end of
+     * the trick or the next human player, in one go. Unlike
+     * playSingleAiTurn, the AI players do not skip a turn to think; instead
+     * their cards get play times AI_RUN_AHEAD_CARD_INTERVAL_MS apart, starting
+     * now, so clients can still reveal them one by one.
+     *
+     * Everything is written in the transaction of the caller. An ISMCTS
+     * player only plays the move searched for their turn, so the run stops at
+     * any other ISMCTS player.
+     *
+     * @param match    the match in which the game is being played
+     * @param game     the current game instance
+     * @param searched the searched move of the ISMCTS player up next, or null
+     * @return the number of cards played
+     */
+    @Transactional
+    public int playAiTurnsAhead(Match match, Game game, IsmctsService.Move searched) {
+        Instant playedAt = Instant.now();
+        int cardsPlayed = 0;
+        while (cardsPlayed < GameConstants.MAX_TRICK_SIZE
+                && game.getPhase().inTrick()
+                && (game.getTrickPhase() == TrickPhase.READYFORFIRSTCARD
+                        || game.getTrickPhase() == TrickPhase.RUNNINGTRICK)
+                && game.getCurrentPlayOrder() < GameConstants.FULL_DECK_CARD_COUNT) {
+            MatchPlayer aiPlayer = match.requireMatchPlayerBySlot(game.getCurrentMatchPlayerSlot());
+            if (!Boolean.TRUE.equals(aiPlayer.getIsAiPlayer())) {
+                break;
+            }
+            String cardCode = selectCardForAi(game, aiPlayer, searched);
+            if (cardCode == null) {
+                break;
+            }
+            aiPlayer.setAiMatchPlayerState(AiMatchPlayerState.READY);
+
+            playCardAsAi(game, aiPlayer, cardCode, playedAt);
+            cardsPlayed++;
+            playedAt = playedAt.plusMillis(GameConstants.AI_RUN_AHEAD_CARD_INTERVAL_MS);
+
+            // A completed trick waits for the clock.
+            if (game.getTrickPhase() != TrickPhase.RUNNINGTRICK) {
+                break;
+            }
+        }
+        log.info("  = {} AI card(s) played ahead; now at playOrder {}.", cardsPlayed, game.getCurrentPlayOrder());
+        return cardsPlayed;
+    }
+
+    /**
+     * The card an AI player plays: ISMCTS players the one searched for this
+     * very turn, everyone else the leftmost legal card.
+     *
+     * @return the card code, or null for an ISMCTS player whose turn has not
+     *         been searched yet
+     */
+    private String selectCardForAi(Game game, MatchPlayer aiPlayer, IsmctsService.Move searched) {
+        if (aiPlayer.getStrategy() != Strategy.ISMCTS) {
+            return aiPlayingService.selectCardToPlay(game, aiPlayer, Strategy.LEFTMOST);
+        }
+        if (searched == null || !searched.isFor(game, aiPlayer)) {
+            return null;
+        }
+        return aiPlayingService.selectSearchedCard(game, aiPlayer, searched);
+    }
+
     /**
      * Handles a human player's attempt to play a card during their turn in the
      * game.
@@ -236,6 +311,15 @@ public class GameService {
      */
     @Transactional
     public void playCardAsAi(Game game, MatchPlayer aiPlayer, String cardCode) {
+        playCardAsAi(game, aiPlayer, cardCode, Instant.now());
+    }
+
+    /**
+     * Like playCardAsAi(Game, MatchPlayer, String), but the card is shown at
+     * the given time instead of now.
+     */
+    @Transactional
+    public void playCardAsAi(Game game, MatchPlayer aiPlayer, String cardCode, Instant playedAt) {
         CardUtils.requireValidCardFormat(cardCode);
 
         String hand = aiPlayer.getHand();
@@ -270,7 +354,7 @@ public class GameService {
         }
 
         cardRulesService.validateMatchPlayerCardCode(game, aiPlayer, cardCode);
-        executeValidatedCardPlay(game, aiPlayer.getMatchPlayerId(), cardCode);
+        executeValidatedCardPlay(game, aiPlayer.getMatchPlayerId(), cardCode, playedAt);
     }
 
     /**
@@ -295,44 +379,33 @@ public class GameService {
      */
     @Transactional
     public void executeValidatedCardPlay(Game game, Long matchPlayerId, String cardCode) {
+        executeValidatedCardPlay(game, matchPlayerId, cardCode, Instant.now());
+    }
+
+    /**
+     * Like executeValidatedCardPlay(Game, Long, String), but the card is shown
+     * at the given time instead of now.
+     */
+    @Transactional
+    public void executeValidatedCardPlay(Game game, Long matchPlayerId, String cardCode, Instant playedAt) {
         log.info("   +-- executeValidatedCardPlay ---");
 
         MatchPlayer matchPlayer = matchPlayerRepository.findById(matchPlayerId)
                 .orElseThrow(() -> new GameplayException("MatchPlayer not found with ID: " + matchPlayerId));
 
-        String hand = matchPlayer.getHand();
+        long hand = CardSet.fromCardCodeString(matchPlayer.getHand());
         if (!CardUtils.isCardCodeInHand(hand, cardCode)) {
             throw new IllegalStateException("Tried to remove a card that wasn't in hand: " + cardCode);
         }
 
-        String newHand = CardUtils.getHandWithCardCodeRemoved(hand, cardCode);
-        matchPlayer.setHand(newHand);
-        matchPlayerRepository.saveAndFlush(matchPlayer);
-        // Double-check that persistence worked
-        MatchPlayer verified = matchPlayerRepository.findById(matchPlayer.getMatchPlayerId())
-                .orElseThrow(() -> new GameplayException(
-                        "MatchPlayer not found with ID: " + matchPlayer.getMatchPlayerId()));
-
-        if (CardUtils.isCardCodeInHand(verified.getHand(), cardCode)) {
-            log.warn("Card still present after save. Retrying...");
-
-            // Forcefully reload and retry
-            MatchPlayer retry = matchPlayerRepository.findById(matchPlayer.getMatchPlayerId()).orElseThrow();
-            String updatedHand = CardUtils.getHandWithCardCodeRemoved(retry.getHand(), cardCode);
-            retry.setHand(updatedHand);
-            matchPlayerRepository.saveAndFlush(retry);
-
-            MatchPlayer confirm = matchPlayerRepository.findById(matchPlayer.getMatchPlayerId()).orElseThrow();
-            if (CardUtils.isCardCodeInHand(confirm.getHand(), cardCode)) {
-
-                log.error("Failed after retry. Original hand: [{}], New hand: [{}]", hand, newHand);
-                throw new IllegalStateException("Failed to remove card even after retry: " + cardCode);
-            }
-        }
+        // The MatchPlayer is managed by the current persistence context: the new
+        // hand is written together with all other changes of this play when the
+        // transaction commits, in one batch.
+        matchPlayer.setHand(CardSet.toCardCodeString(CardUtils.getHandWithCardCodeRemoved(hand, cardCode)));
 
         log.info("    + executeValidatedCardPlay just about to addCardToTrick({}). GamePhase={}.", cardCode,
                 game.getPhase());
-        gameTrickService.addCardToTrick(game.getMatch(), game, matchPlayer, cardCode);
+        gameTrickService.addCardToTrick(game.getMatch(), game, matchPlayer, cardCode, playedAt);
 
         gameTrickService.updateGamePhaseBasedOnPlayOrder(game);
 
@@ -367,6 +440,9 @@ public class GameService {
     }
 
     void cardParanoia(Game game) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         String txt = "";
         int totalNumberOfCards = 0;
         // cards in trick
@@ -397,7 +473,7 @@ public class GameService {
             txt += mpTakenCardsCount + " cards: [" + mpTakenCards + "]); ";
             totalNumberOfCards += mpTakenCardsCount;
         }
-        log.info("🌀PARANOIA in Match " + game.getMatch().getMatchId() + " / Game " + game.getGameNumber()
+        log.debug("🌀PARANOIA in Match " + game.getMatch().getMatchId() + " / Game " + game.getGameNumber()
                 + "! PlayOrder=" + game.getCurrentPlayOrder()
                 + "; there are " + totalNumberOfCards
                 + " cards accounted for. " + txt);
@@ -622,6 +698,7 @@ public class GameService {
                 }
 
                 userRepository.save(user);
+                leaderboardService.update(user);
             }
 
             matchPlayerRepository.save(mp);
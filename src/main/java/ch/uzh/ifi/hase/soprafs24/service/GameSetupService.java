@@ -1,6 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 
 import javax.persistence.EntityNotFoundException;
@@ -22,7 +23,7 @@ import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.logic.GameEnforcer;
 import ch.uzh.ifi.hase.soprafs24.model.CardResponse;
 import ch.uzh.ifi.hase.soprafs24.model.DrawCardResponse;
-import ch.uzh.ifi.hase.soprafs24.model.NewDeckResponse;
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
@@ -34,15 +35,18 @@ import reactor.core.publisher.Mono;
 public class GameSetupService {
     private final Logger log = LoggerFactory.getLogger(GameSetupService.class);
 
+    private final DeckProvider deckProvider;
     private final ExternalApiClientService externalApiClientService;
     private final GameStatsService gameStatsService;
     private final MatchPlayerRepository matchPlayerRepository;
 
     @Autowired
     public GameSetupService(
+            @Qualifier("deckProvider") DeckProvider deckProvider,
             @Qualifier("externalApiClientService") ExternalApiClientService externalApiClientService,
             @Qualifier("gameStatsService") GameStatsService gameStatsService,
             @Qualifier("matchPlayerRepository") MatchPlayerRepository matchPlayerRepository) {
+        this.deckProvider = deckProvider;
         this.externalApiClientService = externalApiClientService;
         this.gameStatsService = gameStatsService;
         this.matchPlayerRepository = matchPlayerRepository;
@@ -89,6 +93,17 @@ public class GameSetupService {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Game could not be created.");
         }
 
+        if (seed == null || seed == 0) {
+            Optional<ShuffledDeck> readyDeck = deckProvider.pollReadyDeck();
+            if (readyDeck.isPresent()) {
+                // A deck shuffled ahead of time: deal without waiting for one.
+                game.setDeckId(readyDeck.get().getDeckId());
+                distributeFullDeckToPlayers(match, game, matchRepository, gameRepository,
+                        readyDeck.get().getCards());
+                return game;
+            }
+        }
+
         game.setPhase(GamePhase.WAITING_FOR_EXTERNAL_API);
         // log.info("💄 🦑 GameSetupService: GamePhase is set to
         // WAITING_FOR_EXTERNAL_API.");
@@ -100,7 +115,7 @@ public class GameSetupService {
             game.setDeckId(ExternalApiClientService.buildSeedString(seed));
             distributeCards(match, game, matchRepository, gameRepository, seed);
         } else {
-            // log.info(" 🦑 GameSetupService: Cards are fetched from remote API.");
+            // The DeckProvider shuffles; a local one deals before this returns.
             fetchDeckAndDistributeCardsAsync(matchRepository, gameRepository, match.getMatchId());
         }
 
@@ -108,8 +123,9 @@ public class GameSetupService {
     }
 
     /**
-     * Asynchronously fetches a new deck from the external API and distributes
-     * cards.
+     * Gets a new deck from the DeckProvider and distributes the cards, as soon
+     * as the deck is there (right away for a local provider, once the external
+     * API responds otherwise).
      * 
      * @param matchRepository used to retrieve and save the match
      * @param matchId         the ID of the match to fetch the deck for
@@ -121,10 +137,12 @@ public class GameSetupService {
     public void fetchDeckAndDistributeCardsAsync(MatchRepository matchRepository, GameRepository gameRepository,
             Long matchId) {
         // log.info(" 🦑 GameSetupService fetchDeckAndDistributeCardsAsync");
-        Mono<NewDeckResponse> newDeckResponseMono = externalApiClientService.createNewDeck();
+        Mono<ShuffledDeck> shuffledDeckMono = deckProvider.shuffleDeck();
 
-        newDeckResponseMono.subscribe(response -> {
-            Match match = matchRepository.findMatchByMatchId(matchId);
+        shuffledDeckMono.subscribe(deck -> {
+            // With its players: this may run outside of any session, once the
+            // deck arrives.
+            Match match = matchRepository.findWithPlayersByMatchId(matchId);
             if (match == null) {
                 throw new EntityNotFoundException("Match not found");
             }
@@ -135,17 +153,12 @@ public class GameSetupService {
             }
 
             Game game = games.get(0);
-            // log.info(" 🦑 GameSetupService: Deck ID was set to {}.",
-            // response.getDeck_id());
-            game.setDeckId(response.getDeck_id());
-            gameRepository.save(game);
-            matchRepository.save(match);
-
-            distributeCards(match, game, matchRepository, gameRepository, null);
+            game.setDeckId(deck.getDeckId());
+            distributeFullDeckToPlayers(match, game, matchRepository, gameRepository, deck.getCards());
         }, error -> {
-            log.error("Failed to fetch deck from external API", error);
+            log.error("Failed to get a deck from the DeckProvider", error);
 
-            Match match = matchRepository.findMatchByMatchId(matchId);
+            Match match = matchRepository.findWithPlayersByMatchId(matchId);
             if (match == null) {
                 throw new EntityNotFoundException("Match not found");
             }
@@ -208,7 +221,7 @@ public class GameSetupService {
             // log.info(" 🦑 GameSetupService: Drew refreshedGame from gameRepository inside
             // subscribe block.");
             // Manually draw fresh match object from DB:
-            Match refreshedMatch = matchRepository.findById(matchId)
+            Match refreshedMatch = Optional.ofNullable(matchRepository.findWithPlayersByMatchId(matchId))
                     .orElseThrow(() -> new EntityNotFoundException("Match not found with id: " + matchId));
             List<CardResponse> responseCards = response.getCards();
             // log.info(" 🦑 GameSetupService: About to distributeFullDeckToPlayers");
@@ -216,7 +229,7 @@ public class GameSetupService {
         }, error -> {
             log.error("Failed to fetch deck from external API", error);
 
-            Match refreshedMatch = matchRepository.findMatchByMatchId(matchId);
+            Match refreshedMatch = matchRepository.findWithPlayersByMatchId(matchId);
             if (refreshedMatch == null) {
                 throw new EntityNotFoundException("Match not found");
             }
@@ -6,11 +6,11 @@ import org.springframework.stereotype.Service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 
 import org.slf4j.Logger;
@@ -26,7 +26,7 @@ public class GameSimulationService {
     private static final Logger log = LoggerFactory.getLogger(GameSimulationService.class);
 
     private final GameRepository gameRepository;
-    private final GameStatsRepository gameStatsRepository;
+    private final GameCardLedgerRepository gameCardLedgerRepository;
     private final MatchPlayerRepository matchPlayerRepository;
 
     private final Random random = new Random();
@@ -34,10 +34,10 @@ public class GameSimulationService {
     @Autowired
     public GameSimulationService(
             GameRepository gameRepository,
-            GameStatsRepository gameStatsRepository,
+            GameCardLedgerRepository gameCardLedgerRepository,
             MatchPlayerRepository matchPlayerRepository) {
         this.gameRepository = gameRepository;
-        this.gameStatsRepository = gameStatsRepository;
+        this.gameCardLedgerRepository = gameCardLedgerRepository;
         this.matchPlayerRepository = matchPlayerRepository;
     }
 
@@ -87,11 +87,7 @@ public class GameSimulationService {
         }
 
         // Move stats to latest game
-        List<GameStats> statsToUpdate = gameStatsRepository.findAllByGame(originalGame);
-        for (GameStats stats : statsToUpdate) {
-            stats.setGame(game);
-            gameStatsRepository.save(stats);
-        }
+        moveCardLedger(originalGame, game);
     }
 
     @Transactional
@@ -191,11 +187,7 @@ public class GameSimulationService {
         }
 
         // Move stats to latest game
-        List<GameStats> statsToUpdate = gameStatsRepository.findAllByGame(originalGame);
-        for (GameStats stats : statsToUpdate) {
-            stats.setGame(game);
-            gameStatsRepository.save(stats);
-        }
+        moveCardLedger(originalGame, game);
     }
 
     @Transactional
@@ -244,11 +236,23 @@ public class GameSimulationService {
         }
 
         // Move stats to latest game
-        List<GameStats> statsToUpdate = gameStatsRepository.findAllByGame(originalGame);
-        for (GameStats stats : statsToUpdate) {
-            stats.setGame(game);
-            gameStatsRepository.save(stats);
+        moveCardLedger(originalGame, game);
+    }
+
+    /**
+     * The card ledger shares its id with its game, so moving it to another
+     * game means copying it.
+     */
+    private void moveCardLedger(Game fromGame, Game toGame) {
+        if (fromGame == toGame) {
+            return;
+        }
+        Optional<GameCardLedger> ledger = gameCardLedgerRepository.findById(fromGame.getGameId());
+        if (ledger.isEmpty()) {
+            return;
         }
+        gameCardLedgerRepository.delete(ledger.get());
+        gameCardLedgerRepository.save(new GameCardLedger(ledger.get(), toGame));
     }
 
     public static List<Integer> generateRandomScores() {
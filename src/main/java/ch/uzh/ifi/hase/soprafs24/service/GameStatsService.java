@@ -3,12 +3,12 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
-import ch.uzh.ifi.hase.soprafs24.constant.Rank;
-import ch.uzh.ifi.hase.soprafs24.constant.Suit;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,38 +27,40 @@ public class GameStatsService {
 
     private final Logger log = LoggerFactory.getLogger(GameStatsService.class);
 
-    private final GameStatsRepository gameStatsRepository;
+    private final GameCardLedgerRepository gameCardLedgerRepository;
     private final MatchRepository matchRepository;
+    private final CardKnowledgeService cardKnowledgeService;
 
     @Autowired
     public GameStatsService(
-            @Qualifier("gameStatsRepository") GameStatsRepository gameStatsRepository,
-            @Qualifier("matchRepository") MatchRepository matchRepository) {
-        this.gameStatsRepository = gameStatsRepository;
+            @Qualifier("gameCardLedgerRepository") GameCardLedgerRepository gameCardLedgerRepository,
+            @Qualifier("matchRepository") MatchRepository matchRepository,
+            @Qualifier("cardKnowledgeService") CardKnowledgeService cardKnowledgeService) {
+        this.gameCardLedgerRepository = gameCardLedgerRepository;
         this.matchRepository = matchRepository;
+        this.cardKnowledgeService = cardKnowledgeService;
     }
 
+    /**
+     * Creates the card ledger of a new game: one row for all 52 cards.
+     *
+     * @param match The match of the game.
+     * @param game  The new game; it must already have an id.
+     */
     public void initializeGameStats(Match match, Game game) {
-        for (Suit suit : Suit.values()) {
-            for (Rank rank : Rank.values()) {
-                GameStats gameStats = new GameStats();
-                gameStats.setMatch(match);
-                gameStats.setGame(game);
-                gameStats.setSuit(suit);
-                gameStats.setRank(rank);
-                gameStats.setPlayOrder(0);
-                gameStats.setPlayedBy(0);
-                gameStats.setPointsWorth(
-                        suit == Suit.S && rank == Rank.Q ? 13 : (suit == Suit.H ? 1 : 0));
-                gameStats.setPossibleHolders(0b1111);
-                gameStats.setPointsBilledTo(0);
-                gameStats.setCardHolder(0); // to be filled right after
-                gameStats.setCardOrder(CardUtils.calculateCardOrder(rank.getSymbol() + suit.getSymbol()));
-                gameStatsRepository.save(gameStats);
-            }
-        }
-        gameStatsRepository.flush();
+        gameCardLedgerRepository.save(new GameCardLedger(match, game));
+    }
 
+    /**
+     * Returns the card ledger of a game. Within a transaction the ledger is
+     * looked up by id, so repeated calls do not hit the database again.
+     *
+     * @param game The given game.
+     * @return The card ledger of the game.
+     */
+    public GameCardLedger getCardLedger(Game game) {
+        return gameCardLedgerRepository.findById(game.getGameId())
+                .orElseThrow(() -> new IllegalStateException("No card ledger found for game " + game.getGameId()));
     }
 
     public List<GameStats> getGameStatsForMatch(Long matchId) {
@@ -68,9 +70,14 @@ public class GameStatsService {
             throw new IllegalArgumentException("Match not found with ID: " + matchId);
         }
 
-        List<GameStats> stats = gameStatsRepository.findByMatch(match);
+        List<GameStats> stats = new ArrayList<>();
+        for (GameCardLedger ledger : gameCardLedgerRepository.findByMatch(match)) {
+            for (int card = 0; card < GameCardLedger.CARDS; card++) {
+                stats.add(ledger.toGameStats(card));
+            }
+        }
 
-        if (stats == null || stats.isEmpty()) {
+        if (stats.isEmpty()) {
             // You can also use HttpStatus.NOT_FOUND if this is an API layer
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No game stats found for this match");
         }
@@ -79,13 +86,13 @@ public class GameStatsService {
     }
 
     public void deleteGameStatsForMatch(Match match) {
-        gameStatsRepository.deleteByMatch(match);
+        gameCardLedgerRepository.deleteByMatch(match);
+        cardKnowledgeService.evictMatch(match);
         log.info("Deleted game stats for Match ID: {}", match.getMatchId());
     }
 
     public List<GameStats> getTrickByIndex(Game game, int trickIndex) {
-        List<GameStats> allPlays = gameStatsRepository
-                .findByGameAndPlayOrderGreaterThanOrderByPlayOrderAsc(game, 0);
+        List<GameStats> allPlays = getPlayedCards(game);
 
         int start = trickIndex * 4;
         int end = Math.min(start + 4, allPlays.size());
@@ -98,7 +105,23 @@ public class GameStatsService {
     }
 
     public List<GameStats> getPlayedCards(Game game) {
-        return gameStatsRepository.findByGameAndPlayOrderGreaterThanOrderByPlayOrderAsc(game, 0);
+        GameCardLedger ledger = getCardLedger(game);
+
+        // Play orders are unique, so the cards can be placed by their play order.
+        GameStats[] byPlayOrder = new GameStats[GameCardLedger.CARDS + 1];
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            if (ledger.isPlayed(card)) {
+                byPlayOrder[ledger.getPlayOrder(card)] = ledger.toGameStats(card);
+            }
+        }
+
+        List<GameStats> playedCards = new ArrayList<>();
+        for (GameStats gameStats : byPlayOrder) {
+            if (gameStats != null) {
+                playedCards.add(gameStats);
+            }
+        }
+        return playedCards;
     }
 
     @Transactional
@@ -112,73 +135,52 @@ public class GameStatsService {
         if (match == null) {
             throw new IllegalStateException("Match Player does not belong to any match.");
         }
+        int matchPlayerSlot = matchPlayer.getMatchPlayerSlot();
+        if (matchPlayerSlot < 1 || matchPlayerSlot > 4) {
+            throw new IllegalArgumentException("matchPlayerNumber must be between 1 and 4.");
+        }
 
-        // Record stats
-        GameStats gameStats = gameStatsRepository.findByGameAndRankSuit(game, cardCode);
+        // Record stats; the ledger is managed, so the changes are written back
+        // with the transaction.
+        GameCardLedger ledger = getCardLedger(game);
+        int card = GameCardLedger.cardIndex(cardCode);
         // who dealt it?
-        gameStats.setPlayedBy(matchPlayer.getMatchPlayerSlot()); // or getUser().getId(), depending on your entity
+        ledger.setPlayedBy(card, matchPlayerSlot);
         // the how-many-eth card was it in this game?
-        gameStats.setPlayOrder(game.getCurrentPlayOrder()); // explained below
-        //
-        gameStats.setOnlyPossibleHolder(matchPlayer.getMatchPlayerSlot()); // now we know exactly who had the card
+        ledger.setPlayOrder(card, game.getCurrentPlayOrder());
+        // now we know exactly who had the card
+        ledger.setPossibleHolders(card, 1 << (matchPlayerSlot - 1));
 
-        gameStats.setTrickNumber(game.getCurrentTrickNumber());
+        ledger.setTrickNumber(card, game.getCurrentTrickNumber());
 
-        gameStats.setTrickLeadBySlot(game.getTrickLeaderMatchPlayerSlot());
+        ledger.setTrickLeadBySlot(card, game.getTrickLeaderMatchPlayerSlot());
 
+        cardKnowledgeService.recordCardPlay(game, card, matchPlayerSlot);
     }
 
     @Transactional
     public void updateGameStatsFromPlayers(Match match, Game game) {
-        List<GameStats> statsToUpdate = new ArrayList<>();
+        GameCardLedger ledger = getCardLedger(game);
 
         for (MatchPlayer player : match.getMatchPlayers()) {
-            String hand = player.getHand(); // or getCardsAsString()
-            if (hand != null && !hand.isBlank()) {
-                String[] cards = hand.split(",");
-                for (String code : cards) {
-                    // Extract rank and suit from card string
-                    Rank rank = Rank.fromSymbol(code.substring(0, code.length() - 1));
-                    Suit suit = Suit.fromSymbol(code.substring(code.length() - 1));
-
-                    // Fetch existing GameStats
-                    GameStats existingStats = gameStatsRepository.findByRankAndSuitAndGame(rank, suit, game);
-
-                    if (existingStats == null) {
-                        throw new IllegalStateException("GameStats not found for card: " + code);
-                    }
-
-                    // Update the card holder
-                    existingStats.setCardHolder(player.getMatchPlayerSlot());
-
-                    statsToUpdate.add(existingStats);
-                }
+            long hand = CardSet.fromCardCodeString(player.getHand());
+            while (hand != 0) {
+                // Update the card holder
+                ledger.setCardHolder(Long.numberOfTrailingZeros(hand), player.getMatchPlayerSlot());
+                hand &= hand - 1;
             }
         }
-
-        // Save all updated GameStats
-        gameStatsRepository.saveAll(statsToUpdate);
-        gameStatsRepository.flush(); // good habit to flush when doing batch updates
     }
 
     /**
-     * Updates the points_billed_to column in the respective entry in the GAME_STATS
-     * relation.
+     * Updates the points_billed_to entry of a card in the card ledger.
      * 
      * @param game                  The given game.
      * @param winnerMatchPlayerSlot The winner of the trick.
      * @param rankSuit              The card code of the card.
      */
     public void updateGameStatsPointsBilledTo(Game game, String rankSuit, int winnerMatchPlayerSlot) {
-        GameStats entry = gameStatsRepository.findByRankSuitAndGame(rankSuit, game);
-
-        if (entry == null) {
-            throw new IllegalStateException("GameStats entry not found for rank: " + rankSuit);
-        }
-
-        entry.setPointsBilledTo(winnerMatchPlayerSlot);
-        gameStatsRepository.save(entry);
-        gameStatsRepository.flush();
+        getCardLedger(game).setPointsBilledTo(GameCardLedger.cardIndex(rankSuit), winnerMatchPlayerSlot);
 
         log.info(String.format(" Points from card with rank %s were billed to %s", rankSuit, winnerMatchPlayerSlot));
     }
@@ -191,12 +193,13 @@ public class GameStatsService {
      * @return The score of the given player in the given game.
      */
     public int getPlayerScoreInGame(int matchPlayerSlot, Game game) {
+        GameCardLedger ledger = getCardLedger(game);
         int score = 0;
 
-        List<GameStats> gameStats = gameStatsRepository.findByGameAndPointsBilledTo(game, matchPlayerSlot);
-
-        for (GameStats gameStat : gameStats) {
-            score += gameStat.getPointsWorth();
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            if (ledger.getPointsBilledTo(card) == matchPlayerSlot) {
+                score += GameCardLedger.pointsWorth(card);
+            }
         }
 
         return score;
@@ -211,7 +214,6 @@ public class GameStatsService {
         // can be made about their cards.
         // If, however, a player does not play in suit, we can infer that none of his
         // cards are in that suit.
-        List<GameStats> gameStats = gameStatsRepository.findAllByGame(game);
         List<String> currentTrick = game.getCurrentTrick();
         if (currentTrick.size() == 0) {
             return;
@@ -224,16 +226,17 @@ public class GameStatsService {
             String latestCardCode = currentTrick.get(currentTrick.size() - 1);
             String latestCardSuit = CardUtils.getSuitOfFirstCardInCardCodeString(latestCardCode);
             if (!latestCardSuit.equals(leadingCardSuit)) {
+                GameCardLedger ledger = getCardLedger(game);
                 int maskToClear = ~(1 << matchPlayerSlot); // bitmask to clear the player's bit
 
-                for (GameStats stat : gameStats) {
-                    if (stat.getSuit().getSymbol().equals(leadingCardSuit) && stat.getPlayOrder() == 0) {
-                        int updatedHolders = stat.getPossibleHolders() & maskToClear;
-                        stat.setPossibleHolders(updatedHolders);
-                    }
+                long unplayedInLeadingSuit = CardSet.inSuit(ledger.getUnplayedCards(), leadingCardSuit.charAt(0));
+                while (unplayedInLeadingSuit != 0) {
+                    int card = Long.numberOfTrailingZeros(unplayedInLeadingSuit);
+                    ledger.setPossibleHolders(card, ledger.getPossibleHolders(card) & maskToClear);
+                    unplayedInLeadingSuit &= unplayedInLeadingSuit - 1;
                 }
-                gameStatsRepository.saveAll(gameStats);
-                gameStatsRepository.flush();
+                cardKnowledgeService.recordVoidSuit(game, matchPlayerSlot,
+                        CardSet.suitIndex(leadingCardSuit.charAt(0)));
             }
 
         }
@@ -241,43 +244,18 @@ public class GameStatsService {
     }
 
     public List<String> cardCodesInSlotFromSlot(Game game, int theirSlot, int mySlot) {
-        List<String> possibleCards = new ArrayList<>();
-        Match match = game.getMatch();
-        MatchPlayer me = null;
-        MatchPlayer them = null;
-
-        for (MatchPlayer player : match.getMatchPlayers()) {
-            if (player.getMatchPlayerSlot() == mySlot) {
-                me = player;
-            }
-            if (player.getMatchPlayerSlot() == theirSlot) {
-                them = player;
-            }
-        }
+        MatchPlayer me = findMatchPlayerBySlot(game, mySlot);
+        MatchPlayer them = findMatchPlayerBySlot(game, theirSlot);
 
         if (me == null || them == null) {
             throw new IllegalArgumentException("Invalid player slot(s): " + mySlot + " or " + theirSlot);
         }
 
-        List<GameStats> allStats = gameStatsRepository.findAllByGame(game);
-
-        List<String> myHand = me.getHand() != null ? List.of(me.getHand().split(",")) : List.of();
         // List<String> passedToThem = getCardsIPassedToPlayer(game, mySlot, theirSlot);
+        long possibleCards = getCardLedger(game).getUnplayedCardsWithPossibleHolderBit(1 << theirSlot)
+                & ~CardSet.fromCardCodeString(me.getHand());
 
-        for (GameStats stat : allStats) {
-            String cardCode = stat.getRank().getSymbol() + stat.getSuit().getSymbol();
-
-            if (stat.getPlayOrder() > 0)
-                continue;
-            if (myHand.contains(cardCode))
-                continue;
-            if ((stat.getPossibleHolders() & (1 << theirSlot)) == 0)
-                continue;
-
-            possibleCards.add(cardCode);
-        }
-
-        return possibleCards;
+        return toCardCodeList(possibleCards);
     }
 
     public List<String> cardCodesInSlotFromSlotGivenLeadingSuit(
@@ -289,78 +267,61 @@ public class GameStatsService {
         if (leadingSuit == null || leadingSuit.isBlank()) {
             return cardCodesInSlotFromSlot(game, theirSlot, mySlot);
         }
-        List<String> possibleCards = new ArrayList<>();
-        Match match = game.getMatch();
-        MatchPlayer me = null;
-        MatchPlayer them = null;
-
-        for (MatchPlayer player : match.getMatchPlayers()) {
-            if (player.getMatchPlayerSlot() == mySlot) {
-                me = player;
-            }
-            if (player.getMatchPlayerSlot() == theirSlot) {
-                them = player;
-            }
-        }
+        MatchPlayer me = findMatchPlayerBySlot(game, mySlot);
+        MatchPlayer them = findMatchPlayerBySlot(game, theirSlot);
 
         if (me == null || them == null) {
             return List.of(); // gracefully return an empty list if slots are invalid
         }
 
-        List<GameStats> allStats = gameStatsRepository.findAllByGame(game);
-        List<String> myHand = me.getHand() != null ? List.of(me.getHand().split(",")) : List.of();
-
-        if (leadingSuit == null || leadingSuit.isBlank()) {
-            return cardCodesInSlotFromSlot(game, theirSlot, mySlot);
-        }
+        long possibleCards = getCardLedger(game).getUnplayedCardsWithPossibleHolderBit(1 << theirSlot);
 
         // Step 1: Determine if theirSlot might still have the leading suit
-        boolean mightHaveLeadingSuit = false;
-        for (GameStats stat : allStats) {
-            if (stat.getSuit().getSymbol().equals(leadingSuit) &&
-                    stat.getPlayOrder() == 0 &&
-                    (stat.getPossibleHolders() & (1 << theirSlot)) != 0) {
-                mightHaveLeadingSuit = true;
-                break;
-            }
-        }
+        long possibleInLeadingSuit = CardSet.inSuit(possibleCards, leadingSuit.charAt(0));
 
         // Step 2: Filter cards
-        for (GameStats stat : allStats) {
-            String cardCode = stat.getRank().getSymbol() + stat.getSuit().getSymbol();
-
-            if (stat.getPlayOrder() > 0)
-                continue;
-            if (myHand.contains(cardCode))
-                continue;
-            if ((stat.getPossibleHolders() & (1 << theirSlot)) == 0)
-                continue;
-
-            // Enforce suit-following
-            if (mightHaveLeadingSuit && !stat.getSuit().getSymbol().equals(leadingSuit))
-                continue;
+        possibleCards &= ~CardSet.fromCardCodeString(me.getHand());
 
-            possibleCards.add(cardCode);
+        // Enforce suit-following
+        if (possibleInLeadingSuit != 0) {
+            possibleCards &= possibleInLeadingSuit;
         }
 
-        return possibleCards;
+        return toCardCodeList(possibleCards);
     }
 
     public List<String> getCardsIPassedToPlayer(Game game, int mySlot, int theirSlot) {
         List<String> passedCardCodes = new ArrayList<>();
 
-        List<GameStats> allStats = gameStatsRepository.findAllByGame(game);
+        GameCardLedger ledger = getCardLedger(game);
 
-        for (GameStats stat : allStats) {
-            if (stat.getPassedBy() == mySlot && stat.getPassedTo() == theirSlot) {
-                String cardCode = stat.getRankSuit();
-                passedCardCodes.add(cardCode);
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            if (ledger.getPassedBy(card) == mySlot && ledger.getPassedTo(card) == theirSlot) {
+                passedCardCodes.add(CardSet.cardCode(card));
             }
         }
 
         return passedCardCodes;
     }
 
+    private MatchPlayer findMatchPlayerBySlot(Game game, int matchPlayerSlot) {
+        for (MatchPlayer player : game.getMatch().getMatchPlayers()) {
+            if (player.getMatchPlayerSlot() == matchPlayerSlot) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    private List<String> toCardCodeList(long cards) {
+        List<String> cardCodes = new ArrayList<>(CardSet.size(cards));
+        while (cards != 0) {
+            cardCodes.add(CardSet.cardCode(Long.numberOfTrailingZeros(cards)));
+            cards &= cards - 1;
+        }
+        return cardCodes;
+    }
+
     public List<Integer> matchPlayerSlotsLeftAfterMyCard(Game game) {
         int mySlot = game.getCurrentMatchPlayerSlot();
         int alreadyPlayed = game.getCurrentTrick().size(); // number of cards already played
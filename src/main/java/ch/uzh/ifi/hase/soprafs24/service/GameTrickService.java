@@ -9,6 +9,7 @@ import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.TrickDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.TrickDTO.TrickCard;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 
 import org.slf4j.Logger;
@@ -41,7 +42,12 @@ public class GameTrickService {
     }
 
     public void addCardToTrick(Match match, Game game, MatchPlayer matchPlayer, String cardCode) {
-        game.addCardCodeToCurrentTrick(cardCode);
+        addCardToTrick(match, game, matchPlayer, cardCode, Instant.now());
+    }
+
+    public void addCardToTrick(Match match, Game game, MatchPlayer matchPlayer, String cardCode,
+            Instant playedAt) {
+        game.addCardCodeToCurrentTrick(cardCode, playedAt);
         game.setCurrentPlayOrder(game.getCurrentPlayOrder() + 1);
         log.info("addCardToTrick, cardCode={}, new playOrder={}, gamePhase (before updating) is {}.",
                 cardCode,
@@ -96,6 +102,7 @@ public class GameTrickService {
         }
 
         List<String> currentTrick = game.getCurrentTrick();
+        List<Instant> playedAts = game.getCurrentTrickPlayedAt();
         List<Integer> absoluteOrder = game.getTrickMatchPlayerSlotOrder();
 
         int pollingSlot = pollingMatchPlayer.getMatchPlayerSlot();
@@ -105,7 +112,7 @@ public class GameTrickService {
             String code = currentTrick.get(i);
             int absoluteSlot = absoluteOrder.get(i);
             int relativeSlot = (absoluteSlot - pollingSlot + 4) % 4;
-            cards.add(new TrickCard(code, relativeSlot, i));
+            cards.add(new TrickCard(code, relativeSlot, i, epochMillisOrNull(playedAts, i)));
         }
 
         Integer leaderAbsolute = game.getTrickLeaderMatchPlayerSlot();
@@ -116,6 +123,7 @@ public class GameTrickService {
 
     public TrickDTO preparePreviousTrickDTO(Match match, Game game, MatchPlayer pollingMatchPlayer) {
         List<String> previousTrick = game.getPreviousTrick();
+        List<Instant> playedAts = game.getPreviousTrickPlayedAt();
         List<Integer> absoluteOrder = game.getPreviousTrickMatchPlayerSlotOrder();
 
         int pollingSlot = pollingMatchPlayer.getMatchPlayerSlot();
@@ -125,7 +133,7 @@ public class GameTrickService {
             String code = previousTrick.get(i);
             int absoluteSlot = absoluteOrder.get(i);
             int relativeSlot = (absoluteSlot - pollingSlot + 4) % 4;
-            cards.add(new TrickCard(code, relativeSlot, i));
+            cards.add(new TrickCard(code, relativeSlot, i, epochMillisOrNull(playedAts, i)));
         }
 
         Integer leaderAbsolute = game.getPreviousTrickLeaderMatchPlayerSlot();
@@ -139,6 +147,10 @@ public class GameTrickService {
         return new TrickDTO(cards, leaderRelative, winnerRelative);
     }
 
+    private static Long epochMillisOrNull(List<Instant> playedAts, int index) {
+        return index < playedAts.size() ? playedAts.get(index).toEpochMilli() : null;
+    }
+
     public void afterCardPlayed(Game game) {
 
         if (game.getCurrentTrickSize() == 1) {
@@ -171,7 +183,6 @@ public class GameTrickService {
         winnerMatchPlayer.setGameScore(winnerMatchPlayer.getGameScore() + points);
 
         matchPlayerRepository.save(winnerMatchPlayer);
-        matchPlayerRepository.flush();
 
         log.info(" & Trick winnerMatchPlayerSlot {} ({} points)", winnerMatchPlayerSlot, points);
 
@@ -181,14 +192,15 @@ public class GameTrickService {
         if (winnerMatchPlayer.getTakenCards() == null) {
             winnerMatchPlayer.setTakenCards("");
         }
-        String winnerMatchPlayersTakenCards = winnerMatchPlayer.getTakenCards();
-        String winnerMatchPlayersNewTakenCards = CardUtils.getHandWithCardCodesAdded(winnerMatchPlayersTakenCards,
+        long winnerMatchPlayersTakenCards = CardSet.fromCardCodeString(winnerMatchPlayer.getTakenCards());
+        long winnerMatchPlayersNewTakenCards = CardUtils.getHandWithCardCodesAdded(winnerMatchPlayersTakenCards,
                 takenCardsThisTrick);
-        winnerMatchPlayer.setTakenCards(winnerMatchPlayersNewTakenCards);
+        winnerMatchPlayer.setTakenCards(CardSet.toCardCodeString(winnerMatchPlayersNewTakenCards));
 
         // Step A4: Archive the trick
         // move current trick to previous, but do not clear it just yet.
         game.setPreviousTrick(game.getCurrentTrick());
+        game.setPreviousTrickPlayedAt(game.getCurrentTrickPlayedAt());
         game.setPreviousTrickLeaderMatchPlayerSlot(game.getTrickLeaderMatchPlayerSlot());
         game.setPreviousTrickWinnerMatchPlayerSlot(winnerMatchPlayerSlot);
         game.setPreviousTrickPoints(points);
@@ -201,8 +213,11 @@ public class GameTrickService {
                 game.getPreviousTrickLeaderMatchPlayerSlot(),
                 game.getTrickLeaderMatchPlayerSlot());
 
-        // Step A6:
-        game.setTrickJustCompletedTime(Instant.now());
+        // Step A6: The trick delay starts once the last card is shown, which may
+        // be later than now for AI cards that were played ahead.
+        Instant lastPlayedAt = game.getCurrentTrickLastPlayedAt();
+        Instant now = Instant.now();
+        game.setTrickJustCompletedTime(lastPlayedAt != null && lastPlayedAt.isAfter(now) ? lastPlayedAt : now);
         harmonizeHands(match, game);
         if (match.getFastForwardMode()) {
             clearTrick(match, game);
@@ -224,21 +239,27 @@ public class GameTrickService {
         String trick = game.getCurrentTrickAsString();
         log.info("currentTrick = " + trick);
         List<String> trickCards = CardUtils.splitCardCodesAsListOfStrings(trick);
-        for (String trickCard : trickCards) {
-            for (MatchPlayer mp : matchPlayers) {
-                if (CardUtils.isCardCodeInHand(mp.getHand(), trickCard)) {
+        for (MatchPlayer mp : matchPlayers) {
+            long hand = CardSet.fromCardCodeString(mp.getHand());
+            long handWithoutTrickCards = hand;
+            for (String trickCard : trickCards) {
+                if (CardUtils.isCardCodeInHand(handWithoutTrickCards, trickCard)) {
                     log.info("MatchPlayer " + mp.getMatchPlayerId() + " still had the card [" + trickCard
                             + "] in his hand after trick " + trick + "had been played. Removed.");
-                    mp.setHand(CardUtils.getHandWithCardCodeRemoved(mp.getHand(), trickCard));
-                    matchPlayerRepository.saveAndFlush(mp);
+                    handWithoutTrickCards = CardUtils.getHandWithCardCodeRemoved(handWithoutTrickCards, trickCard);
                 }
             }
+            if (handWithoutTrickCards != hand) {
+                mp.setHand(CardSet.toCardCodeString(handWithoutTrickCards));
+                matchPlayerRepository.save(mp);
+            }
         }
     }
 
     @Transactional
     public void clearTrick(Match match, Game game) {
         game.setPreviousTrick(game.getCurrentTrick());
+        game.setPreviousTrickPlayedAt(game.getCurrentTrickPlayedAt());
         game.clearCurrentTrick();
         game.setTrickPhase(TrickPhase.READYFORFIRSTCARD);
         game.setCurrentTrickNumber(game.getCurrentTrickNumber() + 1);
@@ -0,0 +1,227 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.logic.DealSampler;
+import ch.uzh.ifi.hase.soprafs24.logic.HeartsSimulator;
+import ch.uzh.ifi.hase.soprafs24.logic.IsmctsSearch;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+
+/**
+ * ISMCTS Service
+ * Runs the Monte Carlo search of the ISMCTS strategy on a fork/join pool of
+ * its own, so searches never compete with request threads for the common
+ * pool. Each move is bounded by a time budget and an iteration budget.
+ *
+ * Only the AI users listed in ai.ismcts.ai-user-ids play ISMCTS; by default
+ * none do. A turn is prepared from the loaded game (prepare) and searched
+ * afterwards (search), so that the search does not hold a transaction open.
+ */
+@Service
+@Qualifier("ismctsService")
+public class IsmctsService {
+    private final Logger log = LoggerFactory.getLogger(IsmctsService.class);
+
+    private static final int CARDS_PER_HAND = 13;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long timeBudgetNanos;
+    private final int maxIterations;
+    private final Set<Long> aiUserIds;
+
+    @Autowired
+    public IsmctsService(
+            @Value("${ai.ismcts.parallelism:0}") int parallelism,
+            @Value("${ai.ismcts.time-budget-ms:200}") long timeBudgetMs,
+            @Value("${ai.ismcts.max-iterations:20000}") int maxIterations,
+            @Value("${ai.ismcts.ai-user-ids:}") List<Long> aiUserIds) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        this.maxIterations = maxIterations;
+        this.aiUserIds = Set.copyOf(aiUserIds);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return Whether any AI user plays ISMCTS.
+     */
+    public boolean isEnabled() {
+        return !aiUserIds.isEmpty();
+    }
+
+    /**
+     * @param aiUserId id of the AI user taking a seat
+     * @return ISMCTS if the AI user is listed in ai.ismcts.ai-user-ids, its
+     *         own strategy otherwise (see Strategy#forAiUserId)
+     */
+    public Strategy strategyForAiUserId(Long aiUserId) {
+        return aiUserId != null && aiUserIds.contains(aiUserId) ? Strategy.ISMCTS : Strategy.forAiUserId(aiUserId);
+    }
+
+    /**
+     * Chooses the card to play for a player whose turn it is.
+     *
+     * @param game        the current game
+     * @param matchPlayer the player to move
+     * @param knowledge   the card knowledge of the game
+     * @return the card code of the chosen card
+     * @throws IllegalStateException if the game state does not add up, e.g.
+     *                               the hand sizes do not match the cards seen
+     */
+    public String selectCard(Game game, MatchPlayer matchPlayer, CardKnowledge knowledge) {
+        return search(prepare(game, matchPlayer, knowledge)).getCardCode();
+    }
+
+    /**
+     * Takes what the search of a player's turn needs from the game, so that
+     * the game no longer needs to be loaded while searching.
+     *
+     * @param game        the current game
+     * @param matchPlayer the player to move
+     * @param knowledge   the card knowledge of the game
+     * @return the turn to search
+     * @throws IllegalStateException if the game state does not add up, e.g.
+     *                               the hand sizes do not match the cards seen
+     */
+    public Turn prepare(Game game, MatchPlayer matchPlayer, CardKnowledge knowledge) {
+        int mySlot = matchPlayer.getMatchPlayerSlot();
+        long myHand = CardSet.fromCardCodeString(matchPlayer.getHand());
+
+        List<String> trick = game.getCurrentTrick();
+        int trickSize = trick.size();
+        int[] trickCards = new int[HeartsSimulator.PLAYERS];
+        for (int i = 0; i < trickSize; i++) {
+            trickCards[i] = CardSet.index(trick.get(i));
+        }
+        int trickLeaderSlot = game.getTrickLeaderMatchPlayerSlot();
+        int cardsPlayed = game.getCurrentPlayOrder();
+        int completedTricks = (cardsPlayed - trickSize) / HeartsSimulator.PLAYERS;
+
+        long[] hands = new long[HeartsSimulator.PLAYERS];
+        int[] points = new int[HeartsSimulator.PLAYERS];
+        int[] handSizes = new int[HeartsSimulator.PLAYERS];
+        hands[mySlot - 1] = myHand;
+        for (MatchPlayer player : game.getMatch().getMatchPlayers()) {
+            points[player.getMatchPlayerSlot() - 1] = player.getGameScore();
+        }
+        for (int slot = 1; slot <= HeartsSimulator.PLAYERS; slot++) {
+            boolean playedInTrick = Math.floorMod(slot - trickLeaderSlot, HeartsSimulator.PLAYERS) < trickSize;
+            handSizes[slot - 1] = CARDS_PER_HAND - completedTricks - (playedInTrick ? 1 : 0);
+        }
+        if (Long.bitCount(myHand) != handSizes[mySlot - 1]) {
+            throw new IllegalStateException(String.format(
+                    "Player in slot %d holds %d cards, expected %d.", mySlot, Long.bitCount(myHand),
+                    handSizes[mySlot - 1]));
+        }
+
+        HeartsSimulator root = new HeartsSimulator();
+        root.reset(hands, points, trickCards, trickSize, trickLeaderSlot, cardsPlayed,
+                Boolean.TRUE.equals(game.getHeartsBroken()));
+        DealSampler sampler = new DealSampler(knowledge, mySlot, myHand, handSizes);
+        return new Turn(game.getGameId(), cardsPlayed, mySlot, root, sampler);
+    }
+
+    /**
+     * Searches a prepared turn, within the time and iteration budget.
+     *
+     * @param turn the turn to search
+     * @return the card to play in that turn, null if it cannot be searched
+     */
+    public Move search(Turn turn) {
+        if (turn.root == null) {
+            return new Move(turn.gameId, turn.playOrder, turn.matchPlayerSlot, null);
+        }
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        IsmctsSearch.Result result = new IsmctsSearch(turn.root, turn.sampler, turn.matchPlayerSlot)
+                .search(pool, parallelism, deadline, maxIterations, System.nanoTime());
+
+        log.info("ISMCTS in slot {} ran {} iterations on {} workers.", turn.matchPlayerSlot,
+                result.getIterations(), parallelism);
+        return new Move(turn.gameId, turn.playOrder, turn.matchPlayerSlot,
+                CardSet.toCardCodeString(1L << result.getCard()));
+    }
+
+    /**
+     * A player's turn as the search sees it. An unsearchable turn (see
+     * unsearchable) has nothing to search.
+     */
+    public static final class Turn {
+        private final Long gameId;
+        private final int playOrder;
+        private final int matchPlayerSlot;
+        private final HeartsSimulator root;
+        private final DealSampler sampler;
+
+        private Turn(Long gameId, int playOrder, int matchPlayerSlot, HeartsSimulator root, DealSampler sampler) {
+            this.gameId = gameId;
+            this.playOrder = playOrder;
+            this.matchPlayerSlot = matchPlayerSlot;
+            this.root = root;
+            this.sampler = sampler;
+        }
+
+        /**
+         * @return The turn of the given player, for which the game state does
+         *         not add up; it is played without a search.
+         */
+        public static Turn unsearchable(Game game, MatchPlayer matchPlayer) {
+            return new Turn(game.getGameId(), game.getCurrentPlayOrder(), matchPlayer.getMatchPlayerSlot(), null,
+                    null);
+        }
+    }
+
+    /**
+     * The card searched for one turn: the turn of a player at a play order
+     * of a game. A card code of null means the turn could not be searched.
+     */
+    public static final class Move {
+        private final Long gameId;
+        private final int playOrder;
+        private final int matchPlayerSlot;
+        private final String cardCode;
+
+        public Move(Long gameId, int playOrder, int matchPlayerSlot, String cardCode) {
+            this.gameId = gameId;
+            this.playOrder = playOrder;
+            this.matchPlayerSlot = matchPlayerSlot;
+            this.cardCode = cardCode;
+        }
+
+        public String getCardCode() {
+            return cardCode;
+        }
+
+        /**
+         * @return Whether this is the move of the given player in the game as
+         *         it is now, i.e. nothing was played since it was prepared.
+         */
+        public boolean isFor(Game game, MatchPlayer matchPlayer) {
+            return Objects.equals(gameId, game.getGameId())
+                    && playOrder == game.getCurrentPlayOrder()
+                    && matchPlayerSlot == matchPlayer.getMatchPlayerSlot();
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardRankDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import ch.uzh.ifi.hase.soprafs24.util.RankedSet;
+
+/**
+ * Leaderboard Service
+ * Keeps the leaderboard (all human, non-guest users) in memory, with one
+ * ordered index per sort key and an n-gram index over the usernames. The
+ * table is read from the database once; after that the services that change
+ * user stats report the changed users, and the indexes are updated once the
+ * change is committed. Readers get copies of the entries, so the indexes can
+ * only be changed through update().
+ */
+@Service
+@Qualifier("leaderboardService")
+public class LeaderboardService {
+    private final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final String DEFAULT_SORT_KEY = "scoreTotal";
+
+    /** The sort keys with an index, by the property name used for sortBy. */
+    private static final Map<String, Comparator<LeaderboardDTO>> SORT_KEYS = Map.ofEntries(
+            Map.entry("username", Comparator.comparing(LeaderboardDTO::getUsername,
+                    Comparator.nullsFirst(Comparator.naturalOrder()))),
+            Map.entry("scoreTotal", Comparator.comparingInt(LeaderboardDTO::getScoreTotal)),
+            Map.entry("avgGameRanking", Comparator.comparingDouble(LeaderboardDTO::getAvgGameRanking)),
+            Map.entry("avgMatchRanking", Comparator.comparingDouble(LeaderboardDTO::getAvgMatchRanking)),
+            Map.entry("gamesPlayed", Comparator.comparingInt(LeaderboardDTO::getGamesPlayed)),
+            Map.entry("matchesPlayed", Comparator.comparingInt(LeaderboardDTO::getMatchesPlayed)),
+            Map.entry("moonShots", Comparator.comparingInt(LeaderboardDTO::getMoonShots)),
+            Map.entry("perfectGames", Comparator.comparingInt(LeaderboardDTO::getPerfectGames)),
+            Map.entry("perfectMatches", Comparator.comparingInt(LeaderboardDTO::getPerfectMatches)),
+            Map.entry("currentGameStreak", Comparator.comparingInt(LeaderboardDTO::getCurrentGameStreak)),
+            Map.entry("longestGameStreak", Comparator.comparingInt(LeaderboardDTO::getLongestGameStreak)),
+            Map.entry("currentMatchStreak", Comparator.comparingInt(LeaderboardDTO::getCurrentMatchStreak)),
+            Map.entry("longestMatchStreak", Comparator.comparingInt(LeaderboardDTO::getLongestMatchStreak)));
+
+    /** Usernames are indexed by all their substrings up to this length. */
+    private static final int GRAM_LENGTH = 3;
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, LeaderboardDTO> entries = new HashMap<>();
+    private final Map<String, RankedSet<LeaderboardDTO>> indexes = new HashMap<>();
+    private final Map<String, Set<Long>> userIdsByGram = new HashMap<>();
+    private boolean loaded = false;
+
+    @Autowired
+    public LeaderboardService(@Qualifier("userRepository") UserRepository userRepository) {
+        this.userRepository = userRepository;
+        for (Map.Entry<String, Comparator<LeaderboardDTO>> sortKey : SORT_KEYS.entrySet()) {
+            // Ties are broken by id, so that every entry has a unique position.
+            indexes.put(sortKey.getKey(), new RankedSet<>(
+                    sortKey.getValue().thenComparing(LeaderboardDTO::getId)));
+        }
+    }
+
+    /**
+     * @return true if the leaderboard can be sorted by the given property.
+     */
+    public static boolean isIndexedSortKey(String sortBy) {
+        return SORT_KEYS.containsKey(sortBy);
+    }
+
+    /**
+     * Returns one page of the leaderboard.
+     *
+     * @param filter   Only users whose username contains this (ignoring case);
+     *                 no filtering if null or blank.
+     * @param pageable The page; sorted by its first order, which must be an
+     *                 indexed sort key (scoreTotal descending if unsorted).
+     * @return The page of leaderboard entries.
+     * @throws IllegalArgumentException if the sort key has no index.
+     */
+    public Page<LeaderboardDTO> getLeaderboard(String filter, Pageable pageable) {
+        Sort.Order order = pageable.getSort().stream()
+                .findFirst()
+                .orElse(Sort.Order.desc(DEFAULT_SORT_KEY));
+        if (!isIndexedSortKey(order.getProperty())) {
+            throw new IllegalArgumentException("No leaderboard index for " + order.getProperty());
+        }
+
+        return read(() -> (filter == null || filter.isBlank())
+                ? readPage(indexes.get(order.getProperty()), order.isAscending(), pageable)
+                : readFilteredPage(filter, order, pageable));
+    }
+
+    /**
+     * Returns the rank of a user for a sort key, and the users ranked at most
+     * radius places above and below them. The rank is the user's position in
+     * the index, so it costs O(log n) whatever the rank is.
+     *
+     * @param userId    The user.
+     * @param sortBy    An indexed sort key.
+     * @param ascending Whether rank 1 has the lowest value.
+     * @param radius    How many neighbors to include on each side.
+     * @return The rank, or empty if the user is not on the leaderboard (AI
+     *         players, guests and unknown users).
+     * @throws IllegalArgumentException if the sort key has no index or the
+     *                                  radius is negative.
+     */
+    public Optional<LeaderboardRankDTO> getRank(Long userId, String sortBy, boolean ascending, int radius) {
+        if (!isIndexedSortKey(sortBy)) {
+            throw new IllegalArgumentException("No leaderboard index for " + sortBy);
+        }
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius must not be negative");
+        }
+        return read(() -> {
+            LeaderboardDTO entry = entries.get(userId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            RankedSet<LeaderboardDTO> index = indexes.get(sortBy);
+            int total = index.size();
+            int position = ascending ? index.rankOf(entry) : total - 1 - index.rankOf(entry);
+            int first = Math.max(0, position - radius);
+            int last = Math.min(total - 1, position + radius);
+
+            List<LeaderboardDTO> neighbors = new ArrayList<>();
+            for (int i = first; i <= last; i++) {
+                neighbors.add(new LeaderboardDTO(index.get(ascending ? i : total - 1 - i)));
+            }
+
+            LeaderboardRankDTO rank = new LeaderboardRankDTO();
+            rank.setUserId(userId);
+            rank.setSortBy(sortBy);
+            rank.setOrder(ascending ? "asc" : "desc");
+            rank.setRank(position + 1);
+            rank.setTotal(total);
+            rank.setFirstRank(first + 1);
+            rank.setNeighbors(neighbors);
+            return Optional.of(rank);
+        });
+    }
+
+    /**
+     * Reports a user whose stats or name changed. The leaderboard picks the
+     * change up once the current transaction commits, or right away if there
+     * is none.
+     *
+     * @param user The changed user.
+     */
+    public void update(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        Long userId = user.getId();
+        LeaderboardDTO entry = isListed(user) ? DTOMapper.INSTANCE.convertToLeaderboardDTO(user) : null;
+        afterCommit(() -> apply(userId, entry));
+    }
+
+    /**
+     * Drops the leaderboard, e.g. after users were written around the
+     * services; it is read from the database again on the next request.
+     */
+    public void invalidate() {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static boolean isListed(User user) {
+        return Boolean.FALSE.equals(user.getIsAiPlayer()) && Boolean.FALSE.equals(user.getIsGuest());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+        action.run();
+    }
+
+    /** Runs a read under the read lock, loading the leaderboard first if needed. */
+    private <T> T read(Supplier<T> reader) {
+        while (true) {
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return reader.get();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            load();
+        }
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clear();
+            for (User user : userRepository.findAll()) {
+                if (user.getId() != null && isListed(user)) {
+                    add(DTOMapper.INSTANCE.convertToLeaderboardDTO(user));
+                }
+            }
+            loaded = true;
+            log.info("Loaded the leaderboard with {} users.", entries.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Long userId, LeaderboardDTO entry) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                // Not read yet; the change will be part of the first read.
+                return;
+            }
+            LeaderboardDTO previous = entries.get(userId);
+            if (previous != null) {
+                remove(previous);
+            }
+            if (entry != null) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        indexes.values().forEach(RankedSet::clear);
+        userIdsByGram.clear();
+        loaded = false;
+    }
+
+    private void add(LeaderboardDTO entry) {
+        entries.put(entry.getId(), entry);
+        for (RankedSet<LeaderboardDTO> index : indexes.values()) {
+            index.add(entry);
+        }
+        for (String gram : grams(entry.getUsername())) {
+            userIdsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(entry.getId());
+        }
+    }
+
+    private void remove(LeaderboardDTO entry) {
+        entries.remove(entry.getId());
+        for (RankedSet<LeaderboardDTO> index : indexes.values()) {
+            index.remove(entry);
+        }
+        for (String gram : grams(entry.getUsername())) {
+            Set<Long> userIds = userIdsByGram.get(gram);
+            if (userIds != null && userIds.remove(entry.getId()) && userIds.isEmpty()) {
+                userIdsByGram.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String username) {
+        Set<String> grams = new HashSet<>();
+        if (username == null) {
+            return grams;
+        }
+        String name = username.toLowerCase(Locale.ROOT);
+        for (int start = 0; start < name.length(); start++) {
+            for (int end = start + 1; end <= Math.min(name.length(), start + GRAM_LENGTH); end++) {
+                grams.add(name.substring(start, end));
+            }
+        }
+        return grams;
+    }
+
+    private static Page<LeaderboardDTO> readPage(RankedSet<LeaderboardDTO> index, boolean ascending,
+            Pageable pageable) {
+        int total = index.size();
+        List<LeaderboardDTO> content = new ArrayList<>();
+        long end = Math.min(total, pageable.getOffset() + pageable.getPageSize());
+        for (long position = pageable.getOffset(); position < end; position++) {
+            content.add(new LeaderboardDTO(index.get(ascending ? (int) position : total - 1 - (int) position)));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private Page<LeaderboardDTO> readFilteredPage(String filter, Sort.Order order, Pageable pageable) {
+        String needle = filter.toLowerCase(Locale.ROOT);
+
+        // Any gram of the filter narrows the candidates down; take the rarest.
+        Set<Long> candidates = null;
+        for (int start = 0; start + Math.min(needle.length(), GRAM_LENGTH) <= needle.length(); start++) {
+            String gram = needle.substring(start, start + Math.min(needle.length(), GRAM_LENGTH));
+            Set<Long> userIds = userIdsByGram.getOrDefault(gram, Set.of());
+            if (candidates == null || userIds.size() < candidates.size()) {
+                candidates = userIds;
+            }
+        }
+
+        List<LeaderboardDTO> matches = new ArrayList<>();
+        for (Long userId : candidates) {
+            LeaderboardDTO entry = entries.get(userId);
+            if (needle.length() <= GRAM_LENGTH || entry.getUsername().toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(entry);
+            }
+        }
+
+        Comparator<LeaderboardDTO> comparator = SORT_KEYS.get(order.getProperty())
+                .thenComparing(LeaderboardDTO::getId);
+        matches.sort(order.isAscending() ? comparator : comparator.reversed());
+
+        int from = (int) Math.min(matches.size(), pageable.getOffset());
+        int to = (int) Math.min(matches.size(), pageable.getOffset() + pageable.getPageSize());
+        List<LeaderboardDTO> content = new ArrayList<>();
+        for (LeaderboardDTO entry : matches.subList(from, to)) {
+            content.add(new LeaderboardDTO(entry));
+        }
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+}
@@ -0,0 +1,48 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.List;
+import java.util.Random;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.model.CardResponse;
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shuffles decks in process, without any network round-trip. Every deck is
+ * shuffled from a fresh seed drawn from the given source (a SecureRandom in
+ * production), and the seed is recorded as the deck id ("seed--<seed>").
+ * Since seeds end in 9247, a recorded deck can be dealt again by starting a
+ * game with that seed, e.g. to audit a deal.
+ */
+public class LocalDeckProvider implements DeckProvider {
+
+    // Seeds ending in these digits are dealt from
+    // ExternalApiClientService.generateDeterministicDeck.
+    private static final long SEED_SUFFIX = 9247L;
+    private static final long SEED_SUFFIX_MODULUS = 10000L;
+
+    private final Random seedSource;
+
+    public LocalDeckProvider(Random seedSource) {
+        this.seedSource = seedSource;
+    }
+
+    @Override
+    public Mono<ShuffledDeck> shuffleDeck() {
+        return Mono.fromSupplier(this::shuffle);
+    }
+
+    /**
+     * Shuffles a new deck.
+     *
+     * @return The shuffled deck, with the seed it was shuffled from as its id.
+     */
+    public ShuffledDeck shuffle() {
+        long seed = Math.floorMod(seedSource.nextLong(), Long.MAX_VALUE / SEED_SUFFIX_MODULUS)
+                * SEED_SUFFIX_MODULUS + SEED_SUFFIX;
+        List<CardResponse> cards = ExternalApiClientService
+                .generateDeterministicDeck(GameConstants.FULL_DECK_CARD_COUNT, seed);
+        return new ShuffledDeck(ExternalApiClientService.buildSeedString(seed), cards);
+    }
+}
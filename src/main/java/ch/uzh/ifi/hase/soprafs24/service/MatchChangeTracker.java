@@ -0,0 +1,193 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchMessage;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchSummary;
+import ch.uzh.ifi.hase.soprafs24.entity.PassedCard;
+
+/**
+ * Publishes every committed change of a match, whichever service made it: it
+ * listens to what Hibernate writes, collects the ids of the matches touched
+ * by a transaction, and once that transaction has committed bumps their
+ * stateVersion (see MatchEventService#publish) in a transaction of its own.
+ *
+ * Bumping after the commit means a client can never hold the new
+ * stateVersion together with the old state. The bookkeeping a poll itself
+ * writes (pulse, poll counter, message cursor) is not a change.
+ */
+@Component
+public class MatchChangeTracker implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    static final Set<String> POLLING_BOOKKEEPING = Set.of("lastPollTime", "pollCounter", "lastDeliveredMessageId");
+
+    private final MatchEventService matchEventService;
+    private final TransactionTemplate publishTransaction;
+
+    public MatchChangeTracker(
+            EntityManagerFactory entityManagerFactory,
+            @Qualifier("matchEventService") MatchEventService matchEventService,
+            PlatformTransactionManager transactionManager) {
+        this.matchEventService = matchEventService;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof MatchPlayer && onlyBookkeeping(event)) {
+            return;
+        }
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        changedCollection(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        changedCollection(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        changedCollection(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * @return The id of the match the given entity belongs to, or null if it
+     *         is not part of what polling shows.
+     */
+    static Long matchIdOf(Object entity) {
+        Match match = null;
+        if (entity instanceof Match) {
+            match = (Match) entity;
+        } else if (entity instanceof MatchPlayer) {
+            match = ((MatchPlayer) entity).getMatch();
+        } else if (entity instanceof Game) {
+            match = ((Game) entity).getMatch();
+        } else if (entity instanceof MatchMessage) {
+            match = ((MatchMessage) entity).getMatch();
+        } else if (entity instanceof MatchSummary) {
+            match = ((MatchSummary) entity).getMatch();
+        } else if (entity instanceof GameCardLedger) {
+            match = ((GameCardLedger) entity).getMatch();
+        } else if (entity instanceof PassedCard) {
+            Game game = ((PassedCard) entity).getGame();
+            match = game != null ? game.getMatch() : null;
+        }
+        return match != null ? match.getMatchId() : null;
+    }
+
+    private static boolean onlyBookkeeping(PostUpdateEvent event) {
+        int[] dirtyProperties = event.getDirtyProperties();
+        if (dirtyProperties == null || dirtyProperties.length == 0) {
+            return false;
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int property : dirtyProperties) {
+            if (!POLLING_BOOKKEEPING.contains(propertyNames[property])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void changedCollection(AbstractCollectionEvent event) {
+        changed(event.getAffectedOwnerOrNull());
+    }
+
+    private void changed(Object entity) {
+        Long matchId = matchIdOf(entity);
+        if (matchId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(Set.of(matchId));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ChangedMatches) {
+                ((ChangedMatches) synchronization).matchIds.add(matchId);
+                return;
+            }
+        }
+        ChangedMatches changedMatches = new ChangedMatches();
+        changedMatches.matchIds.add(matchId);
+        TransactionSynchronizationManager.registerSynchronization(changedMatches);
+    }
+
+    private void publish(Set<Long> matchIds) {
+        publishTransaction.executeWithoutResult(status -> matchIds.forEach(matchEventService::publish));
+    }
+
+    /** The matches changed by the current transaction. */
+    private final class ChangedMatches implements TransactionSynchronization {
+        private final Set<Long> matchIds = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            publish(matchIds);
+        }
+    }
+}
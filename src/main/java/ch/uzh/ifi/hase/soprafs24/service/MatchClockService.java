@@ -0,0 +1,133 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+
+/**
+ * Match Clock Service
+ * Owns the timeline of every running match. Trick transitions and AI moves
+ * are fired by this clock at their deadlines, instead of whenever the host
+ * happens to poll. Each match has at most one pending step, so steps of the
+ * same match never run concurrently.
+ *
+ * The move of an ISMCTS player is searched at the start of a step, between
+ * two transactions, and then played in the step's transaction.
+ */
+@Service
+@Qualifier("matchClockService")
+public class MatchClockService {
+    private final Logger log = LoggerFactory.getLogger(MatchClockService.class);
+
+    private final IsmctsService ismctsService;
+    private final MatchService matchService;
+    private final MatchRepository matchRepository;
+    private final boolean enabled;
+
+    private final Map<Long, ScheduledFuture<?>> timelines = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public MatchClockService(
+            @Qualifier("ismctsService") IsmctsService ismctsService,
+            @Qualifier("matchService") MatchService matchService,
+            @Qualifier("matchRepository") MatchRepository matchRepository,
+            @Value("${match.clock.enabled:true}") boolean enabled,
+            @Value("${match.clock.threads:2}") int threads) {
+        this.ismctsService = ismctsService;
+        this.matchService = matchService;
+        this.matchRepository = matchRepository;
+        this.enabled = enabled;
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "match-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts looking for running matches once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Match clock is disabled.");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::discoverRunningMatches,
+                0, GameConstants.POLLING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        timelines.clear();
+    }
+
+    /**
+     * Makes sure every match that is in game has a timeline. Matches that
+     * started since the last sweep (or survived a restart) are picked up here.
+     */
+    void discoverRunningMatches() {
+        try {
+            for (Long matchId : matchRepository.findMatchIdsInGame()) {
+                timelines.computeIfAbsent(matchId, id -> schedule(id, 0));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not look up running matches: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Performs one step of a match and schedules the next one at the deadline
+     * reported by MatchService. A match that is no longer running drops out.
+     * 
+     * @param matchId The id of the match.
+     */
+    void tick(Long matchId) {
+        long delay;
+        try {
+            IsmctsService.Turn turn = matchService.prepareAiSearch(matchId);
+            IsmctsService.Move searched = turn != null ? ismctsService.search(turn) : null;
+            delay = matchService.advanceMatchClock(matchId, searched);
+        } catch (RuntimeException e) {
+            log.warn("Match clock step failed for match {}: {}", matchId, e.getMessage());
+            delay = GameConstants.POLLING_INTERVAL_MS;
+        }
+
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (delay < 0) {
+            timelines.remove(matchId);
+            log.info("Match {} left the match clock.", matchId);
+            return;
+        }
+        timelines.put(matchId, schedule(matchId, delay));
+    }
+
+    public boolean isTracking(Long matchId) {
+        return timelines.containsKey(matchId);
+    }
+
+    private ScheduledFuture<?> schedule(Long matchId, long delay) {
+        return scheduler.schedule(() -> tick(matchId), delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,156 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.MatchMessageDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Match Event Service
+ * Records that the state of a match has changed: the stateVersion of the
+ * match is bumped, and streaming clients are told, so that their PollingDTO
+ * is only rebuilt and pushed when there is something new. Changes are
+ * published by the MatchChangeTracker once they are committed.
+ */
+@Service
+@Qualifier("matchEventService")
+public class MatchEventService {
+    private final Logger log = LoggerFactory.getLogger(MatchEventService.class);
+
+    /**
+     * A streaming client is refreshed at least this often. This keeps the
+     * connection open through proxies and records the player's pulse well
+     * within NON_HOST_TIME_OUT_SECONDS.
+     */
+    public static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+
+    private final MatchRepository matchRepository;
+
+    private final Map<Long, Sinks.Many<Long>> sinks = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    public MatchEventService(@Qualifier("matchRepository") MatchRepository matchRepository) {
+        this.matchRepository = matchRepository;
+    }
+
+    /**
+     * Signals that the state of a match has changed and bumps its
+     * stateVersion. Joins the caller's transaction if there is one; the
+     * signal is held back until the commit, so listeners never read stale
+     * state.
+     *
+     * @param matchId The id of the changed match.
+     */
+    @Transactional
+    public void publish(Long matchId) {
+        if (matchId == null) {
+            return;
+        }
+        matchRepository.bumpStateVersion(matchId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emit(matchId);
+                }
+            });
+            return;
+        }
+        emit(matchId);
+    }
+
+    /**
+     * Builds the stream of PollingDTOs for one client. The first element is
+     * the given initial state; after that a new snapshot is taken whenever the
+     * match changes (or the heartbeat is due). The stream ends once the match
+     * is over.
+     *
+     * Snapshots are meant to be read-only; the stream remembers the last
+     * message it sent instead of the player's message cursor, and the
+     * heartbeat is where the player's pulse is recorded.
+     *
+     * @param matchId   The id of the match.
+     * @param initial   The state the client starts with.
+     * @param snapshot  Builds the current PollingDTO for this client, given
+     *                  the id of the last message sent to it.
+     * @param heartbeat Runs before the snapshot whenever the heartbeat is due.
+     * @return A Flux of PollingDTOs.
+     */
+    public Flux<PollingDTO> stream(Long matchId, PollingDTO initial, LongFunction<PollingDTO> snapshot,
+            Runnable heartbeat) {
+        AtomicLong lastSentMessageId = new AtomicLong(lastMessageId(initial, 0));
+        Flux<Boolean> heartbeatDue = Flux.merge(
+                changes(matchId).map(change -> false),
+                Flux.interval(HEARTBEAT_INTERVAL).map(tick -> true))
+                .onBackpressureLatest();
+
+        Flux<PollingDTO> updates = heartbeatDue
+                .concatMap(beat -> Mono.fromCallable(() -> {
+                    if (beat) {
+                        heartbeat.run();
+                    }
+                    PollingDTO dto = snapshot.apply(lastSentMessageId.get());
+                    lastSentMessageId.set(lastMessageId(dto, lastSentMessageId.get()));
+                    return dto;
+                }).subscribeOn(Schedulers.boundedElastic()), 1);
+
+        return Flux.concat(Mono.just(initial), updates)
+                .takeUntil(dto -> dto.getMatchPhase() != null && dto.getMatchPhase().over());
+    }
+
+    private static long lastMessageId(PollingDTO dto, long lastSentMessageId) {
+        long last = lastSentMessageId;
+        if (dto.getMatchMessages() != null) {
+            for (MatchMessageDTO message : dto.getMatchMessages()) {
+                last = Math.max(last, Long.parseLong(message.getId()));
+            }
+        }
+        return last;
+    }
+
+    public int subscriberCount(Long matchId) {
+        Sinks.Many<Long> sink = sinks.get(matchId);
+        return sink == null ? 0 : sink.currentSubscriberCount();
+    }
+
+    private Flux<Long> changes(Long matchId) {
+        return Flux.defer(() -> sinks
+                .computeIfAbsent(matchId, id -> Sinks.many().multicast().<Long>directBestEffort())
+                .asFlux())
+                .doFinally(signal -> sinks.computeIfPresent(matchId,
+                        (id, sink) -> sink.currentSubscriberCount() == 0 ? null : sink));
+    }
+
+    private void emit(Long matchId) {
+        Sinks.Many<Long> sink = sinks.get(matchId);
+        if (sink == null) {
+            return;
+        }
+        Sinks.EmitResult result;
+        synchronized (sink) {
+            result = sink.tryEmitNext(sequence.incrementAndGet());
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("Change of match {} could not be signalled: {}", matchId, result);
+        }
+    }
+}
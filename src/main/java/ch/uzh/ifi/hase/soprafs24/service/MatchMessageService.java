@@ -21,25 +21,41 @@ public class MatchMessageService {
         @Autowired
         private MatchMessageRepository matchMessageRepository;
 
+        /**
+         * Returns the messages of the match that the player has not been given
+         * yet, and moves the player's message cursor past them. Only messages
+         * newer than the cursor are read, and nothing is written if there are
+         * none. The cursor is saved along with the rest of the polling
+         * player's state.
+         */
         public List<MatchMessageDTO> messages(Match match, Game game, MatchPlayer matchPlayer) {
-                List<MatchMessage> allMessages = matchMessageRepository.findByMatch(match);
-
-                List<MatchMessageDTO> unseen = new ArrayList<>();
+                List<MatchMessage> newMessages = matchMessageRepository
+                                .findByMatchAndIdGreaterThanOrderByIdAsc(match, matchPlayer.getLastDeliveredMessageId());
+                if (newMessages.isEmpty()) {
+                        return new ArrayList<>();
+                }
 
-                for (MatchMessage msg : allMessages) {
-                        int slot = matchPlayer.getMatchPlayerSlot();
+                matchPlayer.setLastDeliveredMessageId(newMessages.get(newMessages.size() - 1).getId());
+                return toDTOs(newMessages);
+        }
 
-                        if (!msg.hasSeen(slot)) {
-                                msg.markSeen(slot);
+        /**
+         * Returns the messages of the match after the given message id, without
+         * touching the player's message cursor.
+         */
+        public List<MatchMessageDTO> messagesAfter(Match match, long lastDeliveredMessageId) {
+                return toDTOs(matchMessageRepository.findByMatchAndIdGreaterThanOrderByIdAsc(match,
+                                lastDeliveredMessageId));
+        }
 
-                                String content = msg.getContent();
-                                if (content != null && !content.trim().isEmpty()) {
-                                        unseen.add(new MatchMessageDTO(msg));
-                                }
+        private static List<MatchMessageDTO> toDTOs(List<MatchMessage> messages) {
+                List<MatchMessageDTO> unseen = new ArrayList<>();
+                for (MatchMessage msg : messages) {
+                        String content = msg.getContent();
+                        if (content != null && !content.trim().isEmpty()) {
+                                unseen.add(new MatchMessageDTO(msg));
                         }
                 }
-
-                matchMessageRepository.saveAll(allMessages);
                 return unseen;
         }
 
@@ -3,7 +3,10 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +16,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +30,7 @@ import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchMessageType;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.constant.TrickPhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
@@ -37,8 +45,10 @@ import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyMatchDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.MatchDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayedCardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDeltaDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
@@ -55,44 +65,106 @@ import ch.uzh.ifi.hase.soprafs24.util.MatchUtils;
 public class MatchService {
     private final Logger log = LoggerFactory.getLogger(MatchService.class);
 
+    public static final int MAX_LOBBY_PAGE_SIZE = 100;
+
+    private static final Set<MatchPhase> DEFAULT_LOBBY_PHASES = Arrays.stream(MatchPhase.values())
+            .filter(MatchPhase::notover)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(MatchPhase.class)));
+
+    private final CardKnowledgeService cardKnowledgeService;
+    private final GameMetricsService gameMetricsService;
     private final GameRepository gameRepository;
     private final GameService gameService;
     private final GameSetupService gameSetupService;
     private final GameSimulationService gameSimulationService;
+    private final IsmctsService ismctsService;
+    private final LeaderboardService leaderboardService;
     private final MatchSummaryService matchSummaryService;
     private final MatchPlayerRepository matchPlayerRepository;
+    private final PollingDeltaService pollingDeltaService;
     private final PollingService pollingService;
+    private final TableSnapshotService tableSnapshotService;
     private final UserRepository userRepository;
     private final UserService userService;
     private final MatchRepository matchRepository;
 
+    // Whether consecutive AI turns are played in one clock step (see
+    // GameService#playAiTurnsAhead) rather than one per step.
+    private final boolean aiRunAhead;
+
     @Autowired
     public MatchService(
+            @Value("${match.ai.run-ahead:true}") boolean aiRunAhead,
+            @Qualifier("cardKnowledgeService") CardKnowledgeService cardKnowledgeService,
+            @Qualifier("gameMetricsService") GameMetricsService gameMetricsService,
             @Qualifier("gameRepository") GameRepository gameRepository,
             @Qualifier("gameService") GameService gameService,
             @Qualifier("gameSetupService") GameSetupService gameSetupService,
             @Qualifier("gameSimulationService") GameSimulationService gameSimulationService,
+            @Qualifier("ismctsService") IsmctsService ismctsService,
+            @Qualifier("leaderboardService") LeaderboardService leaderboardService,
             @Qualifier("matchSummaryService") MatchSummaryService matchSummaryService,
             @Qualifier("matchPlayerRepository") MatchPlayerRepository matchPlayerRepository,
             @Qualifier("matchRepository") MatchRepository matchRepository,
+            @Qualifier("pollingDeltaService") PollingDeltaService pollingDeltaService,
             @Qualifier("pollingService") PollingService pollingService,
+            @Qualifier("tableSnapshotService") TableSnapshotService tableSnapshotService,
             @Qualifier("userRepository") UserRepository userRepository,
             @Qualifier("userService") UserService userService) {
+        this.aiRunAhead = aiRunAhead;
+        this.cardKnowledgeService = cardKnowledgeService;
+        this.gameMetricsService = gameMetricsService;
         this.gameRepository = gameRepository;
         this.gameService = gameService;
         this.gameSetupService = gameSetupService;
         this.gameSimulationService = gameSimulationService;
+        this.ismctsService = ismctsService;
+        this.leaderboardService = leaderboardService;
         this.matchSummaryService = matchSummaryService;
         this.matchPlayerRepository = matchPlayerRepository;
         this.matchRepository = matchRepository;
+        this.pollingDeltaService = pollingDeltaService;
         this.pollingService = pollingService;
+        this.tableSnapshotService = tableSnapshotService;
         this.userRepository = userRepository;
         this.userService = userService;
 
     }
 
+    /**
+     * Returns all matches with everything GET /matches shows of them loaded,
+     * in two queries however many matches there are.
+     */
+    @Transactional(readOnly = true)
     public List<Match> getMatchesInformation() {
-        return matchRepository.findAll();
+        List<Match> matches = matchRepository.findAllWithPlayers();
+        if (!matches.isEmpty()) {
+            // Initializes the collections of the matches loaded above.
+            matchRepository.findForSetupByMatchIn(matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns one page of the lobby, newest matches first. Only the columns
+     * shown in the lobby are queried.
+     *
+     * @param phases   The phases to list; if null or empty, all phases in which
+     *                 a match is not over yet.
+     * @param page     Zero-based page number.
+     * @param pageSize Matches per page, capped at MAX_LOBBY_PAGE_SIZE.
+     * @return The page of lobby entries.
+     */
+    public Page<LobbyMatchDTO> getLobbyMatches(Collection<MatchPhase> phases, int page, int pageSize) {
+        if (page < 0 || pageSize < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page or pageSize");
+        }
+        Set<MatchPhase> listedPhases = (phases == null || phases.isEmpty())
+                ? DEFAULT_LOBBY_PHASES
+                : EnumSet.copyOf(phases);
+        PageRequest pageable = PageRequest.of(page, Math.min(pageSize, MAX_LOBBY_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "matchId"));
+        return matchRepository.findLobbyMatches(listedPhases, pageable);
     }
 
     public MatchDTO getMatchDTO(Long matchId, String token) {
@@ -100,7 +172,7 @@ public class MatchService {
         if (user == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Invalid token");
         }
-        Match match = matchRepository.findMatchByMatchId(matchId);
+        Match match = matchRepository.findForSetupByMatchId(matchId);
         if (match == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Match not found");
         } else if (!isUserInMatch(user, match)) {
@@ -276,6 +348,7 @@ public class MatchService {
                 .findFirst()
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No player in that slot."));
 
+        Long idOfReplacedPlayer = replaced.getUser().getId();
         String nameOfReplacedPlayer = replaced.getUser().getUsername();
         // Just in case this player is blocking the game while game results are shown.
         confirmGameResult(replaced.getUser().getToken(), match.getMatchId());
@@ -283,6 +356,7 @@ public class MatchService {
         // Swap in AI player
         replaced.setUser(newAiUser);
         replaced.setIsAiPlayer(true);
+        replaced.setStrategy(ismctsService.strategyForAiUserId(newAiUser.getId()));
         replaced.setAiMatchPlayerState(AiMatchPlayerState.READY);
         replaced.setIsHost(false); // Ensure AI doesn't remain host accidentally
         replaced.setReady(true); // Set to true in case people are waiting for this player
@@ -316,6 +390,8 @@ public class MatchService {
         match.setNameForMatchPlayerSlot(matchPlayerSlot, newAiUser.getUsername());
         matchPlayerRepository.save(replaced);
         matchRepository.save(match);
+        tableSnapshotService.evict(match.getMatchId());
+        pollingDeltaService.forgetPlayer(match.getMatchId(), idOfReplacedPlayer);
 
         log.info("Slot {} replaced with AI Player (UserId={}).", matchPlayerSlot, newAiUser.getId());
     }
@@ -420,6 +496,7 @@ public class MatchService {
      * @param dto     PlayedCardDTO with played card.
      */
     public void playCardAsHuman(String token, Long matchId, PlayedCardDTO dto) {
+        long start = System.nanoTime();
         Match match = requireMatchByMatchId(matchId);
         Game game = GameEnforcer.requireExactlyOneActiveGame(match);
         MatchPlayer matchPlayer = match.requireMatchPlayerByToken(token);
@@ -430,6 +507,7 @@ public class MatchService {
         } catch (IllegalArgumentException | IllegalStateException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
+        gameMetricsService.recordCardPlay(System.nanoTime() - start);
     }
 
     /**
@@ -439,6 +517,8 @@ public class MatchService {
      */
     public void wrapUpCompletedGame(Game game) {
         Match match = game.getMatch();
+        // Every card is played; no AI player needs to reason about them anymore.
+        cardKnowledgeService.evictGame(game);
 
         // Create and store match summary
         String summary = matchSummaryService.buildMatchResultHtml(match, game);
@@ -453,6 +533,7 @@ public class MatchService {
         // Decide next match phase
         if (shouldEndMatch(match)) {
             match.setPhase(MatchPhase.RESULT);
+            tableSnapshotService.evict(match.getMatchId());
             awardScoresToUsersOfFinishedMatch(match);
             // log.info("💄 MatchPhase is set to RESULT.");
         } else {
@@ -614,6 +695,7 @@ public class MatchService {
             log.info("About to call setMatchPlayerMatchSummary");
             matchSummaryService.setMatchPlayerMatchSummary(match, matchPlayer, matchPlayerMatchSummary);
             userRepository.save(user);
+            leaderboardService.update(user);
         }
         matchRepository.save(match);
 
@@ -647,17 +729,56 @@ public class MatchService {
     }
 
     public PollingDTO getPlayerPolling(String token, Long matchId) {
-        // Match available?
-        Match match = matchRepository.findMatchByMatchId(matchId);
+        long start = System.nanoTime();
+        Match match = requireMatchForPolling(matchId);
+        // User identfiable?
+        User requestingUser = userService.getUserByToken(token);
+        return getPlayerPolling(match, requestingUser, start, null);
+    }
+
+    /**
+     * The polling of a client that is pushed its state (see
+     * MatchEventService#stream), read-only: unlike getPlayerPolling, it
+     * neither records the poll nor moves the player's message cursor.
+     *
+     * @param token             Token identifying the user.
+     * @param matchId           ID of the relevant match.
+     * @param lastSentMessageId The id of the last message the client was sent.
+     * @return The current PollingDTO.
+     */
+    @Transactional(readOnly = true)
+    public PollingDTO getPlayerPollingSnapshot(String token, Long matchId, long lastSentMessageId) {
+        long start = System.nanoTime();
+        Match match = requireMatchForPolling(matchId);
+        User requestingUser = userService.getUserByToken(token);
+        return getPlayerPolling(match, requestingUser, start, lastSentMessageId);
+    }
+
+    /**
+     * Records the pulse of a player whose client is pushed its state, so that
+     * they are not taken for gone.
+     *
+     * @param token   Token identifying the user.
+     * @param matchId ID of the relevant match.
+     */
+    public void recordPulse(String token, Long matchId) {
+        Long userId = userService.getUserIdFromToken(token);
+        matchPlayerRepository.updateLastPollTime(matchId, userId, Instant.now());
+    }
+
+    private Match requireMatchForPolling(Long matchId) {
+        Match match = matchRepository.findForPollingByMatchId(matchId);
         if (match == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Match not found");
         }
-        // User identfiable?
-        User requestingUser = userRepository.findUserByToken(token);
-        if (requestingUser == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
-        }
+        return match;
+    }
 
+    /**
+     * @param snapshotAfterMessageId null to record the poll; otherwise see
+     *                               getPlayerPollingSnapshot.
+     */
+    private PollingDTO getPlayerPolling(Match match, User requestingUser, long start, Long snapshotAfterMessageId) {
         // --- Handle match already in RESULT or FINISHED phase ---
         if (match.getPhase() == MatchPhase.RESULT
                 || match.getPhase() == MatchPhase.FINISHED
@@ -671,10 +792,16 @@ public class MatchService {
             boolean showGameResult = match.getPhase() == MatchPhase.RESULT
                     || (match.getPhase() == MatchPhase.FINISHED && isMatchPlayer && !hasConfirmed);
 
-            return pollingService.getPlayerPollingForPostMatchPhase(
+            PollingDTO polling = withStateVersion(pollingService.getPlayerPollingForPostMatchPhase(
                     requestingUser,
                     match,
-                    showGameResult);
+                    showGameResult), match);
+            gameMetricsService.recordPolling(
+                    !isMatchPlayer ? GameMetricsService.ROLE_SPECTATOR
+                            : requestingUser.getId().equals(match.getHostId()) ? GameMetricsService.ROLE_HOST
+                                    : GameMetricsService.ROLE_PLAYER,
+                    System.nanoTime() - start);
+            return polling;
         }
 
         // Who is polling?
@@ -686,89 +813,235 @@ public class MatchService {
 
         // No! It is a random person.
         if (requestingMatchPlayer == null) {
-            return pollingService.getSpectatorPolling(requestingUser, match);
+            PollingDTO polling = withStateVersion(pollingService.getSpectatorPolling(requestingUser, match), match);
+            gameMetricsService.recordPolling(GameMetricsService.ROLE_SPECTATOR, System.nanoTime() - start);
+            return polling;
         }
 
-        // Yes! Let us remember their visit.
-        requestingMatchPlayer.updateLastPollTime();
-        matchPlayerRepository.save(requestingMatchPlayer);
+        // Every MatchPlayer needs their polling (host or non-host).
+        PollingDTO polling;
+        if (snapshotAfterMessageId == null) {
+            // Yes! Let us remember their visit.
+            // The match timeline itself is driven by MatchClockService, so apart from
+            // this pulse the poll only reads.
+            requestingMatchPlayer.updateLastPollTime();
+            matchPlayerRepository.save(requestingMatchPlayer);
+            polling = pollingService.getPlayerPolling(requestingUser, match, gameRepository, matchPlayerRepository);
+        } else {
+            polling = pollingService.getPlayerPollingSnapshot(requestingUser, match, matchPlayerRepository,
+                    snapshotAfterMessageId);
+        }
+        withStateVersion(polling, match);
+        gameMetricsService.recordPolling(
+                requestingMatchPlayer.getIsHost() ? GameMetricsService.ROLE_HOST
+                        : GameMetricsService.ROLE_PLAYER,
+                System.nanoTime() - start);
+        return polling;
+    }
 
-        if (requestingMatchPlayer.getIsHost()) {
-            // Only host is in charge of feeling other human player's pulse.
-            feelAllHumanNonHostMatchPlayersPulse(match);
+    /**
+     * Polling for clients that remember the stateVersion of the last state they
+     * received. If nothing has changed since, only the caller's pulse is
+     * recorded and null is returned, without building a PollingDTO at all.
+     * Otherwise only the fields that changed are returned, or all of them once
+     * the match is over.
+     * 
+     * @param token        Token identifying the user.
+     * @param matchId      ID of the relevant match.
+     * @param sinceVersion stateVersion the client last received, or null.
+     * @return The changes, or null if the client is up to date.
+     */
+    public PollingDeltaDTO getPlayerPollingDelta(String token, Long matchId, Long sinceVersion) {
+        long start = System.nanoTime();
+        Long userId = userService.getUserIdFromToken(token);
+        Long stateVersion = matchRepository.findStateVersionByMatchId(matchId);
+        if (stateVersion == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Match not found");
         }
 
-        // Are we still fine about the host being alive?
-        MatchPhase matchPhase = match.getPhase();
-        if (!matchPhase.doNotFeelPulseYet()
-                && secondsSinceHostsLastPolling(match) > GameConstants.HOST_TIME_OUT_SECONDS) {
-            log.info("Host is not polling anymore.");
-            findNewHumanHostOrAbortMatch(match);
+        if (pollingDeltaService.isUpToDate(matchId, userId, sinceVersion, stateVersion)) {
+            matchPlayerRepository.updateLastPollTime(matchId, userId, Instant.now());
+            return null;
+        }
+
+        Match match = requireMatchForPolling(matchId);
+        // The token is resolved already; the user may well be in the
+        // persistence context as a player of the match.
+        User requestingUser = userRepository.findById(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token"));
+        PollingDTO polling = getPlayerPolling(match, requestingUser, start, null);
+        if (!match.getPhase().inGame()) {
+            // Once the match is over there is nothing left to compare against;
+            // do not keep the state of its players around.
+            pollingDeltaService.forgetPlayer(matchId, userId);
+            return pollingDeltaService.full(polling);
+        }
+        return pollingDeltaService.diff(matchId, userId, sinceVersion, polling);
+    }
+
+    private PollingDTO withStateVersion(PollingDTO polling, Match match) {
+        if (polling != null) {
+            polling.setStateVersion(match.getStateVersion());
+        }
+        return polling;
+    }
+
+    /**
+     * Advances the timeline of a match by one step. This is what the host's
+     * polling used to do: feel the players' pulse, move the TrickPhase along,
+     * end the match once the goal is reached and let the AI Player whose turn
+     * it is play a card (or, in run-ahead mode, all AI Players up next). It is
+     * called by the MatchClockService, never by a request.
+     * 
+     * @param matchId  The id of the match to advance.
+     * @param searched The move searched for the ISMCTS player up next (see
+     *                 prepareAiSearch), or null.
+     * @return Milliseconds until the match needs the clock again, or -1 if the
+     *         match is no longer running.
+     */
+    public long advanceMatchClock(Long matchId, IsmctsService.Move searched) {
+        Match match = matchRepository.findWithPlayersByMatchId(matchId);
+        if (match == null || !match.getPhase().inGame()) {
+            return -1;
+        }
+        return advanceMatchTimeline(match, searched);
+    }
+
+    /**
+     * Prepares the search of the next move if it is the turn of an ISMCTS
+     * player who will play in the next step of the match clock. The search
+     * itself (IsmctsService#search) then runs outside of any transaction,
+     * and its move is handed to advanceMatchClock.
+     * 
+     * @param matchId The id of the match.
+     * @return The turn to search, or null if there is none.
+     */
+    @Transactional(readOnly = true)
+    public IsmctsService.Turn prepareAiSearch(Long matchId) {
+        if (!ismctsService.isEnabled()) {
+            return null;
+        }
+        Match match = matchRepository.findWithPlayersByMatchId(matchId);
+        if (match == null || !match.getPhase().inGame()) {
+            return null;
+        }
+        Game game = GameEnforcer.getOnlyActiveGameOrNull(match);
+        if (game == null || !game.getPhase().inTrick()
+                || (game.getTrickPhase() != TrickPhase.READYFORFIRSTCARD
+                        && game.getTrickPhase() != TrickPhase.RUNNINGTRICK)) {
+            return null;
+        }
+        MatchPlayer currentPlayer = match.requireMatchPlayerBySlot(game.getCurrentMatchPlayerSlot());
+        if (!Boolean.TRUE.equals(currentPlayer.getIsAiPlayer()) || currentPlayer.getStrategy() != Strategy.ISMCTS
+                // Without run-ahead, the player first skips a step to think.
+                || (!aiRunAhead && currentPlayer.getAiMatchPlayerState() != AiMatchPlayerState.THINKING)) {
+            return null;
+        }
+        try {
+            return ismctsService.prepare(game, currentPlayer, cardKnowledgeService.getKnowledge(game));
+        } catch (IllegalStateException e) {
+            log.warn("ISMCTS search not possible ({}). Playing lowest card.", e.getMessage());
+            return IsmctsService.Turn.unsearchable(game, currentPlayer);
+        }
+    }
+
+    private long advanceMatchTimeline(Match match, IsmctsService.Move searched) {
+        // Are all MatchPlayers (including the host) still alive?
+        if (!match.getPhase().doNotFeelPulseYet()) {
+            feelAllHumanNonHostMatchPlayersPulse(match);
+            if (secondsSinceHostsLastPolling(match) > GameConstants.HOST_TIME_OUT_SECONDS) {
+                log.info("Host is not polling anymore.");
+                findNewHumanHostOrAbortMatch(match);
+                if (!match.getPhase().inGame()) {
+                    return -1;
+                }
+            }
         }
 
         // Is there an active game for this match?
         Game game = GameEnforcer.getOnlyActiveGameOrNull(match);
-        if (game != null) {
+        if (game == null) {
+            return GameConstants.POLLING_INTERVAL_MS;
+        }
+
+        if (game.getPhase() == GamePhase.SKIP_PASSING) {
+            assertAllHumanPlayersSkippedPassing(match, game);
+        }
+
+        // Advance the TrickPhase once its deadline has passed.
+        Instant trickJustCompletedTime = game.getTrickPhase() == TrickPhase.TRICKJUSTCOMPLETED
+                ? game.getTrickJustCompletedTime()
+                : null;
+        gameService.advanceTrickPhaseIfOwnerPolling(game);
+        if (trickJustCompletedTime != null && game.getTrickPhase() == TrickPhase.PROCESSINGTRICK) {
+            gameMetricsService.recordTrickTransitionLag(
+                    Duration.between(trickJustCompletedTime, Instant.now()).toMillis()
+                            - GameConstants.TRICK_DELAY_MS);
+        }
+
+        // After trick phase advancement, check if the match should end
+        if (match.getPhase().inGame() && shouldEndMatch(match)) {
+            game.setPhase(GamePhase.FINISHED);
+            gameRepository.save(game);
+            cardKnowledgeService.evictGame(game);
+            awardScoresToUsersOfFinishedMatch(match);
+            match.setPhase(MatchPhase.RESULT);
+            tableSnapshotService.evict(match.getMatchId());
+            setExistingMatchSummaryOrCreateIt(match,
+                    matchSummaryService.buildMatchResultHtml(match, game));
+            matchRepository.saveAndFlush(match);
+            log.info("MatchPhase set to RESULT — match has ended.");
+            return -1;
+        }
+
+        // Is the currentPlayer an AIPlayer who is supposed to play a card
+        if (
+        // The game is still on.
+        game.getPhase().inTrick()
+                // The TrickPhase is just fine.
+                && (game.getTrickPhase() == TrickPhase.READYFORFIRSTCARD
+                        || game.getTrickPhase() == TrickPhase.RUNNINGTRICK)) {
             // Whose turn is it anyway?
             MatchPlayer currentPlayer = match.requireMatchPlayerBySlot(game.getCurrentMatchPlayerSlot());
+            if (!Boolean.TRUE.equals(currentPlayer.getIsAiPlayer())) {
+                return GameConstants.POLLING_INTERVAL_MS;
+            }
 
-            // Is the person calling the host of the match?
-            if (requestingMatchPlayer.getIsHost()) {
+            if (aiRunAhead) {
+                gameService.playAiTurnsAhead(match, game, searched);
+            } else {
+                gameService.playSingleAiTurn(match, game, currentPlayer, searched);
+            }
 
-                if (game.getPhase() == GamePhase.SKIP_PASSING) {
-                    assertAllHumanPlayersSkippedPassing(match, game);
-                }
+            // Having done that, let us check if the game is perhaps over.
+            if (gameService.finalizeGameIfComplete(game)) {
+                wrapUpCompletedGame(game); // Already defined in MatchService
+                return GameConstants.POLLING_INTERVAL_MS;
+            }
+        }
 
-                // Advance the TrickPhase if this user is the host
-                gameService.advanceTrickPhaseIfOwnerPolling(game);
-
-                // After trick phase advancement, check if the match should end
-                if (match.getPhase().inGame() && shouldEndMatch(match)) {
-                    game.setPhase(GamePhase.FINISHED);
-                    gameRepository.save(game);
-                    awardScoresToUsersOfFinishedMatch(match);
-                    match.setPhase(MatchPhase.RESULT);
-                    setExistingMatchSummaryOrCreateIt(match,
-                            matchSummaryService.buildMatchResultHtml(match, game));
-                    matchRepository.saveAndFlush(match);
-                    log.info("MatchPhase set to RESULT — match has ended.");
-                    // return immediately!
-                    return pollingService.getPlayerPollingForPostMatchPhase(
-                            requestingUser,
-                            match,
-                            true // showGameResult
-                    );
-                }
+        return millisUntilNextTrickDeadline(game);
+    }
 
-                // Is the currentPlayer an AIPlayer who is supposed to play a card
-                if (
-                // The match is not over yet.
-                !shouldEndMatch(match)
-                        // The game is still on.
-                        && game.getPhase().inTrick()
-                        // The TrickPhase is just fine.
-                        && (game.getTrickPhase() == TrickPhase.READYFORFIRSTCARD
-                                || game.getTrickPhase() == TrickPhase.RUNNINGTRICK)
-                        // I really am an AIPlayer and it it is my turn
-                        && Boolean.TRUE.equals(currentPlayer.getIsAiPlayer())) {
-
-                    gameService.playSingleAiTurn(match, game, currentPlayer);
-
-                    // Having done that, let us check if the game is perhaps over.
-                    if (gameService.finalizeGameIfComplete(game)) {
-                        wrapUpCompletedGame(game); // Already defined in MatchService
-                        return pollingService.getPlayerPollingForPostMatchPhase(
-                                requestingUser,
-                                match,
-                                true // showGameResult
-                        );
-
-                    }
-                }
-            }
+    /**
+     * Computes when the given game needs the clock again: exactly when the
+     * TRICK_DELAY_MS of a completed trick runs out, right away if a trick is
+     * waiting to be cleared, and one POLLING_INTERVAL_MS later otherwise (which
+     * is also the pace at which AI Players think).
+     * 
+     * @param game current Game
+     * @return delay in milliseconds
+     */
+    private long millisUntilNextTrickDeadline(Game game) {
+        if (game.getTrickPhase() == TrickPhase.TRICKJUSTCOMPLETED && game.getTrickJustCompletedTime() != null) {
+            long elapsed = Duration.between(game.getTrickJustCompletedTime(), Instant.now()).toMillis();
+            // advanceTrickPhaseIfOwnerPolling wants strictly more than TRICK_DELAY_MS.
+            return Math.max(0, GameConstants.TRICK_DELAY_MS + 1 - elapsed);
         }
-        // Every MatchPlayer needs their polling (host or non-host).
-        return pollingService.getPlayerPolling(requestingUser, match, gameRepository, matchPlayerRepository);
+        if (game.getTrickPhase() == TrickPhase.PROCESSINGTRICK) {
+            return 0;
+        }
+        return GameConstants.POLLING_INTERVAL_MS;
     }
 
     /**
@@ -863,6 +1136,9 @@ public class MatchService {
     @Transactional
     public void cleanupAndOptionallyDeleteMatch(Match match, boolean deleteMatch) {
         log.info("Starting cleanup for Match ID {}", match.getMatchId());
+        pollingDeltaService.forgetMatch(match.getMatchId());
+        tableSnapshotService.evict(match.getMatchId());
+        cardKnowledgeService.evictMatch(match);
 
         // 1. Sever child references from Games
         if (match.getGames() != null) {
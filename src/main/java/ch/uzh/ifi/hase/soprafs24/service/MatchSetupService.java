@@ -1,7 +1,6 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import java.time.Instant;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -21,7 +20,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
-import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
@@ -53,6 +51,7 @@ public class MatchSetupService {
 
     GameRepository gameRepository;
     GameSetupService gameSetupService;
+    IsmctsService ismctsService;
     MatchPlayerRepository matchPlayerRepository;
     MatchRepository matchRepository;
     MatchSummaryRepository matchSummaryRepository;
@@ -63,6 +62,7 @@ public class MatchSetupService {
     public MatchSetupService(
             GameRepository gameRepository,
             GameSetupService gameSetupService,
+            IsmctsService ismctsService,
             MatchPlayerRepository matchPlayerRepository,
             MatchRepository matchRepository,
             MatchSummaryRepository matchSummaryRepository,
@@ -70,6 +70,7 @@ public class MatchSetupService {
             UserService userService) {
         this.gameRepository = gameRepository;
         this.gameSetupService = gameSetupService;
+        this.ismctsService = ismctsService;
         this.matchPlayerRepository = matchPlayerRepository;
         this.matchRepository = matchRepository;
         this.matchSummaryRepository = matchSummaryRepository;
@@ -293,21 +294,7 @@ public class MatchSetupService {
      * @throws ResponseStatusException
      **/
     private void ensureUserNotInAnyOtherMatch(User user) {
-        List<Match> allMatches = matchRepository.findAll();
-
-        boolean alreadyAssigned = allMatches.stream()
-                .filter(m -> EnumSet.of(
-                        MatchPhase.SETUP,
-                        MatchPhase.READY,
-                        MatchPhase.IN_PROGRESS,
-                        MatchPhase.BETWEEN_GAMES,
-                        MatchPhase.BEFORE_GAMES
-                // Optional: MatchPhase.RESULT
-                ).contains(m.getPhase()))
-                .flatMap(m -> m.getMatchPlayers().stream())
-                .anyMatch(mp -> mp.getUser() != null && user.getId().equals(mp.getUser().getId()));
-
-        if (alreadyAssigned) {
+        if (matchRepository.existsUserInOpenMatch(user.getId())) {
             throw new ResponseStatusException(
                     HttpStatus.BAD_REQUEST,
                     "User is already participating in another active or setup match.");
@@ -483,10 +470,7 @@ public class MatchSetupService {
         aiPlayer.setIsAiPlayer(true);
         aiPlayer.setIsHost(false);
 
-        int strategyIndex = (aiUser.getId() != null)
-                ? Math.floorMod(aiUser.getId(), Strategy.values().length)
-                : Strategy.values().length - 1;
-        aiPlayer.setStrategy(Strategy.values()[strategyIndex]);
+        aiPlayer.setStrategy(ismctsService.strategyForAiUserId(aiUser.getId()));
 
         match.getMatchPlayers().add(aiPlayer);
 
@@ -758,17 +742,17 @@ public class MatchSetupService {
         // Get all users who are online and not AI
         List<User> eligibleUsers = userRepository.findByStatusAndIsAiPlayerFalse(UserStatus.ONLINE);
 
-        // Exclude users who are already in an active match
+        // Exclude users who are already in an active or setup match
+        List<Long> candidateIds = eligibleUsers.stream()
+                .map(User::getId)
+                .filter(id -> !excludedUserIds.contains(id))
+                .collect(Collectors.toList());
+        if (!candidateIds.isEmpty()) {
+            excludedUserIds.addAll(matchRepository.findUserIdsInOpenMatches(candidateIds));
+        }
+
         List<UserGetDTO> availableUsers = eligibleUsers.stream()
-                .filter(user -> {
-                    // Ensure the user is not in any other match
-                    try {
-                        ensureUserNotInAnyOtherMatch(user); // This will throw if the user is in another match
-                        return !excludedUserIds.contains(user.getId());
-                    } catch (ResponseStatusException e) {
-                        return false; // If the user is in another match, exclude them
-                    }
-                })
+                .filter(user -> !excludedUserIds.contains(user.getId()))
                 .map(DTOMapper.INSTANCE::convertEntityToUserGetDTO)
                 .collect(Collectors.toList());
 
@@ -0,0 +1,145 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDeltaDTO;
+
+/**
+ * Polling Delta Service
+ * Remembers the last PollingDTO each player of a match received, together with
+ * the stateVersion of the match it was built from. A client that reports this
+ * version gets "no change" or only the fields that changed since. At most
+ * polling.delta.max-entries states are kept; a player whose state was dropped
+ * simply gets the full state again.
+ */
+@Service
+@Qualifier("pollingDeltaService")
+public class PollingDeltaService {
+
+    private final int maxEntries;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, DeliveredState> delivered = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PollingDeltaService(
+            @Value("${polling.delta.max-entries:10000}") int maxEntries,
+            ObjectMapper objectMapper) {
+        this.maxEntries = maxEntries;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return true if the client already holds the state of currentVersion.
+     */
+    public boolean isUpToDate(Long matchId, Long userId, Long sinceVersion, long currentVersion) {
+        if (sinceVersion == null || sinceVersion != currentVersion) {
+            return false;
+        }
+        DeliveredState last = delivered.get(key(matchId, userId));
+        return last != null && last.version == currentVersion;
+    }
+
+    /**
+     * Compares the given PollingDTO to what this player received last and
+     * remembers it as the newly delivered state.
+     *
+     * @param matchId      The id of the match.
+     * @param userId       The id of the polling user.
+     * @param sinceVersion The stateVersion the client has, or null.
+     * @param polling      The freshly built PollingDTO.
+     * @return The fields that changed, or all fields if the client's version
+     *         is unknown.
+     */
+    public PollingDeltaDTO diff(Long matchId, Long userId, Long sinceVersion, PollingDTO polling) {
+        ObjectNode current = objectMapper.valueToTree(polling);
+        String key = key(matchId, userId);
+        if (!delivered.containsKey(key)) {
+            makeRoom();
+        }
+        DeliveredState last = delivered.put(key, new DeliveredState(polling.getStateVersion(), current));
+        return delta(polling, current, last, sinceVersion);
+    }
+
+    /**
+     * The full state as a delta, for a client whose state is not worth
+     * remembering (e.g. once the match is over).
+     *
+     * @param polling The freshly built PollingDTO.
+     * @return All fields of the PollingDTO.
+     */
+    public PollingDeltaDTO full(PollingDTO polling) {
+        return delta(polling, objectMapper.valueToTree(polling), null, null);
+    }
+
+    private static PollingDeltaDTO delta(PollingDTO polling, ObjectNode current, DeliveredState last,
+            Long sinceVersion) {
+        PollingDeltaDTO delta = new PollingDeltaDTO();
+        delta.setStateVersion(polling.getStateVersion());
+
+        Map<String, JsonNode> changes = new LinkedHashMap<>();
+        boolean full = last == null || sinceVersion == null || sinceVersion != last.version;
+        Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (full || !Objects.equals(field.getValue(), last.state.get(field.getKey()))) {
+                changes.put(field.getKey(), field.getValue());
+            }
+        }
+        delta.setFull(full);
+        delta.setChanges(changes);
+        return delta;
+    }
+
+    /**
+     * Forgets what was delivered to one player, e.g. once they left the match.
+     */
+    public void forgetPlayer(Long matchId, Long userId) {
+        delivered.remove(key(matchId, userId));
+    }
+
+    /**
+     * Forgets everything delivered for a match, e.g. once it is over.
+     */
+    public void forgetMatch(Long matchId) {
+        String prefix = matchId + ":";
+        delivered.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void makeRoom() {
+        // Drop arbitrary entries; their players just get a full state next time.
+        Iterator<String> keys = delivered.keySet().iterator();
+        while (delivered.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String key(Long matchId, Long userId) {
+        return matchId + ":" + userId;
+    }
+
+    private static final class DeliveredState {
+        private final long version;
+        private final ObjectNode state;
+
+        private DeliveredState(long version, ObjectNode state) {
+            this.version = version;
+            this.state = state;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchSummary;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.logic.GameEnforcer;
+import ch.uzh.ifi.hase.soprafs24.model.TableSnapshot;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayerCardDTO;
@@ -33,15 +34,21 @@ public class PollingService {
     private final CardRulesService cardRulesService;
     private final MatchMessageService matchMessageService;
     private final GameTrickService gameTrickService;
+    private final StageTimingService stageTimingService;
+    private final TableSnapshotService tableSnapshotService;
 
     @Autowired
     public PollingService(
             @Qualifier("cardRulesService") CardRulesService cardRulesService,
             @Qualifier("matchMessageService") MatchMessageService matchMessageService,
-            @Qualifier("gameTrickService") GameTrickService gameTrickService) {
+            @Qualifier("gameTrickService") GameTrickService gameTrickService,
+            @Qualifier("stageTimingService") StageTimingService stageTimingService,
+            @Qualifier("tableSnapshotService") TableSnapshotService tableSnapshotService) {
         this.cardRulesService = cardRulesService;
         this.matchMessageService = matchMessageService;
         this.gameTrickService = gameTrickService;
+        this.stageTimingService = stageTimingService;
+        this.tableSnapshotService = tableSnapshotService;
     }
 
     /**
@@ -53,16 +60,42 @@ public class PollingService {
      */
     public PollingDTO getPlayerPolling(User user, Match match, GameRepository gameRepository,
             MatchPlayerRepository matchPlayerRepository) {
+        return buildPlayerPolling(user, match, matchPlayerRepository, null);
+    }
+
+    /**
+     * Like getPlayerPolling, but read-only, for clients that are pushed their
+     * state: the poll is not recorded (pulse, poll counter), and the messages
+     * are those after the later of the player's message cursor and the given
+     * message id, without moving the cursor.
+     *
+     * @param lastSentMessageId The id of the last message the client was sent.
+     */
+    public PollingDTO getPlayerPollingSnapshot(User user, Match match, MatchPlayerRepository matchPlayerRepository,
+            long lastSentMessageId) {
+        return buildPlayerPolling(user, match, matchPlayerRepository, lastSentMessageId);
+    }
+
+    /**
+     * @param snapshotAfterMessageId null to record the poll; otherwise see
+     *                               getPlayerPollingSnapshot.
+     */
+    private PollingDTO buildPlayerPolling(User user, Match match, MatchPlayerRepository matchPlayerRepository,
+            Long snapshotAfterMessageId) {
         // MATCH [1], [2], [3], [4]
         // GAME [11], [12]
 
         //
 
+        // Time each of the stages below; see /actuator/pollingstages.
+        StageTimingService.Span span = stageTimingService.start();
+
         Game game = GameEnforcer.requireExactlyOneActiveGame(match);
         if (game == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                     "There is no active  game in this match (Polling).");
         }
+        span.stage("game");
 
         // MATCHPLAYER
         MatchPlayer matchPlayer = matchPlayerRepository.findByUserAndMatch(user, match);
@@ -91,9 +124,12 @@ public class PollingService {
         // }
 
         // log their visit in "lastHeardFrom"
-        requestingMatchPlayer.updateLastPollTime();
-        requestingMatchPlayer.incrementPollCounter();
+        if (snapshotAfterMessageId == null) {
+            requestingMatchPlayer.updateLastPollTime();
+            requestingMatchPlayer.incrementPollCounter();
+        }
         int pollCounter = requestingMatchPlayer.getPollCounter();
+        span.stage("player");
 
         // The index in the player array that represents the requesting player
         // "me"____ = "south"_ = position 0 on client
@@ -105,22 +141,10 @@ public class PollingService {
 
         // OTHER PLAYERS
 
-        /// AVATAR
-        List<String> avatarUrls = new ArrayList<>();
-        User[] players = {
-                match.getPlayer1(),
-                match.getPlayer2(),
-                match.getPlayer3(),
-                match.getPlayer4()
-        };
-
-        for (User player : players) {
-            if (player != null && player.getAvatar() != null) {
-                avatarUrls.add("/avatars_118x118/a" + player.getAvatar() + ".png");
-            } else {
-                avatarUrls.add("/avatars_118x118/a0.png"); // Or default avatar URL
-            }
-        }
+        // Usernames, avatars and AI difficulties in MatchPlayerSlot order; these
+        // only change when a seat changes hands.
+        TableSnapshot table = tableSnapshotService.getSnapshot(match);
+        span.stage("table");
 
         // Number of cards in hand per player, keyed by 0-based position index (slot 1 →
         // index 0, etc.)
@@ -141,19 +165,7 @@ public class PollingService {
             pointsOfPlayers.put(mp.getMatchPlayerSlot() - 1, mp.getMatchScore());
         }
 
-        // Usernames and User objects in position index order (0 = match owner,
-        // clockwise)
-        List<String> matchPlayers = new ArrayList<>();
-        matchPlayers.add(match.getPlayer1() != null ? match.getPlayer1().getUsername() : null);
-        matchPlayers.add(match.getPlayer2() != null ? match.getPlayer2().getUsername() : null);
-        matchPlayers.add(match.getPlayer3() != null ? match.getPlayer3().getUsername() : null);
-        matchPlayers.add(match.getPlayer4() != null ? match.getPlayer4().getUsername() : null);
-
-        List<User> usersInMatch = new ArrayList<>();
-        usersInMatch.add(match.getPlayer1());
-        usersInMatch.add(match.getPlayer2());
-        usersInMatch.add(match.getPlayer3());
-        usersInMatch.add(match.getPlayer4());
+        span.stage("handCounts");
 
         /// Info about me
         // My cards in my hand
@@ -173,6 +185,7 @@ public class PollingService {
                 .collect(Collectors.toList());
 
         hand = CardUtils.normalizeCardCodeString(matchPlayer.getHand());
+        span.stage("hand");
 
         // Playable cards in my hand
         List<PlayerCardDTO> playableCardDTOList = new ArrayList<>();
@@ -198,6 +211,7 @@ public class PollingService {
                         .toList();
             }
         }
+        span.stage("playableCards");
 
         // START AGGREGATING INFO ON PlayerPolling
 
@@ -215,6 +229,7 @@ public class PollingService {
         dto.setHeartsBroken(game.getHeartsBroken()); // [13]
         dto.setCurrentTrickDTO(gameTrickService.prepareTrickDTO(match, game, matchPlayer)); // [14]
         dto.setPreviousTrickDTO(gameTrickService.preparePreviousTrickDTO(match, game, matchPlayer));
+        span.stage("tricks");
 
         // During GamePhase.RESULT show prepared game summary
 
@@ -222,13 +237,17 @@ public class PollingService {
             MatchSummary matchSummary = match.getMatchSummary();
             dto.setResultHtml(matchSummary.getGameSummaryHtml());
         }
-        dto.setMatchMessages(matchMessageService.messages(match, game, matchPlayer)); // [18c]
+        dto.setMatchMessages(snapshotAfterMessageId == null
+                ? matchMessageService.messages(match, game, matchPlayer)
+                : matchMessageService.messagesAfter(match,
+                        Math.max(matchPlayer.getLastDeliveredMessageId(), snapshotAfterMessageId))); // [18c]
+        span.stage("messages");
         // Info about the other players
-        dto.setMatchPlayers(matchPlayers); // [21]
-        dto.setAvatarUrls(avatarUrls); // [22]
+        dto.setMatchPlayers(table.getUsernames()); // [21]
+        dto.setAvatarUrls(table.getAvatarUrls()); // [22]
         dto.setCardsInHandPerPlayer(handCounts); // [23]
         dto.setPlayerPoints(pointsOfPlayers); // [24]
-        dto.setAiPlayers(match.getAiPlayers()); // [25]
+        dto.setAiPlayers(table.getAiPlayers()); // [25]
         dto.setCurrentPlayerSlot(game.getCurrentMatchPlayerSlot() - 1);
         dto.setCurrentPlayOrder(game.getCurrentPlayOrder());
 
@@ -266,6 +285,8 @@ public class PollingService {
             dto.setPassingInfo("");
             dto.setPassingToPlayerSlot(null);
         }
+        span.stage("passing");
+        span.end();
         return dto;
     }
 
@@ -0,0 +1,134 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Keeps a bounded pool of decks that were shuffled ahead of demand by another
+ * DeckProvider (the deck API or the local shuffler). Whenever the pool drops
+ * to its low watermark, it is filled up again in the background.
+ *
+ * Games get their deck from the pool through pollReadyDeck() and are dealt
+ * right away; only if the pool has run dry do they wait for a fresh deck.
+ * How often that happens is counted as pool exhaustion.
+ */
+public class PooledDeckProvider implements DeckProvider {
+    private final Logger log = LoggerFactory.getLogger(PooledDeckProvider.class);
+
+    private final DeckProvider source;
+    private final int capacity;
+    private final int lowWatermark;
+    private final Scheduler refillScheduler;
+
+    private final BlockingQueue<ShuffledDeck> readyDecks;
+    private final AtomicInteger pendingRefills = new AtomicInteger();
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong exhaustions = new AtomicLong();
+    private final AtomicLong refills = new AtomicLong();
+    private final AtomicLong refillFailures = new AtomicLong();
+
+    /**
+     * @param source          Shuffles the decks that go into the pool.
+     * @param capacity        How many decks the pool holds at most.
+     * @param lowWatermark    The pool is refilled once it holds this many decks
+     *                        or fewer.
+     * @param refillScheduler Where the source is asked for new decks.
+     */
+    public PooledDeckProvider(DeckProvider source, int capacity, int lowWatermark, Scheduler refillScheduler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Deck pool capacity must be positive: " + capacity);
+        }
+        if (lowWatermark < 0 || lowWatermark >= capacity) {
+            throw new IllegalArgumentException(
+                    "Deck pool low watermark must be between 0 and " + (capacity - 1) + ": " + lowWatermark);
+        }
+        this.source = source;
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        this.refillScheduler = refillScheduler;
+        this.readyDecks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public Mono<ShuffledDeck> shuffleDeck() {
+        return Mono.defer(() -> pollReadyDeck().map(Mono::just).orElseGet(source::shuffleDeck));
+    }
+
+    @Override
+    public Optional<ShuffledDeck> pollReadyDeck() {
+        polls.incrementAndGet();
+        ShuffledDeck deck = readyDecks.poll();
+        if (deck == null) {
+            exhaustions.incrementAndGet();
+            log.info("Deck pool is exhausted; waiting for a fresh deck.");
+        }
+        if (readyDecks.size() <= lowWatermark) {
+            refill();
+        }
+        return Optional.ofNullable(deck);
+    }
+
+    /**
+     * Asks the source for as many decks as are missing from the pool, not
+     * counting those already on their way. Returns without waiting for them.
+     */
+    public synchronized void refill() {
+        int missing = capacity - readyDecks.size() - pendingRefills.get();
+        for (int i = 0; i < missing; i++) {
+            pendingRefills.incrementAndGet();
+            source.shuffleDeck()
+                    .subscribeOn(refillScheduler)
+                    .doFinally(signal -> pendingRefills.decrementAndGet())
+                    .subscribe(this::addReadyDeck, error -> {
+                        refillFailures.incrementAndGet();
+                        log.warn("Could not shuffle a deck for the deck pool: {}", error.getMessage());
+                    });
+        }
+    }
+
+    private void addReadyDeck(ShuffledDeck deck) {
+        if (readyDecks.offer(deck)) {
+            refills.incrementAndGet();
+        }
+    }
+
+    /** @return The number of decks ready to be dealt. */
+    public int getReadyDeckCount() {
+        return readyDecks.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return The number of decks asked from the pool. */
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    /** @return How often a deck was asked for while the pool was empty. */
+    public long getExhaustionCount() {
+        return exhaustions.get();
+    }
+
+    /** @return The number of decks put into the pool. */
+    public long getRefillCount() {
+        return refills.get();
+    }
+
+    /** @return The number of decks the source failed to shuffle. */
+    public long getRefillFailureCount() {
+        return refillFailures.get();
+    }
+}
@@ -0,0 +1,144 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import ch.uzh.ifi.hase.soprafs24.util.CircuitBreaker;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Wraps a remote DeckProvider so that getting a deck never hangs and never
+ * fails: every attempt has a timeout, failed attempts are retried a bounded
+ * number of times with jittered backoff, and if that does not help either, the
+ * deck comes from the fallback provider. A circuit breaker skips the remote
+ * provider altogether while it keeps failing.
+ *
+ * Call counts, latency and fallback rate are kept for monitoring.
+ */
+public class ResilientDeckProvider implements DeckProvider {
+    private final Logger log = LoggerFactory.getLogger(ResilientDeckProvider.class);
+
+    private static final double RETRY_JITTER = 0.5;
+
+    private final DeckProvider primary;
+    private final DeckProvider fallback;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration attemptTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong primaryCalls = new AtomicLong();
+    private final AtomicLong primaryFailures = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong primaryLatencyNanos = new AtomicLong();
+    private final AtomicLong maxPrimaryLatencyNanos = new AtomicLong();
+
+    /**
+     * @param primary        The provider to ask first, e.g. the external API.
+     * @param fallback       The provider to use when the primary one fails.
+     * @param circuitBreaker Guards the primary provider.
+     * @param attemptTimeout How long a single attempt may take.
+     * @param maxRetries     How often a failed attempt is retried.
+     * @param retryBackoff   The (jittered) wait before the first retry; it
+     *                       doubles with every further retry.
+     */
+    public ResilientDeckProvider(DeckProvider primary, DeckProvider fallback, CircuitBreaker circuitBreaker,
+            Duration attemptTimeout, int maxRetries, Duration retryBackoff) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.circuitBreaker = circuitBreaker;
+        this.attemptTimeout = attemptTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+    }
+
+    @Override
+    public Mono<ShuffledDeck> shuffleDeck() {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            if (!circuitBreaker.allowRequest()) {
+                log.info("Deck API circuit is open; shuffling locally.");
+                return useFallback();
+            }
+
+            primaryCalls.incrementAndGet();
+            long start = System.nanoTime();
+            return Mono.defer(primary::shuffleDeck)
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("No deck received")))
+                    .timeout(attemptTimeout)
+                    .retryWhen(Retry.backoff(maxRetries, retryBackoff).jitter(RETRY_JITTER))
+                    .doOnNext(deck -> {
+                        recordLatency(start);
+                        circuitBreaker.recordSuccess();
+                    })
+                    // A dropped caller must not leave a half-open trial pending.
+                    .doOnCancel(circuitBreaker::recordFailure)
+                    .onErrorResume(error -> {
+                        recordLatency(start);
+                        primaryFailures.incrementAndGet();
+                        circuitBreaker.recordFailure();
+                        log.warn("Could not get a deck from the deck API ({}); shuffling locally.",
+                                error.getMessage());
+                        return useFallback();
+                    });
+        });
+    }
+
+    private Mono<ShuffledDeck> useFallback() {
+        fallbacks.incrementAndGet();
+        return fallback.shuffleDeck();
+    }
+
+    private void recordLatency(long start) {
+        long nanos = System.nanoTime() - start;
+        primaryLatencyNanos.addAndGet(nanos);
+        maxPrimaryLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** @return The number of decks asked for. */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /** @return The number of decks asked from the primary provider. */
+    public long getPrimaryCallCount() {
+        return primaryCalls.get();
+    }
+
+    /** @return The number of decks the primary provider failed to give. */
+    public long getPrimaryFailureCount() {
+        return primaryFailures.get();
+    }
+
+    /** @return The number of decks that came from the fallback provider. */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    /** @return The share of decks that came from the fallback provider. */
+    public double getFallbackRate() {
+        long callCount = calls.get();
+        return callCount == 0 ? 0.0 : (double) fallbacks.get() / callCount;
+    }
+
+    /** @return The mean time of a primary call, retries included. */
+    public double getAveragePrimaryLatencyMillis() {
+        long callCount = primaryCalls.get();
+        return callCount == 0 ? 0.0 : primaryLatencyNanos.get() / 1e6 / callCount;
+    }
+
+    /** @return The longest time of a primary call, retries included. */
+    public double getMaxPrimaryLatencyMillis() {
+        return maxPrimaryLatencyNanos.get() / 1e6;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+}
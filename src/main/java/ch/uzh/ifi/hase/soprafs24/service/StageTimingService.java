@@ -0,0 +1,145 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StageTimingDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Stage Timing Service
+ * Times the stages of building a response (e.g. the PollingDTO), per endpoint
+ * and stage, in timers whose p50 and p99 cover a rolling window. Cheap enough
+ * to stay on in production; with polling.tracing.enabled=false a Span does
+ * nothing at all.
+ */
+@Service
+@Qualifier("stageTimingService")
+public class StageTimingService {
+    public static final String METRIC = "hearts.polling.stage";
+    public static final String TOTAL = "total";
+
+    // Requests outside of Spring MVC, e.g. the refreshes of a match stream.
+    static final String NO_ENDPOINT = "none";
+
+    private static final Span NOOP = new Span(null, null) {
+        @Override
+        public void stage(String stage) {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Duration window;
+
+    @Autowired
+    public StageTimingService(
+            @Value("${polling.tracing.enabled:true}") boolean enabled,
+            MeterRegistry meterRegistry,
+            @Value("${polling.tracing.window-seconds:60}") long windowSeconds) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        this.window = Duration.ofSeconds(windowSeconds);
+    }
+
+    /**
+     * Starts timing the stages of one response, attributed to the endpoint of
+     * the current HTTP request.
+     *
+     * @return the Span to mark the end of each stage on
+     */
+    public Span start() {
+        return enabled ? new Span(this, currentEndpoint()) : NOOP;
+    }
+
+    /**
+     * @return p50, p99 and max of the rolling window, per endpoint and stage
+     */
+    public Map<String, Map<String, StageTimingDTO>> snapshot() {
+        Map<String, Map<String, StageTimingDTO>> snapshot = new TreeMap<>();
+        for (Timer timer : meterRegistry.find(METRIC).timers()) {
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            StageTimingDTO stageTiming = new StageTimingDTO();
+            stageTiming.setCount(histogram.count());
+            stageTiming.setMaxMillis(histogram.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    stageTiming.setP50Millis(percentile.value(TimeUnit.MILLISECONDS));
+                } else if (percentile.percentile() == 0.99) {
+                    stageTiming.setP99Millis(percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+            snapshot.computeIfAbsent(timer.getId().getTag("endpoint"), endpoint -> new TreeMap<>())
+                    .put(timer.getId().getTag("stage"), stageTiming);
+        }
+        return snapshot;
+    }
+
+    private Timer timer(String endpoint, String stage) {
+        return Timer.builder(METRIC)
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(window)
+                .register(meterRegistry);
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object pattern = request == null ? null
+                : request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                        RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NO_ENDPOINT;
+    }
+
+    /**
+     * The stages of one response. Each stage lasts from the end of the
+     * previous one (or the start) to the call of stage().
+     */
+    public static class Span {
+        private final StageTimingService service;
+        private final String endpoint;
+        private final long start;
+        private long stageStart;
+
+        private Span(StageTimingService service, String endpoint) {
+            this.service = service;
+            this.endpoint = endpoint;
+            this.start = System.nanoTime();
+            this.stageStart = start;
+        }
+
+        /**
+         * Ends the current stage.
+         *
+         * @param stage name of the stage that just ended
+         */
+        public void stage(String stage) {
+            long now = System.nanoTime();
+            service.timer(endpoint, stage).record(now - stageStart, TimeUnit.NANOSECONDS);
+            stageStart = now;
+        }
+
+        /** Records the time since the start as stage TOTAL. */
+        public void end() {
+            service.timer(endpoint, TOTAL).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.model.TableSnapshot;
+
+/**
+ * Table Snapshot Service
+ * Keeps the TableSnapshot of each running match, so that polls do not rebuild
+ * usernames, avatar URLs and AI difficulties every time. MatchService evicts a
+ * snapshot when a seat changes hands or the match ends; a snapshot whose seats
+ * no longer match (e.g. changed on another instance) is rebuilt as well. Only
+ * matches in game are kept, so a match that is never cleaned up (e.g. left in
+ * RESULT) is dropped on its next poll at the latest.
+ */
+@Service
+@Qualifier("tableSnapshotService")
+public class TableSnapshotService {
+
+    private final Map<Long, TableSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * @param match The given match.
+     * @return The current TableSnapshot of the match.
+     */
+    public TableSnapshot getSnapshot(Match match) {
+        Long matchId = match.getMatchId();
+        if (match.getPhase() == null || !match.getPhase().inGame()) {
+            evict(matchId);
+            return TableSnapshot.of(match);
+        }
+        TableSnapshot snapshot = matchId == null ? null : snapshots.get(matchId);
+        if (snapshot != null && snapshot.isCurrentFor(match)) {
+            return snapshot;
+        }
+        snapshot = TableSnapshot.of(match);
+        if (matchId != null) {
+            snapshots.put(matchId, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the TableSnapshot of a match, e.g. after a seat changed hands or
+     * once the match is over.
+     */
+    public void evict(Long matchId) {
+        if (matchId != null) {
+            snapshots.remove(matchId);
+        }
+    }
+}
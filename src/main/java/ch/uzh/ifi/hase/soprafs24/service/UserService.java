@@ -12,15 +12,21 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.InviteGetDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.UserPrivateDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
@@ -28,10 +34,10 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
-import javax.persistence.EntityNotFoundException;
 import javax.persistence.criteria.Predicate;
 import java.util.Map;
 
@@ -57,12 +63,37 @@ public class UserService {
 
   private final UserRepository userRepository;
 
+  private final LeaderboardService leaderboardService;
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
   @Autowired
   private MatchRepository matchRepository;
 
+  /**
+   * Maps the tokens of recently authenticated users to their user id, so
+   * requests that only need the id (most prominently polling) skip the token
+   * query. Entries expire after the TTL and are evicted whenever a token is
+   * invalidated or replaced. Tokens that match no user are never cached.
+   */
+  private final Map<String, CachedUserId> userIdsByToken = new ConcurrentHashMap<>();
+
+  /**
+   * Counts committed token invalidations. A lookup that raced one (it read
+   * the token before the invalidation committed) does not keep its entry.
+   */
+  private final AtomicLong tokenEvictions = new AtomicLong();
+
+  private final AtomicLong tokenCacheHits = new AtomicLong();
+  private final AtomicLong tokenCacheMisses = new AtomicLong();
+
+  @Value("${auth.token-cache.ttl-seconds:60}")
+  private long tokenCacheTtlSeconds = 60;
+
+  @Value("${auth.token-cache.max-size:10000}")
+  private int tokenCacheMaxSize = 10000;
+
   public boolean isUserTableEmpty() {
     return userRepository.count() == 0;
   }
@@ -84,6 +115,7 @@ public class UserService {
       var resource = new ClassPathResource("sql/insert_test_users.sql");
       String sql = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
       jdbcTemplate.execute(sql);
+      leaderboardService.invalidate();
     } catch (IOException e) {
       throw new RuntimeException("Failed to read SQL file", e);
     }
@@ -94,18 +126,24 @@ public class UserService {
   }
 
   public Long getUserIdFromToken(String token) {
-    User user = userRepository.findUserByToken(token);
-    if (user == null) {
+    Long userId = getUserIdFromTokenOrNull(token);
+    if (userId == null) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
     }
-    return user.getId();
+    return userId;
   }
 
   public Long getUserIdFromTokenOrNull(String token) {
     if (token == null) {
       return null;
     }
-    User user = userRepository.findUserByToken(token);
+    Long userId = getCachedUserId(token);
+    if (userId != null) {
+      tokenCacheHits.incrementAndGet();
+      return userId;
+    }
+    tokenCacheMisses.incrementAndGet();
+    User user = findUserByTokenAndCache(token);
     if (user == null) {
       return null;
     }
@@ -113,7 +151,7 @@ public class UserService {
   }
 
   public User requireUserByToken(String token) {
-    User user = userRepository.findUserByToken(token);
+    User user = findUserByTokenCached(token);
     if (user == null) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
     }
@@ -125,16 +163,20 @@ public class UserService {
     if (user == null || !BCrypt.checkpw(password, user.getPassword())) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
     }
+    evictToken(user.getToken());
     user.setToken(UUID.randomUUID().toString());
     user.setStatus(UserStatus.ONLINE);
     user.setIsGuest(false);
     userRepository.save(user);
+    leaderboardService.update(user);
     return user;
   }
 
   @Autowired
-  public UserService(@Qualifier("userRepository") UserRepository userRepository) {
+  public UserService(@Qualifier("userRepository") UserRepository userRepository,
+      @Qualifier("leaderboardService") LeaderboardService leaderboardService) {
     this.userRepository = userRepository;
+    this.leaderboardService = leaderboardService;
   }
 
   public List<User> getUsers() {
@@ -146,6 +188,7 @@ public class UserService {
     if (user == null) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
     }
+    evictToken(token);
     user.setToken(null); // Invalidate token
     user.setStatus(UserStatus.OFFLINE); // Set status to OFFLINE.
     userRepository.saveAndFlush(user);
@@ -174,6 +217,7 @@ public class UserService {
     // flush() is called
     newUser = userRepository.save(newUser);
     userRepository.flush();
+    leaderboardService.update(newUser);
 
     log.debug("Created Information for User: {}", newUser);
     return newUser;
@@ -208,7 +252,7 @@ public class UserService {
   }
 
   public User getUserByToken(String token) {
-    User user = userRepository.findUserByToken(token);
+    User user = findUserByTokenCached(token);
     if (user == null) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
     }
@@ -239,6 +283,7 @@ public class UserService {
     }
 
     userRepository.save(user);
+    leaderboardService.update(user);
   }
 
   public void logoutUser(Long id, String token) {
@@ -247,11 +292,121 @@ public class UserService {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials for logout");
     }
 
+    evictToken(token);
     user.setStatus(UserStatus.OFFLINE);
     user.setToken(null);
     userRepository.save(user);
   }
 
+  /**
+   * Looks up the user of a token, going through the token cache. A cached id
+   * is only trusted if the user loaded by it still holds the token; loading
+   * by id is served from the persistence context if the user is already part
+   * of it, e.g. as a player of a loaded match.
+   *
+   * @param token the token to look up
+   * @return the user holding the token, or null if there is none
+   */
+  private User findUserByTokenCached(String token) {
+    if (token == null) {
+      return null;
+    }
+    Long userId = getCachedUserId(token);
+    if (userId != null) {
+      User user = userRepository.findById(userId).orElse(null);
+      if (user != null && token.equals(user.getToken())) {
+        tokenCacheHits.incrementAndGet();
+        return user;
+      }
+      evictToken(token);
+    }
+    tokenCacheMisses.incrementAndGet();
+    return findUserByTokenAndCache(token);
+  }
+
+  private User findUserByTokenAndCache(String token) {
+    long evictions = tokenEvictions.get();
+    User user = userRepository.findUserByToken(token);
+    if (user != null && user.getId() != null) {
+      cacheUserId(token, user.getId(), evictions);
+    }
+    return user;
+  }
+
+  private Long getCachedUserId(String token) {
+    CachedUserId cached = userIdsByToken.get(token);
+    if (cached == null) {
+      return null;
+    }
+    if (cached.expiresAtNanos - System.nanoTime() <= 0) {
+      userIdsByToken.remove(token, cached);
+      return null;
+    }
+    return cached.userId;
+  }
+
+  private void cacheUserId(String token, Long userId, long evictions) {
+    if (tokenCacheTtlSeconds <= 0 || tokenCacheMaxSize <= 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (userIdsByToken.size() >= tokenCacheMaxSize) {
+      userIdsByToken.values().removeIf(cached -> cached.expiresAtNanos - now <= 0);
+      // Still full: make room by dropping an arbitrary entry.
+      Iterator<String> tokens = userIdsByToken.keySet().iterator();
+      while (userIdsByToken.size() >= tokenCacheMaxSize && tokens.hasNext()) {
+        tokens.next();
+        tokens.remove();
+      }
+    }
+    CachedUserId cached = new CachedUserId(userId, now + TimeUnit.SECONDS.toNanos(tokenCacheTtlSeconds));
+    userIdsByToken.put(token, cached);
+    if (tokenEvictions.get() != evictions) {
+      userIdsByToken.remove(token, cached);
+    }
+  }
+
+  /**
+   * Drops a token from the cache right away, for the rest of this
+   * transaction, and again once the transaction has committed, so lookups
+   * that read the token before the commit cannot keep it cached.
+   */
+  private void evictToken(String token) {
+    if (token == null) {
+      return;
+    }
+    userIdsByToken.remove(token);
+    afterCommit(() -> {
+      tokenEvictions.incrementAndGet();
+      userIdsByToken.remove(token);
+    });
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+      return;
+    }
+    action.run();
+  }
+
+  public long getTokenCacheHits() {
+    return tokenCacheHits.get();
+  }
+
+  public long getTokenCacheMisses() {
+    return tokenCacheMisses.get();
+  }
+
+  public int getTokenCacheSize() {
+    return userIdsByToken.size();
+  }
+
   public Page<User> findUsersForLeaderboard(String filter, Pageable pageable) {
     Specification<User> spec = (root, query, cb) -> {
       // Base predicate: only real, non-guest users
@@ -273,35 +428,17 @@ public class UserService {
 
   public List<InviteGetDTO> getPendingInvites(String authHeader) {
     String token = authHeader.replace("Bearer ", "");
-    User user = userRepository.findUserByToken(token);
-
-    List<Match> matches = matchRepository.findAll();
+    Long userId = getUserIdFromToken(token);
 
     List<InviteGetDTO> invites = new ArrayList<>();
-
-    for (Match match : matches) {
-      Map<Integer, Long> matchInvites = match.getInvites();
-      if (matchInvites != null && matchInvites.containsValue(user.getId())) {
-        Integer matchPlayerSlot = null;
-        for (Map.Entry<Integer, Long> entry : matchInvites.entrySet()) {
-          if (entry.getValue().equals(user.getId())) {
-            matchPlayerSlot = entry.getKey();
-            break;
-          }
-        }
-
-        if (matchPlayerSlot != null) {
-          InviteGetDTO dto = new InviteGetDTO();
-          dto.setMatchId(match.getMatchId());
-          dto.setMatchPlayerSlot(matchPlayerSlot);
-          dto.setHostId(match.getHostId());
-          dto.setUserId(user.getId());
-          User hostUser = userRepository.findById(match.getHostId())
-              .orElseThrow(() -> new EntityNotFoundException("Host not found"));
-          dto.setFromUsername(hostUser.getUsername());
-          invites.add(dto);
-        }
-      }
+    for (MatchRepository.PendingInvite invite : matchRepository.findPendingInvitesByUserId(userId)) {
+      InviteGetDTO dto = new InviteGetDTO();
+      dto.setMatchId(invite.getMatchId());
+      dto.setMatchPlayerSlot(invite.getMatchPlayerSlot());
+      dto.setHostId(invite.getHostId());
+      dto.setUserId(userId);
+      dto.setFromUsername(invite.getHostUsername());
+      invites.add(dto);
     }
 
     return invites;
@@ -370,4 +507,14 @@ public class UserService {
     return randomAvatarGenerator(300);
   }
 
+  private static final class CachedUserId {
+    private final Long userId;
+    private final long expiresAtNanos;
+
+    private CachedUserId(Long userId, long expiresAtNanos) {
+      this.userId = userId;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
 }
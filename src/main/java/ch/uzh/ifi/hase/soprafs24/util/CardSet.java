@@ -0,0 +1,230 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
+
+/**
+ * A set of cards packed into the lower 52 bits of a long.
+ *
+ * Bit {@code suit * 13 + (rank - 2)} stands for one card, with the suits in
+ * the order Clubs, Diamonds, Spades, Hearts and ranks 2..14. Iterating the bits
+ * from low to high therefore yields the cards in the same order as
+ * {@link CardUtils#calculateCardOrder(String)}, and {@link #toCardCodeString}
+ * produces exactly what {@link CardUtils#normalizeCardCodeString(String)}
+ * produces.
+ *
+ * All operations work on primitives and do not allocate, except for the
+ * conversions to and from card code strings.
+ */
+public final class CardSet {
+
+    public static final long EMPTY = 0L;
+
+    public static final long FULL_DECK = (1L << 52) - 1;
+
+    /** Returned by {@link #parseCanonical(String)} for anything non-canonical. */
+    public static final long INVALID = -1L;
+
+    public static final int CLUBS = 0;
+    public static final int DIAMONDS = 1;
+    public static final int SPADES = 2;
+    public static final int HEARTS = 3;
+
+    public static final long CLUBS_MASK = 0x1FFFL;
+    public static final long DIAMONDS_MASK = CLUBS_MASK << 13;
+    public static final long SPADES_MASK = CLUBS_MASK << 26;
+    public static final long HEARTS_MASK = CLUBS_MASK << 39;
+
+    private static final char[] RANK_CHARS = { '2', '3', '4', '5', '6', '7', '8', '9', '0', 'J', 'Q', 'K', 'A' };
+    private static final char[] SUIT_CHARS = { 'C', 'D', 'S', 'H' };
+
+    public static final long TWO_OF_CLUBS = bit(GameConstants.TWO_OF_CLUBS);
+    public static final long QUEEN_OF_SPADES = bit(GameConstants.QUEEN_OF_SPADES);
+
+    private CardSet() {
+        // Prevent instantiation
+    }
+
+    /**
+     * @return the suit index (0..3) of a suit character, or -1.
+     */
+    public static int suitIndex(char suit) {
+        return switch (suit) {
+            case 'C' -> CLUBS;
+            case 'D' -> DIAMONDS;
+            case 'S' -> SPADES;
+            case 'H' -> HEARTS;
+            default -> -1;
+        };
+    }
+
+    /**
+     * @return the rank offset (0 for "2" .. 12 for "A") of a rank character, or
+     *         -1.
+     */
+    public static int rankIndex(char rank) {
+        return switch (rank) {
+            case '2', '3', '4', '5', '6', '7', '8', '9' -> rank - '2';
+            case '0' -> 8;
+            case 'J' -> 9;
+            case 'Q' -> 10;
+            case 'K' -> 11;
+            case 'A' -> 12;
+            default -> -1;
+        };
+    }
+
+    /**
+     * @return the bit index (0..51) of a two character card code, or -1.
+     */
+    public static int index(String cardCode) {
+        if (cardCode == null || cardCode.length() != 2) {
+            return -1;
+        }
+        return index(cardCode.charAt(0), cardCode.charAt(1));
+    }
+
+    private static int index(char rankChar, char suitChar) {
+        int rank = rankIndex(rankChar);
+        int suit = suitIndex(suitChar);
+        if (rank < 0 || suit < 0) {
+            return -1;
+        }
+        return suit * 13 + rank;
+    }
+
+    /**
+     * @return the single-card set of a card code, or EMPTY if the code is
+     *         invalid.
+     */
+    public static long bit(String cardCode) {
+        int index = index(cardCode);
+        return index < 0 ? EMPTY : 1L << index;
+    }
+
+    public static String cardCode(int index) {
+        return new String(new char[] { RANK_CHARS[index % 13], SUIT_CHARS[index / 13] });
+    }
+
+    /**
+     * @return the mask of all cards of a suit, or EMPTY for an unknown suit.
+     */
+    public static long suitMask(char suit) {
+        int suitIndex = suitIndex(suit);
+        return suitIndex < 0 ? EMPTY : CLUBS_MASK << (13 * suitIndex);
+    }
+
+    public static boolean contains(long cards, String cardCode) {
+        return (cards & bit(cardCode)) != 0;
+    }
+
+    public static long add(long cards, String cardCode) {
+        return cards | bit(cardCode);
+    }
+
+    public static long remove(long cards, String cardCode) {
+        return cards & ~bit(cardCode);
+    }
+
+    public static int size(long cards) {
+        return Long.bitCount(cards);
+    }
+
+    public static long inSuit(long cards, char suit) {
+        return cards & suitMask(suit);
+    }
+
+    public static long notInSuit(long cards, char suit) {
+        return cards & ~suitMask(suit);
+    }
+
+    /**
+     * @return the lowest card of the set (in card order), or -1 if empty.
+     */
+    public static int lowestIndex(long cards) {
+        return cards == 0 ? -1 : Long.numberOfTrailingZeros(cards);
+    }
+
+    /**
+     * @return the highest card of the set (in card order), or -1 if empty.
+     */
+    public static int highestIndex(long cards) {
+        return cards == 0 ? -1 : 63 - Long.numberOfLeadingZeros(cards);
+    }
+
+    /**
+     * Parses a string that is already in the canonical form: valid two
+     * character codes, separated by single commas, without whitespace and
+     * without duplicates. Anything else yields {@link #INVALID}, so callers
+     * can fall back to the lenient string logic.
+     *
+     * @param cardCodes e.g. "2C,QS,KH"
+     * @return the set, or INVALID.
+     */
+    public static long parseCanonical(String cardCodes) {
+        if (cardCodes == null || cardCodes.isEmpty()) {
+            return EMPTY;
+        }
+        int length = cardCodes.length();
+        if (length % 3 != 2) {
+            return INVALID;
+        }
+        long cards = EMPTY;
+        for (int i = 0; i < length; i += 3) {
+            if (i > 0 && cardCodes.charAt(i - 1) != ',') {
+                return INVALID;
+            }
+            int index = index(cardCodes.charAt(i), cardCodes.charAt(i + 1));
+            if (index < 0) {
+                return INVALID;
+            }
+            long bit = 1L << index;
+            if ((cards & bit) != 0) {
+                return INVALID;
+            }
+            cards |= bit;
+        }
+        return cards;
+    }
+
+    /**
+     * Parses a comma separated string of card codes the way
+     * {@link CardUtils#normalizeCardCodeString(String)} reads it: codes are
+     * trimmed, duplicates collapse and any invalid code is rejected. Canonical
+     * input is parsed without allocating.
+     *
+     * @param cardCodes e.g. "KH, 2C,QS"
+     * @return the set of cards.
+     * @throws GameplayException if a code is invalid.
+     */
+    public static long fromCardCodeString(String cardCodes) {
+        if (cardCodes == null || cardCodes.isBlank()) {
+            return EMPTY;
+        }
+        long cards = parseCanonical(cardCodes);
+        if (cards != INVALID) {
+            return cards;
+        }
+        return parseCanonical(CardUtils.normalizeCardCodeString(cardCodes));
+    }
+
+    /**
+     * @return the cards as a comma separated string, sorted by card order.
+     */
+    public static String toCardCodeString(long cards) {
+        cards &= FULL_DECK;
+        if (cards == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(Long.bitCount(cards) * 3);
+        while (cards != 0) {
+            int index = Long.numberOfTrailingZeros(cards);
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(RANK_CHARS[index % 13]).append(SUIT_CHARS[index / 13]);
+            cards &= cards - 1;
+        }
+        return sb.toString();
+    }
+}
@@ -141,6 +141,11 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(cardCodes);
+        if (cards != CardSet.INVALID) {
+            return CardSet.toCardCodeString(cards);
+        }
+
         return Arrays.stream(cardCodes.split(","))
                 .map(String::trim)
                 .filter(code -> {
@@ -305,6 +310,11 @@ public class CardUtils {
             return false;
         }
 
+        long cards = CardSet.parseCanonical(handAsString);
+        if (cards != CardSet.INVALID) {
+            return CardSet.contains(cards, cardCode);
+        }
+
         List<String> cardCodes = CardUtils.splitCardCodesAsListOfStrings(handAsString);
         return cardCodes.contains(cardCode);
     }
@@ -314,6 +324,11 @@ public class CardUtils {
             return 0;
         }
 
+        long cards = CardSet.parseCanonical(cardCodeString);
+        if (cards != CardSet.INVALID) {
+            return CardSet.size(cards & CardSet.HEARTS_MASK);
+        }
+
         return (int) splitCardCodesAsListOfStrings(cardCodeString).stream()
                 .filter(code -> code.length() >= 2 && code.charAt(code.length() - 1) == 'H')
                 .count();
@@ -324,6 +339,11 @@ public class CardUtils {
             return 0;
         }
 
+        long cards = CardSet.parseCanonical(cardCodeString);
+        if (cards != CardSet.INVALID) {
+            return CardSet.size(cards & ~CardSet.HEARTS_MASK);
+        }
+
         return (int) splitCardCodesAsListOfStrings(cardCodeString).stream()
                 .filter(code -> code.length() >= 2 && code.charAt(code.length() - 1) != 'H')
                 .count();
@@ -349,6 +369,11 @@ public class CardUtils {
             return false;
         }
 
+        long cards = CardSet.parseCanonical(cardCodeString);
+        if (cards != CardSet.INVALID && suit.length() == 1) {
+            return CardSet.inSuit(cards, Character.toUpperCase(suit.charAt(0))) != CardSet.EMPTY;
+        }
+
         List<String> cardCodes = splitCardCodesAsListOfStrings(cardCodeString);
 
         return cardCodes.stream()
@@ -361,6 +386,16 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(cardCodeString);
+        if (cards != CardSet.INVALID) {
+            if (suit == null || suit.isBlank()) {
+                return CardSet.toCardCodeString(cards);
+            }
+            if (suit.length() == 1) {
+                return CardSet.toCardCodeString(CardSet.inSuit(cards, Character.toUpperCase(suit.charAt(0))));
+            }
+        }
+
         List<String> matchingCards;
 
         if (suit == null || suit.isBlank()) {
@@ -386,6 +421,16 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(cardCodeString);
+        if (cards != CardSet.INVALID) {
+            if (suit == null || suit.isBlank()) {
+                return CardSet.toCardCodeString(cards);
+            }
+            if (suit.length() == 1) {
+                return CardSet.toCardCodeString(CardSet.notInSuit(cards, Character.toUpperCase(suit.charAt(0))));
+            }
+        }
+
         List<String> remainingCards;
 
         if (suit == null || suit.isBlank()) {
@@ -483,6 +528,11 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(hand);
+        if (cards != CardSet.INVALID) {
+            return CardSet.toCardCodeString(CardSet.remove(cards, cardCode));
+        }
+
         return Arrays.stream(hand.split(","))
                 .map(String::trim)
                 .filter(c -> !c.equals(cardCode) && !c.isEmpty())
@@ -490,11 +540,24 @@ public class CardUtils {
                 .collect(Collectors.joining(","));
     }
 
+    /**
+     * Like getHandWithCardCodeRemoved(String, String), on a {@link CardSet}
+     * bitmask.
+     */
+    public static long getHandWithCardCodeRemoved(long hand, String cardCode) {
+        return CardSet.remove(hand, cardCode);
+    }
+
     public static boolean isCardCodeInHand(String hand, String cardCode) {
         if (hand == null || hand.isBlank()) {
             return false;
         }
 
+        long cardSet = CardSet.parseCanonical(hand);
+        if (cardSet != CardSet.INVALID) {
+            return CardSet.contains(cardSet, cardCode);
+        }
+
         String[] cards = hand.split(",");
         for (String card : cards) {
             if (card.equals(cardCode)) {
@@ -505,6 +568,13 @@ public class CardUtils {
         return false;
     }
 
+    /**
+     * Like isCardCodeInHand(String, String), on a {@link CardSet} bitmask.
+     */
+    public static boolean isCardCodeInHand(long hand, String cardCode) {
+        return CardSet.contains(hand, cardCode);
+    }
+
     public static String getHandWithCardCodesAdded(String hand, List<String> newCards) {
         Set<String> cardSet = new HashSet<>();
 
@@ -533,11 +603,32 @@ public class CardUtils {
                 .collect(Collectors.joining(","));
     }
 
+    /**
+     * Like getHandWithCardCodesAdded(String, List), on a {@link CardSet}
+     * bitmask.
+     */
+    public static long getHandWithCardCodesAdded(long hand, List<String> newCards) {
+        if (newCards != null) {
+            for (String card : newCards) {
+                String trimmed = card.trim();
+                if (!trimmed.isEmpty()) {
+                    hand = CardSet.add(hand, CardUtils.requireValidCardFormat(trimmed));
+                }
+            }
+        }
+        return hand;
+    }
+
     public static int countUniqueCardsInHand(String cardCodes) {
         if (cardCodes == null || cardCodes.isBlank()) {
             return 0;
         }
 
+        long cards = CardSet.parseCanonical(cardCodes);
+        if (cards != CardSet.INVALID) {
+            return CardSet.size(cards);
+        }
+
         return (int) Arrays.stream(cardCodes.split(","))
                 .map(String::trim)
                 .filter(code -> !code.isEmpty())
@@ -563,6 +654,11 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(hand);
+        if (cards != CardSet.INVALID) {
+            return CardSet.toCardCodeString(CardSet.inSuit(cards, suit));
+        }
+
         return Arrays.stream(hand.split(","))
                 .map(String::trim)
                 .filter(card -> !card.isEmpty() && card.charAt(card.length() - 1) == suit)
@@ -585,6 +681,11 @@ public class CardUtils {
             return "";
         }
 
+        long cards = CardSet.parseCanonical(hand);
+        if (cards != CardSet.INVALID) {
+            return CardSet.toCardCodeString(CardSet.notInSuit(cards, suit));
+        }
+
         return Arrays.stream(hand.split(","))
                 .map(String::trim)
                 .filter(card -> !card.isEmpty() && card.charAt(card.length() - 1) != suit)
@@ -0,0 +1,81 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A minimal circuit breaker. After failureThreshold consecutive failures it
+ * opens and rejects all requests for openDuration; then it lets a single
+ * trial request through (half open), which closes it again on success or
+ * reopens it on failure. Thread-safe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private boolean trialInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true if a request may be made now. Every permitted request must
+     *         be followed by recordSuccess or recordFailure.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
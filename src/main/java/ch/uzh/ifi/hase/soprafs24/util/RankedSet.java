@@ -0,0 +1,198 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * A sorted set that also knows the position of its elements: besides adding
+ * and removing, it answers "how many elements come before this one" and
+ * "which element is at position i" in O(log n).
+ *
+ * Implemented as a treap whose nodes count the size of their subtree. The
+ * comparator has to be a total order; elements comparing as equal are treated
+ * as the same element. Not thread-safe.
+ *
+ * @param <E> the element type
+ */
+public final class RankedSet<E> {
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    private Node<E> root;
+
+    public RankedSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    public boolean contains(E value) {
+        return rankOf(value) >= 0;
+    }
+
+    /**
+     * @return true if the value was added, false if an equal element was
+     *         already present.
+     */
+    public boolean add(E value) {
+        if (contains(value)) {
+            return false;
+        }
+        root = insert(root, new Node<>(value, priorities.nextInt()));
+        return true;
+    }
+
+    /**
+     * @return true if an equal element was present and has been removed.
+     */
+    public boolean remove(E value) {
+        if (!contains(value)) {
+            return false;
+        }
+        root = delete(root, value);
+        return true;
+    }
+
+    /**
+     * @return the number of elements that come before the given value, or -1
+     *         if the value is not in the set.
+     */
+    public int rankOf(E value) {
+        Node<E> node = root;
+        int rank = 0;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the element at the given zero-based position.
+     * @throws IndexOutOfBoundsException if there is no such position.
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    private Node<E> insert(Node<E> node, Node<E> item) {
+        if (node == null) {
+            return item;
+        }
+        if (item.priority > node.priority) {
+            split(node, item.value, item);
+            update(item);
+            return item;
+        }
+        if (comparator.compare(item.value, node.value) < 0) {
+            node.left = insert(node.left, item);
+        } else {
+            node.right = insert(node.right, item);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E value) {
+        int c = comparator.compare(value, node.value);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = delete(node.left, value);
+        } else {
+            node.right = delete(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits the subtree into the elements below the value, stored in
+     * holder.left, and those above it, stored in holder.right.
+     */
+    private void split(Node<E> node, E value, Node<E> holder) {
+        if (node == null) {
+            holder.left = null;
+            holder.right = null;
+            return;
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            split(node.right, value, holder);
+            node.right = holder.left;
+            update(node);
+            holder.left = node;
+        } else {
+            split(node.left, value, holder);
+            node.left = holder.right;
+            update(node);
+            holder.right = node;
+        }
+    }
+
+    /** Joins two subtrees, all elements of the first one being smaller. */
+    private Node<E> merge(Node<E> lower, Node<E> upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            update(lower);
+            return lower;
+        }
+        upper.left = merge(lower, upper.left);
+        update(upper);
+        return upper;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
@@ -0,0 +1,29 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so that
+ * the statements of a single HTTP request can be told apart. Registered via
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /** Starts counting anew on the current thread. */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /** @return The statements prepared on the current thread since reset(). */
+    public static long getCount() {
+        return COUNT.get()[0];
+    }
+}
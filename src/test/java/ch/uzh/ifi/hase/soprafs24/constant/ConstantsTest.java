@@ -111,6 +111,17 @@ public class ConstantsTest {
         assertEquals(7, Strategy.HYPATIA.getCode());
     }
 
+    @Test
+    void testStrategyForAiUserId() {
+        // Every predefined AI user keeps its strategy, whatever is added to the enum.
+        assertEquals(Strategy.LEFTMOST, Strategy.forAiUserId(1L));
+        assertEquals(Strategy.VOIDSUIT, Strategy.forAiUserId(6L));
+        assertEquals(Strategy.GARY, Strategy.forAiUserId(8L));
+        assertEquals(Strategy.ADA, Strategy.forAiUserId(9L));
+        assertEquals(Strategy.LEFTMOST, Strategy.forAiUserId(10L));
+        assertEquals(Strategy.LEFTMOST, Strategy.forAiUserId(null));
+    }
+
     @Test
     void testSuitSymbolConversion() {
         assertEquals("C", Suit.C.getSymbol());
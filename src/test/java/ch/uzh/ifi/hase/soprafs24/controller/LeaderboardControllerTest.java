@@ -2,7 +2,9 @@ package ch.uzh.ifi.hase.soprafs24.controller;
 
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardRankDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
+import ch.uzh.ifi.hase.soprafs24.service.LeaderboardService;
 import ch.uzh.ifi.hase.soprafs24.service.UserService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +17,7 @@ import org.springframework.data.domain.*;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +33,9 @@ class LeaderboardControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private LeaderboardService leaderboardService;
+
     private User sampleUser;
     private LeaderboardDTO sampleDTO;
 
@@ -54,22 +60,25 @@ class LeaderboardControllerTest {
 
     @Test
     void getLeaderboard_success() throws Exception {
-        Page<User> userPage = new PageImpl<>(List.of(sampleUser));
-        Mockito.when(userService.findUsersForLeaderboard(Mockito.anyString(), Mockito.any(Pageable.class)))
-                .thenReturn(userPage);
+        Page<LeaderboardDTO> page = new PageImpl<>(List.of(sampleDTO));
+        Mockito.when(leaderboardService.getLeaderboard(Mockito.eq(""), any(Pageable.class)))
+                .thenReturn(page);
 
         mockMvc.perform(get("/leaderboard"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].username", is("player1")))
                 .andExpect(jsonPath("$.content[0].scoreTotal", is(100)));
+
+        Mockito.verify(userService, Mockito.never()).findUsersForLeaderboard(Mockito.any(), Mockito.any());
     }
 
     @Test
     void getLeaderboard_withFilterAndPagination_success() throws Exception {
-        Page<User> userPage = new PageImpl<>(List.of(sampleUser));
-        Mockito.when(userService.findUsersForLeaderboard(Mockito.eq("testFilter"), any(Pageable.class)))
-                .thenReturn(userPage);
+        Page<LeaderboardDTO> page = new PageImpl<>(List.of(sampleDTO));
+        Mockito.when(leaderboardService.getLeaderboard(Mockito.eq("testFilter"),
+                Mockito.eq(PageRequest.of(1, 5, Sort.by(Sort.Direction.ASC, "scoreTotal")))))
+                .thenReturn(page);
 
         mockMvc.perform(get("/leaderboard")
                 .param("page", "1")
@@ -82,6 +91,63 @@ class LeaderboardControllerTest {
                 .andExpect(jsonPath("$.content[0].username", is("player1")));
     }
 
+    @Test
+    void getLeaderboard_sortKeyWithoutIndex_queriesUsers() throws Exception {
+        Page<User> userPage = new PageImpl<>(List.of(sampleUser));
+        Mockito.when(userService.findUsersForLeaderboard(Mockito.eq(""), any(Pageable.class)))
+                .thenReturn(userPage);
+
+        mockMvc.perform(get("/leaderboard").param("sortBy", "birthday"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].username", is("player1")));
+
+        Mockito.verify(leaderboardService, Mockito.never()).getLeaderboard(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getUserRank_success() throws Exception {
+        LeaderboardRankDTO rank = new LeaderboardRankDTO();
+        rank.setUserId(1L);
+        rank.setSortBy("moonShots");
+        rank.setOrder("desc");
+        rank.setRank(7);
+        rank.setTotal(20);
+        rank.setFirstRank(7);
+        rank.setNeighbors(List.of(sampleDTO));
+        Mockito.when(leaderboardService.getRank(1L, "moonShots", false, 0)).thenReturn(Optional.of(rank));
+
+        mockMvc.perform(get("/leaderboard/users/1")
+                .param("sortBy", "moonShots")
+                .param("radius", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank", is(7)))
+                .andExpect(jsonPath("$.total", is(20)))
+                .andExpect(jsonPath("$.neighbors", hasSize(1)))
+                .andExpect(jsonPath("$.neighbors[0].username", is("player1")));
+    }
+
+    @Test
+    void getUserRank_userNotListed_notFound() throws Exception {
+        Mockito.when(leaderboardService.getRank(2L, "scoreTotal", false, 5)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/leaderboard/users/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUserRank_invalidParameters_badRequest() throws Exception {
+        mockMvc.perform(get("/leaderboard/users/1").param("sortBy", "birthday"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/leaderboard/users/1").param("radius", "51"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/leaderboard/users/1").param("order", "sideways"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(leaderboardService, Mockito.never())
+                .getRank(Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.anyInt());
+    }
+
     @Test
     void populateLeaderboardIfEmpty_shouldPopulate() throws Exception {
         Mockito.when(userService.getUserCount()).thenReturn(5L);
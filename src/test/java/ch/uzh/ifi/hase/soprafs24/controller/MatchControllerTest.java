@@ -1,19 +1,24 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
 
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
+import ch.uzh.ifi.hase.soprafs24.service.MatchEventService;
 import ch.uzh.ifi.hase.soprafs24.service.MatchService;
 import ch.uzh.ifi.hase.soprafs24.service.MatchSetupService;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -56,6 +61,9 @@ public class MatchControllerTest {
         @MockBean
         private MatchSetupService matchSetupService;
 
+        @MockBean
+        private MatchEventService matchEventService;
+
         @Test
         public void testCreateMatch() throws Exception {
                 Match match = new Match();
@@ -122,6 +130,28 @@ public class MatchControllerTest {
                                 .andExpect(jsonPath("$[0].matchPlayerIds", is(matchPlayerIds)));
         }
 
+        @Test
+        public void testGetLobbyMatches() throws Exception {
+                LobbyMatchDTO lobbyMatch = new LobbyMatchDTO(1L, 10L, "host", 100, MatchPhase.SETUP,
+                                "host", null, "guest", null);
+
+                given(matchService.getLobbyMatches(eq(List.of(MatchPhase.SETUP)), eq(0), eq(5)))
+                                .willReturn(new PageImpl<>(List.of(lobbyMatch), PageRequest.of(0, 5), 1));
+
+                MockHttpServletRequestBuilder getRequest = get("/matches/lobby")
+                                .param("phase", "SETUP")
+                                .param("pageSize", "5");
+
+                mockMvc.perform(getRequest)
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].matchId", is(1)))
+                                .andExpect(jsonPath("$.content[0].hostUsername", is("host")))
+                                .andExpect(jsonPath("$.content[0].phase", is("SETUP")))
+                                .andExpect(jsonPath("$.content[0].playerNames", is(List.of("host", "", "guest", ""))))
+                                .andExpect(jsonPath("$.content[0].slotAvailable", is(true)))
+                                .andExpect(jsonPath("$.totalElements", is(1)));
+        }
+
         @Test
         public void testGetMatchDTO_success() throws Exception {
                 // Dummy token
@@ -384,6 +414,36 @@ public class MatchControllerTest {
                                 .andExpect(jsonPath("$.hostId", is(playerPollingDTO.getHostId().intValue())));
         }
 
+        @Test
+        public void testGetPlayerPollingDelta_notModified() throws Exception {
+                given(matchService.getPlayerPollingDelta(Mockito.any(), Mockito.any(), Mockito.any()))
+                                .willReturn(null);
+
+                MockHttpServletRequestBuilder postRequest = post("/matches/1/logic/delta?since=4")
+                                .header("Authorization", "Bearer 1234");
+
+                mockMvc.perform(postRequest)
+                                .andExpect(status().isNotModified());
+        }
+
+        @Test
+        public void testGetPlayerPollingDelta_changes() throws Exception {
+                PollingDeltaDTO delta = new PollingDeltaDTO();
+                delta.setStateVersion(5L);
+                delta.setChanges(Map.of("matchGoal", IntNode.valueOf(50)));
+
+                given(matchService.getPlayerPollingDelta(Mockito.any(), Mockito.any(), Mockito.any()))
+                                .willReturn(delta);
+
+                MockHttpServletRequestBuilder postRequest = post("/matches/1/logic/delta?since=4")
+                                .header("Authorization", "Bearer 1234");
+
+                mockMvc.perform(postRequest)
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.stateVersion", is(5)))
+                                .andExpect(jsonPath("$.changes.matchGoal", is(50)));
+        }
+
         @Test
         public void testStartSeededMatch_validSeed() throws Exception {
                 MockHttpServletRequestBuilder postRequest = post("/matches/1/start/19247")
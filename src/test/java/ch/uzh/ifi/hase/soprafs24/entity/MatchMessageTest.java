@@ -20,7 +20,6 @@ class MatchMessageTest {
     @Test
     void testFieldInitialization() {
         assertNotNull(message.getCreatedAt(), "createdAt should be initialized");
-        assertEquals(0, message.getSeenByBitmask());
     }
 
     @Test
@@ -29,28 +28,12 @@ class MatchMessageTest {
         message.setMatch(mockMatch);
         message.setType(MatchMessageType.GAME_STARTED);
         message.setContent("Hello, world!");
-        message.setSeenByBitmask(3);
         Instant now = Instant.now();
         message.setCreatedAt(now);
 
         assertEquals(mockMatch, message.getMatch());
         assertEquals(MatchMessageType.GAME_STARTED, message.getType());
         assertEquals("Hello, world!", message.getContent());
-        assertEquals(3, message.getSeenByBitmask());
         assertEquals(now, message.getCreatedAt());
     }
-
-    @Test
-    void testMarkSeenAndHasSeen() {
-        assertFalse(message.hasSeen(1));
-        assertFalse(message.hasSeen(2));
-
-        message.markSeen(1);
-        assertTrue(message.hasSeen(1));
-        assertFalse(message.hasSeen(2));
-
-        message.markSeen(2);
-        assertTrue(message.hasSeen(1));
-        assertTrue(message.hasSeen(2));
-    }
 }
@@ -0,0 +1,280 @@
+package ch.uzh.ifi.hase.soprafs24.integration;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchMessageRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayedCardDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameSetupService;
+import ch.uzh.ifi.hase.soprafs24.service.LeaderboardService;
+import ch.uzh.ifi.hase.soprafs24.service.MatchService;
+import ch.uzh.ifi.hase.soprafs24.service.UserService;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the hot paths against N+1 queries: each test runs one request on a
+ * match of four human players, started with a fixed seed, next to a second
+ * match in setup with an invite, an AI player and a join request, and
+ * fails unless it takes exactly the SQL statements and flushes it is
+ * expected to. With two matches and six users, a query per match or per
+ * user shows up in the count.
+ *
+ * The expected counts are what each path takes today, statement by
+ * statement; they are listed next to each call. They may only be raised
+ * together with the change that makes a path more expensive, and must be
+ * lowered with the change that makes it cheaper.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "match.clock.enabled=false",
+        "auth.token-cache.ttl-seconds=0" })
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class HotPathStatementCountTest {
+
+    private static final long SEED = 4711L * 10000 + 9247;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GameCardLedgerRepository gameCardLedgerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameSetupService gameSetupService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private MatchMessageRepository matchMessageRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PassedCardRepository passedCardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private StatementCounter counter;
+    private final User[] users = new User[6];
+    private Long matchId;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < users.length; i++) {
+            User user = new User();
+            user.setUsername("player" + (i + 1));
+            user.setPassword("pw");
+            users[i] = userService.createUser(user);
+        }
+
+        // A match in its first game, with the cards dealt for passing.
+        matchId = transactionTemplate.execute(status -> {
+            Match match = new Match();
+            match.setPhase(MatchPhase.BEFORE_GAMES);
+            match.setHostId(users[0].getId());
+            match.setHostUsername(users[0].getUsername());
+            match.setMatchGoal(100);
+            match.setStarted(true);
+            match.setPlayer1(users[0]);
+            match.setPlayer2(users[1]);
+            match.setPlayer3(users[2]);
+            match.setPlayer4(users[3]);
+            for (int i = 0; i < 4; i++) {
+                MatchPlayer matchPlayer = new MatchPlayer();
+                matchPlayer.setMatch(match);
+                matchPlayer.setUser(users[i]);
+                matchPlayer.setMatchPlayerSlot(i + 1);
+                matchPlayer.setIsHost(i == 0);
+                match.getMatchPlayers().add(matchPlayer);
+            }
+            matchRepository.saveAndFlush(match);
+            gameSetupService.createAndStartGameForMatch(match, matchRepository, gameRepository, SEED);
+            return match.getMatchId();
+        });
+
+        // A match in setup, hosted by the fifth user, who invited the sixth to
+        // slot 2, added an AI player to slot 3 and has been asked to let the
+        // sixth join.
+        transactionTemplate.executeWithoutResult(status -> {
+            Match match = new Match();
+            match.setHostId(users[4].getId());
+            match.setHostUsername(users[4].getUsername());
+            match.setMatchGoal(100);
+            match.setPlayer1(users[4]);
+            MatchPlayer host = new MatchPlayer();
+            host.setMatch(match);
+            host.setUser(users[4]);
+            host.setMatchPlayerSlot(1);
+            host.setIsHost(true);
+            match.getMatchPlayers().add(host);
+            match.getInvites().put(2, users[5].getId());
+            match.getAiPlayers().put(3, 1);
+            match.getJoinRequests().put(users[5].getId(), "pending");
+            matchRepository.saveAndFlush(match);
+        });
+        // The tests share the context; every test reads the leaderboard cold.
+        leaderboardService.invalidate();
+
+        counter = new StatementCounter(entityManagerFactory);
+        counter.reset();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new TestDataCleaner(gameCardLedgerRepository, matchMessageRepository, matchRepository,
+                passedCardRepository, userRepository).deleteMatchesAndUsers(users);
+    }
+
+    private void passAll() {
+        for (int i = 0; i < 4; i++) {
+            matchService.passingAcceptCards(matchId, null, users[i].getToken(), true);
+        }
+    }
+
+    private String tokenOfPlayerHolding(String cardCode) {
+        return transactionTemplate.execute(status -> matchRepository.findWithPlayersByMatchId(matchId)
+                .getMatchPlayers().stream()
+                .filter(matchPlayer -> CardUtils.isCardCodeInHand(matchPlayer.getHand(), cardCode))
+                .findFirst()
+                .orElseThrow()
+                .getUser().getToken());
+    }
+
+    @Test
+    public void getPlayerPolling_host() {
+        matchService.getPlayerPolling(users[0].getToken(), matchId);
+
+        // Match, user, games, (flush) poll bookkeeping, match player, AI
+        // players of the first snapshot, messages; (commit) poll bookkeeping.
+        counter.assertCounts("getPlayerPolling (host)", 8, 2);
+    }
+
+    @Test
+    public void getPlayerPolling_nonHost() {
+        matchService.getPlayerPolling(users[2].getToken(), matchId);
+
+        // As for the host.
+        counter.assertCounts("getPlayerPolling (non-host)", 8, 2);
+    }
+
+    @Test
+    public void passingAcceptCards() {
+        String hand = transactionTemplate.execute(status -> matchRepository.findWithPlayersByMatchId(matchId)
+                .getMatchPlayers().stream()
+                .filter(matchPlayer -> matchPlayer.getMatchPlayerSlot() == 1)
+                .findFirst()
+                .orElseThrow()
+                .getHand());
+        GamePassingDTO passingDTO = new GamePassingDTO();
+        passingDTO.setCards(List.of(hand.split(",")).subList(0, 3));
+        counter.reset();
+
+        matchService.passingAcceptCards(matchId, passingDTO, users[0].getToken(), false);
+
+        // Match, user, games, match players, 1 + 2 per card checks of what was
+        // passed, 3 inserts, count; (flush) nothing; (commit) nothing; bump of
+        // the stateVersion.
+        counter.assertCounts("passingAcceptCards", 16, 2);
+    }
+
+    @Test
+    public void playCardAsHuman() {
+        passAll();
+        String token = tokenOfPlayerHolding("2C");
+        PlayedCardDTO playedCardDTO = new PlayedCardDTO();
+        playedCardDTO.setCard("2C");
+        counter.reset();
+
+        matchService.playCardAsHuman(token, matchId, playedCardDTO);
+
+        // Match, games, match players, message that the game started, ledger;
+        // (commit) match player, game, ledger; bump of the stateVersion.
+        counter.assertCounts("playCardAsHuman", 9, 1);
+    }
+
+    @Test
+    public void confirmGameResult() {
+        // The score of the first game is shown, nobody has confirmed yet.
+        transactionTemplate.executeWithoutResult(status -> {
+            Match match = matchRepository.findWithPlayersByMatchId(matchId);
+            match.getGames().get(0).setPhase(GamePhase.RESULT);
+            match.getMatchPlayers().forEach(matchPlayer -> matchPlayer.setReady(false));
+        });
+        counter.reset();
+
+        matchService.confirmGameResult(users[1].getToken(), matchId);
+
+        // Match, user, games, match player, (flush) ready, match players;
+        // (commit) nothing; bump of the stateVersion.
+        counter.assertCounts("confirmGameResult", 7, 2);
+        transactionTemplate.executeWithoutResult(status -> {
+            Match match = matchRepository.findWithPlayersByMatchId(matchId);
+            assertEquals(GamePhase.RESULT, match.getGames().get(0).getPhase());
+            assertTrue(match.getMatchPlayers().stream()
+                    .allMatch(matchPlayer -> matchPlayer.getIsReady() == (matchPlayer.getMatchPlayerSlot() == 2)));
+        });
+    }
+
+    @Test
+    public void getLeaderboard() throws Exception {
+        mockMvc.perform(get("/leaderboard")).andExpect(status().isOk());
+
+        // All six users, read into the leaderboard at once.
+        counter.assertCounts("GET /leaderboard", 1, 0);
+    }
+
+    @Test
+    public void getMatches() throws Exception {
+        mockMvc.perform(get("/matches")).andExpect(status().isOk());
+
+        // Both matches with their players, then their invites, AI players and
+        // join requests.
+        counter.assertCounts("GET /matches", 2, 0);
+    }
+}
@@ -0,0 +1,327 @@
+package ch.uzh.ifi.hase.soprafs24.integration;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchMessageRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.service.GameSetupService;
+import ch.uzh.ifi.hase.soprafs24.service.MatchService;
+import ch.uzh.ifi.hase.soprafs24.service.UserService;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint that changes a match must move its stateVersion, or clients
+ * of the delta polling endpoint keep being told that they are up to date.
+ * In game this is checked through the endpoint itself: 304 before the
+ * request, a delta after it. A match in setup cannot be polled yet, so there
+ * the stateVersion itself has to grow, which is what makes the delta
+ * endpoint answer with a delta.
+ */
+@SpringBootTest(properties = {
+        "match.clock.enabled=false",
+        "auth.token-cache.ttl-seconds=0" })
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class MatchStateVersionIntegrationTest {
+
+    private static final long SEED = 4711L * 10000 + 9247;
+
+    @Autowired
+    private GameCardLedgerRepository gameCardLedgerRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameSetupService gameSetupService;
+
+    @Autowired
+    private MatchMessageRepository matchMessageRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private MatchService matchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PassedCardRepository passedCardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private final User[] users = new User[5];
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < users.length; i++) {
+            User user = new User();
+            user.setUsername("versioned" + (i + 1));
+            user.setPassword("pw");
+            users[i] = userService.createUser(user);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new TestDataCleaner(gameCardLedgerRepository, matchMessageRepository, matchRepository,
+                passedCardRepository, userRepository).deleteMatchesAndUsers(users);
+    }
+
+    /**
+     * A match of the first four users in its first game, with the cards dealt
+     * for passing.
+     */
+    private Long startedMatch() {
+        return transactionTemplate.execute(status -> {
+            Match match = new Match();
+            match.setPhase(MatchPhase.BEFORE_GAMES);
+            match.setHostId(users[0].getId());
+            match.setHostUsername(users[0].getUsername());
+            match.setMatchGoal(100);
+            match.setStarted(true);
+            match.setPlayer1(users[0]);
+            match.setPlayer2(users[1]);
+            match.setPlayer3(users[2]);
+            match.setPlayer4(users[3]);
+            for (int i = 0; i < 4; i++) {
+                MatchPlayer matchPlayer = new MatchPlayer();
+                matchPlayer.setMatch(match);
+                matchPlayer.setUser(users[i]);
+                matchPlayer.setMatchPlayerSlot(i + 1);
+                matchPlayer.setIsHost(i == 0);
+                match.getMatchPlayers().add(matchPlayer);
+            }
+            matchRepository.saveAndFlush(match);
+            gameSetupService.createAndStartGameForMatch(match, matchRepository, gameRepository, SEED);
+            return match.getMatchId();
+        });
+    }
+
+    /** A match in setup, hosted by the first user. */
+    private Long matchInSetup() throws Exception {
+        String response = mockMvc.perform(post("/matches")
+                .header("Authorization", "Bearer " + users[0].getToken()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("matchId").asLong();
+    }
+
+    private void passAll(Long matchId) {
+        for (int i = 0; i < 4; i++) {
+            matchService.passingAcceptCards(matchId, null, users[i].getToken(), true);
+        }
+    }
+
+    private User playerHolding(Long matchId, String cardCode) {
+        Long userId = transactionTemplate.execute(status -> matchRepository.findWithPlayersByMatchId(matchId)
+                .getMatchPlayers().stream()
+                .filter(matchPlayer -> CardUtils.isCardCodeInHand(matchPlayer.getHand(), cardCode))
+                .findFirst()
+                .orElseThrow()
+                .getUser().getId());
+        for (User user : users) {
+            if (user.getId().equals(userId)) {
+                return user;
+            }
+        }
+        throw new IllegalStateException("Nobody holds " + cardCode);
+    }
+
+    private MockHttpServletRequestBuilder pollDelta(Long matchId, User user) {
+        return post("/matches/" + matchId + "/logic/delta")
+                .header("Authorization", "Bearer " + user.getToken());
+    }
+
+    private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + user.getToken());
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    /**
+     * Asserts that the poller is up to date before the request, and is sent a
+     * delta after it.
+     */
+    private void assertNewStateAfter(Long matchId, User poller, MockHttpServletRequestBuilder request)
+            throws Exception {
+        String response = mockMvc.perform(pollDelta(matchId, poller))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long since = objectMapper.readTree(response).get("stateVersion").asLong();
+        mockMvc.perform(pollDelta(matchId, poller).param("since", String.valueOf(since)))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(pollDelta(matchId, poller).param("since", String.valueOf(since)))
+                .andExpect(status().isOk());
+    }
+
+    private void assertNewVersionAfter(Long matchId, MockHttpServletRequestBuilder request) throws Exception {
+        long before = matchRepository.findStateVersionByMatchId(matchId);
+
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+
+        long after = matchRepository.findStateVersionByMatchId(matchId);
+        assertTrue(after > before, () -> request + " left the stateVersion at " + before);
+    }
+
+    @Test
+    public void passing() throws Exception {
+        Long matchId = startedMatch();
+        String hand = transactionTemplate.execute(status -> matchRepository.findWithPlayersByMatchId(matchId)
+                .getMatchPlayers().stream()
+                .filter(matchPlayer -> matchPlayer.getMatchPlayerSlot() == 1)
+                .findFirst()
+                .orElseThrow()
+                .getHand());
+        String[] cards = hand.split(",");
+
+        assertNewStateAfter(matchId, users[1], json(as(users[0], post("/matches/" + matchId + "/passing")),
+                "{\"cards\":[\"" + cards[0] + "\",\"" + cards[1] + "\",\"" + cards[2] + "\"]}"));
+    }
+
+    @Test
+    public void passingAny() throws Exception {
+        Long matchId = startedMatch();
+
+        assertNewStateAfter(matchId, users[1],
+                json(as(users[0], post("/matches/" + matchId + "/passing/any")), "{}"));
+    }
+
+    @Test
+    public void play() throws Exception {
+        Long matchId = startedMatch();
+        passAll(matchId);
+        User player = playerHolding(matchId, "2C");
+
+        assertNewStateAfter(matchId, users[0],
+                json(as(player, post("/matches/" + matchId + "/play")), "{\"card\":\"2C\"}"));
+    }
+
+    @Test
+    public void playAny() throws Exception {
+        Long matchId = startedMatch();
+        passAll(matchId);
+        User player = playerHolding(matchId, "2C");
+
+        assertNewStateAfter(matchId, users[0],
+                json(as(player, post("/matches/" + matchId + "/play/any")), "{}"));
+    }
+
+    @Test
+    public void confirmGameResult() throws Exception {
+        Long matchId = startedMatch();
+
+        assertNewStateAfter(matchId, users[0], as(users[1], post("/matches/" + matchId + "/game/confirm")));
+    }
+
+    @Test
+    public void leave() throws Exception {
+        Long matchId = startedMatch();
+
+        assertNewStateAfter(matchId, users[0], as(users[2], delete("/matches/" + matchId + "/leave")));
+    }
+
+    @Test
+    public void simulateGame() throws Exception {
+        Long matchId = startedMatch();
+        passAll(matchId);
+
+        assertNewStateAfter(matchId, users[0], post("/matches/" + matchId + "/game/sim/game"));
+    }
+
+    @Test
+    public void fastForwardPoints() throws Exception {
+        Long matchId = startedMatch();
+
+        assertNewStateAfter(matchId, users[0], post("/matches/" + matchId + "/pts/50"));
+    }
+
+    @Test
+    public void setup_invite() throws Exception {
+        Long matchId = matchInSetup();
+
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/invite"),
+                "{\"userId\":" + users[1].getId() + ",\"playerSlot\":1}"));
+        assertNewVersionAfter(matchId, delete("/matches/" + matchId + "/invite/1"));
+    }
+
+    @Test
+    public void setup_matchGoal() throws Exception {
+        Long matchId = matchInSetup();
+
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/matchGoal"), "{\"matchGoal\":50}"));
+    }
+
+    @Test
+    public void setup_aiPlayers() throws Exception {
+        Long matchId = matchInSetup();
+
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/ai"),
+                "{\"difficulty\":1,\"playerSlot\":1}"));
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/ai/remove"),
+                "{\"difficulty\":1,\"playerSlot\":1}"));
+    }
+
+    @Test
+    public void setup_joinRequests() throws Exception {
+        Long matchId = matchInSetup();
+        String joinRequest = "{\"userId\":" + users[4].getId() + "}";
+
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/join"), joinRequest));
+        assertNewVersionAfter(matchId, json(post("/matches/" + matchId + "/join/accept"), joinRequest));
+    }
+
+    @Test
+    public void setup_startSeeded() throws Exception {
+        Long matchId = matchInSetup();
+        for (int slot = 1; slot <= 3; slot++) {
+            mockMvc.perform(json(post("/matches/" + matchId + "/ai"),
+                    "{\"difficulty\":1,\"playerSlot\":" + slot + "}"))
+                    .andExpect(status().isOk());
+        }
+
+        assertNewVersionAfter(matchId, as(users[0], post("/matches/" + matchId + "/start/" + SEED)));
+    }
+}
@@ -0,0 +1,52 @@
+package ch.uzh.ifi.hase.soprafs24.integration;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements and flushes Hibernate performs, based on its
+ * statistics, and checks them against what a path is expected to take.
+ */
+public class StatementCounter {
+    private final Logger log = LoggerFactory.getLogger(StatementCounter.class);
+
+    private final Statistics statistics;
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    /** Starts counting from zero. */
+    public void reset() {
+        statistics.clear();
+    }
+
+    public long getStatementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    public long getFlushCount() {
+        return statistics.getFlushCount();
+    }
+
+    /**
+     * Fails unless the statements and flushes counted since the last reset
+     * are exactly what the given path is expected to take: more is a
+     * regression, fewer means the expectation has to be lowered.
+     */
+    public void assertCounts(String path, long expectedStatements, long expectedFlushes) {
+        long statements = getStatementCount();
+        long flushes = getFlushCount();
+        log.info("{}: {} SQL statements (expected {}), {} flushes (expected {}).",
+                path, statements, expectedStatements, flushes, expectedFlushes);
+        assertEquals(expectedStatements, statements, () -> path + " ran a different number of SQL statements.");
+        assertEquals(expectedFlushes, flushes, () -> path + " flushed a different number of times.");
+    }
+}
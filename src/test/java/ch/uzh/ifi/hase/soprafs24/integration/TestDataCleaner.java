@@ -0,0 +1,51 @@
+package ch.uzh.ifi.hase.soprafs24.integration;
+
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchMessageRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+
+/**
+ * Deletes what an integration test created, children before their parents,
+ * so that the tests of a class can share one application context instead of
+ * rebuilding it for every test. The seeded AI users stay, and so do match
+ * summaries, which nothing refers to once their match is gone.
+ */
+public class TestDataCleaner {
+    private final GameCardLedgerRepository gameCardLedgerRepository;
+    private final MatchMessageRepository matchMessageRepository;
+    private final MatchRepository matchRepository;
+    private final PassedCardRepository passedCardRepository;
+    private final UserRepository userRepository;
+
+    public TestDataCleaner(
+            GameCardLedgerRepository gameCardLedgerRepository,
+            MatchMessageRepository matchMessageRepository,
+            MatchRepository matchRepository,
+            PassedCardRepository passedCardRepository,
+            UserRepository userRepository) {
+        this.gameCardLedgerRepository = gameCardLedgerRepository;
+        this.matchMessageRepository = matchMessageRepository;
+        this.matchRepository = matchRepository;
+        this.passedCardRepository = passedCardRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Deletes every match with its games, players and messages, and the given
+     * users.
+     */
+    public void deleteMatchesAndUsers(User... users) {
+        passedCardRepository.deleteAll();
+        gameCardLedgerRepository.deleteAll();
+        matchMessageRepository.deleteAll();
+        matchRepository.deleteAll();
+        for (User user : users) {
+            if (user != null) {
+                userRepository.deleteById(user.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardKnowledgeTest {
+
+    private GameCardLedger ledger;
+
+    @BeforeEach
+    public void setup() {
+        Match match = new Match();
+        match.setMatchId(5L);
+        Game game = new Game();
+        game.setGameId(9L);
+        game.setMatch(match);
+        ledger = new GameCardLedger(match, game);
+    }
+
+    private void play(String cardCode, int slot, int playOrder) {
+        int card = GameCardLedger.cardIndex(cardCode);
+        ledger.setPlayedBy(card, slot);
+        ledger.setPlayOrder(card, playOrder);
+        ledger.setPossibleHolders(card, 1 << (slot - 1));
+    }
+
+    @Test
+    public void fromLedger_beforeFirstPlay_knowsNothing() {
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger);
+
+        assertEquals(9L, knowledge.getGameId());
+        assertEquals(5L, knowledge.getMatchId());
+        assertEquals(0, knowledge.getPlayOrder());
+        assertEquals(CardSet.EMPTY, knowledge.getPlayedCards());
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            assertEquals(GameCardLedger.ALL_POSSIBLE_HOLDERS, knowledge.getPossibleHolders(card));
+        }
+    }
+
+    @Test
+    public void fromLedger_derivesVoidSuitsFromTricks() {
+        play("2C", 1, 1);
+        play("KC", 2, 2);
+        play("3H", 3, 3); // slot 3 does not follow clubs
+        play("AC", 4, 4);
+        play("5D", 4, 5); // new trick, leading diamonds
+        play("QS", 1, 6); // slot 1 does not follow diamonds
+
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger);
+
+        assertEquals(6, knowledge.getPlayOrder());
+        assertEquals(6, CardSet.size(knowledge.getPlayedCards()));
+        assertTrue(knowledge.isPlayed(GameCardLedger.cardIndex("QS")));
+        assertEquals(3, knowledge.getPlayedBy(GameCardLedger.cardIndex("3H")));
+        assertTrue(knowledge.isVoid(3, CardSet.CLUBS));
+        assertTrue(knowledge.isVoid(1, CardSet.DIAMONDS));
+        assertFalse(knowledge.isVoid(4, CardSet.CLUBS));
+        assertFalse(knowledge.isVoid(4, CardSet.DIAMONDS));
+        assertFalse(knowledge.isVoid(2, CardSet.CLUBS));
+    }
+
+    @Test
+    public void withVoidSuit_clearsLegacyBitOnUnplayedCardsOfSuit() {
+        play("2C", 1, 1);
+        CardKnowledge before = CardKnowledge.fromLedger(ledger);
+
+        CardKnowledge after = before.withVoidSuit(2, CardSet.CLUBS);
+
+        // Same bit as GameStatsService#updateGameStatsAfterTrickChange
+        assertEquals(0b1011, after.getPossibleHolders(GameCardLedger.cardIndex("AC")));
+        assertEquals(0b0001, after.getPossibleHolders(GameCardLedger.cardIndex("2C")));
+        assertEquals(0b1111, after.getPossibleHolders(GameCardLedger.cardIndex("AD")));
+        assertTrue(after.isVoid(2, CardSet.CLUBS));
+        assertEquals(before.getPlayOrder(), after.getPlayOrder());
+
+        // The original instance is unchanged
+        assertEquals(0b1111, before.getPossibleHolders(GameCardLedger.cardIndex("AC")));
+        assertFalse(before.isVoid(2, CardSet.CLUBS));
+    }
+
+    @Test
+    public void withCardPlayed_marksCardAndPlayer() {
+        CardKnowledge before = CardKnowledge.fromLedger(ledger);
+        int twoC = GameCardLedger.cardIndex("2C");
+
+        CardKnowledge after = before.withCardPlayed(twoC, 3, 1);
+
+        assertEquals(1, after.getPlayOrder());
+        assertTrue(after.isPlayed(twoC));
+        assertEquals(3, after.getPlayedBy(twoC));
+        assertEquals(0b0100, after.getPossibleHolders(twoC));
+        assertFalse(before.isPlayed(twoC));
+    }
+
+    @Test
+    public void getPossibleHolders_passerKnowsRecipient() {
+        int qs = GameCardLedger.cardIndex("QS");
+        ledger.setPassedBy(qs, 1);
+        ledger.setPassedTo(qs, 2);
+
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger);
+
+        assertEquals(0b0010, knowledge.getPossibleHolders(qs, 1));
+        assertEquals(0b1111, knowledge.getPossibleHolders(qs, 3));
+        assertEquals(CardSet.QUEEN_OF_SPADES, knowledge.getCardsPassedBy(1));
+        assertEquals(2, knowledge.getPassedTo(qs));
+    }
+}
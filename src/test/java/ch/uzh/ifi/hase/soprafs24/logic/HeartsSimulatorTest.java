@@ -0,0 +1,101 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeartsSimulatorTest {
+
+    private static long cards(String cardCodes) {
+        return CardSet.fromCardCodeString(cardCodes);
+    }
+
+    @Test
+    public void play_completedTrick_billsPointsToWinnerWhoLeadsNext() {
+        HeartsSimulator simulator = new HeartsSimulator();
+        long[] hands = { cards("KS,2D"), cards("QS,3D"), cards("AH,4D"), cards("2S,5D") };
+        simulator.reset(hands, new int[4], new int[4], 0, 1, 44, true);
+
+        simulator.play(CardSet.index("KS"));
+        assertEquals(2, simulator.getCurrentSlot());
+        simulator.play(CardSet.index("QS"));
+        simulator.play(CardSet.index("AH")); // off suit, does not win
+        simulator.play(CardSet.index("2S"));
+
+        // KS wins 13 + 1 points; slot 1 leads the next trick
+        assertEquals(14, simulator.getScore(1));
+        assertEquals(1, simulator.getCurrentSlot());
+        assertEquals(48, simulator.getCardsPlayed());
+        assertEquals(cards("2D"), simulator.getHand(1));
+    }
+
+    @Test
+    public void legalMoves_followsLegalMovesRules() {
+        HeartsSimulator simulator = new HeartsSimulator();
+        long[] hands = { cards("2C,3C,AH"), cards("4C,KH"), cards("5H,QS"), cards("6D,7H") };
+        simulator.reset(hands, new int[4], new int[4], 0, 1, 0, false);
+
+        assertEquals(CardSet.TWO_OF_CLUBS, simulator.legalMoves());
+        simulator.play(CardSet.index("2C"));
+        assertEquals(cards("4C"), simulator.legalMoves());
+        simulator.play(CardSet.index("4C"));
+        // No points in the first trick unless there is no other way
+        assertEquals(cards("5H"), simulator.legalMoves());
+    }
+
+    @Test
+    public void getScore_moonShot_countsForEveryoneElse() {
+        HeartsSimulator simulator = new HeartsSimulator();
+        long[] hands = { cards("AS"), cards("2S"), cards("3S"), cards("4S") };
+        simulator.reset(hands, new int[] { 26, 0, 0, 0 }, new int[4], 0, 1, 48, true);
+        simulator.playOut(new SplittableRandom(1));
+
+        assertTrue(simulator.isFinished());
+        assertEquals(0, simulator.getScore(1));
+        assertEquals(26, simulator.getScore(2));
+        assertEquals(26, simulator.getScore(4));
+    }
+
+    @Test
+    public void playOut_fullGame_usesAllCardsAndPoints() {
+        for (long seed = 0; seed < 50; seed++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            long[] hands = new long[4];
+            long deck = CardSet.FULL_DECK;
+            for (int slot = 0; slot < 4; slot++) {
+                for (int i = 0; i < 13; i++) {
+                    int card = HeartsSimulator.randomCard(deck, random);
+                    hands[slot] |= 1L << card;
+                    deck &= ~(1L << card);
+                }
+            }
+            int leader = 1;
+            while ((hands[leader - 1] & CardSet.TWO_OF_CLUBS) == 0) {
+                leader++;
+            }
+
+            HeartsSimulator simulator = new HeartsSimulator();
+            simulator.reset(hands, new int[4], new int[4], 0, leader, 0, false);
+            simulator.playOut(random);
+
+            int total = 0;
+            for (int slot = 1; slot <= 4; slot++) {
+                assertEquals(CardSet.EMPTY, simulator.getHand(slot));
+                total += simulator.getScore(slot);
+            }
+            assertTrue(total == 26 || total == 78, "total " + total);
+        }
+    }
+
+    @Test
+    public void randomCard_picksFromSet() {
+        SplittableRandom random = new SplittableRandom(3);
+        long set = cards("2C,QS,AH");
+        for (int i = 0; i < 100; i++) {
+            assertTrue((set & (1L << HeartsSimulator.randomCard(set, random))) != 0);
+        }
+    }
+}
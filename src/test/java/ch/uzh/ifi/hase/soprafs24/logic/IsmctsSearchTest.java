@@ -0,0 +1,150 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsmctsSearchTest {
+
+    private static final long MY_HAND = CardSet.fromCardCodeString("AS,2S");
+    private static final long HIDDEN = CardSet.fromCardCodeString("5D,6D,7D");
+
+    private ForkJoinPool pool;
+    private GameCardLedger ledger;
+
+    @BeforeEach
+    public void setup() {
+        pool = new ForkJoinPool(2);
+        Game game = new Game();
+        game.setGameId(1L);
+        ledger = new GameCardLedger(new Match(), game);
+
+        // Eleven tricks are over; the twelfth is led with QS, slot 4 is last.
+        // Diamonds go last, so nobody has shown to be void in Diamonds.
+        List<String> played = CardUtils.getFullDeckList().stream()
+                .filter(cardCode -> (CardSet.bit(cardCode) & (MY_HAND | HIDDEN)) == 0)
+                .filter(cardCode -> !List.of("QS", "3S", "4S").contains(cardCode))
+                .sorted(Comparator.comparingInt(cardCode -> "HCSD".indexOf(cardCode.charAt(1))))
+                .toList();
+        int playOrder = 0;
+        for (String cardCode : played) {
+            record(cardCode, playOrder % 4 + 1, ++playOrder);
+        }
+        record("QS", 1, ++playOrder);
+        record("3S", 2, ++playOrder);
+        record("4S", 3, ++playOrder);
+    }
+
+    @AfterEach
+    public void teardown() {
+        pool.shutdownNow();
+    }
+
+    private void record(String cardCode, int slot, int playOrder) {
+        int card = GameCardLedger.cardIndex(cardCode);
+        ledger.setPlayOrder(card, playOrder);
+        ledger.setPlayedBy(card, slot);
+    }
+
+    private HeartsSimulator rootPosition() {
+        HeartsSimulator root = new HeartsSimulator();
+        long[] hands = { 0, 0, 0, MY_HAND };
+        int[] trick = { CardSet.index("QS"), CardSet.index("3S"), CardSet.index("4S"), 0 };
+        root.reset(hands, new int[] { 6, 7, 0, 0 }, trick, 3, 1, 47, true);
+        return root;
+    }
+
+    private DealSampler sampler() {
+        return new DealSampler(CardKnowledge.fromLedger(ledger), 4, MY_HAND, new int[] { 1, 1, 1, 2 });
+    }
+
+    @Test
+    public void deal_respectsHandSizesAndKnowledge() {
+        int fiveD = CardSet.index("5D");
+        ledger.setPassedBy(fiveD, 4);
+        ledger.setPassedTo(fiveD, 2);
+        DealSampler sampler = sampler();
+        HeartsSimulator simulator = rootPosition();
+        SplittableRandom random = new SplittableRandom(5);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.deal(simulator, random));
+            assertEquals(MY_HAND, simulator.getHand(4));
+            assertEquals(CardSet.bit("5D"), simulator.getHand(2));
+            long dealt = 0;
+            for (int slot = 1; slot <= 3; slot++) {
+                assertEquals(1, Long.bitCount(simulator.getHand(slot)));
+                dealt |= simulator.getHand(slot);
+            }
+            assertEquals(HIDDEN, dealt);
+        }
+    }
+
+    @Test
+    public void deal_voidsLeavingNoRoom_ignoresVoids() {
+        // Slots 1 and 2 did not follow Diamonds; only slot 3 may hold the three Diamonds.
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger)
+                .withVoidSuit(1, CardSet.DIAMONDS)
+                .withVoidSuit(2, CardSet.DIAMONDS);
+        DealSampler sampler = new DealSampler(knowledge, 4, MY_HAND, new int[] { 1, 1, 1, 2 });
+        HeartsSimulator simulator = rootPosition();
+
+        assertFalse(sampler.deal(simulator, new SplittableRandom(1)));
+        assertEquals(1, Long.bitCount(simulator.getHand(1)));
+        assertEquals(1, Long.bitCount(simulator.getHand(3)));
+    }
+
+    @Test
+    public void sampler_handSizesNotMatchingUnseenCards_throws() {
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger);
+        assertThrows(IllegalStateException.class,
+                () -> new DealSampler(knowledge, 4, MY_HAND, new int[] { 2, 1, 1, 2 }));
+    }
+
+    @Test
+    public void search_ducksQueenOfSpades() {
+        IsmctsSearch.Result result = new IsmctsSearch(rootPosition(), sampler(), 4)
+                .search(pool, 2, System.nanoTime() + TimeUnit.SECONDS.toNanos(10), 2000, 42L);
+
+        assertEquals(CardSet.index("2S"), result.getCard());
+        assertEquals(2000, result.getIterations());
+        assertTrue(result.getVisits(CardSet.index("2S")) > result.getVisits(CardSet.index("AS")));
+    }
+
+    @Test
+    public void search_stopsAtDeadline() {
+        IsmctsSearch.Result result = new IsmctsSearch(rootPosition(), sampler(), 4)
+                .search(pool, 2, System.nanoTime(), Integer.MAX_VALUE, 42L);
+
+        assertEquals(0, result.getIterations());
+        assertTrue((MY_HAND & (1L << result.getCard())) != 0);
+    }
+
+    @Test
+    public void search_singleLegalMove_returnsItWithoutSearching() {
+        HeartsSimulator root = rootPosition();
+        root.setHand(4, CardSet.bit("2S"));
+        ledger.setPlayOrder(GameCardLedger.cardIndex("AS"), 48);
+        DealSampler sampler = new DealSampler(CardKnowledge.fromLedger(ledger), 4, CardSet.bit("2S"),
+                new int[] { 1, 1, 1, 1 });
+
+        IsmctsSearch.Result result = new IsmctsSearch(root, sampler, 4)
+                .search(pool, 2, System.nanoTime() + TimeUnit.SECONDS.toNanos(10), 1000, 1L);
+
+        assertEquals(CardSet.index("2S"), result.getCard());
+        assertEquals(0, result.getIterations());
+    }
+}
@@ -0,0 +1,261 @@
+package ch.uzh.ifi.hase.soprafs24.logic;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
+import ch.uzh.ifi.hase.soprafs24.service.CardRulesService;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMovesTest {
+
+    /**
+     * Frozen copy of the string based rules of CardRulesService as they were
+     * before LegalMoves existed, down to the card string helpers of CardUtils
+     * it used then, so the reference cannot share a code path with the code
+     * under test.
+     */
+    private static String referencePlayableCards(String handString, String trick, GamePhase gamePhase,
+            int playOrder, boolean heartsBroken) {
+        String hand = referenceJoin(referenceSplit(handString).stream().distinct().collect(Collectors.toList()));
+        int handSize = referenceSplit(hand).size();
+        boolean handHas2C = referenceSplit(hand).contains(GameConstants.TWO_OF_CLUBS);
+        String handHearts = referenceInSuit(hand, "H", true);
+        String handNonHearts = referenceInSuit(hand, "H", false);
+        int handNonHeartsSize = referenceSplit(handNonHearts).size();
+
+        int trickSize = referenceSplit(trick).size();
+        String leadingSuit = referenceSplit(trick).stream()
+                .findFirst()
+                .map(code -> code.substring(code.length() - 1))
+                .orElse("");
+        String handLeadingSuit = leadingSuit.isEmpty() ? hand : referenceInSuit(hand, leadingSuit, true);
+        boolean handHasLeadingSuit = !leadingSuit.isEmpty() && !handLeadingSuit.isEmpty();
+        int handLeadingSuitSize = referenceSplit(handLeadingSuit).size();
+        String handLeadingSuitNonQS = referenceWithout(handLeadingSuit, GameConstants.QUEEN_OF_SPADES);
+        String handNonHeartsNonQS = referenceWithout(handNonHearts, GameConstants.QUEEN_OF_SPADES);
+        int handNonHeartsNonQSSize = referenceSplit(handNonHeartsNonQS).size();
+
+        if (handSize == 0) {
+            throw new GameplayException(String.format("Player has no cards in his hands: %s.", hand));
+        } else if (gamePhase == GamePhase.FIRSTTRICK && playOrder == 0 && handHas2C) {
+            return GameConstants.TWO_OF_CLUBS;
+        } else if (playOrder != 0 && handHas2C) {
+            throw new IllegalStateException("Player holds card 2C, even though currenPlayOrder is " + playOrder);
+        } else if (gamePhase == GamePhase.FIRSTTRICK && "H".equals(leadingSuit)) {
+            throw new IllegalStateException("In the first trick, the leading suit must not be Hearts.");
+        } else if (gamePhase == GamePhase.FIRSTTRICK && trickSize > 1 && handLeadingSuitSize > 0) {
+            return handLeadingSuitNonQS;
+        } else if (gamePhase == GamePhase.FIRSTTRICK && trickSize > 1 && handNonHeartsNonQSSize > 0) {
+            return handNonHeartsNonQS;
+        } else if (gamePhase == GamePhase.FIRSTTRICK && trickSize > 1) {
+            return handHearts;
+        } else if (trickSize == 0 && !heartsBroken && handNonHeartsSize == 0) {
+            return handHearts;
+        } else if (trickSize == 0 && !heartsBroken) {
+            return handNonHearts;
+        } else if (trickSize == 0) {
+            return hand;
+        } else if (handHasLeadingSuit) {
+            return handLeadingSuit;
+        }
+        return hand;
+    }
+
+    private static List<String> referenceSplit(String cardCodes) {
+        if (cardCodes == null || cardCodes.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(cardCodes.split(","))
+                .map(String::trim)
+                .filter(code -> code.matches(GameConstants.CARD_CODE_REGEX))
+                .collect(Collectors.toList());
+    }
+
+    private static String referenceJoin(List<String> cardCodes) {
+        return cardCodes.stream()
+                .sorted(Comparator.comparingInt(LegalMovesTest::referenceCardOrder))
+                .collect(Collectors.joining(","));
+    }
+
+    private static String referenceInSuit(String cardCodes, String suit, boolean inSuit) {
+        return referenceJoin(referenceSplit(cardCodes).stream()
+                .filter(code -> code.endsWith(suit) == inSuit)
+                .collect(Collectors.toList()));
+    }
+
+    private static String referenceWithout(String cardCodes, String cardCode) {
+        return referenceJoin(referenceSplit(cardCodes).stream()
+                .filter(code -> !code.equals(cardCode))
+                .collect(Collectors.toList()));
+    }
+
+    /** Clubs < Diamonds < Spades < Hearts, then by rank. */
+    private static int referenceCardOrder(String cardCode) {
+        int rank = "234567890JQKA".indexOf(cardCode.charAt(0)) + 2;
+        int suit = "CDSH".indexOf(cardCode.charAt(1));
+        return 10 + 20 * suit + rank;
+    }
+
+    /** @return the playable cards, or the name of the exception thrown instead */
+    private static String referenceVerdict(String hand, String trick, GamePhase gamePhase, int playOrder,
+            boolean heartsBroken) {
+        try {
+            return referencePlayableCards(hand, trick, gamePhase, playOrder, heartsBroken);
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    private static String cardRulesServiceVerdict(String hand, String trick, GamePhase gamePhase, int playOrder,
+            boolean heartsBroken) {
+        Game game = new Game();
+        game.setPhase(gamePhase);
+        game.setCurrentMatchPlayerSlot(1);
+        game.setCurrentPlayOrder(playOrder);
+        game.setCurrentTrick(trick.isEmpty() ? List.of() : List.of(trick.split(",")));
+        game.setHeartsBroken(heartsBroken);
+        MatchPlayer matchPlayer = new MatchPlayer();
+        matchPlayer.setMatchPlayerSlot(1);
+        matchPlayer.setHand(hand);
+        try {
+            return new CardRulesService(null).getPlayableCardsForMatchPlayerPolling(game, matchPlayer);
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    private static long playable(String hand, String trick, boolean heartsBroken, boolean firstTrick) {
+        String leadingSuit = CardUtils.getSuitOfFirstCardInCardCodeString(trick);
+        int leadSuit = leadingSuit.isEmpty() ? LegalMoves.NO_LEAD_SUIT : CardSet.suitIndex(leadingSuit.charAt(0));
+        return LegalMoves.playableCards(CardSet.fromCardCodeString(hand), CardUtils.sizeOfCardCodeString(trick),
+                leadSuit, heartsBroken, firstTrick);
+    }
+
+    @Test
+    public void test_firstCardOfGame_isTwoOfClubs() {
+        assertEquals(CardSet.TWO_OF_CLUBS, playable("2C,5C,QS,AH", "", false, true));
+    }
+
+    @Test
+    public void test_firstTrick_noPointsWhileAvoidable() {
+        assertEquals("KD", CardSet.toCardCodeString(playable("KD,QS,AH", "2C,3C", false, true)));
+        assertEquals("AH", CardSet.toCardCodeString(playable("QS,AH", "2C,3C", false, true)));
+    }
+
+    @Test
+    public void test_heartsNotBroken_cannotLeadHearts() {
+        assertEquals("3D,QS", CardSet.toCardCodeString(playable("3D,QS,AH", "", false, false)));
+        assertEquals("2H,AH", CardSet.toCardCodeString(playable("2H,AH", "", false, false)));
+        assertEquals("3D,QS,AH", CardSet.toCardCodeString(playable("3D,QS,AH", "", true, false)));
+    }
+
+    @Test
+    public void test_mustFollowSuit() {
+        assertEquals("3D", CardSet.toCardCodeString(playable("3D,QS,AH", "KD", false, false)));
+        assertEquals("QS,AH", CardSet.toCardCodeString(playable("QS,AH", "KD", false, false)));
+    }
+
+    @Test
+    public void test_randomizedEquivalenceWithStringRules() {
+        Random random = new Random(4711);
+        List<String> deck = CardUtils.getFullDeckList();
+        GamePhase[] trickPhases = { GamePhase.FIRSTTRICK, GamePhase.NORMALTRICK, GamePhase.FINALTRICK };
+
+        for (int i = 0; i < 20000; i++) {
+            Collections.shuffle(deck, random);
+            int trickSize = random.nextInt(4);
+            int handSize = 1 + random.nextInt(13);
+            boolean heartsBroken = random.nextBoolean();
+            GamePhase gamePhase = trickPhases[random.nextInt(trickPhases.length)];
+            int playOrder = random.nextInt(52);
+
+            List<String> trickCards = new ArrayList<>(deck.subList(0, trickSize));
+            List<String> handCards = new ArrayList<>(deck.subList(trickSize, trickSize + handSize));
+            if (gamePhase == GamePhase.FIRSTTRICK && random.nextInt(4) != 0) {
+                // Mostly a consistent first trick: 2C leads, no Hearts lead. The
+                // rest covers the inconsistent states the rules reject.
+                trickCards.remove(GameConstants.TWO_OF_CLUBS);
+                handCards.remove(GameConstants.TWO_OF_CLUBS);
+                trickCards.removeIf(cardCode -> cardCode.endsWith("H"));
+                if (!trickCards.isEmpty()) {
+                    trickCards.set(0, GameConstants.TWO_OF_CLUBS);
+                } else if (random.nextBoolean()) {
+                    handCards.add(GameConstants.TWO_OF_CLUBS);
+                }
+                if (handCards.isEmpty()) {
+                    continue;
+                }
+                playOrder = trickCards.size();
+            } else if (random.nextInt(8) == 0) {
+                playOrder = 0;
+            }
+            // Neither sorted nor always canonically separated, like hands in the wild.
+            String hand = String.join(random.nextBoolean() ? "," : ", ", handCards);
+            String trick = String.join(",", trickCards);
+
+            assertEquals(referenceVerdict(hand, trick, gamePhase, playOrder, heartsBroken),
+                    cardRulesServiceVerdict(hand, trick, gamePhase, playOrder, heartsBroken),
+                    String.format("hand=[%s] trick=[%s] phase=%s playOrder=%d heartsBroken=%s", hand, trick,
+                            gamePhase, playOrder, heartsBroken));
+        }
+    }
+
+    @Test
+    public void test_firstTrick_matchesStringRules() {
+        String[] hands = { "2C,5C,QS,AH", "5C,QS,AH", "QS,AH", "AH,2H", "QS", "KD,QS,AH", "3C,QC" };
+        String[] tricks = { "", "2C", "2C,3C", "2C,3C,4C", "5H", "2C,5H" };
+        for (String hand : hands) {
+            for (String trick : tricks) {
+                for (int playOrder = 0; playOrder <= 4; playOrder++) {
+                    for (boolean heartsBroken : new boolean[] { false, true }) {
+                        assertEquals(referenceVerdict(hand, trick, GamePhase.FIRSTTRICK, playOrder, heartsBroken),
+                                cardRulesServiceVerdict(hand, trick, GamePhase.FIRSTTRICK, playOrder,
+                                        heartsBroken),
+                                String.format("hand=[%s] trick=[%s] playOrder=%d heartsBroken=%s", hand, trick,
+                                        playOrder, heartsBroken));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_exhaustiveSingleSuitLeads() {
+        // Every subset of a 2-card-per-suit mini deck against every lead suit.
+        String[] cards = { "2C", "QC", "3D", "KD", "QS", "AS", "2H", "AH" };
+        for (int subset = 1; subset < (1 << cards.length); subset++) {
+            List<String> handCards = new ArrayList<>();
+            for (int bit = 0; bit < cards.length; bit++) {
+                if ((subset & (1 << bit)) != 0) {
+                    handCards.add(cards[bit]);
+                }
+            }
+            String hand = String.join(",", handCards);
+            for (String trick : new String[] { "", "5C", "5D", "5S", "5H" }) {
+                for (boolean heartsBroken : new boolean[] { false, true }) {
+                    if (handCards.contains(GameConstants.TWO_OF_CLUBS)) {
+                        continue;
+                    }
+                    String expected = referencePlayableCards(hand, trick, GamePhase.NORMALTRICK, 13,
+                            heartsBroken);
+                    assertEquals(expected,
+                            CardSet.toCardCodeString(playable(hand, trick, heartsBroken, false)));
+                }
+            }
+        }
+    }
+}
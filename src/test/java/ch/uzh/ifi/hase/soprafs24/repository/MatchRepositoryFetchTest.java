@@ -0,0 +1,116 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements it takes to load a match through each of the
+ * finders of MatchRepository, and checks that they load what they promise
+ * and nothing else.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class MatchRepositoryFetchTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private MatchRepository matchRepository;
+
+  private Statistics statistics;
+  private Long matchId;
+  private Long invitedUserId;
+
+  @BeforeEach
+  public void setup() {
+    Match match = new Match();
+    match.setPhase(MatchPhase.IN_PROGRESS);
+    User[] users = new User[4];
+    for (int slot = 1; slot <= 4; slot++) {
+      User user = new User();
+      user.setUsername("player" + slot);
+      user.setPassword("pw" + slot);
+      entityManager.persist(user);
+      users[slot - 1] = user;
+
+      MatchPlayer matchPlayer = new MatchPlayer();
+      matchPlayer.setUser(user);
+      matchPlayer.setMatch(match);
+      matchPlayer.setMatchPlayerSlot(slot);
+      match.getMatchPlayers().add(matchPlayer);
+    }
+    match.setPlayer1(users[0]);
+    match.setPlayer2(users[1]);
+    match.setPlayer3(users[2]);
+    match.setPlayer4(users[3]);
+    invitedUserId = users[1].getId();
+    match.getInvites().put(2, invitedUserId);
+    match.getAiPlayers().put(3, 1);
+
+    matchId = entityManager.persistAndGetId(match, Long.class);
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  public void findMatchByMatchId_loadsOnlyTheMatchRow() {
+    Match match = matchRepository.findMatchByMatchId(matchId);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertFalse(Hibernate.isInitialized(match.getMatchPlayers()));
+    assertFalse(Hibernate.isInitialized(match.getPlayer1()));
+    assertFalse(Hibernate.isInitialized(match.getInvites()));
+  }
+
+  @Test
+  public void findForPollingByMatchId_loadsPlayersAndUsersInOneStatement() {
+    Match match = matchRepository.findForPollingByMatchId(matchId);
+
+    assertEquals(4, match.getMatchPlayers().size());
+    for (MatchPlayer matchPlayer : match.getMatchPlayers()) {
+      assertTrue(Hibernate.isInitialized(matchPlayer.getUser()));
+    }
+    assertEquals("player2", match.getPlayer2().getUsername());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void findWithPlayersByMatchId_loadsPlayersAndUsersInOneStatement() {
+    Match match = matchRepository.findWithPlayersByMatchId(matchId);
+
+    assertEquals(4, match.getMatchPlayers().size());
+    assertTrue(match.getMatchPlayers().stream()
+        .anyMatch(matchPlayer -> "player4".equals(matchPlayer.getUser().getUsername())));
+    assertFalse(Hibernate.isInitialized(match.getAiPlayers()));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void findForSetupByMatchId_loadsSetupCollectionsInOneStatement() {
+    Match match = matchRepository.findForSetupByMatchId(matchId);
+
+    assertEquals(invitedUserId, match.getInvites().get(2));
+    assertEquals(1, match.getAiPlayers().get(3));
+    assertTrue(match.getJoinRequests().isEmpty());
+    assertFalse(Hibernate.isInitialized(match.getMatchPlayers()));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+}
@@ -134,6 +134,7 @@ public class AiPassingServiceTest {
         assertEquals(Strategy.LEFTMOST, aiPassingService.getStrategyForUserId(1L));
         assertEquals(Strategy.RANDOM, aiPassingService.getStrategyForUserId(2L));
         assertEquals(Strategy.LEFTMOST, aiPassingService.getStrategyForUserId(99L)); // default fallback
+        assertEquals(Strategy.ADA, aiPassingService.getStrategyForUserId(9L));
     }
 
     @Test
@@ -2,10 +2,10 @@ package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
 import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -24,7 +24,10 @@ public class AiPlayingServiceHypatiaGaryAdaTest {
     private CardRulesService cardRulesService;
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private CardKnowledgeService cardKnowledgeService;
+
+    @Mock
+    private GameMetricsService gameMetricsService;
 
     @InjectMocks
     private AiPlayingService aiPlayingService;
@@ -52,14 +55,14 @@ public class AiPlayingServiceHypatiaGaryAdaTest {
     }
 
     private void mockGameStatsForAllPlayableCards(List<String> cards, Game game, int holderBitmask) {
+        GameCardLedger ledger = new GameCardLedger(null, game);
         for (String card : cards) {
-            GameStats stats = new GameStats();
-            stats.setPossibleHolders(holderBitmask);
-            stats.setPassedBy(0);
-            stats.setPassedTo(0);
-            when(gameStatsRepository.findByRankSuitAndGame(eq(card), eq(game)))
-                    .thenReturn(stats);
+            int index = GameCardLedger.cardIndex(card);
+            ledger.setPossibleHolders(index, holderBitmask);
+            ledger.setPassedBy(index, 0);
+            ledger.setPassedTo(index, 0);
         }
+        when(cardKnowledgeService.getKnowledge(eq(game))).thenReturn(CardKnowledge.fromLedger(ledger));
     }
 
     @Test
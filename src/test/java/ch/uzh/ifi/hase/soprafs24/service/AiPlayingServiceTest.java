@@ -4,7 +4,6 @@ import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -23,7 +22,10 @@ public class AiPlayingServiceTest {
     private CardRulesService cardRulesService;
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private CardKnowledgeService cardKnowledgeService;
+
+    @Mock
+    private GameMetricsService gameMetricsService;
 
     @InjectMocks
     private AiPlayingService aiPlayingService;
@@ -89,6 +91,38 @@ public class AiPlayingServiceTest {
         assertTrue(List.of("3D", "4D", "QS").contains(card));
     }
 
+    @Test
+    public void testSelectSearchedCard_playsSearchedCard() {
+        when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("2C,3C,QS");
+
+        String card = aiPlayingService.selectSearchedCard(game, matchPlayer, new IsmctsService.Move(1L, 0, 1, "3C"));
+        assertEquals("3C", card);
+    }
+
+    @Test
+    public void testSelectSearchedCard_notSearchedFallsBackToLowestCard() {
+        when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("QS,3C,KH");
+
+        String card = aiPlayingService.selectSearchedCard(game, matchPlayer, new IsmctsService.Move(1L, 0, 1, null));
+        assertEquals("3C", card);
+    }
+
+    @Test
+    public void testSelectSearchedCard_illegalCardFallsBackToLowestCard() {
+        when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("QS,3C,KH");
+
+        String card = aiPlayingService.selectSearchedCard(game, matchPlayer, new IsmctsService.Move(1L, 0, 1, "2C"));
+        assertEquals("3C", card);
+    }
+
+    @Test
+    public void testSelectCardToPlay_ISMCTS_withoutSearchPlaysLowestCard() {
+        when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("QS,3C,KH");
+
+        String card = aiPlayingService.selectCardToPlay(game, matchPlayer, Strategy.ISMCTS);
+        assertEquals("3C", card);
+    }
+
     @Test
     public void testSelectCardToPlay_fallbackWhenNoPlayableCards() {
         when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("");
@@ -0,0 +1,168 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CardKnowledgeServiceTest {
+
+    private GameCardLedgerRepository gameCardLedgerRepository;
+    private CardKnowledgeService cardKnowledgeService;
+    private GameStatsService gameStatsService;
+
+    private Match match;
+    private Game game;
+    private GameCardLedger ledger;
+    private List<MatchPlayer> players;
+
+    @BeforeEach
+    public void setup() {
+        gameCardLedgerRepository = Mockito.mock(GameCardLedgerRepository.class);
+        cardKnowledgeService = new CardKnowledgeService(gameCardLedgerRepository);
+        gameStatsService = new GameStatsService(gameCardLedgerRepository, Mockito.mock(MatchRepository.class),
+                cardKnowledgeService);
+
+        match = new Match();
+        match.setMatchId(1L);
+        game = new Game();
+        game.setGameId(2L);
+        game.setMatch(match);
+        ledger = new GameCardLedger(match, game);
+        when(gameCardLedgerRepository.findById(2L)).thenReturn(Optional.of(ledger));
+
+        players = new ArrayList<>();
+        for (int slot = 1; slot <= 4; slot++) {
+            MatchPlayer player = new MatchPlayer();
+            player.setMatchPlayerSlot(slot);
+            player.setMatch(match);
+            players.add(player);
+        }
+    }
+
+    /**
+     * Plays a card the way GameService does: the trick and play order are
+     * updated first, then the stats.
+     */
+    private void play(List<String> trick, String cardCode, int slot) {
+        trick.add(cardCode);
+        game.setCurrentTrick(new ArrayList<>(trick));
+        game.setCurrentMatchPlayerSlot(slot);
+        game.setCurrentPlayOrder(game.getCurrentPlayOrder() + 1);
+        gameStatsService.updateGameStatsAfterTrickChange(game);
+        gameStatsService.recordCardPlay(game, players.get(slot - 1), cardCode);
+    }
+
+    private void assertSameKnowledge(CardKnowledge expected, CardKnowledge actual) {
+        assertEquals(expected.getPlayOrder(), actual.getPlayOrder());
+        assertEquals(expected.getPlayedCards(), actual.getPlayedCards());
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            assertEquals(expected.getPossibleHolders(card), actual.getPossibleHolders(card), "card " + card);
+            assertEquals(expected.getPlayedBy(card), actual.getPlayedBy(card), "card " + card);
+        }
+        for (int slot = 1; slot <= 4; slot++) {
+            for (int suit = 0; suit < 4; suit++) {
+                assertEquals(expected.isVoid(slot, suit), actual.isVoid(slot, suit));
+            }
+        }
+    }
+
+    @Test
+    public void getKnowledge_beforeFirstPlay_isNotCached() {
+        cardKnowledgeService.getKnowledge(game);
+        cardKnowledgeService.getKnowledge(game);
+
+        verify(gameCardLedgerRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    public void getKnowledge_followsPlaysWithoutReloading() {
+        List<String> deck = new ArrayList<>(List.of(
+                "2C", "3C", "4C", "5C", "6C", "7C", "8C", "9C", "0C", "JC", "QC", "KC", "AC",
+                "2D", "3D", "4D", "5D", "6D", "7D", "8D", "9D", "0D", "JD", "QD", "KD", "AD",
+                "2S", "3S", "4S", "5S", "6S", "7S", "8S", "9S", "0S", "JS", "QS", "KS", "AS",
+                "2H", "3H", "4H", "5H", "6H", "7H", "8H", "9H", "0H", "JH", "QH", "KH", "AH"));
+        Collections.shuffle(deck, new Random(7));
+        List<List<String>> hands = new ArrayList<>();
+        for (int slot = 0; slot < 4; slot++) {
+            hands.add(new ArrayList<>(deck.subList(slot * 13, slot * 13 + 13)));
+        }
+
+        // First play, then the knowledge is cached
+        List<String> trick = new ArrayList<>();
+        play(trick, hands.get(0).remove(0), 1);
+        cardKnowledgeService.getKnowledge(game);
+
+        int plays = 1;
+        while (plays < GameCardLedger.CARDS) {
+            int slot = plays % 4 + 1;
+            List<String> hand = hands.get(slot - 1);
+            if (trick.size() == 4) {
+                trick.clear();
+            }
+            String cardCode = hand.get(0);
+            if (!trick.isEmpty()) {
+                char leadSuit = trick.get(0).charAt(1);
+                cardCode = hand.stream().filter(c -> c.charAt(1) == leadSuit).findFirst().orElse(cardCode);
+            }
+            hand.remove(cardCode);
+            play(trick, cardCode, slot);
+            plays++;
+
+            if (plays < GameCardLedger.CARDS) {
+                clearInvocations(gameCardLedgerRepository);
+                CardKnowledge cached = cardKnowledgeService.getKnowledge(game);
+                verify(gameCardLedgerRepository, never()).findById(any());
+                assertSameKnowledge(CardKnowledge.fromLedger(ledger), cached);
+            }
+        }
+        assertEquals(CardSet.FULL_DECK, CardKnowledge.fromLedger(ledger).getPlayedCards());
+    }
+
+    @Test
+    public void getKnowledge_outOfStep_rebuildsFromLedger() {
+        List<String> trick = new ArrayList<>();
+        play(trick, "2C", 1);
+        CardKnowledge first = cardKnowledgeService.getKnowledge(game);
+
+        // A play that did not go through GameStatsService (e.g. another instance)
+        game.setCurrentPlayOrder(2);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("3C"), 2);
+        ledger.setPlayedBy(GameCardLedger.cardIndex("3C"), 2);
+        clearInvocations(gameCardLedgerRepository);
+
+        CardKnowledge second = cardKnowledgeService.getKnowledge(game);
+
+        assertNotSame(first, second);
+        assertTrue(second.isPlayed(GameCardLedger.cardIndex("3C")));
+        verify(gameCardLedgerRepository).findById(2L);
+    }
+
+    @Test
+    public void evictMatch_dropsKnowledge() {
+        play(new ArrayList<>(), "2C", 1);
+        cardKnowledgeService.getKnowledge(game);
+        clearInvocations(gameCardLedgerRepository);
+
+        gameStatsService.deleteGameStatsForMatch(match);
+        cardKnowledgeService.getKnowledge(game);
+
+        verify(gameCardLedgerRepository).findById(2L);
+    }
+}
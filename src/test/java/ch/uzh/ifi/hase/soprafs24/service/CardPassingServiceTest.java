@@ -3,7 +3,6 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
@@ -23,14 +22,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.entity.PassedCard;
 import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.PassedCardRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
@@ -51,7 +49,7 @@ public class CardPassingServiceTest {
     private GameRepository gameRepository;
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private GameStatsService gameStatsService;
 
     @Mock
     private MatchPlayerRepository matchPlayerRepository;
@@ -273,8 +271,8 @@ public class CardPassingServiceTest {
         // Stub dependencies
         lenient().when(passedCardRepository.findByGame(game)).thenReturn(passedCards);
         lenient().when(cardRulesService.determinePassingDirection(1)).thenReturn(Map.of(1, 2));
-        lenient().when(gameStatsRepository.findByRankSuitAndGameAndCardHolder("2C", game, 1)).thenReturn(null); // trigger
-                                                                                                                // failure
+        // A fresh ledger knows no card holders: triggers failure
+        lenient().when(gameStatsService.getCardLedger(game)).thenReturn(new GameCardLedger(match, game));
 
         // Should throw due to missing GameStat
         assertThrows(GameplayException.class, () -> cardPassingService.collectPassedCards(game));
@@ -375,18 +373,23 @@ public class CardPassingServiceTest {
         when(cardRulesService.determinePassingDirection(1)).thenReturn(Map.of(
                 1, 2, 2, 3, 3, 4, 4, 1));
 
-        for (String code : List.of("2C", "3H", "4D", "5S", "6H", "7C", "8D", "9H", "0S", "JH", "QD", "KC")) {
-            GameStats stat = new GameStats();
-            stat.setCardFromString(code);
-            when(gameStatsRepository.findByRankSuitAndGameAndCardHolder(eq(code), eq(game), anyInt())).thenReturn(stat);
+        GameCardLedger ledger = new GameCardLedger(match, game);
+        for (PassedCard passedCard : passedCards) {
+            ledger.setCardHolder(GameCardLedger.cardIndex(passedCard.getRankSuit()),
+                    passedCard.getFromMatchPlayerSlot());
         }
+        when(gameStatsService.getCardLedger(game)).thenReturn(ledger);
 
         cardPassingService.collectPassedCards(game);
 
         verify(passedCardRepository).deleteAll(passedCards);
         verify(passedCardRepository).flush();
-        verify(gameStatsRepository).saveAll(anyList());
-        verify(gameStatsRepository).flush();
+        int qd = GameCardLedger.cardIndex("QD");
+        assertEquals(4, ledger.getPassedBy(qd));
+        assertEquals(1, ledger.getPassedTo(qd));
+        int fourD = GameCardLedger.cardIndex("4D");
+        assertEquals(1, ledger.getPassedBy(fourD));
+        assertEquals(2, ledger.getPassedTo(fourD));
     }
 
     @Test
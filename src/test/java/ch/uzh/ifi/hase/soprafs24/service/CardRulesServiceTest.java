@@ -5,6 +5,7 @@ import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -53,6 +54,24 @@ public class CardRulesServiceTest {
         assertEquals("2C,3C,4C,5C,6C", playable);
     }
 
+    @Test
+    public void testGetPlayableCardsForMatchPlayer_cardSet() {
+        Game game = mock(Game.class);
+        MatchPlayer player = mock(MatchPlayer.class);
+
+        when(game.getPhase()).thenReturn(GamePhase.NORMALTRICK);
+        when(game.getCurrentMatchPlayerSlot()).thenReturn(1);
+        when(game.getCurrentPlayOrder()).thenReturn(20);
+        when(game.getCurrentTrickAsString()).thenReturn("KD");
+        when(game.getHeartsBroken()).thenReturn(false);
+        when(player.getMatchPlayerSlot()).thenReturn(1);
+        long hand = CardSet.fromCardCodeString("3D,QS,AH");
+
+        assertEquals(CardSet.bit("3D"), cardRulesService.getPlayableCardsForMatchPlayer(game, player, hand));
+        when(player.getMatchPlayerSlot()).thenReturn(2);
+        assertEquals(CardSet.EMPTY, cardRulesService.getPlayableCardsForMatchPlayer(game, player, hand));
+    }
+
     @Test
     public void testGetPlayableCards_FirstTrickWith2C() {
         Game game = mock(Game.class);
@@ -0,0 +1,138 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.model.CardResponse;
+import ch.uzh.ifi.hase.soprafs24.model.DrawCardResponse;
+import ch.uzh.ifi.hase.soprafs24.model.NewDeckResponse;
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class DeckProviderTest {
+
+    private static List<String> codes(List<CardResponse> cards) {
+        return cards.stream().map(CardResponse::getCode).collect(Collectors.toList());
+    }
+
+    @Test
+    void localDeckProvider_shufflesFullDeck() {
+        ShuffledDeck deck = new LocalDeckProvider(new Random(1)).shuffleDeck().block();
+
+        assertNotNull(deck);
+        assertTrue(CardUtils.validateDrawnCards(deck.getCards()));
+        assertTrue(deck.getDeckId().startsWith(GameConstants.SEED_PREFIX));
+    }
+
+    @Test
+    void localDeckProvider_deckCanBeReplayedFromItsId() {
+        ShuffledDeck deck = new LocalDeckProvider(new Random(2)).shuffle();
+
+        long seed = Long.parseLong(deck.getDeckId().substring(GameConstants.SEED_PREFIX.length()));
+
+        assertEquals(9247, seed % 10000);
+        assertEquals(codes(deck.getCards()), codes(ExternalApiClientService
+                .generateDeterministicDeck(GameConstants.FULL_DECK_CARD_COUNT, seed)));
+    }
+
+    @Test
+    void localDeckProvider_differentSeedsGiveDifferentDecks() {
+        LocalDeckProvider provider = new LocalDeckProvider(new Random(3));
+
+        ShuffledDeck first = provider.shuffle();
+        ShuffledDeck second = provider.shuffle();
+
+        assertNotEquals(first.getDeckId(), second.getDeckId());
+        assertNotEquals(codes(first.getCards()), codes(second.getCards()));
+    }
+
+    @Test
+    void externalApiDeckProvider_drawsAllCardsOfNewDeck() {
+        ExternalApiClientService client = mock(ExternalApiClientService.class);
+        NewDeckResponse newDeck = new NewDeckResponse();
+        newDeck.setDeck_id("abc123");
+        DrawCardResponse drawn = new DrawCardResponse();
+        drawn.setCards(ExternalApiClientService.generateDeterministicDeck(GameConstants.FULL_DECK_CARD_COUNT, 5L));
+        given(client.createNewDeck()).willReturn(Mono.just(newDeck));
+        given(client.drawCard("abc123", GameConstants.FULL_DECK_CARD_COUNT)).willReturn(Mono.just(drawn));
+
+        ShuffledDeck deck = new ExternalApiDeckProvider(client).shuffleDeck().block();
+
+        assertEquals("abc123", deck.getDeckId());
+        assertSame(drawn.getCards(), deck.getCards());
+    }
+
+    @Test
+    void externalApiDeckProvider_invalidDeck_fails() {
+        ExternalApiClientService client = mock(ExternalApiClientService.class);
+        NewDeckResponse newDeck = new NewDeckResponse();
+        newDeck.setDeck_id("abc123");
+        DrawCardResponse drawn = new DrawCardResponse();
+        drawn.setCards(ExternalApiClientService.generateDeterministicDeck(GameConstants.FULL_DECK_CARD_COUNT, 5L)
+                .subList(0, 40));
+        given(client.createNewDeck()).willReturn(Mono.just(newDeck));
+        given(client.drawCard("abc123", GameConstants.FULL_DECK_CARD_COUNT)).willReturn(Mono.just(drawn));
+
+        assertThrows(IllegalStateException.class, () -> new ExternalApiDeckProvider(client).shuffleDeck().block());
+    }
+
+    @Test
+    void pooledDeckProvider_warmsUpToCapacity() {
+        PooledDeckProvider pool = new PooledDeckProvider(new LocalDeckProvider(new Random(4)), 3, 1,
+                Schedulers.immediate());
+
+        pool.refill();
+
+        assertEquals(3, pool.getReadyDeckCount());
+        assertEquals(3, pool.getRefillCount());
+    }
+
+    @Test
+    void pooledDeckProvider_refillsAtLowWatermark() {
+        PooledDeckProvider pool = new PooledDeckProvider(new LocalDeckProvider(new Random(5)), 3, 1,
+                Schedulers.immediate());
+        pool.refill();
+
+        assertTrue(pool.pollReadyDeck().isPresent());
+        assertEquals(2, pool.getReadyDeckCount());
+
+        assertTrue(pool.pollReadyDeck().isPresent());
+        assertEquals(3, pool.getReadyDeckCount());
+        assertEquals(0, pool.getExhaustionCount());
+    }
+
+    @Test
+    void pooledDeckProvider_exhausted_fallsThroughToSource() {
+        DeckProvider source = mock(DeckProvider.class);
+        ShuffledDeck deck = new LocalDeckProvider(new Random(6)).shuffle();
+        given(source.shuffleDeck()).willReturn(Mono.never(), Mono.just(deck));
+        PooledDeckProvider pool = new PooledDeckProvider(source, 1, 0, Schedulers.immediate());
+
+        assertFalse(pool.pollReadyDeck().isPresent());
+        assertSame(deck, pool.shuffleDeck().block());
+        assertEquals(2, pool.getExhaustionCount());
+        assertEquals(2, pool.getPollCount());
+    }
+
+    @Test
+    void pooledDeckProvider_refillFailure_isCounted() {
+        DeckProvider source = mock(DeckProvider.class);
+        given(source.shuffleDeck()).willReturn(Mono.error(new IllegalStateException("down")));
+        PooledDeckProvider pool = new PooledDeckProvider(source, 2, 0, Schedulers.immediate());
+
+        pool.refill();
+
+        assertEquals(0, pool.getReadyDeckCount());
+        assertEquals(2, pool.getRefillFailureCount());
+    }
+}
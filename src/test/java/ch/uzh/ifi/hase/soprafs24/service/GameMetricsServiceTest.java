@@ -0,0 +1,91 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GameMetricsServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final MatchRepository matchRepository = Mockito.mock(MatchRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameMetricsService gameMetricsService = new GameMetricsService(matchRepository, registry, now::get);
+
+    private static MatchRepository.PhaseCount phaseCount(MatchPhase phase, long count) {
+        return new MatchRepository.PhaseCount() {
+            @Override
+            public MatchPhase getPhase() {
+                return phase;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    @Test
+    void pollingIsTimedPerRole() {
+        gameMetricsService.recordPolling(GameMetricsService.ROLE_HOST, 2_000_000);
+        gameMetricsService.recordPolling(GameMetricsService.ROLE_HOST, 4_000_000);
+        gameMetricsService.recordPolling(GameMetricsService.ROLE_SPECTATOR, 1_000_000);
+
+        assertEquals(2, registry.get("hearts.polling").tag("role", "host").timer().count());
+        assertEquals(6.0, registry.get("hearts.polling").tag("role", "host").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(1, registry.get("hearts.polling").tag("role", "spectator").timer().count());
+    }
+
+    @Test
+    void aiDecisionsAreTimedPerStrategy() {
+        gameMetricsService.recordAiDecision(Strategy.LEFTMOST, 1_000);
+
+        assertEquals(1, registry.get("hearts.ai.decision").tag("strategy", "LEFTMOST").timer().count());
+    }
+
+    @Test
+    void earlyTrickTransitionCountsAsNoLag() {
+        gameMetricsService.recordTrickTransitionLag(-3);
+
+        assertEquals(0.0, registry.get("hearts.trick.transition.lag").timer().totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void matchesPerPhase_oneQueryPerScrape() {
+        when(matchRepository.countMatchesByPhase()).thenReturn(List.of(
+                phaseCount(MatchPhase.IN_PROGRESS, 3), phaseCount(MatchPhase.SETUP, 1)));
+
+        assertEquals(3.0, registry.get("hearts.matches").tag("phase", "IN_PROGRESS").gauge().value());
+        assertEquals(1.0, registry.get("hearts.matches").tag("phase", "SETUP").gauge().value());
+        assertEquals(0.0, registry.get("hearts.matches").tag("phase", "ABORTED").gauge().value());
+        verify(matchRepository, times(1)).countMatchesByPhase();
+
+        now.addAndGet(GameMetricsService.PHASE_COUNTS_MAX_AGE_NANOS + 1);
+        registry.get("hearts.matches").tag("phase", "SETUP").gauge().value();
+        verify(matchRepository, times(2)).countMatchesByPhase();
+    }
+
+    @Test
+    void tokenCacheHitsAndMisses() {
+        UserService userService = Mockito.mock(UserService.class);
+        when(userService.getTokenCacheHits()).thenReturn(7L);
+        when(userService.getTokenCacheMisses()).thenReturn(2L);
+
+        gameMetricsService.monitorTokenCache(userService);
+
+        assertEquals(7.0, registry.get("hearts.auth.token_cache.hits").functionCounter().count());
+        assertEquals(2.0, registry.get("hearts.auth.token_cache.misses").functionCounter().count());
+    }
+}
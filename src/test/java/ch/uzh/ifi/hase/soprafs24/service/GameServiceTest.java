@@ -7,6 +7,7 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.GamePassingDTO;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -43,6 +44,9 @@ public class GameServiceTest {
     @Mock
     private GameTrickService gameTrickService = Mockito.mock(GameTrickService.class);
 
+    @Mock
+    private LeaderboardService leaderboardService = Mockito.mock(LeaderboardService.class);
+
     @Mock
     private MatchMessageService matchMessageService = Mockito.mock(MatchMessageService.class);
 
@@ -67,6 +71,7 @@ public class GameServiceTest {
             gameRepository,
             gameStatsService,
             gameTrickService,
+            leaderboardService,
             matchMessageService,
             matchRepository,
             matchPlayerRepository,
@@ -148,6 +153,7 @@ public class GameServiceTest {
         aiPlayer.setAiMatchPlayerState(AiMatchPlayerState.THINKING);
         aiPlayer.setHand("3C");
         aiPlayer.setIsAiPlayer(true);
+        aiPlayer.setStrategy(Strategy.GARY);
 
         match.setMatchPlayers(new ArrayList<>(List.of(aiPlayer)));
 
@@ -159,16 +165,131 @@ public class GameServiceTest {
         given(matchPlayerRepository.findById(42L)).willReturn(Optional.of(aiPlayer)); // <-- Fix: stub findById
 
         // Act
-        boolean result = gameService.playSingleAiTurn(match, game, aiPlayer);
+        boolean result = gameService.playSingleAiTurn(match, game, aiPlayer, null);
 
         // Assert
         assertTrue(result);
         assertEquals(AiMatchPlayerState.READY, aiPlayer.getAiMatchPlayerState());
+        // Whatever its own strategy, an AI player other than ISMCTS plays LEFTMOST.
         verify(aiPlayingService).selectCardToPlay(eq(game), eq(aiPlayer), eq(Strategy.LEFTMOST));
         verify(cardRulesService).validateMatchPlayerCardCode(eq(game), eq(aiPlayer), eq("3C"));
         verify(gameStatsService).recordCardPlay(eq(game), eq(aiPlayer), eq("3C"));
     }
 
+    private MatchPlayer makeAiMatchPlayer(int slot, String hand) {
+        MatchPlayer aiPlayer = match.requireMatchPlayerBySlot(slot);
+        aiPlayer.setMatchPlayerId(40L + slot);
+        aiPlayer.getUser().setIsAiPlayer(true);
+        aiPlayer.setIsAiPlayer(true);
+        aiPlayer.setStrategy(Strategy.LEFTMOST);
+        aiPlayer.setAiMatchPlayerState(AiMatchPlayerState.READY);
+        aiPlayer.setHand(hand);
+        given(matchPlayerRepository.findById(40L + slot)).willReturn(Optional.of(aiPlayer));
+        return aiPlayer;
+    }
+
+    @Test
+    public void testPlayAiTurnsAhead_playsUntilHumanWithStaggeredPlayTimes() {
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentPlayOrder(5);
+        game.setCurrentMatchPlayerSlot(2);
+        MatchPlayer ai2 = makeAiMatchPlayer(2, "3C,9D");
+        MatchPlayer ai3 = makeAiMatchPlayer(3, "4C");
+
+        given(aiPlayingService.selectCardToPlay(game, ai2, Strategy.LEFTMOST)).willReturn("3C");
+        given(aiPlayingService.selectCardToPlay(game, ai3, Strategy.LEFTMOST)).willReturn("4C");
+        // Pass the turn on, as the real GameTrickService would.
+        doAnswer(invocation -> {
+            game.setCurrentMatchPlayerSlot(game.getCurrentMatchPlayerSlot() % 4 + 1);
+            return null;
+        }).when(gameTrickService).afterCardPlayed(game);
+
+        int cardsPlayed = gameService.playAiTurnsAhead(match, game, null);
+
+        // Slot 4 is human, so the run stops there, without a thinking turn.
+        assertEquals(2, cardsPlayed);
+        assertEquals(4, game.getCurrentMatchPlayerSlot());
+        assertEquals("9D", ai2.getHand());
+        assertEquals("", ai3.getHand());
+        assertEquals(AiMatchPlayerState.READY, ai2.getAiMatchPlayerState());
+
+        ArgumentCaptor<Instant> playedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(gameTrickService).addCardToTrick(eq(match), eq(game), eq(ai2), eq("3C"), playedAt.capture());
+        verify(gameTrickService).addCardToTrick(eq(match), eq(game), eq(ai3), eq("4C"), playedAt.capture());
+        assertEquals(GameConstants.AI_RUN_AHEAD_CARD_INTERVAL_MS,
+                playedAt.getAllValues().get(1).toEpochMilli() - playedAt.getAllValues().get(0).toEpochMilli());
+    }
+
+    @Test
+    public void testPlayAiTurnsAhead_stopsAtCompletedTrick() {
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentPlayOrder(7);
+        game.setCurrentMatchPlayerSlot(2);
+        MatchPlayer ai2 = makeAiMatchPlayer(2, "3C");
+        makeAiMatchPlayer(3, "4C");
+
+        given(aiPlayingService.selectCardToPlay(game, ai2, Strategy.LEFTMOST)).willReturn("3C");
+        doAnswer(invocation -> {
+            game.setTrickPhase(TrickPhase.TRICKJUSTCOMPLETED);
+            game.setCurrentMatchPlayerSlot(3);
+            return null;
+        }).when(gameTrickService).afterCardPlayed(game);
+
+        assertEquals(1, gameService.playAiTurnsAhead(match, game, null));
+        verify(aiPlayingService, times(1)).selectCardToPlay(any(), any(), any());
+    }
+
+    @Test
+    public void testPlayAiTurnsAhead_humanToMove_playsNothing() {
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentMatchPlayerSlot(1);
+
+        assertEquals(0, gameService.playAiTurnsAhead(match, game, null));
+        verify(gameTrickService, never()).addCardToTrick(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testPlayAiTurnsAhead_ismctsPlaysOnlyTheSearchedTurn() {
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentPlayOrder(5);
+        game.setCurrentMatchPlayerSlot(2);
+        MatchPlayer ai2 = makeAiMatchPlayer(2, "3C,9D");
+        MatchPlayer ai3 = makeAiMatchPlayer(3, "4C");
+        ai2.setStrategy(Strategy.ISMCTS);
+        ai3.setStrategy(Strategy.ISMCTS);
+        IsmctsService.Move searched = new IsmctsService.Move(1L, 5, 2, "3C");
+
+        given(aiPlayingService.selectSearchedCard(game, ai2, searched)).willReturn("3C");
+        doAnswer(invocation -> {
+            game.setCurrentMatchPlayerSlot(game.getCurrentMatchPlayerSlot() % 4 + 1);
+            return null;
+        }).when(gameTrickService).afterCardPlayed(game);
+
+        // Slot 3 has not been searched yet, so the run stops there.
+        assertEquals(1, gameService.playAiTurnsAhead(match, game, searched));
+        assertEquals(3, game.getCurrentMatchPlayerSlot());
+        verify(aiPlayingService, never()).selectCardToPlay(any(), any(), any());
+    }
+
+    @Test
+    public void testPlaySingleAiTurn_ismctsWaitsForItsSearch() {
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentPlayOrder(5);
+        game.setCurrentMatchPlayerSlot(2);
+        MatchPlayer ai2 = makeAiMatchPlayer(2, "3C,9D");
+        ai2.setStrategy(Strategy.ISMCTS);
+        ai2.setAiMatchPlayerState(AiMatchPlayerState.THINKING);
+
+        // A move searched for an earlier turn does not count.
+        assertFalse(gameService.playSingleAiTurn(match, game, ai2, new IsmctsService.Move(1L, 4, 2, "3C")));
+        assertEquals(AiMatchPlayerState.THINKING, ai2.getAiMatchPlayerState());
+        verify(gameTrickService, never()).addCardToTrick(any(), any(), any(), any(), any());
+    }
+
     @Test
     public void testPlayCardAsHuman() {
         match.setPhase(MatchPhase.IN_PROGRESS);
@@ -292,6 +413,9 @@ public class GameServiceTest {
         verify(matchPlayerRepository, atLeastOnce()).save(Mockito.any()); // Usually each player is saved
         verify(matchSummaryService).saveGameResultHtml(Mockito.any(), Mockito.any(), Mockito.any());
         verify(matchRepository).save(Mockito.any());
+        for (MatchPlayer mp : match.getMatchPlayers()) {
+            verify(leaderboardService).update(mp.getUser());
+        }
     }
 
     @Test
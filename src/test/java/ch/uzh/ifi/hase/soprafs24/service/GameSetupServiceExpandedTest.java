@@ -40,6 +40,7 @@ class GameSetupServiceExpandedTest {
         gameRepository = mock(GameRepository.class);
 
         gameSetupService = new GameSetupService(
+                new ExternalApiDeckProvider(externalApiClientService),
                 externalApiClientService,
                 gameStatsService,
                 matchPlayerRepository);
@@ -1,5 +1,6 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
 import ch.uzh.ifi.hase.soprafs24.constant.Rank;
@@ -22,17 +23,20 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -55,6 +59,7 @@ public class GameSetupServiceTest {
 
     @InjectMocks
     private GameSetupService gameSetupService = new GameSetupService(
+            new ExternalApiDeckProvider(externalApiClientService),
             externalApiClientService,
             gameStatsService,
             matchPlayerRepository);
@@ -141,7 +146,7 @@ public class GameSetupServiceTest {
         given(externalApiClientService.createNewDeck()).willReturn(Mono.error(apiError));
 
         // Mocking the necessary repository methods
-        given(matchRepository.findMatchByMatchId(Mockito.anyLong())).willReturn(match);
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
         given(gameRepository.findWaitingGameByMatchid(Mockito.anyLong())).willReturn(match.getGames());
 
         // Simulate the fetch and distribute cards method
@@ -155,7 +160,7 @@ public class GameSetupServiceTest {
                 .willReturn(Mono.error(new RuntimeException("Simulated API failure")));
 
         // Mock repository
-        when(matchRepository.findMatchByMatchId(anyLong())).thenReturn(match);
+        when(matchRepository.findWithPlayersByMatchId(anyLong())).thenReturn(match);
         when(gameRepository.findWaitingGameByMatchid(anyLong())).thenReturn(Arrays.asList(game));
 
         // Test asynchronous method with API failure
@@ -166,6 +171,63 @@ public class GameSetupServiceTest {
         assertNotNull(game.getDeckId()); // A fallback deck ID should be set
     }
 
+    @Test
+    public void testFetchDeckAndDistributeCardsAsync_localDeckProvider_dealsRightAway() {
+        GameSetupService localSetupService = new GameSetupService(
+                new LocalDeckProvider(new Random(7)),
+                externalApiClientService,
+                gameStatsService,
+                matchPlayerRepository);
+        for (int i = 0; i < 4; i++) {
+            match.getMatchPlayers().get(i).setMatchPlayerSlot(i + 1);
+        }
+        game.setGameNumber(1);
+
+        when(matchRepository.findWithPlayersByMatchId(anyLong())).thenReturn(match);
+        when(gameRepository.findWaitingGameByMatchid(anyLong())).thenReturn(Arrays.asList(game));
+
+        localSetupService.fetchDeckAndDistributeCardsAsync(matchRepository, gameRepository, 1L);
+
+        assertTrue(game.getDeckId().startsWith(GameConstants.SEED_PREFIX));
+        assertEquals(GamePhase.PASSING, game.getPhase());
+        assertEquals(MatchPhase.IN_PROGRESS, match.getPhase());
+        for (MatchPlayer matchPlayer : match.getMatchPlayers()) {
+            assertEquals(13, matchPlayer.getHand().split(",").length);
+        }
+        verify(externalApiClientService, never()).createNewDeck();
+    }
+
+    @Test
+    void testCreateAndStartGameForMatch_pooledDeck_dealsWithoutWaiting() {
+        PooledDeckProvider pool = new PooledDeckProvider(new LocalDeckProvider(new Random(7)), 2, 0,
+                Schedulers.immediate());
+        pool.refill();
+        GameSetupService pooledSetupService = new GameSetupService(
+                pool,
+                externalApiClientService,
+                gameStatsService,
+                matchPlayerRepository);
+        Match newMatch = new Match();
+        newMatch.setMatchId(2L);
+        newMatch.setPhase(MatchPhase.BEFORE_GAMES);
+        for (int i = 0; i < 4; i++) {
+            MatchPlayer matchPlayer = match.getMatchPlayers().get(i);
+            matchPlayer.setMatchPlayerSlot(i + 1);
+            newMatch.getMatchPlayers().add(matchPlayer);
+        }
+
+        Game newGame = pooledSetupService.createAndStartGameForMatch(newMatch, matchRepository, gameRepository, null);
+
+        assertTrue(newGame.getDeckId().startsWith(GameConstants.SEED_PREFIX));
+        assertEquals(GamePhase.PASSING, newGame.getPhase());
+        assertEquals(MatchPhase.IN_PROGRESS, newMatch.getPhase());
+        for (MatchPlayer matchPlayer : newMatch.getMatchPlayers()) {
+            assertEquals(13, matchPlayer.getHand().split(",").length);
+        }
+        assertEquals(0, pool.getExhaustionCount());
+        verify(gameRepository, never()).findWaitingGameByMatchid(anyLong());
+    }
+
     @Test
     void testDistributeCards() {
         // Create mock Game and Match objects
@@ -225,14 +287,14 @@ public class GameSetupServiceTest {
         drawCardResponse.setCards(cards);
 
         given(externalApiClientService.drawCard(Mockito.anyString(), Mockito.anyInt())).willReturn(Mono.just(drawCardResponse));
-        given(matchRepository.findMatchByMatchId(Mockito.anyLong())).willReturn(match);
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
         given(gameRepository.findWaitingGameByMatchid(Mockito.anyLong())).willReturn(Arrays.asList(game));
         given(matchPlayerRepository.saveAndFlush(Mockito.any())).willReturn(matchPlayer1, matchPlayer2, matchPlayer3, matchPlayer4);
 
         gameSetupService.distributeCards(match, game, matchRepository, gameRepository, null);
 
         verify(externalApiClientService, times(1)).drawCard(Mockito.anyString(), Mockito.anyInt());
-        verify(matchRepository, times(1)).findMatchByMatchId(Mockito.anyLong());
+        verify(matchRepository, times(1)).findWithPlayersByMatchId(Mockito.anyLong());
         verify(gameRepository, times(1)).findWaitingGameByMatchid(Mockito.anyLong());
         verify(matchPlayerRepository, times(8)).saveAndFlush(Mockito.any());
     }
@@ -2,11 +2,11 @@ package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +30,7 @@ public class GameSimulationServiceTest {
     private GameRepository gameRepository;
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private GameCardLedgerRepository gameCardLedgerRepository;
 
     @Mock
     private MatchPlayerRepository matchPlayerRepository;
@@ -114,15 +114,16 @@ public class GameSimulationServiceTest {
         game.setGameNumber(1);
         match.setMatchGoal(60); // Higher goal → force simulation loop
 
-        GameStats stat = new GameStats();
+        GameCardLedger ledger = new GameCardLedger(match, game);
         when(gameRepository.save(any())).thenReturn(game);
-        when(gameStatsRepository.findAllByGame(any())).thenReturn(Collections.singletonList(stat));
+        when(gameCardLedgerRepository.findById(any())).thenReturn(Optional.of(ledger));
 
         gameSimulationService.autoPlayToGameSummary(match, game);
 
         verify(matchPlayerRepository, atLeast(4)).save(any(MatchPlayer.class));
         verify(gameRepository, atLeast(1)).save(any(Game.class));
-        verify(gameStatsRepository).save(any(GameStats.class));
+        verify(gameCardLedgerRepository).delete(ledger);
+        verify(gameCardLedgerRepository).save(any(GameCardLedger.class));
     }
 
     @Test
@@ -132,15 +133,16 @@ public class GameSimulationServiceTest {
         game.setGameNumber(1);
         match.setMatchGoal(100); // Loop should hit game number >= 3
 
-        GameStats stat = new GameStats();
+        GameCardLedger ledger = new GameCardLedger(match, game);
         when(gameRepository.save(any())).thenReturn(game);
-        when(gameStatsRepository.findAllByGame(any())).thenReturn(Collections.singletonList(stat));
+        when(gameCardLedgerRepository.findById(any())).thenReturn(Optional.of(ledger));
 
         gameSimulationService.autoPlayToLastTrickOfMatchThree(match, game);
 
         verify(gameRepository, atLeast(1)).save(any(Game.class));
         verify(matchPlayerRepository, atLeast(4)).save(any(MatchPlayer.class));
-        verify(gameStatsRepository).save(any(GameStats.class));
+        verify(gameCardLedgerRepository).delete(ledger);
+        verify(gameCardLedgerRepository).save(any(GameCardLedger.class));
     }
 
     @Test
@@ -159,7 +161,7 @@ public class GameSimulationServiceTest {
 
         GameSimulationService simService = new GameSimulationService(
                 gameRepository,
-                mock(GameStatsRepository.class),
+                mock(GameCardLedgerRepository.class),
                 matchPlayerRepository);
 
         // Act
@@ -203,16 +205,19 @@ public class GameSimulationServiceTest {
         game.setGameNumber(1);
         Match match = createMockMatchWithPlayers();
 
-        GameStats stat = new GameStats();
-        List<GameStats> statsList = List.of(stat);
+        GameCardLedger ledger = new GameCardLedger(match, game);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("2C"), 1);
 
         when(gameRepository.save(any())).thenReturn(game);
-        when(gameStatsRepository.findAllByGame(any())).thenReturn(statsList);
+        when(gameCardLedgerRepository.findById(any())).thenReturn(Optional.of(ledger));
 
         gameSimulationService.autoPlayToLastTrickOfMatch(match, game);
 
         // Confirm stats are moved to new game
-        verify(gameStatsRepository, atLeastOnce()).save(stat);
+        ArgumentCaptor<GameCardLedger> moved = ArgumentCaptor.forClass(GameCardLedger.class);
+        verify(gameCardLedgerRepository, atLeastOnce()).save(moved.capture());
+        assertNotSame(game, moved.getValue().getGame());
+        assertEquals(1, moved.getValue().getPlayOrder(GameCardLedger.cardIndex("2C")));
 
         // Confirm scores updated
         verify(matchPlayerRepository, atLeast(4)).save(any(MatchPlayer.class));
@@ -246,7 +251,7 @@ public class GameSimulationServiceTest {
         match.setMatchGoal(1000); // High goal to force loop
 
         when(gameRepository.save(any())).thenReturn(game);
-        when(gameStatsRepository.findAllByGame(any())).thenReturn(Collections.emptyList());
+        when(gameCardLedgerRepository.findById(any())).thenReturn(Optional.empty());
 
         gameSimulationService.autoPlayToLastTrickOfMatch(match, game);
 
@@ -1,14 +1,13 @@
-
 package ch.uzh.ifi.hase.soprafs24.service;
 
-import ch.uzh.ifi.hase.soprafs24.constant.Rank;
-import ch.uzh.ifi.hase.soprafs24.constant.Suit;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.util.CardSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -17,61 +16,65 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class GameStatsServiceAdditionalTest {
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private GameCardLedgerRepository gameCardLedgerRepository;
 
     @Mock
     private MatchRepository matchRepository;
 
+    @Mock
+    private CardKnowledgeService cardKnowledgeService;
+
     @InjectMocks
     private GameStatsService gameStatsService;
 
     private Game game;
     private Match match;
+    private GameCardLedger ledger;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
         game = new Game();
+        game.setGameId(7L);
         match = new Match();
         game.setMatch(match);
+        ledger = new GameCardLedger(match, game);
+        when(gameCardLedgerRepository.findById(7L)).thenReturn(Optional.of(ledger));
     }
 
     @Test
     void getPlayedCards_returnsFilteredResults() {
-        List<GameStats> plays = new ArrayList<>();
-        when(gameStatsRepository.findByGameAndPlayOrderGreaterThanOrderByPlayOrderAsc(eq(game), eq(0)))
-                .thenReturn(plays);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("KD"), 2);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("2C"), 1);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("AH"), 3);
 
         List<GameStats> result = gameStatsService.getPlayedCards(game);
-        assertEquals(plays, result);
+
+        assertEquals(List.of("2C", "KD", "AH"),
+                result.stream().map(GameStats::getRankSuit).toList());
+        assertEquals(List.of(1, 2, 3), result.stream().map(GameStats::getPlayOrder).toList());
     }
 
     @Test
     void getGameStatsForMatch_validMatch_returnsStats() {
         when(matchRepository.findMatchByMatchId(1L)).thenReturn(match);
-        List<GameStats> stats = new ArrayList<>();
-        stats.add(new GameStats());
-        when(gameStatsRepository.findByMatch(match)).thenReturn(stats);
+        when(gameCardLedgerRepository.findByMatch(match)).thenReturn(List.of(ledger));
 
         List<GameStats> result = gameStatsService.getGameStatsForMatch(1L);
-        assertEquals(stats, result);
+        assertEquals(GameCardLedger.CARDS, result.size());
     }
 
     @Test
     void getCardsIPassedToPlayer_returnsCorrectCards() {
-        GameStats stat = new GameStats();
-        stat.setPassedBy(1);
-        stat.setPassedTo(2);
-        stat.setCardFromString("QS");
-        stat.setCardHolder(2);
-
-        when(gameStatsRepository.findAllByGame(game)).thenReturn(List.of(stat));
+        int qs = GameCardLedger.cardIndex("QS");
+        ledger.setPassedBy(qs, 1);
+        ledger.setPassedTo(qs, 2);
+        ledger.setCardHolder(qs, 2);
 
         List<String> result = gameStatsService.getCardsIPassedToPlayer(game, 1, 2);
         assertEquals(List.of("QS"), result);
@@ -80,63 +83,74 @@ class GameStatsServiceAdditionalTest {
     @Test
     void recordCardPlay_updatesFieldsCorrectly() {
         // Arrange
-        Match match = new Match();
         match.setMatchId(1L);
 
         MatchPlayer player = new MatchPlayer();
         player.setMatchPlayerSlot(2);
         player.setMatch(match);
 
-        Game game = new Game();
-        game.setMatch(match);
         game.setCurrentPlayOrder(2);
         game.setCurrentTrickNumber(3);
         game.setTrickLeaderMatchPlayerSlot(1);
 
-        GameStats realStats = new GameStats();
-        realStats.setRank(Rank.Q);
-        realStats.setSuit(Suit.S);
-        realStats.setCardHolder(2);
-
-        // Ensure the repository returns the exact instance we're asserting later
-        when(gameStatsRepository.findByGameAndRankSuit(game, "QS")).thenReturn(realStats);
+        int qs = GameCardLedger.cardIndex("QS");
+        ledger.setCardHolder(qs, 2);
 
         // Act
         gameStatsService.recordCardPlay(game, player, "QS");
 
         // Assert
-        assertEquals(2, realStats.getPlayedBy());
-        assertEquals(2, realStats.getPlayOrder());
-        assertEquals(2, realStats.getCardHolder());
-        assertEquals(3, realStats.getTrickNumber());
-        assertEquals(1, realStats.getTrickLeadBySlot());
+        assertEquals(2, ledger.getPlayedBy(qs));
+        assertEquals(2, ledger.getPlayOrder(qs));
+        assertEquals(2, ledger.getCardHolder(qs));
+        assertEquals(3, ledger.getTrickNumber(qs));
+        assertEquals(1, ledger.getTrickLeadBySlot(qs));
+        assertEquals(List.of(2), ledger.toGameStats(qs).getPossibleHolderList());
+
+        // The ledger is managed; nothing is saved card by card.
+        verify(gameCardLedgerRepository, never()).save(any());
+        verify(cardKnowledgeService).recordCardPlay(game, qs, 2);
     }
 
     @Test
-    void updateGameStatsAfterTrickChange_filtersAndSavesCorrectly() {
-        GameStats stat = new GameStats();
-        stat.setSuit(Suit.H);
-        stat.setPlayOrder(0);
-        stat.setPossibleHolders(0b1111);
+    void updateGameStatsFromPlayers_setsCardHolders() {
+        MatchPlayer p1 = new MatchPlayer();
+        p1.setMatchPlayerSlot(1);
+        p1.setHand("2C,QS");
+        MatchPlayer p3 = new MatchPlayer();
+        p3.setMatchPlayerSlot(3);
+        p3.setHand("AH");
+        match.setMatchPlayers(List.of(p1, p3));
+
+        gameStatsService.updateGameStatsFromPlayers(match, game);
+
+        assertEquals(1, ledger.getCardHolder(GameCardLedger.cardIndex("2C")));
+        assertEquals(1, ledger.getCardHolder(GameCardLedger.cardIndex("QS")));
+        assertEquals(3, ledger.getCardHolder(GameCardLedger.cardIndex("AH")));
+        assertEquals(0, ledger.getCardHolder(GameCardLedger.cardIndex("KH")));
+    }
 
-        List<GameStats> stats = List.of(stat);
+    @Test
+    void updateGameStatsAfterTrickChange_filtersAndSavesCorrectly() {
+        int twoH = GameCardLedger.cardIndex("2H");
+        ledger.setPlayOrder(twoH, 5);
+        ledger.setPossibleHolders(twoH, 0b0001);
 
-        when(gameStatsRepository.findAllByGame(game)).thenReturn(stats);
         game.setCurrentMatchPlayerSlot(2);
         game.setCurrentTrick(List.of("2H", "QS"));
 
         gameStatsService.updateGameStatsAfterTrickChange(game);
 
-        verify(gameStatsRepository).saveAll(any());
-        verify(gameStatsRepository).flush();
+        // Slot 2 did not follow Hearts: its bit is cleared on all unplayed Hearts.
+        assertEquals(0b1011, ledger.getPossibleHolders(GameCardLedger.cardIndex("AH")));
+        assertEquals(0b0001, ledger.getPossibleHolders(twoH));
+        assertEquals(0b1111, ledger.getPossibleHolders(GameCardLedger.cardIndex("AS")));
+        verify(gameCardLedgerRepository, never()).saveAll(any());
+        verify(cardKnowledgeService).recordVoidSuit(game, 2, CardSet.HEARTS);
     }
 
     @Test
     void cardCodesInSlotFromSlot_filtersCorrectly() {
-        Game game = new Game();
-        Match match = new Match();
-        game.setMatch(match);
-
         MatchPlayer me = new MatchPlayer();
         me.setMatchPlayerSlot(1);
         me.setHand("2C,3D"); // QS is not in hand
@@ -146,25 +160,21 @@ class GameStatsServiceAdditionalTest {
 
         match.setMatchPlayers(List.of(me, them));
 
-        GameStats card = new GameStats(); // QS
-        card.setRank(Rank.Q);
-        card.setSuit(Suit.S);
-        card.setPlayOrder(0); // hasn't been played
-        card.setPossibleHolders(0b0100); // binary: 4 => only slot 2 is possible
-
-        when(gameStatsRepository.findAllByGame(game)).thenReturn(List.of(card));
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            ledger.setPossibleHolders(card, 0b0001);
+        }
+        ledger.setPossibleHolders(GameCardLedger.cardIndex("QS"), 0b0100); // only "slot 2" is possible
+        ledger.setPossibleHolders(GameCardLedger.cardIndex("2C"), 0b0100); // but it is in my hand
+        ledger.setPossibleHolders(GameCardLedger.cardIndex("KS"), 0b0100);
+        ledger.setPlayOrder(GameCardLedger.cardIndex("KS"), 1); // and it has been played
 
         List<String> result = gameStatsService.cardCodesInSlotFromSlot(game, 2, 1);
 
-        assertTrue(result.contains("QS"), "QS should be returned as a possible card");
+        assertEquals(List.of("QS"), result, "QS should be the only possible card");
     }
 
     @Test
     void cardCodesInSlotFromSlotGivenLeadingSuit_filtersWithSuitRule() {
-        Game game = new Game();
-        Match match = new Match();
-        game.setMatch(match);
-
         MatchPlayer me = new MatchPlayer();
         me.setMatchPlayerSlot(1);
         me.setHand("2C,3D");
@@ -174,23 +184,10 @@ class GameStatsServiceAdditionalTest {
 
         match.setMatchPlayers(List.of(me, them));
 
-        GameStats spadeCard = new GameStats(); // Valid card
-        spadeCard.setRank(Rank.J);
-        spadeCard.setSuit(Suit.S);
-        spadeCard.setPlayOrder(0);
-        spadeCard.setPossibleHolders(0b1111);
-
-        GameStats heartCard = new GameStats(); // Invalid due to suit rule
-        heartCard.setRank(Rank.Q);
-        heartCard.setSuit(Suit.H);
-        heartCard.setPlayOrder(0);
-        heartCard.setPossibleHolders(0b1111);
-
-        when(gameStatsRepository.findAllByGame(game)).thenReturn(List.of(spadeCard, heartCard));
-
         List<String> result = gameStatsService.cardCodesInSlotFromSlotGivenLeadingSuit(game, 2, 1, "S");
         assertTrue(result.contains("JS"));
         assertFalse(result.contains("QH"));
+        assertTrue(result.stream().allMatch(cardCode -> cardCode.endsWith("S")));
     }
 
 }
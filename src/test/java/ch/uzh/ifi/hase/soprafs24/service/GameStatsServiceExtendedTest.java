@@ -1,16 +1,18 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,67 +20,75 @@ import static org.mockito.Mockito.*;
 class GameStatsServiceExtendedTest {
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private GameCardLedgerRepository gameCardLedgerRepository;
 
     @Mock
     private MatchRepository matchRepository;
 
+    @Mock
+    private CardKnowledgeService cardKnowledgeService;
+
     @InjectMocks
     private GameStatsService gameStatsService;
 
     private Match match;
     private Game game;
+    private GameCardLedger ledger;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
         match = new Match();
         game = new Game();
+        game.setGameId(3L);
         game.setMatch(match);
+        ledger = new GameCardLedger(match, game);
+        when(gameCardLedgerRepository.findById(3L)).thenReturn(Optional.of(ledger));
     }
 
     @Test
     void deleteGameStatsForMatch_executes() {
         match.setMatchId(42L);
         gameStatsService.deleteGameStatsForMatch(match);
-        verify(gameStatsRepository).deleteByMatch(match);
+        verify(gameCardLedgerRepository).deleteByMatch(match);
+        verify(cardKnowledgeService).evictMatch(match);
     }
 
     @Test
     void getPlayerScoreInGame_returnsCorrectScore() {
-        List<GameStats> stats = new ArrayList<>();
-        GameStats stat1 = new GameStats();
-        stat1.setPointsWorth(1);
-        GameStats stat2 = new GameStats();
-        stat2.setPointsWorth(2);
-        stats.add(stat1);
-        stats.add(stat2);
-        when(gameStatsRepository.findByGameAndPointsBilledTo(game, 1)).thenReturn(stats);
+        ledger.setPointsBilledTo(GameCardLedger.cardIndex("QS"), 1);
+        ledger.setPointsBilledTo(GameCardLedger.cardIndex("2H"), 1);
+        ledger.setPointsBilledTo(GameCardLedger.cardIndex("2C"), 1);
+        ledger.setPointsBilledTo(GameCardLedger.cardIndex("3H"), 2);
         int score = gameStatsService.getPlayerScoreInGame(1, game);
-        assertEquals(3, score);
+        assertEquals(14, score);
     }
 
     @Test
     void getTrickByIndex_returnsCorrectSubset() {
-        List<GameStats> plays = new ArrayList<>();
+        List<String> deck = CardUtils.getFullDeckList();
         for (int i = 0; i < 12; i++) {
-            GameStats stat = new GameStats();
-            stat.setPlayOrder(i + 1);
-            plays.add(stat);
+            ledger.setPlayOrder(GameCardLedger.cardIndex(deck.get(i)), i + 1);
         }
-        when(gameStatsRepository.findByGameAndPlayOrderGreaterThanOrderByPlayOrderAsc(game, 0)).thenReturn(plays);
         List<GameStats> trick = gameStatsService.getTrickByIndex(game, 2);
         assertEquals(4, trick.size());
         assertEquals(9, trick.get(0).getPlayOrder());
+        assertTrue(gameStatsService.getTrickByIndex(game, 3).isEmpty());
     }
 
     @Test
     void updateGameStatsPointsBilledTo_setsField() {
-        GameStats stat = new GameStats();
-        when(gameStatsRepository.findByRankSuitAndGame("QS", game)).thenReturn(stat);
         gameStatsService.updateGameStatsPointsBilledTo(game, "QS", 2);
-        verify(gameStatsRepository).save(stat);
-        assertEquals(2, stat.getPointsBilledTo());
+        verify(gameCardLedgerRepository, never()).save(any());
+        assertEquals(2, ledger.getPointsBilledTo(GameCardLedger.cardIndex("QS")));
+        assertEquals(2, ledger.toGameStats(GameCardLedger.cardIndex("QS")).getPointsBilledTo());
+    }
+
+    @Test
+    void getCardLedger_missingLedger_throws() {
+        Game otherGame = new Game();
+        otherGame.setGameId(4L);
+        assertThrows(IllegalStateException.class, () -> gameStatsService.getCardLedger(otherGame));
     }
 
     @Test
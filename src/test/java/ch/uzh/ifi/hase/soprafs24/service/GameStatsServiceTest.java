@@ -3,9 +3,10 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.constant.Rank;
 import ch.uzh.ifi.hase.soprafs24.constant.Suit;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
 import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCardLedgerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,18 +21,21 @@ import static org.mockito.Mockito.*;
 class GameStatsServiceTest {
 
     @Mock
-    private GameStatsRepository gameStatsRepository;
+    private GameCardLedgerRepository gameCardLedgerRepository;
 
     @Mock
     private MatchRepository matchRepository;
 
+    @Mock
+    private CardKnowledgeService cardKnowledgeService;
+
     @InjectMocks
     private GameStatsService gameStatsService;
 
     private Match match;
     private Game game;
 
-    private List<GameStats> capturedStats;
+    private List<GameCardLedger> capturedLedgers;
 
     @BeforeEach
     void setup() {
@@ -39,21 +43,32 @@ class GameStatsServiceTest {
         match = new Match();
         game = new Game();
 
-        capturedStats = new ArrayList<>();
+        capturedLedgers = new ArrayList<>();
 
-        // Capture saved GameStats
+        // Capture saved ledgers
         doAnswer(invocation -> {
-            GameStats stat = invocation.getArgument(0);
-            capturedStats.add(stat);
-            return stat;
-        }).when(gameStatsRepository).save(any(GameStats.class));
+            GameCardLedger ledger = invocation.getArgument(0);
+            capturedLedgers.add(ledger);
+            return ledger;
+        }).when(gameCardLedgerRepository).save(any(GameCardLedger.class));
     }
 
     @Test
     void initializeGameStats_createsAllGameStats_correctly() {
         gameStatsService.initializeGameStats(match, game);
 
-        // Check the total number of GameStats created
+        // One row for the whole game
+        assertEquals(1, capturedLedgers.size());
+        GameCardLedger ledger = capturedLedgers.get(0);
+        assertSame(game, ledger.getGame());
+        assertSame(match, ledger.getMatch());
+
+        List<GameStats> capturedStats = new ArrayList<>();
+        for (int card = 0; card < GameCardLedger.CARDS; card++) {
+            capturedStats.add(ledger.toGameStats(card));
+        }
+
+        // Check the total number of cards tracked
         assertEquals(Rank.values().length * Suit.values().length, capturedStats.size());
 
         // Verify some expected values
@@ -62,6 +77,7 @@ class GameStatsServiceTest {
                 .findFirst()
                 .orElse(null);
         assertNotNull(qs);
+        assertEquals("QS", qs.getRankSuit());
         assertEquals(13, qs.getPointsWorth(), "Queen of Spades should be worth 13");
 
         long heartCount = capturedStats.stream().filter(gs -> gs.getSuit() == Suit.H).count();
@@ -71,7 +87,36 @@ class GameStatsServiceTest {
         assertEquals(Rank.values().length, heartCount);
         assertEquals(heartCount, heartPoints, "Each heart should be worth 1 point");
 
-        verify(gameStatsRepository, times(capturedStats.size())).save(any(GameStats.class));
-        verify(gameStatsRepository).flush();
+        assertTrue(capturedStats.stream().allMatch(gs -> gs.getPossibleHolders() == 0b1111));
+        assertTrue(capturedStats.stream().noneMatch(GameStats::isPlayed));
+
+        verify(gameCardLedgerRepository, times(1)).save(any(GameCardLedger.class));
+        verify(gameCardLedgerRepository, never()).flush();
+    }
+
+    @Test
+    void ledgerViews_followCardOrder() {
+        GameCardLedger ledger = new GameCardLedger(match, game);
+
+        for (int card = 1; card < GameCardLedger.CARDS; card++) {
+            assertTrue(ledger.toGameStats(card - 1).getCardOrder() < ledger.toGameStats(card).getCardOrder());
+        }
+        assertEquals("2C", ledger.toGameStats(GameCardLedger.cardIndex("2C")).getRankSuit());
+        assertEquals("0H", ledger.toGameStats(GameCardLedger.cardIndex("0H")).getRankSuit());
+        assertThrows(IllegalArgumentException.class, () -> GameCardLedger.cardIndex("1X"));
+    }
+
+    @Test
+    void ledgerCopy_isIndependentOfSource() {
+        GameCardLedger source = new GameCardLedger(match, game);
+        source.setPlayOrder(GameCardLedger.cardIndex("2C"), 1);
+        Game nextGame = new Game();
+
+        GameCardLedger copy = new GameCardLedger(source, nextGame);
+        source.setPlayOrder(GameCardLedger.cardIndex("3C"), 2);
+
+        assertSame(nextGame, copy.getGame());
+        assertEquals(1, copy.getPlayOrder(GameCardLedger.cardIndex("2C")));
+        assertEquals(0, copy.getPlayOrder(GameCardLedger.cardIndex("3C")));
     }
 }
@@ -3,16 +3,15 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.constant.TrickPhase;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
-import ch.uzh.ifi.hase.soprafs24.entity.GameStats;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
-import ch.uzh.ifi.hase.soprafs24.repository.GameStatsRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.TrickDTO;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,7 +23,6 @@ class GameTrickServiceTest {
 
     private MatchPlayerRepository matchPlayerRepository;
     private CardRulesService cardRulesService;
-    private GameStatsRepository gameStatsRepository;
     private GameTrickService gameTrickService;
 
     private Game game;
@@ -35,7 +33,6 @@ class GameTrickServiceTest {
     void setup() {
         matchPlayerRepository = mock(MatchPlayerRepository.class);
         cardRulesService = mock(CardRulesService.class);
-        gameStatsRepository = mock(GameStatsRepository.class);
 
         gameTrickService = new GameTrickService(matchPlayerRepository, cardRulesService);
 
@@ -57,6 +54,18 @@ class GameTrickServiceTest {
         assertEquals("QS", game.getCurrentTrick().get(0));
     }
 
+    @Test
+    void addCardToTrick_recordsPlayedAt() {
+        Instant first = Instant.ofEpochMilli(1_700_000_000_000L);
+        gameTrickService.addCardToTrick(match, game, player, "QS", first);
+        gameTrickService.addCardToTrick(match, game, player, "KS", first.plusMillis(800));
+
+        TrickDTO dto = gameTrickService.prepareTrickDTO(match, game, player);
+
+        assertEquals(1_700_000_000_000L, dto.getCards().get(0).getPlayedAt());
+        assertEquals(1_700_000_000_800L, dto.getCards().get(1).getPlayedAt());
+    }
+
     @Test
     void updateGamePhaseBasedOnPlayOrder_setsCorrectPhase_firstTrick() {
         game.setCurrentPlayOrder(1);
@@ -145,7 +154,6 @@ class GameTrickServiceTest {
         when(cardRulesService.determineTrickWinner(game)).thenReturn(2);
         when(cardRulesService.calculateTrickPoints(game, 2)).thenReturn(5);
         when(matchPlayerRepository.findByMatchAndMatchPlayerSlot(match, 2)).thenReturn(player);
-        when(gameStatsRepository.findByGameAndTrickNumber(game, 1)).thenReturn(List.of());
 
         gameTrickService.afterCardPlayed(game); // indirectly calls handlePotentialTrickCompletion
 
@@ -221,10 +229,6 @@ class GameTrickServiceTest {
         winner.setTakenCards("");
         when(matchPlayerRepository.findByMatchAndMatchPlayerSlot(match, 2)).thenReturn(winner);
 
-        GameStats stat1 = new GameStats();
-        stat1.setCardFromString("QS");
-        when(gameStatsRepository.findByGameAndTrickNumber(game, 1)).thenReturn(List.of(stat1));
-
         gameTrickService.handlePotentialTrickCompletion(match, game);
 
         assertEquals(13, winner.getGameScore());
@@ -233,6 +237,27 @@ class GameTrickServiceTest {
         assertEquals(2, game.getPreviousTrickWinnerMatchPlayerSlot());
     }
 
+    @Test
+    void handlePotentialTrickCompletion_cardsPlayedAhead_startsTrickDelayAtLastCard() {
+        Instant now = Instant.now();
+        Instant lastPlayedAt = now.plusMillis(1600);
+        game.addCardCodeToCurrentTrick("QS", now.minusMillis(1000));
+        game.addCardCodeToCurrentTrick("KH", now);
+        game.addCardCodeToCurrentTrick("2D", now.plusMillis(800));
+        game.addCardCodeToCurrentTrick("AC", lastPlayedAt);
+        game.setMatch(match);
+        match.setFastForwardMode(false);
+
+        when(cardRulesService.determineTrickWinner(game)).thenReturn(2);
+        when(matchPlayerRepository.findByMatchAndMatchPlayerSlot(match, 2)).thenReturn(player);
+
+        gameTrickService.handlePotentialTrickCompletion(match, game);
+
+        assertEquals(TrickPhase.TRICKJUSTCOMPLETED, game.getTrickPhase());
+        assertEquals(lastPlayedAt, game.getTrickJustCompletedTime());
+        assertEquals(lastPlayedAt, game.getPreviousTrickPlayedAt().get(3));
+    }
+
     @Test
     void testHarmonizeHands_removesCardsStillInHandThatWerePlayedInTrick() {
         // Arrange
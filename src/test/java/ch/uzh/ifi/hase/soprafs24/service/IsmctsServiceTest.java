@@ -0,0 +1,124 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCardLedger;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.logic.CardKnowledge;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsmctsServiceTest {
+
+    private IsmctsService ismctsService;
+    private Game game;
+    private GameCardLedger ledger;
+    private List<MatchPlayer> players;
+
+    @BeforeEach
+    public void setup() {
+        ismctsService = new IsmctsService(2, 5000, 2000, List.of(9L));
+
+        Match match = new Match();
+        game = new Game();
+        game.setGameId(1L);
+        game.setMatch(match);
+        ledger = new GameCardLedger(match, game);
+
+        players = new ArrayList<>();
+        for (int slot = 1; slot <= 4; slot++) {
+            MatchPlayer player = new MatchPlayer();
+            player.setMatchPlayerSlot(slot);
+            player.setMatch(match);
+            players.add(player);
+        }
+        match.setMatchPlayers(players);
+
+        // Twelve tricks are over, all of them within one suit each; slot 1 leads
+        // QS into the last trick, slot 4 holds AS and 2S.
+        List<String> lastCards = List.of("QS", "3S", "4S", "AS", "2S", "5D", "6D", "7D");
+        int playOrder = 0;
+        for (String cardCode : CardUtils.getFullDeckList()) {
+            if (!lastCards.contains(cardCode) && !cardCode.endsWith("D")) {
+                record(cardCode, playOrder % 4 + 1, ++playOrder);
+            }
+        }
+        for (String cardCode : CardUtils.getFullDeckList()) {
+            if (!lastCards.contains(cardCode) && cardCode.endsWith("D")) {
+                record(cardCode, playOrder % 4 + 1, ++playOrder);
+            }
+        }
+        record("QS", 1, ++playOrder);
+        record("3S", 2, ++playOrder);
+        record("4S", 3, ++playOrder);
+
+        game.setCurrentPlayOrder(playOrder);
+        game.setCurrentTrickNumber(12);
+        game.setTrickLeaderMatchPlayerSlot(1);
+        game.setCurrentMatchPlayerSlot(4);
+        game.setCurrentTrick(List.of("QS", "3S", "4S"));
+        game.setHeartsBroken(true);
+        players.get(0).setGameScore(6);
+        players.get(1).setGameScore(7);
+        players.get(3).setHand("AS,2S");
+    }
+
+    @AfterEach
+    public void teardown() {
+        ismctsService.stop();
+    }
+
+    private void record(String cardCode, int slot, int playOrder) {
+        int card = GameCardLedger.cardIndex(cardCode);
+        ledger.setPlayOrder(card, playOrder);
+        ledger.setPlayedBy(card, slot);
+    }
+
+    @Test
+    public void selectCard_ducksQueenOfSpades() {
+        String cardCode = ismctsService.selectCard(game, players.get(3), CardKnowledge.fromLedger(ledger));
+
+        assertEquals("2S", cardCode);
+    }
+
+    @Test
+    public void strategyForAiUserId_ismctsOnlyForListedAiUsers() {
+        assertTrue(ismctsService.isEnabled());
+        assertEquals(Strategy.ISMCTS, ismctsService.strategyForAiUserId(9L));
+        assertEquals(Strategy.HYPATIA, ismctsService.strategyForAiUserId(7L));
+        assertEquals(Strategy.LEFTMOST, ismctsService.strategyForAiUserId(null));
+
+        IsmctsService disabled = new IsmctsService(1, 1, 1, List.of());
+        assertFalse(disabled.isEnabled());
+        assertEquals(Strategy.ADA, disabled.strategyForAiUserId(9L));
+        disabled.stop();
+    }
+
+    @Test
+    public void search_movesForThePreparedTurnOnly() {
+        IsmctsService.Move move = ismctsService.search(
+                ismctsService.prepare(game, players.get(3), CardKnowledge.fromLedger(ledger)));
+
+        assertEquals("2S", move.getCardCode());
+        assertTrue(move.isFor(game, players.get(3)));
+        game.setCurrentPlayOrder(game.getCurrentPlayOrder() + 1);
+        assertFalse(move.isFor(game, players.get(3)));
+    }
+
+    @Test
+    public void selectCard_handNotMatchingGame_throws() {
+        players.get(3).setHand("AS,2S,5D");
+        CardKnowledge knowledge = CardKnowledge.fromLedger(ledger);
+
+        assertThrows(IllegalStateException.class,
+                () -> ismctsService.selectCard(game, players.get(3), knowledge));
+    }
+}
@@ -0,0 +1,196 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderboardRankDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardServiceTest {
+
+    private UserRepository userRepository;
+    private LeaderboardService leaderboardService;
+    private List<User> users;
+
+    private static User user(long id, String username, int scoreTotal) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setScoreTotal(scoreTotal);
+        user.setIsAiPlayer(false);
+        user.setIsGuest(false);
+        return user;
+    }
+
+    private static List<String> usernames(Page<LeaderboardDTO> page) {
+        return page.getContent().stream().map(LeaderboardDTO::getUsername).collect(Collectors.toList());
+    }
+
+    private static PageRequest byScore(int page, int pageSize) {
+        return PageRequest.of(page, pageSize, Sort.by(Sort.Direction.DESC, "scoreTotal"));
+    }
+
+    @BeforeEach
+    void setup() {
+        users = new ArrayList<>(List.of(
+                user(1L, "alice", 30),
+                user(2L, "bob", 50),
+                user(3L, "Malice", 10),
+                user(4L, "carol", 40)));
+        User ai = user(5L, "ai", 100);
+        ai.setIsAiPlayer(true);
+        User guest = user(6L, "guest", 90);
+        guest.setIsGuest(true);
+        users.add(ai);
+        users.add(guest);
+
+        userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findAll()).thenReturn(users);
+        leaderboardService = new LeaderboardService(userRepository);
+    }
+
+    @Test
+    void getLeaderboard_pagesThroughIndexWithoutAiAndGuests() {
+        Page<LeaderboardDTO> first = leaderboardService.getLeaderboard("", byScore(0, 3));
+        Page<LeaderboardDTO> second = leaderboardService.getLeaderboard("", byScore(1, 3));
+
+        assertEquals(List.of("bob", "carol", "alice"), usernames(first));
+        assertEquals(List.of("Malice"), usernames(second));
+        assertEquals(4, first.getTotalElements());
+        Mockito.verify(userRepository, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void getLeaderboard_ascendingByUsername() {
+        Page<LeaderboardDTO> page = leaderboardService.getLeaderboard("",
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "username")));
+
+        assertEquals(List.of("Malice", "alice", "bob", "carol"), usernames(page));
+    }
+
+    @Test
+    void getLeaderboard_filterMatchesSubstringIgnoringCase() {
+        assertEquals(List.of("alice", "Malice"), usernames(leaderboardService.getLeaderboard("ALI", byScore(0, 10))));
+        assertEquals(List.of("alice", "Malice"), usernames(leaderboardService.getLeaderboard("lice", byScore(0, 10))));
+        assertEquals(List.of("carol", "alice", "Malice"),
+                usernames(leaderboardService.getLeaderboard("l", byScore(0, 10))));
+        assertEquals(0, leaderboardService.getLeaderboard("alicex", byScore(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void getLeaderboard_changingAnEntryLeavesTheLeaderboardAlone() {
+        LeaderboardDTO bob = leaderboardService.getLeaderboard("", byScore(0, 1)).getContent().get(0);
+        bob.setScoreTotal(0);
+        bob.setUsername("mallory");
+        leaderboardService.getLeaderboard("bob", byScore(0, 1)).getContent().get(0).setScoreTotal(0);
+
+        assertEquals(List.of("bob", "carol", "alice", "Malice"),
+                usernames(leaderboardService.getLeaderboard("", byScore(0, 10))));
+        assertEquals(50, leaderboardService.getRank(2L, "scoreTotal", false, 0).orElseThrow()
+                .getNeighbors().get(0).getScoreTotal());
+    }
+
+    @Test
+    void update_movesUserWithoutReloading() {
+        leaderboardService.getLeaderboard("", byScore(0, 10));
+
+        User malice = users.get(2);
+        malice.setScoreTotal(60);
+        malice.setUsername("zed");
+        leaderboardService.update(malice);
+
+        assertEquals(List.of("zed", "bob", "carol", "alice"),
+                usernames(leaderboardService.getLeaderboard("", byScore(0, 10))));
+        assertEquals(0, leaderboardService.getLeaderboard("malice", byScore(0, 10)).getTotalElements());
+        Mockito.verify(userRepository, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void update_userBecomingGuest_isRemoved() {
+        leaderboardService.getLeaderboard("", byScore(0, 10));
+
+        User bob = users.get(1);
+        bob.setIsGuest(true);
+        leaderboardService.update(bob);
+
+        assertEquals(List.of("carol", "alice", "Malice"),
+                usernames(leaderboardService.getLeaderboard("", byScore(0, 10))));
+    }
+
+    @Test
+    void invalidate_reloadsOnNextRead() {
+        leaderboardService.getLeaderboard("", byScore(0, 10));
+        users.add(user(7L, "dave", 70));
+
+        leaderboardService.invalidate();
+
+        assertEquals("dave", leaderboardService.getLeaderboard("", byScore(0, 1)).getContent().get(0).getUsername());
+        Mockito.verify(userRepository, Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void getLeaderboard_sortKeyWithoutIndex_throws() {
+        assertFalse(LeaderboardService.isIndexedSortKey("birthday"));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getLeaderboard("",
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "birthday"))));
+    }
+    @Test
+    void getRank_returnsPositionAndNeighbors() {
+        // By score: bob 50, carol 40, alice 30, Malice 10
+        LeaderboardRankDTO rank = leaderboardService.getRank(4L, "scoreTotal", false, 1).orElseThrow();
+
+        assertEquals(2, rank.getRank());
+        assertEquals(4, rank.getTotal());
+        assertEquals(1, rank.getFirstRank());
+        assertEquals(List.of("bob", "carol", "alice"),
+                rank.getNeighbors().stream().map(LeaderboardDTO::getUsername).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getRank_ascendingAtEdge_clipsNeighbors() {
+        LeaderboardRankDTO rank = leaderboardService.getRank(3L, "scoreTotal", true, 2).orElseThrow();
+
+        assertEquals(1, rank.getRank());
+        assertEquals(1, rank.getFirstRank());
+        assertEquals(List.of("Malice", "alice", "carol"),
+                rank.getNeighbors().stream().map(LeaderboardDTO::getUsername).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getRank_followsUpdates() {
+        User alice = users.get(0);
+        assertEquals(3, leaderboardService.getRank(1L, "scoreTotal", false, 0).orElseThrow().getRank());
+
+        alice.setScoreTotal(99);
+        leaderboardService.update(alice);
+
+        LeaderboardRankDTO rank = leaderboardService.getRank(1L, "scoreTotal", false, 0).orElseThrow();
+        assertEquals(1, rank.getRank());
+        assertEquals(List.of("alice"),
+                rank.getNeighbors().stream().map(LeaderboardDTO::getUsername).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getRank_userNotListed_isEmpty() {
+        assertTrue(leaderboardService.getRank(5L, "scoreTotal", false, 1).isEmpty());
+        assertTrue(leaderboardService.getRank(6L, "scoreTotal", false, 1).isEmpty());
+        assertTrue(leaderboardService.getRank(42L, "scoreTotal", false, 1).isEmpty());
+    }
+
+    @Test
+    void getRank_sortKeyWithoutIndex_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> leaderboardService.getRank(1L, "birthday", false, 1));
+    }
+}
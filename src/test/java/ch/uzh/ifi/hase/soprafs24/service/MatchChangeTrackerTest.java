@@ -0,0 +1,36 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.entity.PassedCard;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchChangeTrackerTest {
+
+    @Test
+    void matchIdOf_followsTheEntityToItsMatch() {
+        Match match = new Match();
+        match.setMatchId(7L);
+        MatchPlayer matchPlayer = new MatchPlayer();
+        matchPlayer.setMatch(match);
+        Game game = new Game();
+        game.setMatch(match);
+
+        assertEquals(7L, MatchChangeTracker.matchIdOf(match));
+        assertEquals(7L, MatchChangeTracker.matchIdOf(matchPlayer));
+        assertEquals(7L, MatchChangeTracker.matchIdOf(game));
+        assertEquals(7L, MatchChangeTracker.matchIdOf(new PassedCard(game, "2C", 1, 1)));
+    }
+
+    @Test
+    void matchIdOf_ignoresWhatIsNotPartOfAMatch() {
+        assertNull(MatchChangeTracker.matchIdOf(new User()));
+        assertNull(MatchChangeTracker.matchIdOf(new MatchPlayer()));
+        assertNull(MatchChangeTracker.matchIdOf(null));
+    }
+}
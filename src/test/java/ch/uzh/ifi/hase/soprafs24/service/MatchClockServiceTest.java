@@ -0,0 +1,95 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import ch.uzh.ifi.hase.soprafs24.entity.Game;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+
+public class MatchClockServiceTest {
+
+    private IsmctsService ismctsService = Mockito.mock(IsmctsService.class);
+
+    private MatchService matchService = Mockito.mock(MatchService.class);
+
+    private MatchRepository matchRepository = Mockito.mock(MatchRepository.class);
+
+    private MatchClockService matchClockService;
+
+    @BeforeEach
+    public void setup() {
+        matchClockService = new MatchClockService(ismctsService, matchService, matchRepository, false, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        matchClockService.stop();
+    }
+
+    @Test
+    public void testTick_matchKeepsRunning_isRescheduled() {
+        given(matchService.advanceMatchClock(1L, null)).willReturn(60_000L);
+
+        matchClockService.tick(1L);
+
+        verify(matchService).advanceMatchClock(1L, null);
+        assertTrue(matchClockService.isTracking(1L));
+    }
+
+    @Test
+    public void testTick_ismctsTurn_searchedBeforeTheStep() {
+        IsmctsService.Turn turn = IsmctsService.Turn.unsearchable(new Game(), new MatchPlayer());
+        IsmctsService.Move searched = new IsmctsService.Move(null, 0, 0, "2C");
+        given(matchService.prepareAiSearch(1L)).willReturn(turn);
+        given(ismctsService.search(turn)).willReturn(searched);
+        given(matchService.advanceMatchClock(1L, searched)).willReturn(60_000L);
+
+        matchClockService.tick(1L);
+
+        InOrder inOrder = Mockito.inOrder(matchService, ismctsService);
+        inOrder.verify(matchService).prepareAiSearch(1L);
+        inOrder.verify(ismctsService).search(turn);
+        inOrder.verify(matchService).advanceMatchClock(1L, searched);
+    }
+
+    @Test
+    public void testTick_matchOver_dropsOut() {
+        given(matchService.advanceMatchClock(1L, null)).willReturn(60_000L).willReturn(-1L);
+
+        matchClockService.tick(1L);
+        matchClockService.tick(1L);
+
+        assertFalse(matchClockService.isTracking(1L));
+    }
+
+    @Test
+    public void testTick_failingStep_isRetried() {
+        given(matchService.advanceMatchClock(1L, null)).willThrow(new IllegalStateException("boom"));
+
+        matchClockService.tick(1L);
+
+        assertTrue(matchClockService.isTracking(1L));
+    }
+
+    @Test
+    public void testDiscoverRunningMatches_tracksEveryMatchInGame() {
+        given(matchRepository.findMatchIdsInGame()).willReturn(List.of(1L, 2L));
+        given(matchService.advanceMatchClock(Mockito.anyLong(), Mockito.isNull())).willReturn(60_000L);
+
+        matchClockService.discoverRunningMatches();
+
+        assertTrue(matchClockService.isTracking(1L));
+        assertTrue(matchClockService.isTracking(2L));
+    }
+}
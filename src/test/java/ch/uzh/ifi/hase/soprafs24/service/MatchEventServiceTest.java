@@ -0,0 +1,134 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.MatchMessage;
+import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.MatchMessageDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import reactor.core.Disposable;
+
+public class MatchEventServiceTest {
+
+    private final MatchRepository matchRepository = Mockito.mock(MatchRepository.class);
+
+    private final MatchEventService matchEventService = new MatchEventService(matchRepository);
+
+    private PollingDTO pollingDTO(MatchPhase phase) {
+        PollingDTO dto = new PollingDTO();
+        dto.setMatchPhase(phase);
+        return dto;
+    }
+
+    private MatchMessageDTO message(Long id) {
+        MatchMessage message = new MatchMessage();
+        message.setId(id);
+        message.setContent("message " + id);
+        return new MatchMessageDTO(message);
+    }
+
+    private void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 100 && list.size() < size; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testStream_startsWithInitialState() {
+        PollingDTO initial = pollingDTO(MatchPhase.IN_PROGRESS);
+
+        PollingDTO first = matchEventService
+                .stream(1L, initial, lastSentMessageId -> pollingDTO(MatchPhase.IN_PROGRESS), () -> {
+                })
+                .blockFirst(Duration.ofSeconds(1));
+
+        assertSame(initial, first);
+    }
+
+    @Test
+    public void testStream_pushesSnapshotOnlyWhenPublished() throws InterruptedException {
+        AtomicInteger snapshots = new AtomicInteger();
+        List<PollingDTO> received = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = matchEventService
+                .stream(1L, pollingDTO(MatchPhase.IN_PROGRESS), lastSentMessageId -> {
+                    snapshots.incrementAndGet();
+                    return pollingDTO(MatchPhase.IN_PROGRESS);
+                }, () -> {
+                })
+                .subscribe(received::add);
+
+        awaitSize(received, 1);
+        assertEquals(1, received.size());
+        assertEquals(0, snapshots.get());
+        assertEquals(1, matchEventService.subscriberCount(1L));
+
+        // Changes of other matches are not our business.
+        matchEventService.publish(2L);
+        matchEventService.publish(1L);
+        awaitSize(received, 2);
+
+        assertEquals(2, received.size());
+        assertEquals(1, snapshots.get());
+        Mockito.verify(matchRepository).bumpStateVersion(1L);
+
+        subscription.dispose();
+        assertEquals(0, matchEventService.subscriberCount(1L));
+    }
+
+    @Test
+    public void testStream_endsWhenMatchIsOver() throws InterruptedException {
+        List<PollingDTO> received = new CopyOnWriteArrayList<>();
+
+        matchEventService
+                .stream(1L, pollingDTO(MatchPhase.IN_PROGRESS), lastSentMessageId -> pollingDTO(MatchPhase.FINISHED),
+                        () -> {
+                        })
+                .subscribe(received::add);
+
+        awaitSize(received, 1);
+        matchEventService.publish(1L);
+        awaitSize(received, 2);
+        matchEventService.publish(1L);
+        Thread.sleep(100);
+
+        assertEquals(2, received.size());
+        assertEquals(MatchPhase.FINISHED, received.get(1).getMatchPhase());
+        assertEquals(0, matchEventService.subscriberCount(1L));
+    }
+
+    @Test
+    public void testStream_snapshotsContinueAfterTheLastMessageSent() throws InterruptedException {
+        PollingDTO initial = pollingDTO(MatchPhase.IN_PROGRESS);
+        initial.setMatchMessages(List.of(message(4L), message(7L)));
+        List<Long> requested = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = matchEventService
+                .stream(1L, initial, lastSentMessageId -> {
+                    requested.add(lastSentMessageId);
+                    PollingDTO dto = pollingDTO(MatchPhase.IN_PROGRESS);
+                    dto.setMatchMessages(requested.size() == 1 ? List.of(message(9L)) : List.of());
+                    return dto;
+                }, () -> {
+                })
+                .subscribe();
+
+        matchEventService.publish(1L);
+        awaitSize(requested, 1);
+        matchEventService.publish(1L);
+        awaitSize(requested, 2);
+        subscription.dispose();
+
+        assertEquals(List.of(7L, 9L), requested);
+    }
+}
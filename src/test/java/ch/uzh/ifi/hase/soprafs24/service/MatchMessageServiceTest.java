@@ -32,31 +32,33 @@ public class MatchMessageServiceTest {
     }
 
     @Test
-    public void testMessages_returnsUnseenAndMarksSeen() {
+    public void testMessages_returnsNewMessagesAndAdvancesCursor() {
         Match match = new Match();
         MatchPlayer player = new MatchPlayer();
         player.setMatchPlayerSlot(2);
+        player.setLastDeliveredMessageId(4L);
 
         MatchMessage msg1 = new MatchMessage();
+        msg1.setId(5L);
         msg1.setContent("Message 1");
         msg1.setMatch(match);
         msg1.setType(MatchMessageType.GAME_STARTED); // ensure not null
 
         MatchMessage msg2 = new MatchMessage();
+        msg2.setId(7L);
         msg2.setContent("Message 2");
         msg2.setMatch(match);
         msg2.setType(MatchMessageType.HEARTS_BROKEN); // also not null
 
-        // Not yet seen by slot 2
-        when(matchMessageRepository.findByMatch(match)).thenReturn(List.of(msg1, msg2));
+        when(matchMessageRepository.findByMatchAndIdGreaterThanOrderByIdAsc(match, 4L))
+                .thenReturn(List.of(msg1, msg2));
 
         List<MatchMessageDTO> result = matchMessageService.messages(match, null, player);
 
         assertEquals(2, result.size());
-        verify(matchMessageRepository).saveAll(anyList());
-
-        assertTrue(msg1.hasSeen(2));
-        assertTrue(msg2.hasSeen(2));
+        assertEquals(7L, player.getLastDeliveredMessageId());
+        verify(matchMessageRepository, never()).saveAll(anyList());
+        verify(matchMessageRepository, never()).findByMatch(any());
     }
 
     @Test
@@ -69,12 +71,13 @@ public class MatchMessageServiceTest {
         player.setMatchPlayerSlot(2);
 
         MatchMessage message = new MatchMessage();
+        message.setId(1L);
         message.setMatch(match); // Required
         message.setType(MatchMessageType.GAME_STARTED); // Required
         message.setContent("The Game has begun!"); // Required
-        message.setSeenByBitmask(0); // Ensure fresh/unseen
 
-        when(matchMessageRepository.findByMatch(match)).thenReturn(List.of(message));
+        when(matchMessageRepository.findByMatchAndIdGreaterThanOrderByIdAsc(match, 0L))
+                .thenReturn(List.of(message));
 
         // Act
         List<MatchMessageDTO> result = matchMessageService.messages(match, null, player);
@@ -84,6 +87,41 @@ public class MatchMessageServiceTest {
         assertEquals("The Game has begun!", result.get(0).getContent());
     }
 
+    @Test
+    public void testMessages_nothingNew_noWrites() {
+        Match match = new Match();
+        MatchPlayer player = new MatchPlayer();
+        player.setLastDeliveredMessageId(9L);
+
+        when(matchMessageRepository.findByMatchAndIdGreaterThanOrderByIdAsc(match, 9L)).thenReturn(List.of());
+
+        List<MatchMessageDTO> result = matchMessageService.messages(match, null, player);
+
+        assertTrue(result.isEmpty());
+        assertEquals(9L, player.getLastDeliveredMessageId());
+        verify(matchMessageRepository).findByMatchAndIdGreaterThanOrderByIdAsc(match, 9L);
+        verifyNoMoreInteractions(matchMessageRepository);
+    }
+
+    @Test
+    public void testMessages_blankMessage_skippedButPassed() {
+        Match match = new Match();
+        MatchPlayer player = new MatchPlayer();
+
+        MatchMessage blank = new MatchMessage();
+        blank.setId(3L);
+        blank.setMatch(match);
+        blank.setType(MatchMessageType.PLAYER_JOINED);
+        blank.setContent(" ");
+
+        when(matchMessageRepository.findByMatchAndIdGreaterThanOrderByIdAsc(match, 0L)).thenReturn(List.of(blank));
+
+        List<MatchMessageDTO> result = matchMessageService.messages(match, null, player);
+
+        assertTrue(result.isEmpty());
+        assertEquals(3L, player.getLastDeliveredMessageId());
+    }
+
     @Test
     public void testAddMessage_savesCorrectly() {
         Match match = new Match();
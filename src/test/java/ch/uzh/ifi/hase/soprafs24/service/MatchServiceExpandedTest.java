@@ -36,6 +36,8 @@ import static org.mockito.Mockito.*;
 
 public class MatchServiceExpandedTest {
 
+    @Mock
+    private GameMetricsService gameMetricsService;
     @Mock
     private GameRepository gameRepository;
     @Mock
@@ -43,6 +45,8 @@ public class MatchServiceExpandedTest {
     @Mock
     private GameSimulationService gameSimulationService;
     @Mock
+    private LeaderboardService leaderboardService;
+    @Mock
     private GameSetupService gameSetupService;
     @Mock
     private MatchSummaryService matchSummaryService;
@@ -53,6 +57,8 @@ public class MatchServiceExpandedTest {
     @Mock
     private PollingService pollingService;
     @Mock
+    private TableSnapshotService tableSnapshotService;
+    @Mock
     private UserRepository userRepository;
     @Mock
     private MatchSetupService matchSetupService;
@@ -246,6 +252,7 @@ public class MatchServiceExpandedTest {
         matchService.awardScoresToUsersOfFinishedMatch(match);
 
         verify(userRepository).save(user);
+        verify(leaderboardService).update(user);
         assertEquals(1, user.getMatchesPlayed());
         assertEquals(10 + 20, user.getScoreTotal());
         assertEquals(1, user.getCurrentMatchStreak());
@@ -2,7 +2,9 @@ package ch.uzh.ifi.hase.soprafs24.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
@@ -18,6 +20,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,11 +30,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.constant.TrickPhase;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
@@ -42,12 +51,19 @@ import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LobbyMatchDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.MatchDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayedCardDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
 
 public class MatchServiceTest {
 
+    @Mock
+    private CardKnowledgeService cardKnowledgeService = Mockito.mock(CardKnowledgeService.class);
+
+    @Mock
+    private GameMetricsService gameMetricsService = Mockito.mock(GameMetricsService.class);
+
     @Mock
     private GameRepository gameRepository = Mockito.mock(GameRepository.class);
 
@@ -57,6 +73,12 @@ public class MatchServiceTest {
     @Mock
     private GameSimulationService gameSimulationService = Mockito.mock(GameSimulationService.class);
 
+    @Mock
+    private IsmctsService ismctsService = Mockito.mock(IsmctsService.class);
+
+    @Mock
+    private LeaderboardService leaderboardService = Mockito.mock(LeaderboardService.class);
+
     @Mock
     private GameSetupService gameSetupService = Mockito.mock(GameSetupService.class);
 
@@ -69,9 +91,15 @@ public class MatchServiceTest {
     @Mock
     private MatchRepository matchRepository = Mockito.mock(MatchRepository.class);
 
+    @Mock
+    private PollingDeltaService pollingDeltaService = Mockito.mock(PollingDeltaService.class);
+
     @Mock
     private PollingService pollingService = Mockito.mock(PollingService.class);
 
+    @Mock
+    private TableSnapshotService tableSnapshotService = Mockito.mock(TableSnapshotService.class);
+
     @Mock
     private UserRepository userRepository = Mockito.mock(UserRepository.class);
 
@@ -82,19 +110,7 @@ public class MatchServiceTest {
     private UserService userService = Mockito.mock(UserService.class);
 
     @InjectMocks
-    private MatchService matchService = new MatchService(
-            gameRepository,
-            gameService,
-            gameSetupService,
-            gameSimulationService,
-            matchSummaryService,
-            matchPlayerRepository,
-            matchRepository,
-            pollingService,
-            userRepository,
-            userService
-    // alphabetical order
-    );
+    private MatchService matchService = newMatchService(true);
 
     private Match match;
     private Game game;
@@ -103,6 +119,29 @@ public class MatchServiceTest {
     private MatchPlayer matchPlayer;
     private MatchPlayer matchPlayer2;
 
+    private MatchService newMatchService(boolean aiRunAhead) {
+        return new MatchService(
+                aiRunAhead,
+                cardKnowledgeService,
+                gameMetricsService,
+                gameRepository,
+                gameService,
+                gameSetupService,
+                gameSimulationService,
+                ismctsService,
+                leaderboardService,
+                matchSummaryService,
+                matchPlayerRepository,
+                matchRepository,
+                pollingDeltaService,
+                pollingService,
+                tableSnapshotService,
+                userRepository,
+                userService
+        // alphabetical order
+        );
+    }
+
     @BeforeEach
     public void setup() {
         match = new Match();
@@ -156,11 +195,41 @@ public class MatchServiceTest {
         List<Match> matchList = new ArrayList<>();
         matchList.add(match);
 
-        when(matchRepository.findAll()).thenReturn(matchList);
+        when(matchRepository.findAllWithPlayers()).thenReturn(matchList);
 
         List<Match> result = matchService.getMatchesInformation();
 
         assertEquals(matchList, result);
+        verify(matchRepository).findForSetupByMatchIn(matchList);
+        verify(matchRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetLobbyMatches_defaultsToMatchesNotOver() {
+        Page<LobbyMatchDTO> lobby = new PageImpl<>(List.of());
+        PageRequest expectedPage = PageRequest.of(2, MatchService.MAX_LOBBY_PAGE_SIZE,
+                Sort.by(Sort.Direction.DESC, "matchId"));
+        given(matchRepository.findLobbyMatches(
+                EnumSet.of(MatchPhase.SETUP, MatchPhase.READY, MatchPhase.BEFORE_GAMES, MatchPhase.IN_PROGRESS,
+                        MatchPhase.BETWEEN_GAMES),
+                expectedPage)).willReturn(lobby);
+
+        assertEquals(lobby, matchService.getLobbyMatches(null, 2, 1000));
+        verify(matchRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetLobbyMatches_givenPhases() {
+        matchService.getLobbyMatches(List.of(MatchPhase.FINISHED), 0, 10);
+
+        verify(matchRepository).findLobbyMatches(EnumSet.of(MatchPhase.FINISHED),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "matchId")));
+    }
+
+    @Test
+    public void testGetLobbyMatches_invalidPage() {
+        assertThrows(ResponseStatusException.class, () -> matchService.getLobbyMatches(null, -1, 10));
+        assertThrows(ResponseStatusException.class, () -> matchService.getLobbyMatches(null, 0, 0));
     }
 
     @Test
@@ -173,7 +242,7 @@ public class MatchServiceTest {
         when(userService.getUserByToken(dummyToken)).thenReturn(dummyUser);
 
         // Mock match repository to simulate missing match
-        when(matchRepository.findMatchByMatchId(1L)).thenReturn(null);
+        when(matchRepository.findForSetupByMatchId(1L)).thenReturn(null);
 
         assertThrows(
                 ResponseStatusException.class,
@@ -210,7 +279,7 @@ public class MatchServiceTest {
 
         // 4. Mock dependencies
         when(userService.getUserByToken(token)).thenReturn(user);
-        when(matchRepository.findMatchByMatchId(1L)).thenReturn(match);
+        when(matchRepository.findForSetupByMatchId(1L)).thenReturn(match);
 
         // 5. Call service
         MatchDTO result = matchService.getMatchDTO(1L, token);
@@ -288,6 +357,9 @@ public class MatchServiceTest {
         verify(gameService, times(2)).relayMessageToMatchMessageService(Mockito.any(), Mockito.any(), Mockito.any());
         verify(matchPlayerRepository, atLeastOnce()).save(any());
         verify(matchRepository, atLeastOnce()).save(any());
+        // The seat changed hands, so the table snapshot is rebuilt.
+        verify(tableSnapshotService).evict(match.getMatchId());
+        verify(pollingDeltaService).forgetPlayer(match.getMatchId(), user2.getId());
 
     }
 
@@ -332,11 +404,115 @@ public class MatchServiceTest {
 
         verify(matchSummaryService).buildMatchResultHtml(match, game);
         verify(matchRepository, times(2)).save(Mockito.any());
+        verify(cardKnowledgeService).evictGame(game);
     }
 
     @Test
     public void testGetPlayerPolling() {
         matchPlayer.setIsHost(true);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(1);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+
+        given(matchRepository.findForPollingByMatchId(Mockito.anyLong())).willReturn(match);
+        given(userService.getUserByToken("token0")).willReturn(user);
+        given(matchPlayerRepository.save(Mockito.any())).willReturn(matchPlayer);
+        given(pollingService.getPlayerPolling(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .willReturn(new PollingDTO());
+
+        matchService.getPlayerPolling("token0", 1L);
+
+        // Polling only records the pulse; the match clock advances the game.
+        verify(matchPlayerRepository, times(1)).save(any());
+        verify(gameService, never()).advanceTrickPhaseIfOwnerPolling(Mockito.any());
+        verify(gameService, never()).playSingleAiTurn(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        verify(pollingService).getPlayerPolling(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        verify(gameMetricsService).recordPolling(Mockito.eq(GameMetricsService.ROLE_HOST), Mockito.anyLong());
+    }
+
+    @Test
+    public void testGetPlayerPollingSnapshot_recordsNothing() {
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        PollingDTO snapshot = new PollingDTO();
+
+        given(matchRepository.findForPollingByMatchId(1L)).willReturn(match);
+        given(userService.getUserByToken("token0")).willReturn(user);
+        given(pollingService.getPlayerPollingSnapshot(user, match, matchPlayerRepository, 5L)).willReturn(snapshot);
+
+        assertEquals(snapshot, matchService.getPlayerPollingSnapshot("token0", 1L, 5L));
+
+        verify(matchPlayerRepository, never()).save(any());
+        verify(pollingService, never()).getPlayerPolling(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testRecordPulse() {
+        given(userService.getUserIdFromToken("token0")).willReturn(user.getId());
+
+        matchService.recordPulse("token0", 1L);
+
+        verify(matchPlayerRepository).updateLastPollTime(Mockito.eq(1L), Mockito.eq(user.getId()), Mockito.any());
+    }
+
+    @Test
+    public void testGetPlayerPollingDelta_upToDate() {
+        given(userService.getUserIdFromToken("token0")).willReturn(user.getId());
+        given(matchRepository.findStateVersionByMatchId(1L)).willReturn(7L);
+        given(pollingDeltaService.isUpToDate(1L, user.getId(), 7L, 7L)).willReturn(true);
+
+        assertEquals(null, matchService.getPlayerPollingDelta("token0", 1L, 7L));
+
+        verify(matchPlayerRepository).updateLastPollTime(Mockito.eq(1L), Mockito.eq(user.getId()), Mockito.any());
+        verify(matchRepository, never()).findForPollingByMatchId(Mockito.any());
+        verify(pollingService, never()).getPlayerPolling(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testGetPlayerPollingDelta_changed() {
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        match.setStateVersion(8L);
+        PollingDTO polling = new PollingDTO();
+
+        given(userService.getUserIdFromToken("token0")).willReturn(user.getId());
+        given(userRepository.findById(user.getId())).willReturn(Optional.of(user));
+        given(matchRepository.findStateVersionByMatchId(1L)).willReturn(8L);
+        given(pollingDeltaService.isUpToDate(1L, user.getId(), 7L, 8L)).willReturn(false);
+        given(matchRepository.findForPollingByMatchId(1L)).willReturn(match);
+        given(pollingService.getPlayerPolling(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .willReturn(polling);
+
+        matchService.getPlayerPollingDelta("token0", 1L, 7L);
+
+        assertEquals(8L, polling.getStateVersion());
+        verify(pollingDeltaService).diff(1L, user.getId(), 7L, polling);
+    }
+
+    @Test
+    public void testGetPlayerPollingDelta_matchOver_remembersNothing() {
+        match.setPhase(MatchPhase.FINISHED);
+        match.setStateVersion(8L);
+
+        given(userService.getUserIdFromToken("token0")).willReturn(user.getId());
+        given(userRepository.findById(user.getId())).willReturn(Optional.of(user));
+        given(matchRepository.findStateVersionByMatchId(1L)).willReturn(8L);
+        given(matchRepository.findForPollingByMatchId(1L)).willReturn(match);
+        given(pollingService.getPlayerPollingForPostMatchPhase(Mockito.any(), Mockito.any(), Mockito.anyBoolean()))
+                .willReturn(new PollingDTO());
+
+        matchService.getPlayerPollingDelta("token0", 1L, 7L);
+
+        verify(pollingDeltaService).forgetPlayer(1L, user.getId());
+        verify(pollingDeltaService).full(Mockito.any());
+        verify(pollingDeltaService, never()).diff(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        verify(userService, never()).getUserByToken(Mockito.any());
+    }
+
+    @Test
+    public void testAdvanceMatchClock_endsMatch() {
+        matchPlayer.setIsHost(true);
         matchPlayer.setMatchScore(200);
 
         match.setPhase(MatchPhase.IN_PROGRESS);
@@ -345,31 +521,163 @@ public class MatchServiceTest {
         game.setCurrentMatchPlayerSlot(1);
         game.setTrickPhase(TrickPhase.RUNNINGTRICK);
 
-        given(matchRepository.findMatchByMatchId(Mockito.anyLong())).willReturn(match);
-        given(userRepository.findUserByToken("token0")).willReturn(user);
-        given(matchPlayerRepository.findByUserAndMatch(user, match)).willReturn(matchPlayer);
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
         given(matchPlayerRepository.save(Mockito.any())).willReturn(matchPlayer);
         given(gameRepository.save(Mockito.any())).willReturn(game);
 
         doNothing().when(gameService).advanceTrickPhaseIfOwnerPolling(Mockito.any());
         given(matchSummaryService.buildMatchResultHtml(Mockito.any(), Mockito.any())).willReturn("{test_content}");
         given(matchRepository.saveAndFlush(Mockito.any())).willReturn(match);
-        given(gameService.playSingleAiTurn(Mockito.any(), Mockito.any(), Mockito.any())).willReturn(true);
-        given(gameService.finalizeGameIfComplete(Mockito.any())).willReturn(true);
         given(matchRepository.save(Mockito.any())).willReturn(match);
-        given(pollingService.getPlayerPollingForPostMatchPhase(Mockito.any(), Mockito.any(), Mockito.anyBoolean()))
-                .willReturn(new PollingDTO());
 
-        matchService.getPlayerPolling("token0", 1L); // Fix token here
+        long delay = matchService.advanceMatchClock(1L, null);
 
-        verify(matchRepository).findMatchByMatchId(Mockito.anyLong());
-        verify(userRepository).findUserByToken(Mockito.any());
-        verify(matchPlayerRepository, times(5)).save(any());
+        assertEquals(-1, delay);
+        assertEquals(MatchPhase.RESULT, match.getPhase());
+        verify(matchPlayerRepository, times(4)).save(any());
         verify(gameService).advanceTrickPhaseIfOwnerPolling(Mockito.any());
         verify(gameRepository).save(Mockito.any());
         verify(matchSummaryService).buildMatchResultHtml(Mockito.any(), Mockito.any());
         verify(matchRepository).saveAndFlush(Mockito.any());
-        verify(pollingService).getPlayerPollingForPostMatchPhase(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testAdvanceMatchClock_aiTurn() {
+        MatchService matchService = newMatchService(false);
+        matchPlayer.setIsHost(true);
+        matchPlayer2.setIsAiPlayer(true);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(2);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
+        given(gameService.playSingleAiTurn(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).willReturn(true);
+        given(gameService.finalizeGameIfComplete(Mockito.any())).willReturn(false);
+
+        long delay = matchService.advanceMatchClock(1L, null);
+
+        assertEquals(GameConstants.POLLING_INTERVAL_MS, delay);
+        verify(gameService).playSingleAiTurn(match, game, matchPlayer2, null);
+    }
+
+    @Test
+    public void testAdvanceMatchClock_aiRunAhead() {
+        matchPlayer.setIsHost(true);
+        matchPlayer2.setIsAiPlayer(true);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(2);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
+        given(gameService.playAiTurnsAhead(match, game, null)).willReturn(3);
+        given(gameService.finalizeGameIfComplete(Mockito.any())).willReturn(false);
+
+        matchService.advanceMatchClock(1L, null);
+
+        verify(gameService).playAiTurnsAhead(match, game, null);
+        verify(gameService, never()).playSingleAiTurn(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testPrepareAiSearch_ismctsDisabled() {
+        given(ismctsService.isEnabled()).willReturn(false);
+
+        assertNull(matchService.prepareAiSearch(1L));
+        verify(matchRepository, never()).findWithPlayersByMatchId(Mockito.anyLong());
+    }
+
+    @Test
+    public void testPrepareAiSearch_ismctsPlayerUpNext() {
+        matchPlayer2.setIsAiPlayer(true);
+        matchPlayer2.setStrategy(Strategy.ISMCTS);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(2);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+
+        IsmctsService.Turn turn = IsmctsService.Turn.unsearchable(game, matchPlayer2);
+        given(ismctsService.isEnabled()).willReturn(true);
+        given(matchRepository.findWithPlayersByMatchId(1L)).willReturn(match);
+        given(ismctsService.prepare(Mockito.eq(game), Mockito.eq(matchPlayer2), Mockito.any())).willReturn(turn);
+
+        assertEquals(turn, matchService.prepareAiSearch(1L));
+    }
+
+    @Test
+    public void testPrepareAiSearch_otherAiPlayerUpNext() {
+        matchPlayer2.setIsAiPlayer(true);
+        matchPlayer2.setStrategy(Strategy.GARY);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(2);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+
+        given(ismctsService.isEnabled()).willReturn(true);
+        given(matchRepository.findWithPlayersByMatchId(1L)).willReturn(match);
+
+        assertNull(matchService.prepareAiSearch(1L));
+        verify(ismctsService, never()).prepare(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testAdvanceMatchClock_waitsForTrickDelay() {
+        matchPlayer.setIsHost(true);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(1);
+        game.setTrickPhase(TrickPhase.TRICKJUSTCOMPLETED);
+        game.setTrickJustCompletedTime(java.time.Instant.now());
+
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
+
+        matchService.advanceMatchClock(1L, null);
+        long delay = matchService.advanceMatchClock(1L, null);
+
+        assertTrue(delay > 0 && delay <= GameConstants.TRICK_DELAY_MS + 1);
+        verify(gameService, never()).playSingleAiTurn(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testAdvanceMatchClock_recordsTrickTransitionLag() {
+        matchPlayer.setIsHost(true);
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setCurrentMatchPlayerSlot(1);
+        game.setTrickPhase(TrickPhase.TRICKJUSTCOMPLETED);
+        game.setTrickJustCompletedTime(java.time.Instant.now().minusMillis(GameConstants.TRICK_DELAY_MS + 500));
+
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
+        Mockito.doAnswer(invocation -> {
+            game.setTrickPhase(TrickPhase.PROCESSINGTRICK);
+            return null;
+        }).when(gameService).advanceTrickPhaseIfOwnerPolling(game);
+
+        matchService.advanceMatchClock(1L, null);
+
+        verify(gameMetricsService).recordTrickTransitionLag(Mockito.longThat(lag -> lag >= 500));
+    }
+
+    @Test
+    public void testAdvanceMatchClock_matchNotInGame() {
+        match.setPhase(MatchPhase.FINISHED);
+        given(matchRepository.findWithPlayersByMatchId(Mockito.anyLong())).willReturn(match);
+
+        assertEquals(-1, matchService.advanceMatchClock(1L, null));
+        verify(gameService, never()).advanceTrickPhaseIfOwnerPolling(Mockito.any());
     }
 
     @Test
@@ -462,7 +770,7 @@ public class MatchServiceTest {
         when(userService.getUserByToken(token)).thenReturn(user);
 
         // Simulate match not found
-        when(matchRepository.findMatchByMatchId(42L)).thenReturn(null);
+        when(matchRepository.findForSetupByMatchId(42L)).thenReturn(null);
 
         // Assert 404 is thrown
         ResponseStatusException thrown = assertThrows(ResponseStatusException.class,
@@ -521,6 +829,9 @@ public class MatchServiceTest {
         // Assert
         verify(matchRepository).saveAndFlush(match);
         verify(matchRepository).delete(match);
+        verify(pollingDeltaService).forgetMatch(match.getMatchId());
+        verify(tableSnapshotService).evict(match.getMatchId());
+        verify(cardKnowledgeService).evictMatch(match);
     }
 
 }
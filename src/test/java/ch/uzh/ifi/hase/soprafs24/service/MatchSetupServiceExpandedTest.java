@@ -1,6 +1,7 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.constant.Strategy;
 import ch.uzh.ifi.hase.soprafs24.constant.UserStatus;
 import ch.uzh.ifi.hase.soprafs24.entity.Match;
 import ch.uzh.ifi.hase.soprafs24.entity.MatchPlayer;
@@ -34,6 +35,8 @@ public class MatchSetupServiceExpandedTest {
     @Mock
     private GameSetupService gameSetupService;
     @Mock
+    private IsmctsService ismctsService;
+    @Mock
     private MatchPlayerRepository matchPlayerRepository;
     @Mock
     private MatchRepository matchRepository;
@@ -153,13 +156,33 @@ public class MatchSetupServiceExpandedTest {
         eligibleUser.setIsAiPlayer(false);
 
         when(userRepository.findByStatusAndIsAiPlayerFalse(UserStatus.ONLINE)).thenReturn(List.of(eligibleUser));
-        when(matchRepository.findAll()).thenReturn(List.of(match));
 
         var results = matchSetupService.getEligibleUsers(10L, "token");
         assertEquals(1, results.size());
         assertEquals(99L, results.get(0).getId());
     }
 
+    @Test
+    void testGetEligibleUsers_excludesUsersInOpenMatches() {
+        match.setPlayer1(host);
+        when(userRepository.findUserByToken("token")).thenReturn(host);
+        when(matchRepository.findById(10L)).thenReturn(Optional.of(match));
+
+        User freeUser = new User();
+        freeUser.setId(98L);
+        User busyUser = new User();
+        busyUser.setId(99L);
+
+        when(userRepository.findByStatusAndIsAiPlayerFalse(UserStatus.ONLINE))
+                .thenReturn(List.of(host, freeUser, busyUser));
+        when(matchRepository.findUserIdsInOpenMatches(List.of(98L, 99L))).thenReturn(List.of(99L));
+
+        var results = matchSetupService.getEligibleUsers(10L, "token");
+        assertEquals(1, results.size());
+        assertEquals(98L, results.get(0).getId());
+        verify(matchRepository, never()).findAll();
+    }
+
     @Test
     void testAddAiPlayerSuccess() {
         AIPlayerDTO dto = new AIPlayerDTO();
@@ -172,10 +195,12 @@ public class MatchSetupServiceExpandedTest {
 
         when(matchRepository.findById(10L)).thenReturn(Optional.of(match));
         when(userRepository.findUserById(1L)).thenReturn(aiUser);
+        when(ismctsService.strategyForAiUserId(1L)).thenReturn(Strategy.LEFTMOST);
 
         matchSetupService.addAiPlayer(10L, dto);
 
         assertEquals(aiUser, match.getPlayer2());
+        assertEquals(Strategy.LEFTMOST, match.requireMatchPlayerBySlot(2).getStrategy());
         verify(matchRepository).save(match);
     }
 
@@ -47,6 +47,9 @@ public class MatchSetupServiceTest {
     @Mock
     private GameSetupService gameSetupService;
 
+    @Mock
+    private IsmctsService ismctsService;
+
     @Mock
     private MatchPlayerRepository matchPlayerRepository;
 
@@ -104,6 +107,16 @@ public class MatchSetupServiceTest {
         match.setMatchPlayers(matchPlayers);
     }
 
+    @Test
+    public void testCreateMatch_userInOpenMatch_throws() {
+        when(userService.getUserByToken("1234")).thenReturn(user);
+        when(matchRepository.existsUserInOpenMatch(user.getId())).thenReturn(true);
+
+        assertThrows(ResponseStatusException.class, () -> matchSetupService.createNewMatch("1234"));
+        verify(matchRepository, never()).findAll();
+        verify(matchRepository, never()).saveAndFlush(Mockito.any());
+    }
+
     @Test
     public void testCreateMatch() {
         // Arrange
@@ -0,0 +1,112 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDeltaDTO;
+
+public class PollingDeltaServiceTest {
+
+    private final PollingDeltaService pollingDeltaService = new PollingDeltaService(10000, new ObjectMapper());
+
+    private PollingDTO polling(long stateVersion, int matchGoal) {
+        PollingDTO dto = new PollingDTO();
+        dto.setMatchId(1L);
+        dto.setMatchPhase(MatchPhase.IN_PROGRESS);
+        dto.setMatchGoal(matchGoal);
+        dto.setStateVersion(stateVersion);
+        return dto;
+    }
+
+    @Test
+    public void testDiff_unknownClient_getsFullState() {
+        PollingDeltaDTO delta = pollingDeltaService.diff(1L, 11L, null, polling(3, 100));
+
+        assertTrue(delta.isFull());
+        assertEquals(3, delta.getStateVersion());
+        assertTrue(delta.getChanges().containsKey("matchPhase"));
+        assertTrue(delta.getChanges().containsKey("matchGoal"));
+    }
+
+    @Test
+    public void testDiff_knownClient_getsChangedFieldsOnly() {
+        pollingDeltaService.diff(1L, 11L, null, polling(3, 100));
+
+        PollingDeltaDTO delta = pollingDeltaService.diff(1L, 11L, 3L, polling(4, 50));
+
+        assertFalse(delta.isFull());
+        assertEquals(4, delta.getStateVersion());
+        assertEquals(50, delta.getChanges().get("matchGoal").asInt());
+        assertEquals(4, delta.getChanges().get("stateVersion").asLong());
+        assertFalse(delta.getChanges().containsKey("matchPhase"));
+        assertFalse(delta.getChanges().containsKey("matchId"));
+    }
+
+    @Test
+    public void testDiff_staleVersion_getsFullState() {
+        pollingDeltaService.diff(1L, 11L, null, polling(3, 100));
+
+        PollingDeltaDTO delta = pollingDeltaService.diff(1L, 11L, 1L, polling(4, 100));
+
+        assertTrue(delta.isFull());
+        assertTrue(delta.getChanges().containsKey("matchPhase"));
+    }
+
+    @Test
+    public void testIsUpToDate() {
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, 3L, 3));
+
+        pollingDeltaService.diff(1L, 11L, null, polling(3, 100));
+
+        assertTrue(pollingDeltaService.isUpToDate(1L, 11L, 3L, 3));
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, 3L, 4));
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, null, 3));
+        assertFalse(pollingDeltaService.isUpToDate(1L, 12L, 3L, 3));
+
+        pollingDeltaService.forgetMatch(1L);
+
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, 3L, 3));
+    }
+
+    @Test
+    public void testForgetPlayer() {
+        pollingDeltaService.diff(1L, 11L, null, polling(3, 100));
+        pollingDeltaService.diff(1L, 12L, null, polling(3, 100));
+
+        pollingDeltaService.forgetPlayer(1L, 11L);
+
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, 3L, 3));
+        assertTrue(pollingDeltaService.isUpToDate(1L, 12L, 3L, 3));
+    }
+
+    @Test
+    public void testDiff_keepsAtMostMaxEntries() {
+        PollingDeltaService bounded = new PollingDeltaService(2, new ObjectMapper());
+        for (long userId = 11; userId <= 15; userId++) {
+            bounded.diff(1L, userId, null, polling(3, 100));
+        }
+
+        int remembered = 0;
+        for (long userId = 11; userId <= 15; userId++) {
+            remembered += bounded.isUpToDate(1L, userId, 3L, 3) ? 1 : 0;
+        }
+        assertEquals(2, remembered);
+        assertTrue(bounded.isUpToDate(1L, 15L, 3L, 3));
+    }
+
+    @Test
+    public void testFull_remembersNothing() {
+        PollingDeltaDTO delta = pollingDeltaService.full(polling(3, 100));
+
+        assertTrue(delta.isFull());
+        assertTrue(delta.getChanges().containsKey("matchGoal"));
+        assertFalse(pollingDeltaService.isUpToDate(1L, 11L, 3L, 3));
+    }
+}
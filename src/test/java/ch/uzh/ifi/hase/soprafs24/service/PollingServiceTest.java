@@ -5,16 +5,21 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import ch.uzh.ifi.hase.soprafs24.constant.GamePhase;
 import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
@@ -27,6 +32,8 @@ import ch.uzh.ifi.hase.soprafs24.entity.User;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs24.repository.MatchPlayerRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.PollingDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StageTimingDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class PollingServiceTest {
 
@@ -45,6 +52,12 @@ public class PollingServiceTest {
     @Mock
     private MatchPlayerRepository matchPlayerRepository;
 
+    @Spy
+    private StageTimingService stageTimingService = new StageTimingService(true, new SimpleMeterRegistry(), 60);
+
+    @Spy
+    private TableSnapshotService tableSnapshotService = new TableSnapshotService();
+
     @InjectMocks
     private PollingService pollingService;
 
@@ -105,6 +118,57 @@ public class PollingServiceTest {
         assertTrue(dto.getPlayerCardsAsString().contains("AS"));
         assertTrue(dto.getPlayableCardsAsString().contains("AS"));
         assertEquals(0, dto.getPlayerSlot());
+
+        // Every stage was timed once, outside of any HTTP request.
+        Map<String, StageTimingDTO> stages = stageTimingService.snapshot().get("none");
+        assertEquals(Set.of("game", "player", "table", "handCounts", "hand", "playableCards", "tricks",
+                "messages", "passing", StageTimingService.TOTAL), stages.keySet());
+        assertEquals(1, stages.get(StageTimingService.TOTAL).getCount());
+    }
+
+    @Test
+    public void testGetPlayerPollingSnapshot_leavesThePlayerAlone() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("Player1");
+
+        Match match = new Match();
+        match.setMatchId(100L);
+        match.setMatchGoal(100);
+        match.setHostId(1L);
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        match.setPlayer1(user);
+        match.setMatchSummary(new MatchSummary());
+
+        Instant lastPollTime = Instant.now().minusSeconds(60);
+        MatchPlayer matchPlayer = new MatchPlayer();
+        matchPlayer.setUser(user);
+        matchPlayer.setMatchPlayerSlot(1);
+        matchPlayer.setHand("AS,KH");
+        matchPlayer.setLastPollTime(lastPollTime);
+        matchPlayer.setLastDeliveredMessageId(3L);
+
+        match.setMatchPlayers(List.of(matchPlayer));
+
+        Game game = new Game();
+        game.setGameId(200L);
+        game.setGameNumber(1);
+        game.setPhase(GamePhase.NORMALTRICK);
+        game.setTrickPhase(TrickPhase.RUNNINGTRICK);
+        game.setCurrentMatchPlayerSlot(1);
+        match.setGames(List.of(game));
+
+        when(matchPlayerRepository.findByUserAndMatch(user, match)).thenReturn(matchPlayer);
+        when(cardRulesService.getPlayableCardsForMatchPlayerPolling(any(), any())).thenReturn("AS");
+        when(matchMessageService.messagesAfter(match, 8L)).thenReturn(List.of());
+
+        pollingService.getPlayerPollingSnapshot(user, match, matchPlayerRepository, 8L);
+
+        // Neither the pulse, the poll counter nor the message cursor moved.
+        assertEquals(lastPollTime, matchPlayer.getLastPollTime());
+        assertEquals(0, matchPlayer.getPollCounter());
+        assertEquals(3L, matchPlayer.getLastDeliveredMessageId());
+        verify(matchMessageService, never()).messages(any(), any(), any());
     }
 
     @Test
@@ -0,0 +1,163 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import ch.uzh.ifi.hase.soprafs24.configuration.WebClientConfig;
+import ch.uzh.ifi.hase.soprafs24.constant.GameConstants;
+import ch.uzh.ifi.hase.soprafs24.model.ShuffledDeck;
+import ch.uzh.ifi.hase.soprafs24.util.CardUtils;
+import ch.uzh.ifi.hase.soprafs24.util.CircuitBreaker;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the deck API client against a stub of the deck of cards API on
+ * localhost, which can be made slow or failing.
+ */
+class ResilientDeckProviderTest {
+
+    private static final int READ_TIMEOUT_MS = 300;
+
+    private HttpServer stubServer;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile long delayMs = 0;
+
+    private ExternalApiClientService externalApiClientService;
+
+    @BeforeEach
+    void setup() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.setExecutor(Executors.newCachedThreadPool());
+        stubServer.createContext("/", this::handle);
+        stubServer.start();
+
+        WebClient webClient = new WebClientConfig().externalApiClient(WebClient.builder(),
+                "http://127.0.0.1:" + stubServer.getAddress().getPort(), 500, READ_TIMEOUT_MS, 5);
+        externalApiClientService = new ExternalApiClientService(webClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int status = 200;
+        String body;
+        String path = exchange.getRequestURI().getPath();
+        if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            status = 500;
+            body = "{}";
+        } else if (path.startsWith("/new/shuffle")) {
+            body = "{\"success\":true,\"deck_id\":\"stub1\",\"shuffled\":true,\"remaining\":52}";
+        } else {
+            String cards = ExternalApiClientService.generateDeterministicDeck(GameConstants.FULL_DECK_CARD_COUNT, 1L)
+                    .stream()
+                    .map(card -> "{\"code\":\"" + card.getCode() + "\"}")
+                    .collect(Collectors.joining(","));
+            body = "{\"success\":true,\"deck_id\":\"stub1\",\"remaining\":0,\"cards\":[" + cards + "]}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            // The client gave up waiting.
+        }
+    }
+
+    private ResilientDeckProvider provider(int maxRetries, CircuitBreaker circuitBreaker) {
+        return new ResilientDeckProvider(
+                new ExternalApiDeckProvider(externalApiClientService),
+                new LocalDeckProvider(new Random(1)),
+                circuitBreaker,
+                Duration.ofMillis(2 * READ_TIMEOUT_MS),
+                maxRetries,
+                Duration.ofMillis(10));
+    }
+
+    @Test
+    void healthyApi_dealsDeckFromApi() {
+        ResilientDeckProvider provider = provider(2, new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        ShuffledDeck deck = provider.shuffleDeck().block(Duration.ofSeconds(5));
+
+        assertEquals("stub1", deck.getDeckId());
+        assertTrue(CardUtils.validateDrawnCards(deck.getCards()));
+        assertEquals(2, requests.get());
+        assertEquals(0, provider.getFallbackCount());
+        assertEquals(0.0, provider.getFallbackRate());
+        assertTrue(provider.getAveragePrimaryLatencyMillis() > 0);
+    }
+
+    @Test
+    void transientError_isRetried() {
+        failuresLeft.set(1);
+        ResilientDeckProvider provider = provider(2, new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        ShuffledDeck deck = provider.shuffleDeck().block(Duration.ofSeconds(5));
+
+        assertEquals("stub1", deck.getDeckId());
+        assertEquals(3, requests.get());
+        assertEquals(0, provider.getPrimaryFailureCount());
+        assertEquals(CircuitBreaker.State.CLOSED, provider.getCircuitState());
+    }
+
+    @Test
+    void slowApi_timesOutAndFallsBackToLocalDeck() {
+        delayMs = 3L * READ_TIMEOUT_MS;
+        ResilientDeckProvider provider = provider(1, new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        ShuffledDeck deck = provider.shuffleDeck().block(Duration.ofSeconds(5));
+
+        assertTrue(deck.getDeckId().startsWith(GameConstants.SEED_PREFIX));
+        assertTrue(CardUtils.validateDrawnCards(deck.getCards()));
+        assertEquals(1, provider.getPrimaryFailureCount());
+        assertEquals(1.0, provider.getFallbackRate());
+        assertTrue(provider.getMaxPrimaryLatencyMillis() >= READ_TIMEOUT_MS);
+    }
+
+    @Test
+    void failingApi_opensCircuit_andIsNotCalledWhileOpen() {
+        failuresLeft.set(Integer.MAX_VALUE);
+        ResilientDeckProvider provider = provider(0, new CircuitBreaker(2, Duration.ofMinutes(1)));
+
+        provider.shuffleDeck().block(Duration.ofSeconds(5));
+        provider.shuffleDeck().block(Duration.ofSeconds(5));
+        assertEquals(CircuitBreaker.State.OPEN, provider.getCircuitState());
+        int requestsWhenOpened = requests.get();
+
+        ShuffledDeck deck = provider.shuffleDeck().block(Duration.ofSeconds(5));
+
+        assertTrue(deck.getDeckId().startsWith(GameConstants.SEED_PREFIX));
+        assertEquals(requestsWhenOpened, requests.get());
+        assertEquals(3, provider.getCallCount());
+        assertEquals(2, provider.getPrimaryCallCount());
+        assertEquals(3, provider.getFallbackCount());
+    }
+}
@@ -0,0 +1,43 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StageTimingDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void disabled_recordsNothing() {
+        StageTimingService stageTimingService = new StageTimingService(false, registry, 60);
+
+        StageTimingService.Span span = stageTimingService.start();
+        span.stage("game");
+        span.end();
+
+        assertTrue(registry.find(StageTimingService.METRIC).timers().isEmpty());
+        assertTrue(stageTimingService.snapshot().isEmpty());
+    }
+
+    @Test
+    void snapshot_reportsPercentilesPerEndpointAndStage() {
+        StageTimingService stageTimingService = new StageTimingService(true, registry, 60);
+        for (int i = 1; i <= 100; i++) {
+            stageTimingService.start().stage("messages");
+        }
+        registry.find(StageTimingService.METRIC).tag("stage", "messages").timer()
+                .record(50, TimeUnit.MILLISECONDS);
+
+        StageTimingDTO messages = stageTimingService.snapshot().get(StageTimingService.NO_ENDPOINT).get("messages");
+
+        assertEquals(101, messages.getCount());
+        assertTrue(messages.getP50Millis() < 50);
+        assertEquals(50.0, messages.getMaxMillis(), 1e-9);
+    }
+}
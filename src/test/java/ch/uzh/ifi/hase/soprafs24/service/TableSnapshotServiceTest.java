@@ -0,0 +1,87 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs24.constant.MatchPhase;
+import ch.uzh.ifi.hase.soprafs24.entity.Match;
+import ch.uzh.ifi.hase.soprafs24.entity.User;
+import ch.uzh.ifi.hase.soprafs24.model.TableSnapshot;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableSnapshotServiceTest {
+
+    private final TableSnapshotService tableSnapshotService = new TableSnapshotService();
+
+    private Match match;
+
+    private static User user(long id, String username, Integer avatar) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setAvatar(avatar);
+        return user;
+    }
+
+    @BeforeEach
+    void setup() {
+        match = new Match();
+        match.setMatchId(1L);
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        match.setPlayer1(user(11L, "alice", 3));
+        match.setPlayer2(user(12L, "bob", null));
+        match.setPlayer3(user(1L, "ai-1", 7));
+        match.getAiPlayers().put(3, 1);
+    }
+
+    @Test
+    void snapshot_inSlotOrder() {
+        TableSnapshot table = tableSnapshotService.getSnapshot(match);
+
+        assertEquals(Arrays.asList("alice", "bob", "ai-1", null), table.getUsernames());
+        assertEquals(Arrays.asList("/avatars_118x118/a3.png", "/avatars_118x118/a0.png",
+                "/avatars_118x118/a7.png", "/avatars_118x118/a0.png"), table.getAvatarUrls());
+        assertEquals(Map.of(3, 1), table.getAiPlayers());
+        assertThrows(UnsupportedOperationException.class, () -> table.getUsernames().set(0, "mallory"));
+    }
+
+    @Test
+    void snapshot_sharedUntilSeatChangesHands() {
+        TableSnapshot first = tableSnapshotService.getSnapshot(match);
+        assertSame(first, tableSnapshotService.getSnapshot(match));
+
+        match.setPlayer2(user(2L, "ai-2", 8));
+
+        TableSnapshot second = tableSnapshotService.getSnapshot(match);
+        assertNotSame(first, second);
+        assertEquals("ai-2", second.getUsernames().get(1));
+    }
+
+    @Test
+    void evict_rebuildsSnapshot() {
+        TableSnapshot first = tableSnapshotService.getSnapshot(match);
+        match.getPlayer1().setAvatar(5);
+
+        tableSnapshotService.evict(match.getMatchId());
+
+        assertNotSame(first, tableSnapshotService.getSnapshot(match));
+        assertEquals("/avatars_118x118/a5.png", tableSnapshotService.getSnapshot(match).getAvatarUrls().get(0));
+    }
+
+    @Test
+    void snapshot_notKeptOnceMatchIsOver() {
+        TableSnapshot inGame = tableSnapshotService.getSnapshot(match);
+
+        match.setPhase(MatchPhase.RESULT);
+        TableSnapshot result = tableSnapshotService.getSnapshot(match);
+        assertNotSame(inGame, result);
+        assertNotSame(result, tableSnapshotService.getSnapshot(match));
+
+        match.setPhase(MatchPhase.IN_PROGRESS);
+        assertNotSame(inGame, tableSnapshotService.getSnapshot(match));
+    }
+}
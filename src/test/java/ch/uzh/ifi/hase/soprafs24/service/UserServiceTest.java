@@ -18,6 +18,8 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Map;
@@ -37,6 +39,9 @@ class UserServiceTest {
   @Mock
   private JdbcTemplate jdbcTemplate;
 
+  @Mock
+  private LeaderboardService leaderboardService;
+
   private UserService userService;
 
   private User testUser;
@@ -45,7 +50,7 @@ class UserServiceTest {
   void setup() {
     MockitoAnnotations.openMocks(this);
 
-    userService = new UserService(userRepository);
+    userService = new UserService(userRepository, leaderboardService);
 
     // Manually inject the matchRepository mock using reflection
     try {
@@ -126,6 +131,7 @@ class UserServiceTest {
     assertEquals("updatedUsername", testUser.getUsername());
     assertEquals("updatedPassword", testUser.getPassword());
     assertEquals(2, testUser.getAvatar());
+    Mockito.verify(leaderboardService).update(testUser);
   }
 
   @Test
@@ -300,26 +306,167 @@ class UserServiceTest {
 
   @Test
   void getPendingInvites_userHasInvites_returnsList() {
-    Match match = new Match();
-    match.setMatchId(1L);
-    match.setHostId(10L);
-
-    Map<Integer, Long> invites = Map.of(0, 1L); // Assume user ID is 1L
-    match.setInvites(invites);
-
-    User hostUser = new User();
-    hostUser.setId(10L);
-    hostUser.setUsername("hostUser");
+    MatchRepository.PendingInvite invite = Mockito.mock(MatchRepository.PendingInvite.class);
+    Mockito.when(invite.getMatchId()).thenReturn(1L);
+    Mockito.when(invite.getMatchPlayerSlot()).thenReturn(2);
+    Mockito.when(invite.getHostId()).thenReturn(10L);
+    Mockito.when(invite.getHostUsername()).thenReturn("hostUser");
 
     Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
-    Mockito.when(matchRepository.findAll()).thenReturn(List.of(match));
-    Mockito.when(userRepository.findById(10L)).thenReturn(Optional.of(hostUser));
+    Mockito.when(matchRepository.findPendingInvitesByUserId(1L)).thenReturn(List.of(invite));
 
     List<InviteGetDTO> result = userService.getPendingInvites("Bearer testToken");
 
     assertEquals(1, result.size());
     assertEquals(1L, result.get(0).getMatchId());
+    assertEquals(2, result.get(0).getMatchPlayerSlot());
+    assertEquals(1L, result.get(0).getUserId());
     assertEquals("hostUser", result.get(0).getFromUsername());
+    Mockito.verify(matchRepository, Mockito.never()).findAll();
+    Mockito.verify(userRepository, Mockito.never()).findById(anyLong());
+  }
+
+  @Test
+  void getPendingInvites_invalidToken_throwsUnauthorized() {
+    ResponseStatusException thrown = assertThrows(ResponseStatusException.class,
+        () -> userService.getPendingInvites("Bearer invalidToken"));
+
+    assertEquals(HttpStatus.UNAUTHORIZED, thrown.getStatus());
+  }
+
+  private void setTokenCacheField(String name, Object value) {
+    try {
+      java.lang.reflect.Field field = UserService.class.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(userService, value);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  void getUserIdFromToken_repeated_queriesOnce() {
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+
+    assertEquals(1L, userService.getUserIdFromToken("testToken"));
+    assertEquals(1L, userService.getUserIdFromToken("testToken"));
+    assertEquals(1L, userService.getUserIdFromTokenOrNull("testToken"));
+
+    Mockito.verify(userRepository, Mockito.times(1)).findUserByToken("testToken");
+    assertEquals(2, userService.getTokenCacheHits());
+    assertEquals(1, userService.getTokenCacheMisses());
+  }
+
+  @Test
+  void getUserIdFromToken_invalidToken_notCached() {
+    assertNull(userService.getUserIdFromTokenOrNull("invalidToken"));
+    assertNull(userService.getUserIdFromTokenOrNull("invalidToken"));
+
+    Mockito.verify(userRepository, Mockito.times(2)).findUserByToken("invalidToken");
+    assertEquals(0, userService.getTokenCacheSize());
+  }
+
+  @Test
+  void requireUserByToken_cached_loadsByIdAndChecksToken() {
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+    Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+    userService.getUserIdFromToken("testToken");
+
+    assertEquals(testUser, userService.requireUserByToken("testToken"));
+    Mockito.verify(userRepository, Mockito.times(1)).findUserByToken("testToken");
+
+    // The token was replaced behind the cache's back: fall back to the query.
+    testUser.setToken("otherToken");
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(null);
+    assertThrows(ResponseStatusException.class, () -> userService.requireUserByToken("testToken"));
+    assertEquals(0, userService.getTokenCacheSize());
+  }
+
+  @Test
+  void logoutUserByToken_evictsToken() {
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+    userService.getUserIdFromToken("testToken");
+
+    userService.logoutUserByToken("testToken");
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(null);
+
+    assertThrows(ResponseStatusException.class, () -> userService.getUserIdFromToken("testToken"));
+  }
+
+  @Test
+  void logoutUserByToken_lookupBeforeCommit_evictedAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+      userService.logoutUserByToken("testToken");
+
+      // A concurrent request still reads the token, the logout is not committed yet.
+      testUser.setToken("testToken");
+      assertEquals(1L, userService.getUserIdFromTokenOrNull("testToken"));
+
+      for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+        synchronization.afterCommit();
+      }
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(null);
+
+    assertEquals(0, userService.getTokenCacheSize());
+    assertNull(userService.getUserIdFromTokenOrNull("testToken"));
+  }
+
+  @Test
+  void logoutUser_evictsToken() {
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+    Mockito.when(userRepository.findUserById(1L)).thenReturn(testUser);
+    userService.getUserIdFromToken("testToken");
+
+    userService.logoutUser(1L, "testToken");
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(null);
+
+    assertNull(userService.getUserIdFromTokenOrNull("testToken"));
+  }
+
+  @Test
+  void authenticateUserAtLogin_evictsPreviousToken() {
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+    Mockito.when(userRepository.findUserByUsername("testUsername")).thenReturn(testUser);
+    userService.getUserIdFromToken("testToken");
+
+    User result = userService.authenticateUserAtLogin("testUsername", "testPassword");
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(null);
+
+    assertNotEquals("testToken", result.getToken());
+    assertNull(userService.getUserIdFromTokenOrNull("testToken"));
+  }
+
+  @Test
+  void tokenCache_full_staysWithinMaxSize() {
+    setTokenCacheField("tokenCacheMaxSize", 2);
+    for (long id = 1; id <= 3; id++) {
+      User user = new User();
+      user.setId(id);
+      user.setToken("token" + id);
+      Mockito.when(userRepository.findUserByToken("token" + id)).thenReturn(user);
+      assertEquals(id, userService.getUserIdFromToken("token" + id));
+    }
+
+    assertEquals(2, userService.getTokenCacheSize());
+    assertEquals(3L, userService.getUserIdFromToken("token3"));
+    Mockito.verify(userRepository, Mockito.times(1)).findUserByToken("token3");
+  }
+
+  @Test
+  void tokenCache_zeroTtl_disablesCaching() {
+    setTokenCacheField("tokenCacheTtlSeconds", 0L);
+    Mockito.when(userRepository.findUserByToken("testToken")).thenReturn(testUser);
+
+    userService.getUserIdFromToken("testToken");
+    userService.getUserIdFromToken("testToken");
+
+    Mockito.verify(userRepository, Mockito.times(2)).findUserByToken("testToken");
+    assertEquals(0, userService.getTokenCacheHits());
   }
 
 }
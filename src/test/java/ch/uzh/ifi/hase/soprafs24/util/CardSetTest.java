@@ -0,0 +1,69 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import ch.uzh.ifi.hase.soprafs24.exceptions.GameplayException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardSetTest {
+
+    @Test
+    void bitOrder_matchesCardOrder() {
+        List<String> deck = CardUtils.getFullDeckList();
+        deck.sort(CardUtils::compareCards);
+        for (int i = 0; i < deck.size(); i++) {
+            assertEquals(i, CardSet.index(deck.get(i)));
+            assertEquals(deck.get(i), CardSet.cardCode(i));
+        }
+        assertEquals(CardSet.FULL_DECK, CardSet.fromCardCodeString(String.join(",", deck)));
+    }
+
+    @Test
+    void bit_invalidCode_isEmpty() {
+        assertEquals(CardSet.EMPTY, CardSet.bit("1X"));
+        assertEquals(CardSet.EMPTY, CardSet.bit("10H"));
+        assertEquals(CardSet.EMPTY, CardSet.bit(null));
+    }
+
+    @Test
+    void parseCanonical_rejectsNonCanonicalInput() {
+        assertEquals(CardSet.EMPTY, CardSet.parseCanonical(""));
+        assertNotEquals(CardSet.INVALID, CardSet.parseCanonical("KH,2C,QS"));
+        assertEquals(CardSet.INVALID, CardSet.parseCanonical("KH, 2C"));
+        assertEquals(CardSet.INVALID, CardSet.parseCanonical("KH,KH"));
+        assertEquals(CardSet.INVALID, CardSet.parseCanonical("KH,,2C"));
+        assertEquals(CardSet.INVALID, CardSet.parseCanonical("KH,2C,"));
+        assertEquals(CardSet.INVALID, CardSet.parseCanonical("ZZ"));
+    }
+
+    @Test
+    void fromCardCodeString_matchesNormalizeCardCodeString() {
+        String hand = "QS, KH,AH,3D,2C,KH";
+        long cards = CardSet.fromCardCodeString(hand);
+
+        assertEquals(5, CardSet.size(cards));
+        assertEquals(CardUtils.normalizeCardCodeString(hand), CardSet.toCardCodeString(cards));
+        assertEquals("2C,3D,QS,KH,AH", CardSet.toCardCodeString(cards));
+    }
+
+    @Test
+    void fromCardCodeString_invalidCode_throws() {
+        assertThrows(GameplayException.class, () -> CardSet.fromCardCodeString("QS,ZZ"));
+    }
+
+    @Test
+    void suitOperations() {
+        long cards = CardSet.fromCardCodeString("2C,3D,QS,KH,AH");
+
+        assertEquals("KH,AH", CardSet.toCardCodeString(CardSet.inSuit(cards, 'H')));
+        assertEquals("2C,3D,QS", CardSet.toCardCodeString(CardSet.notInSuit(cards, 'H')));
+        assertEquals(CardSet.EMPTY, CardSet.inSuit(cards, 'X'));
+        assertEquals("3D,QS,KH,AH", CardSet.toCardCodeString(CardSet.remove(cards, "2C")));
+        assertTrue(CardSet.contains(cards, "QS"));
+        assertFalse(CardSet.contains(CardSet.add(CardSet.EMPTY, "QD"), "QS"));
+        assertEquals(CardSet.index("2C"), CardSet.lowestIndex(cards));
+        assertEquals(CardSet.index("AH"), CardSet.highestIndex(cards));
+    }
+}
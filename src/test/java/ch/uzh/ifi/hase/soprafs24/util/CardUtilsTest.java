@@ -233,4 +233,19 @@ public class CardUtilsTest {
         assertEquals("2C", result);
     }
 
+    @Test
+    void cardSetOverloads_matchStringHelpers() {
+        long hand = CardSet.fromCardCodeString("2C,QS,KH");
+
+        assertTrue(CardUtils.isCardCodeInHand(hand, "QS"));
+        assertFalse(CardUtils.isCardCodeInHand(hand, "QD"));
+        assertFalse(CardUtils.isCardCodeInHand(hand, "XX"));
+        assertEquals(CardUtils.getHandWithCardCodeRemoved("2C,QS,KH", "QS"),
+                CardSet.toCardCodeString(CardUtils.getHandWithCardCodeRemoved(hand, "QS")));
+        assertEquals(CardUtils.getHandWithCardCodesAdded("2C,QS,KH", List.of("AH", " 3D")),
+                CardSet.toCardCodeString(CardUtils.getHandWithCardCodesAdded(hand, List.of("AH", " 3D"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> CardUtils.getHandWithCardCodesAdded(hand, List.of("1X")));
+    }
+
 }
@@ -0,0 +1,56 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(10), now::get);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void halfOpenAllowsOneTrial_thenClosesOrReopens() {
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+}
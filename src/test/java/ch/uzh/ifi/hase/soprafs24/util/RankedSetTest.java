@@ -0,0 +1,67 @@
+package ch.uzh.ifi.hase.soprafs24.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedSetTest {
+
+    @Test
+    void addRemove_keepsOrderAndRanks() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+
+        assertTrue(set.add(30));
+        assertTrue(set.add(10));
+        assertTrue(set.add(20));
+        assertFalse(set.add(20));
+
+        assertEquals(3, set.size());
+        assertEquals(10, set.get(0));
+        assertEquals(30, set.get(2));
+        assertEquals(1, set.rankOf(20));
+        assertEquals(-1, set.rankOf(25));
+
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(10));
+        assertEquals(0, set.rankOf(20));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void get_outOfBounds_throws() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        set.add(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(-1));
+    }
+
+    @Test
+    void randomOperations_matchSortedList() {
+        Random random = new Random(7);
+        RankedSet<Integer> set = new RankedSet<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), set.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), set.get(i));
+            assertEquals(i, set.rankOf(sorted.get(i)));
+        }
+    }
+}